@@ -0,0 +1,107 @@
+package us.nullbytes.rcscript.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import us.nullbytes.rcscript.DefaultScriptManager;
+import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptBuilder.ReplicaMode;
+import us.nullbytes.rcscript.ScriptManager.ExecutionMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link Script#executeAsync(String, Object...)} against the amount of
+ * threads running the calls.
+ *
+ * @author Corey Shupe
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AsyncBenchmark {
+
+	/**
+	 * The amount of calls submitted before waiting for them.
+	 */
+	private final static int BATCH = 64;
+
+	/**
+	 * The amount of threads, and of engine replicas, running the calls.
+	 */
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+
+	/**
+	 * The {@link ExecutionMode} of the manager.
+	 */
+	@Param({"POOLED", "VIRTUAL"})
+	public ExecutionMode mode;
+
+	/**
+	 * The {@link DefaultScriptManager} running the calls.
+	 */
+	private DefaultScriptManager manager;
+
+	/**
+	 * The pool of {@link #threads} threads, or null under {@link ExecutionMode#VIRTUAL}.
+	 */
+	private ExecutorService executor;
+
+	/**
+	 * The called {@link Script}.
+	 */
+	private Script script;
+
+	/**
+	 * Builds the {@link #script} and its executor.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		manager = StandInScripts.manager();
+		manager.setExecutionMode(mode);
+		if (mode == ExecutionMode.POOLED) {
+			executor = Executors.newFixedThreadPool(threads);
+			manager.setExecutor(executor);
+		}
+		script = manager.openScript(StandInScripts.SMALL).setReplicas(threads, ReplicaMode.STRIPED).build();
+		script.setConcurrencyLimit(threads);
+	}
+
+	/**
+	 * Releases the {@link #script} and stops its executor.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		script.release();
+		manager.setExecutor(null);
+		if (executor != null) executor.shutdownNow();
+	}
+
+	/**
+	 * Submits a batch of calls and waits for all of them.
+	 *
+	 * @return The sum of the results.
+	 *
+	 * @throws InterruptedException
+	 * 		When interrupted while waiting.
+	 * @throws ExecutionException
+	 * 		When a call fails.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int executeAsync() throws InterruptedException, ExecutionException {
+		List<Future<Object>> futures = new ArrayList<>(BATCH);
+		for (int i = 0; i < BATCH; i++) futures.add(script.executeAsync("add", i, 1));
+		int sum = 0;
+		for (Future<Object> future : futures) sum += (Integer) future.get();
+		return sum;
+	}
+}
@@ -0,0 +1,65 @@
+package us.nullbytes.rcscript.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import us.nullbytes.rcscript.DefaultScriptManager;
+import us.nullbytes.rcscript.Script;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a {@link Script}, with and without the compiled script cache.
+ *
+ * @author Corey Shupe
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompileBenchmark {
+
+	/**
+	 * Whether or not compiled scripts are reused.
+	 */
+	@Param({"true", "false"})
+	public boolean cached;
+
+	/**
+	 * The {@link DefaultScriptManager} building the scripts.
+	 */
+	private DefaultScriptManager manager;
+
+	/**
+	 * Prepares the {@link #manager}.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		manager = StandInScripts.manager();
+		manager.getCompiledScriptCache().setMaxSize(cached ? 512 : 0);
+	}
+
+	/**
+	 * Builds a compilable {@link Script}.
+	 *
+	 * @return The built {@link Script}.
+	 */
+	@Benchmark
+	public Script compilable() {
+		Script script = manager.openScript(StandInScripts.LARGE).setInitFunction((String) null).build();
+		script.release();
+		return script;
+	}
+
+	/**
+	 * Builds an invocable {@link Script}.
+	 *
+	 * @return The built {@link Script}.
+	 */
+	@Benchmark
+	public Script invocable() {
+		Script script = manager.openScript(StandInScripts.LARGE).build();
+		script.release();
+		return script;
+	}
+}
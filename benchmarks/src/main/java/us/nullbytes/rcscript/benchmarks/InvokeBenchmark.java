@@ -0,0 +1,81 @@
+package us.nullbytes.rcscript.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import us.nullbytes.rcscript.DefaultScriptManager;
+import us.nullbytes.rcscript.Script;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures synchronous calls of a built {@link Script}.
+ *
+ * @author Corey Shupe
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InvokeBenchmark {
+
+	/**
+	 * An invocable {@link Script} defining {@code add}.
+	 */
+	private Script invocable;
+
+	/**
+	 * A compilable {@link Script} summing two context values.
+	 */
+	private Script compilable;
+
+	/**
+	 * Builds the scripts.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		DefaultScriptManager manager = StandInScripts.manager();
+		invocable = manager.openScript(StandInScripts.SMALL).build();
+		compilable = manager.openScript(StandInScripts.EXPRESSION).setInitFunction((String) null)
+				.place("left", 1).place("right", 2).build();
+	}
+
+	/**
+	 * Releases the scripts.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		invocable.release();
+		compilable.release();
+	}
+
+	/**
+	 * Calls a function.
+	 *
+	 * @return The result.
+	 */
+	@Benchmark
+	public Object execute() {
+		return invocable.execute("add", 1, 2);
+	}
+
+	/**
+	 * Calls a function and checks the type of its result.
+	 *
+	 * @return The result.
+	 */
+	@Benchmark
+	public Integer expect() {
+		return invocable.expect(Integer.class, "add", 1, 2);
+	}
+
+	/**
+	 * Evaluates a compiled script.
+	 *
+	 * @return The result.
+	 */
+	@Benchmark
+	public Object evaluate() {
+		return compilable.execute();
+	}
+}
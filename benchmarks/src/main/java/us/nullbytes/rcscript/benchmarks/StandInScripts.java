@@ -0,0 +1,68 @@
+package us.nullbytes.rcscript.benchmarks;
+
+import us.nullbytes.rcscript.DefaultScriptManager;
+import us.nullbytes.rcscript.benchmarks.engine.StandInEngineFactory;
+
+/**
+ * The scripts and {@link DefaultScriptManager} shared by every benchmark.
+ *
+ * @author Corey Shupe
+ */
+final class StandInScripts {
+
+	/**
+	 * A script defining {@code init} and {@code add}.
+	 */
+	final static String SMALL = "def init() = 0\ndef add(a, b) = a + b";
+
+	/**
+	 * A script summing the context values {@code left} and {@code right}.
+	 */
+	final static String EXPRESSION = "left + right";
+
+	/**
+	 * A script of two hundred functions, to give compilation some weight.
+	 */
+	final static String LARGE = large(200);
+
+	/**
+	 * Prevents initialization.
+	 */
+	private StandInScripts() {
+	}
+
+	/**
+	 * Gets the {@link DefaultScriptManager} of the stand-in engine, resetting any state a previous
+	 * trial left in it.
+	 *
+	 * @return The {@link DefaultScriptManager}.
+	 */
+	static DefaultScriptManager manager() {
+		DefaultScriptManager manager = DefaultScriptManager.processEngine(StandInEngineFactory.NAME)
+				.orElseThrow(() -> new IllegalStateException("The stand-in engine is not registered."));
+		manager.clearScriptCache();
+		manager.applyIdentifierRule(DefaultScriptManager.IdentifierRule.EQUALITY);
+		manager.applyEvictionPolicy(null);
+		manager.getCompiledScriptCache().invalidateAll();
+		manager.getCompiledScriptCache().setMaxSize(512);
+		manager.setExecutionMode(DefaultScriptManager.ExecutionMode.POOLED);
+		manager.setDefaultInitFunction("init");
+		return manager;
+	}
+
+	/**
+	 * Creates a script of many functions.
+	 *
+	 * @param functions
+	 * 		The amount of functions.
+	 *
+	 * @return The script.
+	 */
+	private static String large(int functions) {
+		StringBuilder builder = new StringBuilder("def init() = 0\n");
+		for (int i = 0; i < functions; i++) {
+			builder.append("def f").append(i).append("(a, b, c) = a + b + c + ").append(i).append('\n');
+		}
+		return builder.append("1 + 2").toString();
+	}
+}
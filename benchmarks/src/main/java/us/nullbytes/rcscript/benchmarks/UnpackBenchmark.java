@@ -0,0 +1,127 @@
+package us.nullbytes.rcscript.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import us.nullbytes.rcscript.DefaultScriptManager;
+import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptManager.IdentifierRule;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DefaultScriptManager#unpack(Object)} under every {@link IdentifierRule} and
+ * cache size. Every identifier maps to the same {@link Script}, so large caches stay cheap.
+ *
+ * @author Corey Shupe
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UnpackBenchmark {
+
+	/**
+	 * The {@link IdentifierRule} of the cache.
+	 */
+	@Param({"IDENTITY", "EQUALITY", "CONCURRENT"})
+	public IdentifierRule rule;
+
+	/**
+	 * The amount of cached identifiers.
+	 */
+	@Param({"16", "1024", "65536"})
+	public int size;
+
+	/**
+	 * The {@link DefaultScriptManager} holding the cache.
+	 */
+	private DefaultScriptManager manager;
+
+	/**
+	 * The cached identifiers.
+	 */
+	private String[] identifiers;
+
+	/**
+	 * Identifiers equal to the cached ones but not the same instances.
+	 */
+	private String[] copies;
+
+	/**
+	 * Fills the cache.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		manager = StandInScripts.manager();
+		manager.applyIdentifierRule(rule);
+		Script script = manager.openScript(StandInScripts.SMALL).build();
+		identifiers = new String[size];
+		copies = new String[size];
+		for (int i = 0; i < size; i++) {
+			identifiers[i] = "script-" + i;
+			copies[i] = new String(identifiers[i]);
+			manager.insert(script, identifiers[i]);
+		}
+	}
+
+	/**
+	 * Empties the cache.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		manager.clearScriptCache();
+	}
+
+	/**
+	 * Unpacks by the same identifier instances the scripts were packed with.
+	 *
+	 * @param cursor
+	 * 		The {@link Cursor} of the calling thread.
+	 *
+	 * @return The unpacked {@link Script}.
+	 */
+	@Benchmark
+	public Optional<Script> sameInstance(Cursor cursor) {
+		return manager.unpack(identifiers[cursor.next(size)]);
+	}
+
+	/**
+	 * Unpacks by equal identifiers, which miss under {@link IdentifierRule#IDENTITY}.
+	 *
+	 * @param cursor
+	 * 		The {@link Cursor} of the calling thread.
+	 *
+	 * @return The unpacked {@link Script}.
+	 */
+	@Benchmark
+	public Optional<Script> equalInstance(Cursor cursor) {
+		return manager.unpack(copies[cursor.next(size)]);
+	}
+
+	/**
+	 * The position of a thread in the identifiers.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+
+		/**
+		 * The current position.
+		 */
+		private int position = 0;
+
+		/**
+		 * Moves to the next identifier.
+		 *
+		 * @param size
+		 * 		The amount of identifiers.
+		 *
+		 * @return The index of the next identifier.
+		 */
+		int next(int size) {
+			position = position + 1 == size ? 0 : position + 1;
+			return position;
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package us.nullbytes.rcscript.benchmarks.engine;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.Invocable;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+
+/**
+ * A minimal {@link javax.script.ScriptEngine} standing in for a real one in benchmarks, so the
+ * measured cost is the library's rather than the language's. A script is made of lines, each
+ * either a function definition or an expression summing integers and names:
+ * <pre>
+ *     {@code
+ *     def init() = 0
+ *     def add(a, b) = a + b
+ *     add + 1
+ *     }
+ * </pre>
+ * Evaluating a script defines its functions in the engine scope and returns the value of its
+ * last expression, names of which are read from the {@link ScriptContext}.
+ *
+ * @author Corey Shupe
+ */
+public class StandInEngine extends AbstractScriptEngine implements Compilable, Invocable {
+
+	/**
+	 * The {@link StandInEngineFactory} which created this engine.
+	 */
+	private final StandInEngineFactory factory;
+
+	/**
+	 * Initializes a new {@link StandInEngine}.
+	 *
+	 * @param factory
+	 * 		The {@link StandInEngineFactory} which created this engine.
+	 */
+	StandInEngine(StandInEngineFactory factory) {
+		this.factory = factory;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object eval(String script, ScriptContext context) throws ScriptException {
+		return compile(script).eval(context);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+		return eval(read(reader), context);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Bindings createBindings() {
+		return new SimpleBindings();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptEngineFactory getFactory() {
+		return factory;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CompiledScript compile(String script) throws ScriptException {
+		return new StandInScript(this, script);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CompiledScript compile(Reader script) throws ScriptException {
+		return compile(read(script));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invokeFunction(String name, Object... args) throws ScriptException, NoSuchMethodException {
+		Object function = getContext().getAttribute(name, ScriptContext.ENGINE_SCOPE);
+		if (!(function instanceof StandInScript.Function)) throw new NoSuchMethodException(name);
+		return ((StandInScript.Function) function).call(args);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invokeMethod(Object thiz, String name, Object... args) throws NoSuchMethodException {
+		throw new NoSuchMethodException("The stand-in language has no methods.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> T getInterface(Class<T> clasz) {
+		return clasz.cast(Proxy.newProxyInstance(clasz.getClassLoader(), new Class<?>[]{clasz},
+				(proxy, method, args) -> invokeFunction(method.getName(), args == null ? new Object[0] : args)));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> T getInterface(Object thiz, Class<T> clasz) {
+		throw new IllegalArgumentException("The stand-in language has no objects.");
+	}
+
+	/**
+	 * Reads a script.
+	 *
+	 * @param reader
+	 * 		The {@link Reader} of the script.
+	 *
+	 * @return The script.
+	 *
+	 * @throws ScriptException
+	 * 		When the script fails to be read.
+	 */
+	private static String read(Reader reader) throws ScriptException {
+		StringWriter writer = new StringWriter();
+		try {
+			reader.transferTo(writer);
+		} catch (IOException ex) {
+			throw new ScriptException(ex);
+		}
+		return writer.toString();
+	}
+}
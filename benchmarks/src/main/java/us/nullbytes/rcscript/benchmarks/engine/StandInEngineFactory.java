@@ -0,0 +1,135 @@
+package us.nullbytes.rcscript.benchmarks.engine;
+
+import us.nullbytes.rcscript.cache.CompiledScriptCache;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The {@link ScriptEngineFactory} of the {@link StandInEngine}, registered under the name
+ * {@code standin} so benchmarks run on any JDK without a JavaScript engine.
+ *
+ * @author Corey Shupe
+ */
+public class StandInEngineFactory implements ScriptEngineFactory {
+
+	/**
+	 * The name to look the engine up by.
+	 */
+	public final static String NAME = "standin";
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getEngineName() {
+		return "RCScript Stand-In";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getEngineVersion() {
+		return "1.0";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<String> getExtensions() {
+		return Collections.singletonList(NAME);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<String> getMimeTypes() {
+		return Collections.singletonList("text/x-" + NAME);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<String> getNames() {
+		return Collections.singletonList(NAME);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getLanguageName() {
+		return NAME;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getLanguageVersion() {
+		return "1.0";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Compiled scripts only define functions in the context they are evaluated against, so they
+	 * are declared portable, see {@link CompiledScriptCache#PORTABLE_PARAMETER}.
+	 */
+	@Override
+	public Object getParameter(String key) {
+		switch (key) {
+			case ScriptEngine.ENGINE:
+				return getEngineName();
+			case ScriptEngine.ENGINE_VERSION:
+				return getEngineVersion();
+			case ScriptEngine.NAME:
+				return NAME;
+			case ScriptEngine.LANGUAGE:
+				return getLanguageName();
+			case ScriptEngine.LANGUAGE_VERSION:
+				return getLanguageVersion();
+			case CompiledScriptCache.PORTABLE_PARAMETER:
+				return Boolean.TRUE;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getMethodCallSyntax(String obj, String m, String... args) {
+		throw new UnsupportedOperationException("The stand-in language has no methods.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getOutputStatement(String toDisplay) {
+		throw new UnsupportedOperationException("The stand-in language has no output.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getProgram(String... statements) {
+		return String.join("\n", statements);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptEngine getScriptEngine() {
+		return new StandInEngine(this);
+	}
+}
@@ -0,0 +1,217 @@
+package us.nullbytes.rcscript.benchmarks.engine;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A parsed script of the {@link StandInEngine}.
+ *
+ * @author Corey Shupe
+ */
+class StandInScript extends CompiledScript {
+
+	/**
+	 * The {@link StandInEngine} which compiled this script.
+	 */
+	private final StandInEngine engine;
+
+	/**
+	 * The {@link Function}s defined by this script.
+	 */
+	private final List<Function> functions = new ArrayList<>();
+
+	/**
+	 * The terms of the last expression, or null if the script has none.
+	 */
+	private String[] result = null;
+
+	/**
+	 * Parses a new {@link StandInScript}.
+	 *
+	 * @param engine
+	 * 		The {@link StandInEngine} compiling the script.
+	 * @param script
+	 * 		The script.
+	 *
+	 * @throws ScriptException
+	 * 		When the script is malformed.
+	 */
+	StandInScript(StandInEngine engine, String script) throws ScriptException {
+		this.engine = engine;
+		String[] lines = script.split("\n");
+		for (int i = 0; i < lines.length; i++) {
+			String line = lines[i];
+			int comment = line.indexOf('#');
+			if (comment >= 0) line = line.substring(0, comment);
+			line = line.trim();
+			if (line.isEmpty()) continue;
+			if (line.startsWith("def ")) {
+				functions.add(parseFunction(line.substring(4), i + 1));
+			} else {
+				result = parseTerms(line, i + 1);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object eval(ScriptContext context) throws ScriptException {
+		for (Function function : functions) {
+			context.setAttribute(function.name, function, ScriptContext.ENGINE_SCOPE);
+		}
+		if (result == null) return null;
+		int sum = 0;
+		for (String term : result) {
+			if (Character.isDigit(term.charAt(0))) {
+				sum += Integer.parseInt(term);
+			} else {
+				Object value = context.getAttribute(term);
+				if (!(value instanceof Number)) throw new ScriptException(term + " is not a number.");
+				sum += ((Number) value).intValue();
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptEngine getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Parses a function definition such as {@code add(a, b) = a + b}.
+	 *
+	 * @param definition
+	 * 		The definition, without the leading {@code def}.
+	 * @param line
+	 * 		The line number of the definition.
+	 *
+	 * @return The parsed {@link Function}.
+	 *
+	 * @throws ScriptException
+	 * 		When the definition is malformed.
+	 */
+	private static Function parseFunction(String definition, int line) throws ScriptException {
+		int open = definition.indexOf('(');
+		int close = definition.indexOf(')');
+		int equals = definition.indexOf('=', close);
+		if (open <= 0 || close < open || equals < 0) throw new ScriptException("Malformed function", null, line);
+		String name = definition.substring(0, open).trim();
+		String parameterList = definition.substring(open + 1, close).trim();
+		List<String> parameters = parameterList.isEmpty() ? List.of() : Arrays.asList(parameterList.split("\\s*,\\s*"));
+		String[] terms = parseTerms(definition.substring(equals + 1), line);
+		int[] indexes = new int[terms.length];
+		int constant = 0;
+		int count = 0;
+		for (String term : terms) {
+			if (Character.isDigit(term.charAt(0))) {
+				constant += Integer.parseInt(term);
+			} else {
+				int index = parameters.indexOf(term);
+				if (index < 0) throw new ScriptException("Unknown parameter " + term, null, line);
+				indexes[count++] = index;
+			}
+		}
+		return new Function(name, parameters.size(), Arrays.copyOf(indexes, count), constant);
+	}
+
+	/**
+	 * Parses the terms of a sum such as {@code a + 1}.
+	 *
+	 * @param expression
+	 * 		The expression.
+	 * @param line
+	 * 		The line number of the expression.
+	 *
+	 * @return The terms of the sum.
+	 *
+	 * @throws ScriptException
+	 * 		When the expression is malformed.
+	 */
+	private static String[] parseTerms(String expression, int line) throws ScriptException {
+		String[] terms = expression.trim().split("\\s*\\+\\s*");
+		for (String term : terms) {
+			if (term.isEmpty() || !term.chars().allMatch(Character::isLetterOrDigit)) {
+				throw new ScriptException("Malformed expression", null, line);
+			}
+		}
+		return terms;
+	}
+
+	/**
+	 * A function summing some of its arguments and a constant.
+	 */
+	static final class Function {
+
+		/**
+		 * The name of the function.
+		 */
+		private final String name;
+
+		/**
+		 * The amount of parameters.
+		 */
+		private final int arity;
+
+		/**
+		 * The indexes of the summed arguments.
+		 */
+		private final int[] indexes;
+
+		/**
+		 * The sum of the constant terms.
+		 */
+		private final int constant;
+
+		/**
+		 * Initializes a new {@link Function}.
+		 *
+		 * @param name
+		 * 		The name of the function.
+		 * @param arity
+		 * 		The amount of parameters.
+		 * @param indexes
+		 * 		The indexes of the summed arguments.
+		 * @param constant
+		 * 		The sum of the constant terms.
+		 */
+		private Function(String name, int arity, int[] indexes, int constant) {
+			this.name = name;
+			this.arity = arity;
+			this.indexes = indexes;
+			this.constant = constant;
+		}
+
+		/**
+		 * Calls the function.
+		 *
+		 * @param args
+		 * 		The arguments.
+		 *
+		 * @return The sum.
+		 *
+		 * @throws ScriptException
+		 * 		When the arguments do not match the parameters.
+		 */
+		Object call(Object[] args) throws ScriptException {
+			if (args.length != arity) throw new ScriptException(name + " expects " + arity + " arguments.");
+			int sum = constant;
+			for (int index : indexes) {
+				Object arg = args[index];
+				if (!(arg instanceof Number)) throw new ScriptException(name + " expects numbers.");
+				sum += ((Number) arg).intValue();
+			}
+			return sum;
+		}
+	}
+}
@@ -2,15 +2,47 @@ package us.nullbytes.rcscript;
 
 import us.nullbytes.rcscript.builder.GenericScriptBuilder;
 import us.nullbytes.rcscript.builder.PackedScriptBuilder;
+import us.nullbytes.rcscript.builder.script.LazyScript;
+import us.nullbytes.rcscript.cache.BoundedScriptCache;
+import us.nullbytes.rcscript.cache.CacheStats;
+import us.nullbytes.rcscript.cache.CompiledScriptCache;
+import us.nullbytes.rcscript.cache.EvictionPolicy;
+import us.nullbytes.rcscript.conversion.ConverterRegistry;
 import us.nullbytes.rcscript.data.InitFunc;
-
+import us.nullbytes.rcscript.data.PackReport;
+import us.nullbytes.rcscript.data.ScriptSource;
+import us.nullbytes.rcscript.engine.EnginePool;
+import us.nullbytes.rcscript.engine.EngineRegistry;
+import us.nullbytes.rcscript.execution.AdmissionQueue;
+import us.nullbytes.rcscript.execution.ScriptExecutors;
+import us.nullbytes.rcscript.metrics.ScriptMetrics;
+
+import javax.management.ObjectName;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
-import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
 import java.io.*;
-import java.util.HashMap;
+import java.nio.file.AccessMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * The default {@link ScriptManager} implementation.
@@ -23,7 +55,7 @@ public class DefaultScriptManager implements ScriptManager {
 	/**
 	 * The {@link Map} holding the {@link DefaultScriptManager}s for global usage.
 	 */
-	private final static Map<String, DefaultScriptManager> scriptManagers = new HashMap<>();
+	private final static Map<String, DefaultScriptManager> scriptManagers = new ConcurrentHashMap<>();
 
 	/**
 	 * Gets the cached {@link DefaultScriptManager} based on a name.
@@ -38,7 +70,10 @@ public class DefaultScriptManager implements ScriptManager {
 	}
 
 	/**
-	 * Tries to register a new {@link DefaultScriptManager} into the cache.
+	 * Tries to register a new {@link DefaultScriptManager} into the cache. The {@link
+	 * ScriptEngineFactory} is found through the {@link EngineRegistry}, and concurrent calls for the
+	 * same name always receive the same {@link DefaultScriptManager}. Its {@link ScriptMetrics} are
+	 * registered as an MXBean under the name.
 	 *
 	 * @param name
 	 * 		The name of the {@link DefaultScriptManager} and the {@link ScriptEngineFactory}.
@@ -47,16 +82,19 @@ public class DefaultScriptManager implements ScriptManager {
 	 * succeeded.
 	 */
 	public static Optional<DefaultScriptManager> processEngine(String name) {
-		if (scriptManagers.containsKey(name)) {
-			return Optional.of(scriptManagers.get(name));
+		DefaultScriptManager manager = scriptManagers.get(name);
+		if (manager != null) {
+			return Optional.of(manager);
 		}
-		ScriptEngine received = new ScriptEngineManager().getEngineByName(name);
-		if (received == null) {
+		Optional<ScriptEngineFactory> factory = EngineRegistry.byName(name);
+		if (!factory.isPresent()) {
 			return Optional.empty();
 		}
-		DefaultScriptManager newManager = new DefaultScriptManager(received.getFactory());
-		scriptManagers.put(name, newManager);
-		return Optional.of(newManager);
+		return Optional.of(scriptManagers.computeIfAbsent(name, key -> {
+			DefaultScriptManager created = new DefaultScriptManager(factory.get());
+			created.metrics.register("us.nullbytes.rcscript:type=ScriptManager,name=" + ObjectName.quote(key));
+			return created;
+		}));
 	}
 
 	/**
@@ -64,10 +102,87 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	private Map<Object, Script> scriptCache = IdentifierRule.EQUALITY.generateNewMap();
 
+	/**
+	 * The {@link IdentifierRule} followed by the {@link #scriptCache}.
+	 */
+	private IdentifierRule identifierRule = IdentifierRule.EQUALITY;
+
+	/**
+	 * The {@link EvictionPolicy} followed by the {@link #scriptCache}, or null if unbounded.
+	 */
+	private EvictionPolicy evictionPolicy = null;
+
+	/**
+	 * The {@link Script}s of other managers held by this one since it was copied from them, see
+	 * {@link Script#retain()}.
+	 */
+	private final Set<Script> retained = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * The amount of unpacks which found a {@link Script}.
+	 */
+	private final LongAdder unpackHits = new LongAdder();
+
+	/**
+	 * The amount of unpacks which found nothing.
+	 */
+	private final LongAdder unpackMisses = new LongAdder();
+
 	/**
 	 * The {@link ScriptEngineFactory} to produce {@link ScriptEngine}s.
 	 */
-	private ScriptEngineFactory engineFactory;
+	private final ScriptEngineFactory engineFactory;
+
+	/**
+	 * The {@link EnginePool} leasing {@link ScriptEngine}s to built {@link Script}s.
+	 */
+	private final EnginePool enginePool;
+
+	/**
+	 * The {@link CompiledScriptCache} shared by every builder of this manager.
+	 */
+	private final CompiledScriptCache compiledScriptCache = new CompiledScriptCache(512);
+
+	/**
+	 * The {@link ConverterRegistry} converting the return values of the {@link Script}s.
+	 */
+	private ConverterRegistry converters = new ConverterRegistry();
+
+	/**
+	 * The {@link ScriptMetrics} of the {@link Script}s, registered as an MXBean until shutdown if this
+	 * manager was created by {@link #processEngine(String)}.
+	 */
+	private final ScriptMetrics metrics = new ScriptMetrics();
+
+	/**
+	 * The {@link Executor} for async calls, or null until first used.
+	 */
+	private volatile Executor executor = null;
+
+	/**
+	 * Whether or not the {@link #executor} was created by this manager.
+	 */
+	private boolean ownsExecutor = false;
+
+	/**
+	 * The {@link ExecutionMode} choosing the default {@link #executor}.
+	 */
+	private volatile ExecutionMode executionMode = ExecutionMode.POOLED;
+
+	/**
+	 * The default deadline of async calls, or null for none.
+	 */
+	private volatile Duration defaultDeadline = null;
+
+	/**
+	 * The {@link TerminationMode} of overdue calls.
+	 */
+	private volatile TerminationMode terminationMode = TerminationMode.INTERRUPT;
+
+	/**
+	 * The {@link AdmissionQueue} bounding the waiting async calls, or null if unbounded.
+	 */
+	private volatile AdmissionQueue admissionQueue = null;
 
 	/**
 	 * The {@link File} directory for scripts.
@@ -84,18 +199,6 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	private InitFunc initFunc = new InitFunc("init", new Object[]{});
 
-	/**
-	 * Initializes a new {@link DefaultScriptManager}.
-	 *
-	 * @param engineName
-	 * 		The name of the {@link ScriptEngine} to receive the {@link ScriptEngineFactory}.
-	 *
-	 * @see #DefaultScriptManager(ScriptEngineFactory)
-	 */
-	private DefaultScriptManager(String engineName) {
-		this(new ScriptEngineManager().getEngineByName(engineName).getFactory());
-	}
-
 	/**
 	 * Initializes a new {@link DefaultScriptManager}.
 	 *
@@ -104,6 +207,8 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	private DefaultScriptManager(ScriptEngineFactory factory) {
 		this.engineFactory = factory;
+		this.enginePool = new EnginePool(factory);
+		this.enginePool.setDropListener(compiledScriptCache::invalidate);
 	}
 
 	/**
@@ -111,10 +216,27 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	@Override
 	public ScriptManager copyIntoUniqueInstance() {
-		DefaultScriptManager that = new DefaultScriptManager(engineFactory.getEngineName());
+		DefaultScriptManager that = new DefaultScriptManager(engineFactory);
+		that.identifierRule = this.identifierRule;
+		that.evictionPolicy = this.evictionPolicy;
+		that.scriptCache = that.newScriptCache();
+		this.scriptCache.values().forEach(script -> {
+			if (that.retained.add(script)) script.retain();
+		});
 		that.scriptCache.putAll(this.scriptCache);
 		that.ioExceptionHandler = this.ioExceptionHandler;
 		that.initFunc = new InitFunc(this.initFunc.getName(), this.initFunc.getParams());
+		that.enginePool.setMaxIdle(this.enginePool.getMaxIdle());
+		that.enginePool.setMaxTotal(this.enginePool.getMaxTotal());
+		that.enginePool.setMinIdle(this.enginePool.getMinIdle());
+		that.compiledScriptCache.setMaxSize(this.compiledScriptCache.getMaxSize());
+		that.converters = this.converters.copy();
+		that.metrics.setEnabled(this.metrics.isEnabled());
+		that.executionMode = this.getExecutionMode();
+		that.defaultDeadline = this.defaultDeadline;
+		that.terminationMode = this.terminationMode;
+		AdmissionQueue admissionQueue = this.admissionQueue;
+		if (admissionQueue != null) that.setQueueLimit(admissionQueue.getCapacity(), admissionQueue.getPolicy());
 		return that;
 	}
 
@@ -123,7 +245,16 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	@Override
 	public ScriptManager generateUniqueInstance() {
-		return new DefaultScriptManager(engineFactory.getEngineName());
+		return new DefaultScriptManager(engineFactory);
+	}
+
+	/**
+	 * Gets the {@link EnginePool} which leases {@link ScriptEngine}s to the built {@link Script}s.
+	 *
+	 * @return The {@link EnginePool} of this manager.
+	 */
+	public EnginePool getEnginePool() {
+		return enginePool;
 	}
 
 	/**
@@ -158,6 +289,148 @@ public class DefaultScriptManager implements ScriptManager {
 		return ioExceptionHandler;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CompiledScriptCache getCompiledScriptCache() {
+		return compiledScriptCache;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ConverterRegistry getConverters() {
+		return converters;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void setExecutor(Executor executor) {
+		Executor previous = this.executor;
+		if (ownsExecutor && previous != executor) ((ExecutorService) previous).shutdown();
+		this.executor = executor;
+		this.ownsExecutor = false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Executor getExecutor() {
+		Executor executor = this.executor;
+		if (executor == null) {
+			synchronized (this) {
+				executor = this.executor;
+				if (executor == null) {
+					String name = "rcscript-" + engineFactory.getEngineName();
+					this.executor = executor = executionMode == ExecutionMode.VIRTUAL ?
+							ScriptExecutors.newVirtualThreadExecutor(name) :
+							ScriptExecutors.newDefaultExecutor(name);
+					this.ownsExecutor = true;
+				}
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void setExecutionMode(ExecutionMode mode) {
+		if (ownsExecutor) setExecutor(null);
+		this.executionMode = mode;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ExecutionMode getExecutionMode() {
+		return executionMode;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setDefaultDeadline(Duration deadline) {
+		this.defaultDeadline = deadline;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Duration getDefaultDeadline() {
+		return defaultDeadline;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setTerminationMode(TerminationMode mode) {
+		this.terminationMode = mode;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public TerminationMode getTerminationMode() {
+		return terminationMode;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setQueueLimit(int capacity, RejectionPolicy policy) {
+		AdmissionQueue admissionQueue = capacity == 0 ? null : new AdmissionQueue(capacity, policy);
+		this.admissionQueue = admissionQueue;
+		metrics.setAdmissionQueue(admissionQueue);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public AdmissionQueue getAdmissionQueue() {
+		return admissionQueue;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void shutdown() {
+		metrics.unregister();
+		Executor executor = this.executor;
+		if (executor instanceof ExecutorService) ((ExecutorService) executor).shutdown();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		Executor executor = this.executor;
+		return !(executor instanceof ExecutorService) || ((ExecutorService) executor).awaitTermination(timeout, unit);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -179,7 +452,7 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	@Override
 	public ScriptBuilder newScript() {
-		return new GenericScriptBuilder(this, engineFactory.getScriptEngine()).place("rcsm", this);
+		return new GenericScriptBuilder(this, enginePool).place("rcsm", this);
 	}
 
 	/**
@@ -187,7 +460,15 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	@Override
 	public ScriptBuilder openScript(InputStream stream) {
-		return new GenericScriptBuilder(this, engineFactory.getScriptEngine(), stream).place("rcsm", this);
+		return openScript(ScriptSource.of(stream));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptBuilder openScript(ScriptSource source) {
+		return new GenericScriptBuilder(this, enginePool, source).place("rcsm", this);
 	}
 
 	/**
@@ -195,7 +476,7 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	@Override
 	public ScriptBuilder openScript(String script) {
-		return openScript(new ByteArrayInputStream(script.getBytes()));
+		return openScript(ScriptSource.of(script));
 	}
 
 	/**
@@ -203,7 +484,7 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	@Override
 	public ScriptBuilder openResourceScript(String location) {
-		return openScript(getClass().getResourceAsStream(location));
+		return openScript(ScriptSource.ofResource(getClass(), location));
 	}
 
 	/**
@@ -212,7 +493,7 @@ public class DefaultScriptManager implements ScriptManager {
 	@Override
 	public ScriptBuilder openFileScript(File file) {
 		try {
-			return openScript(new FileInputStream(file));
+			return openScript(ScriptSource.of(file.toPath()).load());
 		} catch (IOException ex) {
 			getExceptionHandler().handle(ex);
 			return null;
@@ -233,7 +514,7 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	@Override
 	public ScriptBuilder newPackedScript(Object identifier) {
-		return new PackedScriptBuilder(this, engineFactory.getScriptEngine(), identifier).place("rcsm", this);
+		return new PackedScriptBuilder(this, enginePool, identifier).place("rcsm", this);
 	}
 
 	/**
@@ -241,7 +522,15 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	@Override
 	public ScriptBuilder packScript(InputStream stream, Object identifier) {
-		return new PackedScriptBuilder(this, engineFactory.getScriptEngine(), stream, identifier).place("rcsm", this);
+		return packScript(ScriptSource.of(stream), identifier);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptBuilder packScript(ScriptSource source, Object identifier) {
+		return new PackedScriptBuilder(this, enginePool, source, identifier).place("rcsm", this);
 	}
 
 	/**
@@ -249,7 +538,7 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	@Override
 	public ScriptBuilder packScript(String script, Object identifier) {
-		return packScript(new ByteArrayInputStream(script.getBytes()), identifier);
+		return packScript(ScriptSource.of(script), identifier);
 	}
 
 	/**
@@ -257,7 +546,7 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	@Override
 	public ScriptBuilder packResourceScript(String location, Object identifier) {
-		return packScript(getClass().getResourceAsStream(location.startsWith("/") ? location : '/' + location), identifier);
+		return packScript(ScriptSource.ofResource(location), identifier);
 	}
 
 	/**
@@ -265,8 +554,10 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	@Override
 	public ScriptBuilder packFileScript(File file, Object identifier) {
+		Path path = file.toPath();
 		try {
-			return packScript(new FileInputStream(file), identifier);
+			path.getFileSystem().provider().checkAccess(path, AccessMode.READ);
+			return packScript(ScriptSource.of(path), identifier);
 		} catch (IOException ex) {
 			getExceptionHandler().handle(ex);
 			return null;
@@ -282,12 +573,93 @@ public class DefaultScriptManager implements ScriptManager {
 		return packFileScript(new File(getScriptsDir(), location), identifier);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public PackReport packDirectory(File directory, Function<Path, Object> identifierMapper) {
+		if (getScriptsDir() != null && !directory.isAbsolute()) directory = new File(getScriptsDir(), directory.getPath());
+		Map<Path, Object> packed = new LinkedHashMap<>();
+		Map<Path, Exception> failures = new LinkedHashMap<>();
+		List<Path> files;
+		try (Stream<Path> walk = Files.walk(directory.toPath())) {
+			files = walk.filter(Files::isRegularFile).filter(this::hasEngineExtension).sorted().collect(Collectors.toList());
+		} catch (IOException | UncheckedIOException ex) {
+			failures.put(directory.toPath(), ex instanceof UncheckedIOException ? ((UncheckedIOException) ex).getCause() : ex);
+			return new PackReport(packed, failures);
+		}
+		Map<Path, Object> identifiers = new LinkedHashMap<>();
+		for (Path file : files) {
+			Object identifier = identifierMapper.apply(file);
+			if (identifier != null) identifiers.put(file, identifier);
+		}
+		Map<Path, CompletableFuture<Script>> tasks = new LinkedHashMap<>();
+		identifiers.forEach((file, identifier) -> {
+			PackedScriptBuilder builder = new PackedScriptBuilder(this, enginePool, ScriptSource.of(file), identifier);
+			builder.place("rcsm", this);
+			CompletableFuture<Script> task;
+			try {
+				task = CompletableFuture.supplyAsync(() -> {
+					try {
+						return builder.compile();
+					} catch (ScriptException ex) {
+						throw new CompletionException(ex);
+					}
+				}, getExecutor());
+			} catch (RejectedExecutionException ex) {
+				task = new CompletableFuture<>();
+				task.completeExceptionally(ex);
+			}
+			tasks.put(file, task);
+		});
+		Map<Object, Script> scripts = new LinkedHashMap<>();
+		boolean inserted = false;
+		try {
+			tasks.forEach((file, task) -> {
+				Object identifier = identifiers.get(file);
+				try {
+					Script previous = scripts.put(identifier, task.join());
+					if (previous != null) previous.release();
+					packed.put(file, identifier);
+				} catch (CompletionException ex) {
+					Throwable cause = ex.getCause();
+					failures.put(file, cause instanceof Exception ? (Exception) cause : ex);
+				}
+			});
+			scripts.forEach((identifier, script) -> insert(script, identifier));
+			inserted = true;
+		} finally {
+			if (!inserted) tasks.values().forEach(task -> task.thenAccept(Script::release));
+		}
+		return new PackReport(packed, failures);
+	}
+
+	/**
+	 * Checks if a file ends with one of the extensions of the engine, or if the engine declares
+	 * none.
+	 *
+	 * @param file
+	 * 		The {@link Path} of the file.
+	 *
+	 * @return True if the file should be packed.
+	 */
+	private boolean hasEngineExtension(Path file) {
+		List<String> extensions = engineFactory.getExtensions();
+		if (extensions == null || extensions.isEmpty()) return true;
+		String name = file.getFileName().toString();
+		for (String extension : extensions) {
+			if (name.endsWith('.' + extension)) return true;
+		}
+		return false;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void insert(Script script, Object identifier) {
-		scriptCache.put(identifier, script);
+		Script previous = scriptCache.put(identifier, script);
+		if (previous != null && previous != script) releaseOwned(previous);
 	}
 
 	/**
@@ -295,7 +667,16 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	@Override
 	public Optional<Script> unpack(Object identifier) {
-		return Optional.ofNullable(scriptCache.get(identifier));
+		Script script = scriptCache.get(identifier);
+		(script == null ? unpackMisses : unpackHits).increment();
+		if (script instanceof LazyScript) {
+			LazyScript lazy = (LazyScript) script;
+			boolean compiling = !lazy.isResolved();
+			if (lazy.unwrap() == null) return Optional.empty();
+			Map<Object, Script> scriptCache = this.scriptCache;
+			if (compiling && scriptCache instanceof BoundedScriptCache) ((BoundedScriptCache) scriptCache).reweigh(identifier, lazy);
+		}
+		return Optional.ofNullable(script);
 	}
 
 	/**
@@ -311,24 +692,91 @@ public class DefaultScriptManager implements ScriptManager {
 	 */
 	@Override
 	public boolean remove(Object identifier) {
-		return scriptCache.remove(identifier) != null;
+		Script removed = scriptCache.remove(identifier);
+		if (removed == null) return false;
+		releaseOwned(removed);
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void applyIdentifierRule(IdentifierRule rule) {
+		this.identifierRule = rule;
+		rebuildScriptCache();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void applyEvictionPolicy(EvictionPolicy policy) {
+		this.evictionPolicy = policy;
+		rebuildScriptCache();
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void applyIdentifierRule(IdentifierRule rule) {
-		Map<Object, Script> nextCache = rule.generateNewMap();
+	public EvictionPolicy getEvictionPolicy() {
+		return evictionPolicy;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CacheStats getScriptCacheStats() {
+		Map<Object, Script> scriptCache = this.scriptCache;
+		if (scriptCache instanceof BoundedScriptCache) {
+			BoundedScriptCache bounded = (BoundedScriptCache) scriptCache;
+			return new CacheStats(unpackHits.sum(), unpackMisses.sum(), bounded.getEvictionCount(),
+					bounded.getEvictionWeight(), bounded.size(), bounded.getWeight());
+		}
+		return new CacheStats(unpackHits.sum(), unpackMisses.sum(), 0, 0, scriptCache.size(), scriptCache.size());
+	}
+
+	/**
+	 * Moves every cached {@link Script} into a new cache following the current {@link
+	 * IdentifierRule} and {@link EvictionPolicy}.
+	 */
+	private void rebuildScriptCache() {
+		Map<Object, Script> nextCache = newScriptCache();
 		scriptCache.forEach(nextCache::putIfAbsent);
 		scriptCache = nextCache;
 	}
 
+	/**
+	 * Creates an empty cache following the current {@link IdentifierRule} and {@link
+	 * EvictionPolicy}. Unbounded caches are the plain {@link Map} of the rule.
+	 *
+	 * @return The created cache.
+	 */
+	private Map<Object, Script> newScriptCache() {
+		if (evictionPolicy == null || !evictionPolicy.isBounded()) return identifierRule.generateNewMap();
+		return new BoundedScriptCache(identifierRule, evictionPolicy, this::releaseOwned);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void clearScriptCache() {
+		scriptCache.values().forEach(this::releaseOwned);
 		scriptCache.clear();
 	}
+
+	/**
+	 * Releases a {@link Script} leaving the {@link #scriptCache} if it was created by this manager,
+	 * or copied along from another manager and so held by this one. The {@link ScriptEngine} is
+	 * only released once every manager holding the {@link Script} released it.
+	 *
+	 * @param script
+	 * 		The {@link Script} which left the {@link #scriptCache}.
+	 */
+	private void releaseOwned(Script script) {
+		if (script.getScriptManager() == this || retained.remove(script)) script.release();
+	}
 }
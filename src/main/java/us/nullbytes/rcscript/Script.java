@@ -1,7 +1,15 @@
 package us.nullbytes.rcscript;
 
+import us.nullbytes.rcscript.ScriptManager.RejectionPolicy;
+import us.nullbytes.rcscript.cache.CacheStats;
+import us.nullbytes.rcscript.cache.ResultCache;
+import us.nullbytes.rcscript.execution.ScriptMailbox;
+import us.nullbytes.rcscript.execution.ScriptOverloadException;
+import us.nullbytes.rcscript.execution.ScriptTimeoutException;
+
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
@@ -62,6 +70,21 @@ public interface Script {
 	 */
 	Future<Object> executeAsync(String func, Object... args);
 
+	/**
+	 * Executes a function async with a deadline of its own, see {@link #setDeadline(Duration)}.
+	 *
+	 * @param deadline
+	 * 		The deadline counted from now, or null for none.
+	 * @param func
+	 * 		The function to call.
+	 * @param args
+	 * 		The parameters used in the function.
+	 *
+	 * @return The {@link CompletableFuture} result of the function, completing with a {@link
+	 * ScriptTimeoutException} once overdue.
+	 */
+	CompletableFuture<Object> executeWithin(Duration deadline, String func, Object... args);
+
 	/**
 	 * Executes a function with an expected outcome.
 	 *
@@ -70,7 +93,8 @@ public interface Script {
 	 * @param <T>
 	 * 		The type of expected outcome provided by the {@link Class} identifier;
 	 *
-	 * @return The return value of the function casted to {@link T} or null if it's an invalid cast.
+	 * @return The return value of the function converted to {@link T} by the {@link
+	 * ScriptManager#getConverters()} of the manager, or null if it cannot be converted.
 	 */
 	<T> T expect(Class<T> classIdentifier);
 
@@ -86,7 +110,8 @@ public interface Script {
 	 * @param <T>
 	 * 		The type of expected outcome provided by the {@link Class} identifier.
 	 *
-	 * @return The return value of the function casted to {@link T} or null if it's an invalid cast.
+	 * @return The return value of the function converted to {@link T} by the {@link
+	 * ScriptManager#getConverters()} of the manager, or null if it cannot be converted.
 	 */
 	<T> T expect(Class<T> classIdentifier, String func, Object... args);
 
@@ -118,6 +143,234 @@ public interface Script {
 	 */
 	<T> CompletableFuture<T> expectLater(Class<T> classIdentifier, String func, Object... args);
 
+	/**
+	 * Executes a function with specified parameters, expecting an {@code int}. Numbers of any
+	 * type are coerced when no precision is lost, as engines often return a {@link Double}.
+	 *
+	 * @param func
+	 * 		The function to call.
+	 * @param args
+	 * 		The parameters used in the function.
+	 *
+	 * @return The return value of the function, or 0 if it failed or returned nothing.
+	 *
+	 * @throws ClassCastException
+	 * 		When the return value is not an {@code int}.
+	 */
+	int expectInt(String func, Object... args);
+
+	/**
+	 * Executes a function with one parameter, expecting an {@code int}.
+	 *
+	 * @param func
+	 * 		The function to call.
+	 * @param a
+	 * 		The parameter used in the function.
+	 *
+	 * @return The return value of the function, or 0 if it failed or returned nothing.
+	 *
+	 * @throws ClassCastException
+	 * 		When the return value is not an {@code int}.
+	 * @see #expectInt(String, Object...)
+	 */
+	int expectInt(String func, int a);
+
+	/**
+	 * Executes a function with two parameters, expecting an {@code int}.
+	 *
+	 * @param func
+	 * 		The function to call.
+	 * @param a
+	 * 		The first parameter used in the function.
+	 * @param b
+	 * 		The second parameter used in the function.
+	 *
+	 * @return The return value of the function, or 0 if it failed or returned nothing.
+	 *
+	 * @throws ClassCastException
+	 * 		When the return value is not an {@code int}.
+	 * @see #expectInt(String, Object...)
+	 */
+	int expectInt(String func, int a, int b);
+
+	/**
+	 * Executes a function with specified parameters, expecting a {@code long}. Numbers of any
+	 * type are coerced when no precision is lost, as engines often return a {@link Double}.
+	 *
+	 * @param func
+	 * 		The function to call.
+	 * @param args
+	 * 		The parameters used in the function.
+	 *
+	 * @return The return value of the function, or 0 if it failed or returned nothing.
+	 *
+	 * @throws ClassCastException
+	 * 		When the return value is not a {@code long}.
+	 */
+	long expectLong(String func, Object... args);
+
+	/**
+	 * Executes a function with one parameter, expecting a {@code long}.
+	 *
+	 * @param func
+	 * 		The function to call.
+	 * @param a
+	 * 		The parameter used in the function.
+	 *
+	 * @return The return value of the function, or 0 if it failed or returned nothing.
+	 *
+	 * @throws ClassCastException
+	 * 		When the return value is not a {@code long}.
+	 * @see #expectLong(String, Object...)
+	 */
+	long expectLong(String func, long a);
+
+	/**
+	 * Executes a function with two parameters, expecting a {@code long}.
+	 *
+	 * @param func
+	 * 		The function to call.
+	 * @param a
+	 * 		The first parameter used in the function.
+	 * @param b
+	 * 		The second parameter used in the function.
+	 *
+	 * @return The return value of the function, or 0 if it failed or returned nothing.
+	 *
+	 * @throws ClassCastException
+	 * 		When the return value is not a {@code long}.
+	 * @see #expectLong(String, Object...)
+	 */
+	long expectLong(String func, long a, long b);
+
+	/**
+	 * Executes a function with specified parameters, expecting a {@code double}. Numbers of any
+	 * type are coerced when no precision is lost, as engines often return a {@link Double}.
+	 *
+	 * @param func
+	 * 		The function to call.
+	 * @param args
+	 * 		The parameters used in the function.
+	 *
+	 * @return The return value of the function, or 0 if it failed or returned nothing.
+	 *
+	 * @throws ClassCastException
+	 * 		When the return value is not a {@code double}.
+	 */
+	double expectDouble(String func, Object... args);
+
+	/**
+	 * Executes a function with one parameter, expecting a {@code double}.
+	 *
+	 * @param func
+	 * 		The function to call.
+	 * @param a
+	 * 		The parameter used in the function.
+	 *
+	 * @return The return value of the function, or 0 if it failed or returned nothing.
+	 *
+	 * @throws ClassCastException
+	 * 		When the return value is not a {@code double}.
+	 * @see #expectDouble(String, Object...)
+	 */
+	double expectDouble(String func, double a);
+
+	/**
+	 * Executes a function with two parameters, expecting a {@code double}.
+	 *
+	 * @param func
+	 * 		The function to call.
+	 * @param a
+	 * 		The first parameter used in the function.
+	 * @param b
+	 * 		The second parameter used in the function.
+	 *
+	 * @return The return value of the function, or 0 if it failed or returned nothing.
+	 *
+	 * @throws ClassCastException
+	 * 		When the return value is not a {@code double}.
+	 * @see #expectDouble(String, Object...)
+	 */
+	double expectDouble(String func, double a, double b);
+
+	/**
+	 * Executes a function with specified parameters, expecting a {@code boolean}.
+	 *
+	 * @param func
+	 * 		The function to call.
+	 * @param args
+	 * 		The parameters used in the function.
+	 *
+	 * @return The return value of the function, or false if it failed or returned nothing.
+	 *
+	 * @throws ClassCastException
+	 * 		When the return value is not a {@link Boolean}.
+	 */
+	boolean expectBoolean(String func, Object... args);
+
+	/**
+	 * Resolves a function once into a reusable {@link ScriptFunction}, for functions called
+	 * often.
+	 *
+	 * @param func
+	 * 		The function to resolve.
+	 * @param returnType
+	 * 		The {@link Class} for the expected outcome.
+	 * @param <T>
+	 * 		The type of expected outcome provided by the {@link Class} identifier.
+	 *
+	 * @return The {@link ScriptFunction} calling the function.
+	 *
+	 * @throws NoSuchMethodException
+	 * 		When the function doesn't exist.
+	 */
+	<T> ScriptFunction<T> function(String func, Class<T> returnType) throws NoSuchMethodException;
+
+	/**
+	 * Implements an interface with the functions of this {@link Script}, each method calling the
+	 * function of the same name. Methods the script lacks fall back to their default
+	 * implementation. The implementation is created once per interface and then reused.
+	 *
+	 * @param iface
+	 * 		The interface to implement.
+	 * @param <I>
+	 * 		The type of the interface.
+	 *
+	 * @return The implementation of the interface.
+	 *
+	 * @throws NoSuchMethodException
+	 * 		When the script lacks a function for any method without a default implementation.
+	 */
+	<I> I bind(Class<I> iface) throws NoSuchMethodException;
+
+	/**
+	 * Creates a {@link ScriptTenant} running this {@link Script} inside of engine-scope bindings
+	 * of its own, reusing the compilation and {@link ScriptEngine} of this {@link Script}. The
+	 * bindings are leased from a pool and reset once the tenant is closed.
+	 *
+	 * @return The {@link ScriptTenant}, to be closed once no longer used.
+	 *
+	 * @throws ScriptException
+	 * 		When the {@link Script} fails to evaluate inside of the tenant's bindings.
+	 * @throws UnsupportedOperationException
+	 * 		When the {@link Script} isn't compiled.
+	 */
+	ScriptTenant tenant() throws ScriptException;
+
+	/**
+	 * Executes a function inside of isolated bindings which are discarded afterwards, so the call
+	 * neither sees nor leaves any state. Same as executing the function on a {@link #tenant()}
+	 * closed right after.
+	 *
+	 * @param func
+	 * 		The function to call.
+	 * @param args
+	 * 		The parameters used in the function.
+	 *
+	 * @return The return value of the function, or null if it failed.
+	 */
+	Object executeIsolated(String func, Object... args);
+
 	/**
 	 * Sets the {@link ExceptionHandler} for all {@link ScriptException}s.
 	 *
@@ -125,4 +378,178 @@ public interface Script {
 	 * 		The {@link ExceptionHandler} to handle {@link ScriptException}s.
 	 */
 	void handleExceptions(ExceptionHandler<ScriptException> exceptionHandler);
+
+	/**
+	 * Limits how many async calls of this {@link Script} may run at once, further calls waiting for
+	 * a running one to finish without holding a thread of the manager's {@link
+	 * java.util.concurrent.Executor}. A limit of 0 removes the limit.
+	 * Default: the replica count under {@link ScriptManager.ExecutionMode#VIRTUAL}, otherwise
+	 * unlimited.
+	 *
+	 * @param limit
+	 * 		The maximum amount of concurrent async calls, or 0 for no limit.
+	 */
+	void setConcurrencyLimit(int limit);
+
+	/**
+	 * Gets how many async calls of this {@link Script} may run at once.
+	 *
+	 * @return The maximum amount of concurrent async calls, or 0 for no limit.
+	 */
+	int getConcurrencyLimit();
+
+	/**
+	 * Sets the deadline of every async call of this {@link Script}, counted from the call. An
+	 * overdue call completes with a {@link ScriptTimeoutException} and its thread is terminated
+	 * following the {@link ScriptManager.TerminationMode}. If the call still runs shortly after,
+	 * the replica it runs on is quarantined and replaced by a freshly evaluated one; a single
+	 * {@link ScriptEngine} is only replaced if {@link #setResetOnTimeout(boolean) reset on
+	 * timeout}. Synchronous calls are not bound by deadlines.
+	 *
+	 * @param deadline
+	 * 		The deadline, or null to follow {@link ScriptManager#getDefaultDeadline()}.
+	 */
+	void setDeadline(Duration deadline);
+
+	/**
+	 * Gets the deadline of every async call of this {@link Script}.
+	 *
+	 * @return The deadline set, or null if following the manager's default.
+	 */
+	Duration getDeadline();
+
+	/**
+	 * Lets a call still running shortly after its deadline replace the single {@link
+	 * ScriptEngine} of this {@link Script} by a freshly evaluated one, losing the global state of
+	 * the script. Replicated scripts always replace the replica of such a call.
+	 * Default: false
+	 *
+	 * @param resetOnTimeout
+	 * 		Whether or not the engine is replaced.
+	 */
+	void setResetOnTimeout(boolean resetOnTimeout);
+
+	/**
+	 * Gets whether or not a call overrunning its deadline replaces the single {@link
+	 * ScriptEngine} of this {@link Script}.
+	 *
+	 * @return True if the engine is replaced.
+	 */
+	boolean isResetOnTimeout();
+
+	/**
+	 * Runs the async calls of this {@link Script} one at a time and in order, through a {@link
+	 * ScriptMailbox} on the manager's {@link java.util.concurrent.Executor}, so they never race
+	 * inside of the {@link ScriptEngine}. No thread blocks waiting for its turn, and other {@link
+	 * Script}s still run in parallel. Synchronous calls are not serialized.
+	 *
+	 * @param serial
+	 * 		Whether or not to serialize async calls.
+	 */
+	void setSerial(boolean serial);
+
+	/**
+	 * Checks if the async calls of this {@link Script} run one at a time.
+	 *
+	 * @return True if serialized.
+	 */
+	boolean isSerial();
+
+	/**
+	 * Gets the amount of async calls of this {@link Script} waiting in or running from its {@link
+	 * ScriptMailbox}.
+	 *
+	 * @return The depth of the mailbox, 0 if not serialized.
+	 */
+	int getMailboxDepth();
+
+	/**
+	 * Bounds the async calls of this {@link Script} waiting to run, on top of the limit of the
+	 * manager. Once the limit is reached the {@link RejectionPolicy} applies, and a rejected call
+	 * completes with a {@link ScriptOverloadException}.
+	 * Default: unbounded
+	 *
+	 * @param capacity
+	 * 		The maximum amount of waiting calls, or 0 for no limit.
+	 * @param policy
+	 * 		The {@link RejectionPolicy} applied once full.
+	 *
+	 * @see ScriptManager#setQueueLimit(int, RejectionPolicy)
+	 */
+	void setQueueLimit(int capacity, RejectionPolicy policy);
+
+	/**
+	 * Gets the amount of async calls of this {@link Script} waiting to run.
+	 *
+	 * @return The depth of its admission queue, 0 if unbounded.
+	 */
+	int getQueueDepth();
+
+	/**
+	 * Coalesces concurrent async calls of this {@link Script}: an {@code executeAsync} or {@code
+	 * expectLater} made while an equal call (same function, equal arguments) is in flight joins
+	 * that call rather than running again, converting its result as expected. Nothing is kept once
+	 * the call completes, so later calls always run. Calls with their own deadline, see
+	 * {@link #executeWithin(Duration, String, Object...)}, are never coalesced.
+	 *
+	 * @param singleFlight
+	 * 		Whether or not to coalesce concurrent calls.
+	 */
+	void setSingleFlight(boolean singleFlight);
+
+	/**
+	 * Checks if concurrent async calls of this {@link Script} are coalesced.
+	 *
+	 * @return True if coalesced.
+	 */
+	boolean isSingleFlight();
+
+	/**
+	 * Gets the statistics of the {@link ResultCache} memoizing this {@link Script}'s results, see
+	 * {@link ScriptBuilder#setMemoization(int, String...)}.
+	 *
+	 * @return The {@link CacheStats}, or null if not memoized.
+	 */
+	CacheStats getResultCacheStats();
+
+	/**
+	 * Drops every memoized result. Needed after changing the bindings of the {@link ScriptEngine}
+	 * directly rather than through the {@link ScriptBuilder}.
+	 */
+	void invalidateResults();
+
+	/**
+	 * Gets the amount of {@link ScriptEngine} replicas running this {@link Script}.
+	 *
+	 * @return The amount of replicas, 1 if not replicated.
+	 */
+	int getReplicaCount();
+
+	/**
+	 * Gets the bytes allocated while compiling and evaluating every replica of this {@link Script},
+	 * an estimate of the memory the replicas hold.
+	 *
+	 * @return The bytes allocated, or -1 if not replicated or the JVM cannot measure allocation.
+	 */
+	long getReplicaFootprint();
+
+	/**
+	 * Adds a holder of this {@link Script}, such as a {@link ScriptManager} copied along with its
+	 * scripts. Every holder calls {@link #release()} once done, and only the last one releases
+	 * the {@link ScriptEngine}.
+	 *
+	 * @return {@code this}
+	 *
+	 * @throws IllegalStateException
+	 * 		When the {@link Script} was already released.
+	 */
+	Script retain();
+
+	/**
+	 * Releases the {@link ScriptEngine} running this {@link Script}, returning it to the pool it
+	 * was leased from once the calls in flight finished. Calls made afterwards fail with a {@link
+	 * ScriptException} passed to the {@link ExceptionHandler}. Has no effect until every holder
+	 * added by {@link #retain()} released the {@link Script} too.
+	 */
+	void release();
 }
@@ -1,5 +1,8 @@
 package us.nullbytes.rcscript;
 
+import us.nullbytes.rcscript.cache.ResultCache;
+import us.nullbytes.rcscript.data.ScriptSource;
+
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import java.io.File;
@@ -14,7 +17,8 @@ import java.util.function.Consumer;
 public interface ScriptBuilder {
 
 	/**
-	 * Places an identifier and an {@link Object} to use inside of the {@link Script}.
+	 * Places an identifier and an {@link Object} to use inside of the {@link Script}. Once built,
+	 * the {@link Object} is placed into every replica of the {@link Script}.
 	 *
 	 * @param identifier
 	 * 		The identifier of the {@link Object}.
@@ -26,7 +30,9 @@ public interface ScriptBuilder {
 	ScriptBuilder place(String identifier, Object object);
 
 	/**
-	 * Provides a way to modify or retrieve info from the {@link ScriptContext}.
+	 * Provides a way to modify or retrieve info from the {@link ScriptContext}. Once built, the
+	 * {@link ScriptContext} of every replica of the {@link Script} is consumed, each while no call
+	 * runs on that replica.
 	 *
 	 * @param contextConsumer
 	 * 		The {@link Consumer} to process the {@link ScriptContext}.
@@ -37,6 +43,7 @@ public interface ScriptBuilder {
 
 	/**
 	 * Updates the {@link InputStream} of the {@link Script}.
+	 * The stream is decoded as UTF-8, see {@link ScriptSource}.
 	 *
 	 * @param stream
 	 * 		The {@link InputStream} of the {@link Script}.
@@ -45,6 +52,16 @@ public interface ScriptBuilder {
 	 */
 	ScriptBuilder setStream(InputStream stream);
 
+	/**
+	 * Updates the {@link ScriptSource} of the {@link Script}.
+	 *
+	 * @param source
+	 * 		The {@link ScriptSource} of the {@link Script}.
+	 *
+	 * @return {@code this}
+	 */
+	ScriptBuilder setSource(ScriptSource source);
+
 	/**
 	 * Sets the script based off a {@link String}.
 	 *
@@ -98,6 +115,50 @@ public interface ScriptBuilder {
 	 */
 	ScriptBuilder setInitFunction(String function, Object... params);
 
+	/**
+	 * Compiles an invocable {@link Script} into several {@link ScriptEngine} replicas, allowing
+	 * concurrent calls to run in parallel without sharing an engine between threads.
+	 * A count of one disables replication.
+	 *
+	 * @param count
+	 * 		The amount of replicas.
+	 * @param mode
+	 * 		The {@link ReplicaMode} choosing which replica a calling thread uses.
+	 *
+	 * @return {@code this}
+	 */
+	ScriptBuilder setReplicas(int count, ReplicaMode mode);
+
+	/**
+	 * Memoizes the results of pure functions in a bounded, least recently used {@link
+	 * ResultCache} keyed by the arguments, so repeated calls skip the {@link ScriptEngine}. A
+	 * {@link Script} without functions memoizes its evaluation instead. Every result is dropped
+	 * whenever {@link #place(String, Object)} or {@link #consumeContext(Consumer)} changes the
+	 * bindings, also after the {@link Script} was built.
+	 *
+	 * @param maxSize
+	 * 		The maximum amount of memoized results, or 0 to disable memoization.
+	 * @param functions
+	 * 		The names of the pure functions.
+	 *
+	 * @return {@code this}
+	 */
+	ScriptBuilder setMemoization(int maxSize, String... functions);
+
+	/**
+	 * Defers compiling the {@link Script} to its first use. {@link #build()} then returns at once
+	 * without leasing a {@link ScriptEngine} or reading the source, and a packed {@link Script} is
+	 * compiled on its first {@link ScriptManager#unpack(Object)}. Compilation failures are passed
+	 * to the {@link ExceptionHandler} of the {@link Script} at that point, after which an unpack
+	 * finds nothing and any other call throws an {@link IllegalStateException}.
+	 *
+	 * @param lazy
+	 * 		Whether or not to defer compiling.
+	 *
+	 * @return {@code this}
+	 */
+	ScriptBuilder setLazy(boolean lazy);
+
 	/**
 	 * Gets the {@link ScriptEngine} linked to this {@link ScriptBuilder}.
 	 *
@@ -106,9 +167,28 @@ public interface ScriptBuilder {
 	ScriptEngine extractEngine();
 
 	/**
-	 * Builds the Script with the current settings.
+	 * Builds the Script with the current settings. A builder builds a single {@link Script}, which
+	 * holds its {@link ScriptEngine}.
 	 *
 	 * @return The built {@link Script} ready to be executed.
+	 *
+	 * @throws IllegalStateException
+	 * 		When the {@link Script} was already built.
 	 */
 	Script build();
+
+	/**
+	 * The {@code enum} referencing ways to spread calls across {@link ScriptEngine} replicas.
+	 */
+	enum ReplicaMode {
+
+		/**
+		 * Every thread sticks to the replica it was first given.
+		 */
+		THREAD_LOCAL,
+		/**
+		 * Threads are spread across replicas by their id.
+		 */
+		STRIPED
+	}
 }
@@ -0,0 +1,109 @@
+package us.nullbytes.rcscript;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A handle to one function of a {@link Script}, resolved once by {@link Script#function(String,
+ * Class)}. Calls skip the lookup of the function by name, and the fixed-arity calls skip the
+ * varargs array of {@link Script#execute(String, Object...)}.
+ *
+ * @param <T>
+ * 		The type of the return value.
+ *
+ * @author Corey Shupe
+ */
+public interface ScriptFunction<T> {
+
+	/**
+	 * Gets the name of the function.
+	 *
+	 * @return The name of the function.
+	 */
+	String getName();
+
+	/**
+	 * Gets the {@link Class} the return value is expected as.
+	 *
+	 * @return The {@link Class} of the return value.
+	 */
+	Class<T> getReturnType();
+
+	/**
+	 * Calls the function without parameters.
+	 *
+	 * @return The return value of the function, or null if it's not a {@link T}.
+	 */
+	T call();
+
+	/**
+	 * Calls the function with one parameter.
+	 *
+	 * @param a
+	 * 		The first parameter.
+	 *
+	 * @return The return value of the function, or null if it's not a {@link T}.
+	 */
+	T call(Object a);
+
+	/**
+	 * Calls the function with two parameters.
+	 *
+	 * @param a
+	 * 		The first parameter.
+	 * @param b
+	 * 		The second parameter.
+	 *
+	 * @return The return value of the function, or null if it's not a {@link T}.
+	 */
+	T call(Object a, Object b);
+
+	/**
+	 * Calls the function with three parameters.
+	 *
+	 * @param a
+	 * 		The first parameter.
+	 * @param b
+	 * 		The second parameter.
+	 * @param c
+	 * 		The third parameter.
+	 *
+	 * @return The return value of the function, or null if it's not a {@link T}.
+	 */
+	T call(Object a, Object b, Object c);
+
+	/**
+	 * Calls the function with four parameters.
+	 *
+	 * @param a
+	 * 		The first parameter.
+	 * @param b
+	 * 		The second parameter.
+	 * @param c
+	 * 		The third parameter.
+	 * @param d
+	 * 		The fourth parameter.
+	 *
+	 * @return The return value of the function, or null if it's not a {@link T}.
+	 */
+	T call(Object a, Object b, Object c, Object d);
+
+	/**
+	 * Calls the function with any amount of parameters. The array is passed to the engine as is.
+	 *
+	 * @param args
+	 * 		The parameters used in the function.
+	 *
+	 * @return The return value of the function, or null if it's not a {@link T}.
+	 */
+	T callWith(Object... args);
+
+	/**
+	 * Calls the function async with any amount of parameters.
+	 *
+	 * @param args
+	 * 		The parameters used in the function.
+	 *
+	 * @return The {@link CompletableFuture} result of the function.
+	 */
+	CompletableFuture<T> callAsync(Object... args);
+}
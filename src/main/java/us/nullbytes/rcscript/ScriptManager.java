@@ -1,16 +1,33 @@
 package us.nullbytes.rcscript;
 
 import us.nullbytes.rcscript.builder.PackedScriptBuilder;
+import us.nullbytes.rcscript.cache.CacheStats;
+import us.nullbytes.rcscript.cache.CompiledScriptCache;
+import us.nullbytes.rcscript.cache.EvictionPolicy;
+import us.nullbytes.rcscript.conversion.ConverterRegistry;
+import us.nullbytes.rcscript.conversion.ResultConverter;
 import us.nullbytes.rcscript.data.InitFunc;
+import us.nullbytes.rcscript.metrics.ScriptMetrics;
+import us.nullbytes.rcscript.data.PackReport;
+import us.nullbytes.rcscript.data.ScriptSource;
+import us.nullbytes.rcscript.execution.AdmissionQueue;
+import us.nullbytes.rcscript.execution.ScriptOverloadException;
+import us.nullbytes.rcscript.execution.ScriptTimeoutException;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -22,6 +39,8 @@ public interface ScriptManager {
 
 	/**
 	 * Creates a unique instance of an exact copy of this. (including the cache)
+	 * The cached {@link Script}s are shared rather than copied, and only released once neither
+	 * manager holds them anymore.
 	 *
 	 * @return A copied version of this.
 	 */
@@ -70,6 +89,148 @@ public interface ScriptManager {
 	 */
 	ExceptionHandler<IOException> getExceptionHandler();
 
+	/**
+	 * Gets the {@link CompiledScriptCache} shared by every {@link ScriptBuilder} of this manager.
+	 *
+	 * @return The {@link CompiledScriptCache} of this manager.
+	 */
+	CompiledScriptCache getCompiledScriptCache();
+
+	/**
+	 * Gets the {@link ConverterRegistry} converting the return values of this manager's {@link
+	 * Script}s for {@link Script#expect(Class)} and every {@link ScriptFunction}. Register a
+	 * {@link ResultConverter} on it to support more types.
+	 *
+	 * @return The {@link ConverterRegistry} of this manager.
+	 */
+	ConverterRegistry getConverters();
+
+	/**
+	 * Gets the {@link ScriptMetrics} recording compile times, queue waits and invocation latencies
+	 * of this manager's {@link Script}s. Unique instances are not exposed as an MXBean unless
+	 * registered through {@link ScriptMetrics#register(String)}.
+	 *
+	 * @return The {@link ScriptMetrics} of this manager.
+	 */
+	ScriptMetrics getMetrics();
+
+	/**
+	 * Sets the {@link Executor} running every async call of this manager's {@link Script}s, such
+	 * as {@link Script#executeAsync()}. A default executor created by this manager is shut down
+	 * when replaced.
+	 *
+	 * @param executor
+	 * 		The {@link Executor} for async calls.
+	 */
+	void setExecutor(Executor executor);
+
+	/**
+	 * Gets the {@link Executor} running every async call of this manager's {@link Script}s.
+	 * Default: one daemon thread per core, created on first use.
+	 *
+	 * @return The {@link Executor} for async calls.
+	 */
+	Executor getExecutor();
+
+	/**
+	 * Sets the {@link ExecutionMode} choosing the default {@link Executor} of this manager. A
+	 * default executor created by this manager is shut down and replaced, while one given to
+	 * {@link #setExecutor(Executor)} is kept until cleared with {@code setExecutor(null)}.
+	 *
+	 * @param mode
+	 * 		The {@link ExecutionMode} to follow.
+	 */
+	void setExecutionMode(ExecutionMode mode);
+
+	/**
+	 * Gets the {@link ExecutionMode} choosing the default {@link Executor} of this manager.
+	 * Default: {@link ExecutionMode#POOLED}
+	 *
+	 * @return The current {@link ExecutionMode}.
+	 */
+	ExecutionMode getExecutionMode();
+
+	/**
+	 * Sets the default deadline of every async call of this manager's {@link Script}s, used by
+	 * scripts without a deadline of their own. An overdue call completes with a {@link
+	 * ScriptTimeoutException} and the engine it ran on is quarantined and rebuilt.
+	 *
+	 * @param deadline
+	 * 		The default deadline, or null for none.
+	 *
+	 * @see Script#setDeadline(Duration)
+	 */
+	void setDefaultDeadline(Duration deadline);
+
+	/**
+	 * Gets the default deadline of every async call of this manager's {@link Script}s.
+	 *
+	 * @return The default deadline, or null for none.
+	 */
+	Duration getDefaultDeadline();
+
+	/**
+	 * Sets how the thread of an overdue call is terminated.
+	 * Default: {@link TerminationMode#INTERRUPT}
+	 *
+	 * @param mode
+	 * 		The {@link TerminationMode} to follow.
+	 */
+	void setTerminationMode(TerminationMode mode);
+
+	/**
+	 * Gets how the thread of an overdue call is terminated.
+	 *
+	 * @return The current {@link TerminationMode}.
+	 */
+	TerminationMode getTerminationMode();
+
+	/**
+	 * Bounds the async calls of this manager's {@link Script}s waiting to run. Once the limit is
+	 * reached the {@link RejectionPolicy} applies, and a rejected call completes with a {@link
+	 * ScriptOverloadException}. Queue depth and rejections are exported by the {@link
+	 * ScriptMetrics}.
+	 * Default: unbounded
+	 *
+	 * @param capacity
+	 * 		The maximum amount of waiting calls, or 0 for no limit.
+	 * @param policy
+	 * 		The {@link RejectionPolicy} applied once full.
+	 *
+	 * @see Script#setQueueLimit(int, RejectionPolicy)
+	 */
+	void setQueueLimit(int capacity, RejectionPolicy policy);
+
+	/**
+	 * Gets the {@link AdmissionQueue} bounding the waiting async calls of this manager's {@link
+	 * Script}s.
+	 *
+	 * @return The {@link AdmissionQueue}, or null if unbounded.
+	 */
+	AdmissionQueue getAdmissionQueue();
+
+	/**
+	 * Shuts down the {@link Executor} of this manager if it's an {@link ExecutorService}. Calls
+	 * already submitted still run, new calls are rejected. The MXBean of the {@link
+	 * ScriptMetrics} is unregistered, if registered.
+	 */
+	void shutdown();
+
+	/**
+	 * Waits for every submitted call to finish after a {@link #shutdown()}.
+	 *
+	 * @param timeout
+	 * 		The maximum time to wait.
+	 * @param unit
+	 * 		The {@link TimeUnit} of the timeout.
+	 *
+	 * @return True if every call finished, false if the timeout passed first.
+	 *
+	 * @throws InterruptedException
+	 * 		When interrupted while waiting.
+	 */
+	boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
+
 	/**
 	 * Sets the {@link File} of the directory holding the scripts.
 	 *
@@ -94,6 +255,7 @@ public interface ScriptManager {
 
 	/**
 	 * Generates a new {@link ScriptBuilder} based off an {@link InputStream}.
+	 * The stream is decoded as UTF-8, see {@link ScriptSource}.
 	 *
 	 * @param stream
 	 * 		The {@link InputStream} of the script.
@@ -102,9 +264,19 @@ public interface ScriptManager {
 	 */
 	ScriptBuilder openScript(InputStream stream);
 
+	/**
+	 * Generates a new {@link ScriptBuilder} based off a {@link ScriptSource}.
+	 *
+	 * @param source
+	 * 		The {@link ScriptSource} of the script.
+	 *
+	 * @return The generated {@link ScriptBuilder}.
+	 */
+	ScriptBuilder openScript(ScriptSource source);
+
 	/**
 	 * Generates a new {@link ScriptBuilder} based off a {@link String}.
-	 * This {@link String} is internally changed into a {@link java.io.ByteArrayInputStream}.
+	 * This {@link String} is internally changed into a {@link ScriptSource}.
 	 *
 	 * @param script
 	 * 		The script to read.
@@ -114,7 +286,9 @@ public interface ScriptManager {
 	ScriptBuilder openScript(String script);
 
 	/**
-	 * Generates a {@link ScriptBuilder} based off the script located at the specified resource.
+	 * Generates a {@link ScriptBuilder} based off the script located at the specified resource. The
+	 * location is resolved like {@link Class#getResourceAsStream(String)} on the class of this
+	 * manager: relative to its package unless it starts with a {@code /}.
 	 *
 	 * @param location
 	 * 		The location of the script.
@@ -156,6 +330,7 @@ public interface ScriptManager {
 
 	/**
 	 * Generates a new {@link PackedScriptBuilder} based off an {@link InputStream}.
+	 * The stream is decoded as UTF-8, see {@link ScriptSource}.
 	 *
 	 * @param stream
 	 * 		The {@link InputStream} of the script.
@@ -166,9 +341,21 @@ public interface ScriptManager {
 	 */
 	ScriptBuilder packScript(InputStream stream, Object identifier);
 
+	/**
+	 * Generates a new {@link PackedScriptBuilder} based off a {@link ScriptSource}.
+	 *
+	 * @param source
+	 * 		The {@link ScriptSource} of the script.
+	 * @param identifier
+	 * 		The identifier used for the {@link Script}.
+	 *
+	 * @return The generated {@link PackedScriptBuilder}.
+	 */
+	ScriptBuilder packScript(ScriptSource source, Object identifier);
+
 	/**
 	 * Generates a new {@link ScriptBuilder} based off a {@link String}.
-	 * This {@link String} is internally changed into a {@link java.io.ByteArrayInputStream}.
+	 * This {@link String} is internally changed into a {@link ScriptSource}.
 	 *
 	 * @param script
 	 * 		The script to read.
@@ -181,7 +368,8 @@ public interface ScriptManager {
 
 	/**
 	 * Generates a {@link PackedScriptBuilder} based off the script located at the specified
-	 * resource.
+	 * resource. The location is always taken from the root of the class path, with or without a
+	 * leading {@code /}.
 	 *
 	 * @param location
 	 * 		The location of the script.
@@ -219,6 +407,24 @@ public interface ScriptManager {
 	 */
 	ScriptBuilder packFileScript(String location, Object identifier);
 
+	/**
+	 * Packs every script inside of a directory and its subdirectories, compiling them in parallel
+	 * on the {@link #getExecutor()}. Only files with an extension of the engine are packed, if it
+	 * declares any. Failures are collected rather than handled one by one, and the built {@link
+	 * Script}s are inserted together once all are compiled. Of files mapped to the same
+	 * identifier, the last one in path order is kept.
+	 * If there's a DIR present and the directory is relative, it combines the paths of the DIR and
+	 * given directory.
+	 *
+	 * @param directory
+	 * 		The directory of the scripts.
+	 * @param identifierMapper
+	 * 		The {@link Function} mapping each file to its identifier, or to null to skip the file.
+	 *
+	 * @return The {@link PackReport} of every packed and failed file.
+	 */
+	PackReport packDirectory(File directory, Function<Path, Object> identifierMapper);
+
 	/**
 	 * Inserts the {@link Script} along with an identifier.
 	 *
@@ -267,6 +473,30 @@ public interface ScriptManager {
 	 */
 	void applyIdentifierRule(IdentifierRule rule);
 
+	/**
+	 * Applies a new {@link EvictionPolicy} to the cache of packed scripts. Evicted scripts are
+	 * released, so they should not be used after being evicted.
+	 *
+	 * @param policy
+	 * 		The {@link EvictionPolicy} to follow, or null to never evict.
+	 */
+	void applyEvictionPolicy(EvictionPolicy policy);
+
+	/**
+	 * Gets the {@link EvictionPolicy} of the cache of packed scripts.
+	 *
+	 * @return The {@link EvictionPolicy} followed, or null if never evicting.
+	 */
+	EvictionPolicy getEvictionPolicy();
+
+	/**
+	 * Gets the statistics of the cache of packed scripts. Hits and misses are counted by {@link
+	 * #unpack(Object)}, evictions since the current {@link EvictionPolicy} was applied.
+	 *
+	 * @return A snapshot of the {@link CacheStats}.
+	 */
+	CacheStats getScriptCacheStats();
+
 	/**
 	 * Clears the cache of all scripts held within.
 	 */
@@ -318,4 +548,66 @@ public interface ScriptManager {
 		}
 
 	}
+
+	/**
+	 * The {@code enum} referencing ways to run async calls.
+	 */
+	enum ExecutionMode {
+
+		/**
+		 * Calls share a pool with one daemon thread per core.
+		 */
+		POOLED,
+		/**
+		 * Every call runs on its own virtual thread, so calls blocking on host objects never hold a
+		 * platform thread. Calls into one {@link javax.script.ScriptEngine} are limited to one at a
+		 * time per replica, see {@link Script#setConcurrencyLimit(int)}, so waiting threads park
+		 * instead of pinning their carrier on the engine's monitors. Falls back to a platform
+		 * thread per call on a JVM without virtual threads.
+		 */
+		VIRTUAL
+	}
+
+	/**
+	 * The {@code enum} referencing ways to handle an async call arriving at a full {@link
+	 * AdmissionQueue}.
+	 */
+	enum RejectionPolicy {
+
+		/**
+		 * The new call completes with a {@link ScriptOverloadException} at once.
+		 */
+		FAIL_FAST,
+		/**
+		 * The calling thread runs the new call itself before returning its completed future,
+		 * slowing the caller down to the pace of the workers. A deadline interrupts the caller
+		 * without ever stopping it. Calls of serial {@link Script}s or of {@link Script}s with a
+		 * concurrency limit are rejected like {@link #FAIL_FAST} instead, as running them on the
+		 * caller would break the limit.
+		 */
+		CALLER_RUNS,
+		/**
+		 * The oldest waiting call completes with a {@link ScriptOverloadException} to make room
+		 * for the new call, favouring fresh work over stale work.
+		 */
+		SHED_OLDEST
+	}
+
+	/**
+	 * The {@code enum} referencing ways to terminate the thread of a call overrunning its deadline.
+	 */
+	enum TerminationMode {
+
+		/**
+		 * The thread is interrupted. Scripts looping without calling into interruptible Java code
+		 * keep their thread until they return, although their engine may be replaced.
+		 */
+		INTERRUPT,
+		/**
+		 * The thread is interrupted, then stopped if still running shortly after. Stopping a
+		 * thread is unsafe for any shared state it was changing, and unsupported since Java 20,
+		 * where this falls back to {@link #INTERRUPT}.
+		 */
+		STOP
+	}
 }
@@ -0,0 +1,102 @@
+package us.nullbytes.rcscript;
+
+import javax.script.Bindings;
+
+/**
+ * One tenant of a compiled {@link Script}, created by {@link Script#tenant()}. The script runs
+ * inside engine-scope {@link Bindings} of the tenant's own, so no state defined by one tenant is
+ * seen by another tenant or by the {@link Script} itself, while every tenant shares the single
+ * compilation and {@link javax.script.ScriptEngine} of the {@link Script}. Calls of a tenant are
+ * serialized, calls of separate tenants are not.
+ * <pre>
+ *     {@code
+ *     try (ScriptTenant tenant = script.tenant()) {
+ *         tenant.execute("configure", settings);
+ *         Integer total = tenant.expect(Integer.class, "compute", order);
+ *     }
+ *     }
+ * </pre>
+ *
+ * @author Corey Shupe
+ * @see Script#tenant()
+ */
+public interface ScriptTenant extends AutoCloseable {
+
+	/**
+	 * Gets the {@link Script} this is a tenant of.
+	 *
+	 * @return The {@link Script}.
+	 */
+	Script getScript();
+
+	/**
+	 * Gets the engine-scope {@link Bindings} of this tenant.
+	 *
+	 * @return The {@link Bindings}.
+	 */
+	Bindings getBindings();
+
+	/**
+	 * Executes the {@link Script} for this tenant. Scripts with functions call their initial
+	 * function, others are evaluated inside of the tenant's {@link Bindings}.
+	 *
+	 * @return The return value of the {@link Script}, or null if it failed.
+	 *
+	 * @throws IllegalStateException
+	 * 		When the tenant was closed.
+	 */
+	Object execute();
+
+	/**
+	 * Executes a function for this tenant.
+	 *
+	 * @param func
+	 * 		The function to call.
+	 * @param args
+	 * 		The parameters used in the function.
+	 *
+	 * @return The return value of the function, or null if it failed.
+	 *
+	 * @throws UnsupportedOperationException
+	 * 		When the {@link Script} has no functions.
+	 * @throws IllegalStateException
+	 * 		When the tenant was closed.
+	 */
+	Object execute(String func, Object... args);
+
+	/**
+	 * Executes a function for this tenant, converting its return value like {@link
+	 * Script#expect(Class, String, Object...)}.
+	 *
+	 * @param classIdentifier
+	 * 		The {@link Class} expected.
+	 * @param func
+	 * 		The function to call.
+	 * @param args
+	 * 		The parameters used in the function.
+	 * @param <T>
+	 * 		The type expected.
+	 *
+	 * @return The converted return value, or null if it failed or cannot be converted.
+	 *
+	 * @throws UnsupportedOperationException
+	 * 		When the {@link Script} has no functions.
+	 * @throws IllegalStateException
+	 * 		When the tenant was closed.
+	 */
+	<T> T expect(Class<T> classIdentifier, String func, Object... args);
+
+	/**
+	 * Checks if this tenant was closed.
+	 *
+	 * @return True if closed.
+	 */
+	boolean isClosed();
+
+	/**
+	 * Closes this tenant, resetting its {@link Bindings} and returning them to be reused by later
+	 * tenants. Closing more than once has no effect.
+	 */
+	@Override
+	void close();
+}
@@ -1,16 +1,27 @@
 package us.nullbytes.rcscript.builder;
 
+import us.nullbytes.rcscript.ExceptionHandler;
 import us.nullbytes.rcscript.Script;
 import us.nullbytes.rcscript.ScriptBuilder;
+import us.nullbytes.rcscript.ScriptBuilder.ReplicaMode;
 import us.nullbytes.rcscript.ScriptManager;
 import us.nullbytes.rcscript.builder.script.CompilableScript;
 import us.nullbytes.rcscript.builder.script.InvocableScript;
+import us.nullbytes.rcscript.builder.script.LazyScript;
 import us.nullbytes.rcscript.builder.script.SimpleScript;
+import us.nullbytes.rcscript.cache.ResultCache;
 import us.nullbytes.rcscript.data.InitFunc;
 import us.nullbytes.rcscript.data.ScriptData;
+import us.nullbytes.rcscript.data.ScriptSource;
+import us.nullbytes.rcscript.engine.EnginePool;
+import us.nullbytes.rcscript.metrics.ScriptMetrics;
 
 import javax.script.*;
 import java.io.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 /**
@@ -22,24 +33,95 @@ import java.util.function.Consumer;
 public class GenericScriptBuilder implements ScriptBuilder {
 
 	/**
-	 * The {@link ScriptData} used for the built {@link Script}.
+	 * The {@link ScriptManager} which created this builder.
 	 */
-	private final ScriptData scriptData;
+	private final ScriptManager manager;
+
+	/**
+	 * The {@link EnginePool} to lease the {@link #engine} from, or null if the engine was given.
+	 */
+	private final EnginePool enginePool;
+
+	/**
+	 * The {@link ScriptEngine} used for the built {@link Script}, null until leased.
+	 */
+	private ScriptEngine engine;
+
+	/**
+	 * The {@link EnginePool.Lease} holding the {@link #engine}, or null if not pooled.
+	 */
+	private EnginePool.Lease lease;
+
+	/**
+	 * The {@link ScriptSource} of the built {@link Script}.
+	 */
+	private ScriptSource source;
+
+	/**
+	 * The placements applied to the {@link #engine} once leased.
+	 */
+	private final Map<String, Object> placements = new LinkedHashMap<>();
+
+	/**
+	 * The context consumers applied to the {@link #engine} once leased.
+	 */
+	private final List<Consumer<ScriptContext>> contextConsumers = new ArrayList<>();
 
 	/**
 	 * The {@link InitFunc} used to define the initializer function.
 	 */
 	private InitFunc initFunc;
 
+	/**
+	 * The amount of {@link ScriptEngine} replicas for an invocable {@link Script}.
+	 */
+	private int replicaCount = 1;
+
+	/**
+	 * The {@link ReplicaMode} used when {@link #replicaCount} is above one.
+	 */
+	private ReplicaMode replicaMode = ReplicaMode.STRIPED;
+
+	/**
+	 * Whether or not {@link #build()} defers compiling to the first use of the {@link Script}.
+	 */
+	private boolean lazy = false;
+
+	/**
+	 * The maximum amount of memoized results of each built {@link Script}, 0 if not memoized.
+	 */
+	private int memoizationSize = 0;
+
+	/**
+	 * The names of the memoized functions.
+	 */
+	private String[] memoizedFunctions = new String[0];
+
+	/**
+	 * The {@link ResultCache} of the {@link Script} built last, invalidated when the bindings
+	 * change, or null if not memoized.
+	 */
+	private ResultCache resultCache = null;
+
+	/**
+	 * Whether or not the {@link Script} was built, as a builder builds a single {@link Script}.
+	 */
+	private boolean built = false;
+
+	/**
+	 * The {@link Script} created by this builder, or null until created.
+	 */
+	private Script created = null;
+
 	/**
 	 * Initializes a {@link GenericScriptBuilder}
 	 *
 	 * @param manager
-	 * 		The {@link ScriptManager} to define the manager in the {@link #scriptData}.
+	 * 		The {@link ScriptManager} which manages the built {@link Script}.
 	 * @param engine
-	 * 		The {@link ScriptEngine} to define the manager in the {@link #scriptData}.
+	 * 		The {@link ScriptEngine} which runs the built {@link Script}.
 	 *
-	 * @see #GenericScriptBuilder(ScriptManager, ScriptEngine, InputStream)
+	 * @see #GenericScriptBuilder(ScriptManager, ScriptEngine, ScriptSource)
 	 */
 	public GenericScriptBuilder(ScriptManager manager, ScriptEngine engine) {
 		this(manager, engine, null);
@@ -49,23 +131,75 @@ public class GenericScriptBuilder implements ScriptBuilder {
 	 * Initializes a {@link GenericScriptBuilder}
 	 *
 	 * @param manager
-	 * 		The {@link ScriptManager} to define the manager in the {@link #scriptData}.
+	 * 		The {@link ScriptManager} which manages the built {@link Script}.
 	 * @param engine
-	 * 		The {@link ScriptEngine} to define the engine in the {@link #scriptData}.
-	 * @param stream
-	 * 		The {@link InputStream} to define the stream in the {@link #scriptData}.
+	 * 		The {@link ScriptEngine} which runs the built {@link Script}.
+	 * @param source
+	 * 		The {@link ScriptSource} of the built {@link Script}.
+	 */
+	public GenericScriptBuilder(ScriptManager manager, ScriptEngine engine, ScriptSource source) {
+		this.manager = manager;
+		this.enginePool = null;
+		this.engine = engine;
+		this.source = source;
+		this.initFunc = manager.getDefaultInitFunction();
+	}
+
+	/**
+	 * Initializes a {@link GenericScriptBuilder} which leases its {@link ScriptEngine} on build.
+	 *
+	 * @param manager
+	 * 		The {@link ScriptManager} which manages the built {@link Script}.
+	 * @param enginePool
+	 * 		The {@link EnginePool} to lease the {@link ScriptEngine} from.
+	 *
+	 * @see #GenericScriptBuilder(ScriptManager, EnginePool, ScriptSource)
+	 */
+	public GenericScriptBuilder(ScriptManager manager, EnginePool enginePool) {
+		this(manager, enginePool, null);
+	}
+
+	/**
+	 * Initializes a {@link GenericScriptBuilder} which leases its {@link ScriptEngine} on build.
+	 *
+	 * @param manager
+	 * 		The {@link ScriptManager} which manages the built {@link Script}.
+	 * @param enginePool
+	 * 		The {@link EnginePool} to lease the {@link ScriptEngine} from.
+	 * @param source
+	 * 		The {@link ScriptSource} of the built {@link Script}.
 	 */
-	public GenericScriptBuilder(ScriptManager manager, ScriptEngine engine, InputStream stream) {
-		scriptData = new ScriptData(manager, engine, stream);
+	public GenericScriptBuilder(ScriptManager manager, EnginePool enginePool, ScriptSource source) {
+		this.manager = manager;
+		this.enginePool = enginePool;
+		this.source = source;
 		this.initFunc = manager.getDefaultInitFunction();
 	}
 
+	/**
+	 * Gets the {@link ScriptEngine} for the built {@link Script}, leasing it from the {@link
+	 * #enginePool} and applying all pending placements and context consumers if needed.
+	 *
+	 * @return The {@link ScriptEngine}.
+	 */
+	private ScriptEngine acquireEngine() {
+		if (engine == null) {
+			lease = enginePool.lease();
+			engine = lease.getEngine();
+			placements.forEach(engine::put);
+			contextConsumers.forEach(consumer -> consumer.accept(engine.getContext()));
+		}
+		return engine;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public ScriptBuilder place(String identifier, Object object) {
-		scriptData.getEngine().put(identifier, object);
+		placements.put(identifier, object);
+		applyToEngines(engine -> engine.put(identifier, object));
+		if (resultCache != null) resultCache.invalidate();
 		return this;
 	}
 
@@ -74,16 +208,48 @@ public class GenericScriptBuilder implements ScriptBuilder {
 	 */
 	@Override
 	public ScriptBuilder consumeContext(Consumer<ScriptContext> contextConsumer) {
-		contextConsumer.accept(scriptData.getEngine().getContext());
+		contextConsumers.add(contextConsumer);
+		applyToEngines(engine -> contextConsumer.accept(engine.getContext()));
+		if (resultCache != null) resultCache.invalidate();
 		return this;
 	}
 
+	/**
+	 * Applies a change of the bindings to the {@link ScriptEngine} of this builder once leased, or
+	 * to every current engine of the created {@link Script}, each replica while holding its lock.
+	 *
+	 * @param change
+	 * 		The {@link Consumer} changing the bindings of a {@link ScriptEngine}.
+	 */
+	private void applyToEngines(Consumer<ScriptEngine> change) {
+		Script created = this.created;
+		if (created == null) {
+			if (engine != null) change.accept(engine);
+		} else if (created instanceof InvocableScript) {
+			try {
+				((InvocableScript) created).forEachEngine(change);
+			} catch (ScriptException ex) {
+				ex.printStackTrace();
+			}
+		} else {
+			change.accept(created.getScriptEngine());
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public ScriptBuilder setStream(InputStream stream) {
-		scriptData.setStream(stream);
+		return setSource(stream == null ? null : ScriptSource.of(stream));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptBuilder setSource(ScriptSource source) {
+		this.source = source;
 		return this;
 	}
 
@@ -92,8 +258,7 @@ public class GenericScriptBuilder implements ScriptBuilder {
 	 */
 	@Override
 	public ScriptBuilder setScript(String script) {
-		setStream(new ByteArrayInputStream(script.getBytes()));
-		return this;
+		return setSource(ScriptSource.of(script));
 	}
 
 	/**
@@ -101,8 +266,7 @@ public class GenericScriptBuilder implements ScriptBuilder {
 	 */
 	@Override
 	public ScriptBuilder setResourceLocation(String location) {
-		setStream(getClass().getResourceAsStream(location.startsWith("/") ? location : '/' + location));
-		return this;
+		return setSource(ScriptSource.ofResource(location));
 	}
 
 	/**
@@ -110,7 +274,7 @@ public class GenericScriptBuilder implements ScriptBuilder {
 	 */
 	@Override
 	public ScriptBuilder setLocation(String location) {
-		setLocation(new File(scriptData.getManager().getScriptsDir(), location));
+		setLocation(new File(manager.getScriptsDir(), location));
 		return this;
 	}
 
@@ -120,9 +284,9 @@ public class GenericScriptBuilder implements ScriptBuilder {
 	@Override
 	public ScriptBuilder setLocation(File file) {
 		try {
-			setStream(new FileInputStream(file));
+			setSource(ScriptSource.of(file.toPath()).load());
 		} catch (IOException ex) {
-			scriptData.getManager().getExceptionHandler().handle(ex);
+			manager.getExceptionHandler().handle(ex);
 		}
 		return this;
 	}
@@ -141,19 +305,155 @@ public class GenericScriptBuilder implements ScriptBuilder {
 	 * {@inheritDoc}
 	 */
 	@Override
+	public ScriptBuilder setReplicas(int count, ReplicaMode mode) {
+		if (count < 1) throw new IllegalArgumentException("A script needs at least one replica.");
+		this.replicaCount = count;
+		this.replicaMode = mode;
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptBuilder setMemoization(int maxSize, String... functions) {
+		if (maxSize < 0) throw new IllegalArgumentException("The maximum size cannot be negative.");
+		this.memoizationSize = maxSize;
+		this.memoizedFunctions = functions.clone();
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptBuilder setLazy(boolean lazy) {
+		this.lazy = lazy;
+		return this;
+	}
+
+	/**
+	 * Gets the identifier the built {@link Script} is packed under, which its metrics are recorded
+	 * under.
+	 *
+	 * @return The identifier, or null as this builder doesn't pack.
+	 */
+	public Object getIdentifier() {
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * A pooled {@link ScriptEngine} is leased at this point rather than on {@link #build()}.
+	 */
+	@Override
 	public ScriptEngine extractEngine() {
-		return scriptData.getEngine();
+		return acquireEngine();
 	}
 
 	/**
 	 * {@inheritDoc}
+	 * Unless lazy, a source read from a file or stream is read at this point, a failure being
+	 * passed to the {@link ExceptionHandler} of the {@link ScriptManager}.
 	 */
 	@Override
 	public Script build() {
-		if (scriptData.getStream() == null) {
+		if (lazy) {
+			if (source == null) {
+				throw new UnsupportedOperationException("You cannot build a script without a source.");
+			}
+			checkUnbuilt();
+			built = true;
+			return new LazyScript(manager, this::createScript);
+		}
+		try {
+			if (source != null) source.load();
+			return compile();
+		} catch (IOException ex) {
+			manager.getExceptionHandler().handle(ex);
+			return null;
+		} catch (ScriptException ex) {
+			ex.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Builds the {@link Script} with the current settings like {@link #build()}, however throws
+	 * any failure rather than printing it. The time taken is recorded in the {@link ScriptMetrics}
+	 * of the manager.
+	 *
+	 * @return The built {@link Script} ready to be executed.
+	 *
+	 * @throws ScriptException
+	 * 		When the {@link Script} fails to compile or evaluate.
+	 * @throws IllegalStateException
+	 * 		When this builder already built its {@link Script}.
+	 */
+	public Script compile() throws ScriptException {
+		if (source == null) {
 			throw new UnsupportedOperationException("You cannot build a script without a source.");
 		}
-		ScriptEngine engine = scriptData.getEngine();
+		checkUnbuilt();
+		Script script = createScript();
+		built = true;
+		return script;
+	}
+
+	/**
+	 * Checks that this builder didn't build its {@link Script} yet, as every {@link Script} holds
+	 * the {@link ScriptEngine} of the builder.
+	 *
+	 * @throws IllegalStateException
+	 * 		When this builder already built its {@link Script}.
+	 */
+	private void checkUnbuilt() {
+		if (built) throw new IllegalStateException("This builder already built its script.");
+	}
+
+	/**
+	 * Creates the {@link Script} on the {@link ScriptEngine} of this builder, recording the time
+	 * taken.
+	 *
+	 * @return The created {@link Script}.
+	 *
+	 * @throws ScriptException
+	 * 		When the {@link Script} fails to compile or evaluate.
+	 */
+	private Script createScript() throws ScriptException {
+		ScriptMetrics metrics = manager.getMetrics();
+		boolean timed = metrics.isEnabled();
+		long start = timed ? System.nanoTime() : 0;
+		ScriptEngine engine = acquireEngine();
+		ScriptData scriptData = lease == null ?
+				new ScriptData(manager, engine, source) :
+				new ScriptData(manager, lease, source);
+		scriptData.setIdentifier(getIdentifier());
+		ResultCache resultCache = memoizationSize == 0 ? null : new ResultCache(memoizationSize, memoizedFunctions);
+		scriptData.setReplicator(() -> newReplica(resultCache));
+		scriptData.setResultCache(resultCache);
+		this.resultCache = resultCache;
+		Script script = instantiate(engine, scriptData);
+		created = script;
+		if (timed) metrics.forScript(getIdentifier()).getCompileTimes().record(System.nanoTime() - start);
+		return script;
+	}
+
+	/**
+	 * Creates the {@link Script} implementation fitting the {@link ScriptEngine}, releasing a
+	 * leased engine on failure.
+	 *
+	 * @param engine
+	 * 		The {@link ScriptEngine} running the {@link Script}.
+	 * @param scriptData
+	 * 		The {@link ScriptData} of the {@link Script}.
+	 *
+	 * @return The {@link Script}.
+	 *
+	 * @throws ScriptException
+	 * 		When the {@link Script} fails to compile or evaluate.
+	 */
+	private Script instantiate(ScriptEngine engine, ScriptData scriptData) throws ScriptException {
 		try {
 			if (engine instanceof Invocable) {
 				if (initFunc == null) {
@@ -164,6 +464,9 @@ public class GenericScriptBuilder implements ScriptBuilder {
 				if (!(engine instanceof Compilable)) {
 					return new SimpleScript(scriptData);
 				}
+				if (replicaCount > 1) {
+					return new InvocableScript(createReplicas(scriptData), replicaMode, initFunc);
+				}
 				return new InvocableScript(scriptData, initFunc);
 			} else if (engine instanceof Compilable) {
 				return new CompilableScript(scriptData);
@@ -171,8 +474,56 @@ public class GenericScriptBuilder implements ScriptBuilder {
 				return new SimpleScript(scriptData);
 			}
 		} catch (ScriptException ex) {
-			ex.printStackTrace();
-			return null;
+			if (lease != null) {
+				lease.release();
+				lease = null;
+				this.engine = null;
+			}
+			throw ex;
+		}
+	}
+
+	/**
+	 * Creates the {@link ScriptData} of every replica, the first being the given {@link
+	 * ScriptData}. Every replica shares the source and receives all placements and context
+	 * consumers.
+	 *
+	 * @param primary
+	 * 		The {@link ScriptData} of the first replica.
+	 *
+	 * @return The {@link ScriptData} of every replica.
+	 */
+	private List<ScriptData> createReplicas(ScriptData primary) {
+		List<ScriptData> replicas = new ArrayList<>(replicaCount);
+		replicas.add(primary);
+		for (int i = 1; i < replicaCount; i++) {
+			replicas.add(newReplica(primary.getResultCache()));
+		}
+		return replicas;
+	}
+
+	/**
+	 * Creates the {@link ScriptData} of a new replica on a fresh {@link ScriptEngine}, with every
+	 * placement and context consumer applied. Also used to rebuild a quarantined engine.
+	 *
+	 * @param resultCache
+	 * 		The {@link ResultCache} shared with the other replicas, or null if not memoized.
+	 *
+	 * @return The {@link ScriptData} of the replica.
+	 */
+	private ScriptData newReplica(ResultCache resultCache) {
+		ScriptData replica;
+		if (enginePool == null) {
+			replica = new ScriptData(manager, engine.getFactory().getScriptEngine(), source);
+		} else {
+			replica = new ScriptData(manager, enginePool.lease(), source);
 		}
+		ScriptEngine replicaEngine = replica.getEngine();
+		placements.forEach(replicaEngine::put);
+		contextConsumers.forEach(consumer -> consumer.accept(replicaEngine.getContext()));
+		replica.setIdentifier(getIdentifier());
+		replica.setReplicator(() -> newReplica(resultCache));
+		replica.setResultCache(resultCache);
+		return replica;
 	}
 }
@@ -3,9 +3,11 @@ package us.nullbytes.rcscript.builder;
 import us.nullbytes.rcscript.Script;
 import us.nullbytes.rcscript.ScriptManager;
 import us.nullbytes.rcscript.builder.script.SimpleScript;
+import us.nullbytes.rcscript.data.ScriptSource;
+import us.nullbytes.rcscript.engine.EnginePool;
 
 import javax.script.ScriptEngine;
-import java.io.InputStream;
+import javax.script.ScriptException;
 
 /**
  * An implementation of {@link GenericScriptBuilder} used for packed scripts.
@@ -30,7 +32,7 @@ public class PackedScriptBuilder extends GenericScriptBuilder {
 	 * @param identifier
 	 * 		The identifier to use for {@link #identifier}.
 	 *
-	 * @see #PackedScriptBuilder(ScriptManager, ScriptEngine, InputStream, Object)
+	 * @see #PackedScriptBuilder(ScriptManager, ScriptEngine, ScriptSource, Object)
 	 */
 	public PackedScriptBuilder(ScriptManager manager, ScriptEngine engine, Object identifier) {
 		this(manager, engine, null, identifier);
@@ -43,15 +45,50 @@ public class PackedScriptBuilder extends GenericScriptBuilder {
 	 * 		The {@link ScriptManager} used in the {@link GenericScriptBuilder}.
 	 * @param engine
 	 * 		The {@link ScriptEngine} used in the {@link GenericScriptBuilder}.
-	 * @param stream
-	 * 		The {@link InputStream} used in the {@link GenericScriptBuilder}.
+	 * @param source
+	 * 		The {@link ScriptSource} used in the {@link GenericScriptBuilder}.
 	 * @param identifier
 	 * 		The identifier to use for {@link #identifier}.
 	 *
-	 * @see GenericScriptBuilder#GenericScriptBuilder(ScriptManager, ScriptEngine, InputStream)
+	 * @see GenericScriptBuilder#GenericScriptBuilder(ScriptManager, ScriptEngine, ScriptSource)
 	 */
-	public PackedScriptBuilder(ScriptManager manager, ScriptEngine engine, InputStream stream, Object identifier) {
-		super(manager, engine, stream);
+	public PackedScriptBuilder(ScriptManager manager, ScriptEngine engine, ScriptSource source, Object identifier) {
+		super(manager, engine, source);
+		this.identifier = identifier;
+	}
+
+	/**
+	 * Initializes a new {@link PackedScriptBuilder} which leases its {@link ScriptEngine} on build.
+	 *
+	 * @param manager
+	 * 		The {@link ScriptManager} used in the {@link GenericScriptBuilder}.
+	 * @param enginePool
+	 * 		The {@link EnginePool} used in the {@link GenericScriptBuilder}.
+	 * @param identifier
+	 * 		The identifier to use for {@link #identifier}.
+	 *
+	 * @see #PackedScriptBuilder(ScriptManager, EnginePool, ScriptSource, Object)
+	 */
+	public PackedScriptBuilder(ScriptManager manager, EnginePool enginePool, Object identifier) {
+		this(manager, enginePool, null, identifier);
+	}
+
+	/**
+	 * Initializes a new {@link PackedScriptBuilder} which leases its {@link ScriptEngine} on build.
+	 *
+	 * @param manager
+	 * 		The {@link ScriptManager} used in the {@link GenericScriptBuilder}.
+	 * @param enginePool
+	 * 		The {@link EnginePool} used in the {@link GenericScriptBuilder}.
+	 * @param source
+	 * 		The {@link ScriptSource} used in the {@link GenericScriptBuilder}.
+	 * @param identifier
+	 * 		The identifier to use for {@link #identifier}.
+	 *
+	 * @see GenericScriptBuilder#GenericScriptBuilder(ScriptManager, EnginePool, ScriptSource)
+	 */
+	public PackedScriptBuilder(ScriptManager manager, EnginePool enginePool, ScriptSource source, Object identifier) {
+		super(manager, enginePool, source);
 		this.identifier = identifier;
 	}
 
@@ -60,6 +97,7 @@ public class PackedScriptBuilder extends GenericScriptBuilder {
 	 *
 	 * @return The identifier of the {@link Script} defined in {@link #identifier}.
 	 */
+	@Override
 	public Object getIdentifier() {
 		return identifier;
 	}
@@ -80,10 +118,23 @@ public class PackedScriptBuilder extends GenericScriptBuilder {
 	@Override
 	public Script build() {
 		Script script = super.build();
+		if (script != null) {
+			script.getScriptManager().insert(script, identifier);
+		}
+		return script;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The built {@link Script} is not inserted into the {@link ScriptManager}.
+	 */
+	@Override
+	public Script compile() throws ScriptException {
+		Script script = super.compile();
 		if (script instanceof SimpleScript) {
+			script.release();
 			throw new UnsupportedOperationException("A packed script must be compilable or invocable.");
 		}
-		script.getScriptManager().insert(script, identifier);
 		return script;
 	}
 }
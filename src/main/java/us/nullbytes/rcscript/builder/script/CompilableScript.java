@@ -1,12 +1,13 @@
 package us.nullbytes.rcscript.builder.script;
 
 import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptTenant;
 import us.nullbytes.rcscript.data.ScriptData;
+import us.nullbytes.rcscript.metrics.ScriptMetrics;
 
 import javax.script.Compilable;
 import javax.script.CompiledScript;
 import javax.script.ScriptException;
-import java.io.InputStreamReader;
 
 /**
  * A {@link Compilable} implementation of {@link GenericScript}. Same as {@link SimpleScript}
@@ -18,9 +19,10 @@ import java.io.InputStreamReader;
 public class CompilableScript extends GenericScript {
 
 	/**
-	 * The {@link CompiledScript} compiled from the {@link ScriptData#getStream()}.
+	 * The {@link Compiled} script with the {@link ScriptData} it evaluates in, replaced together
+	 * when the engine is quarantined.
 	 */
-	private final CompiledScript script;
+	private volatile Compiled compiled;
 
 	/**
 	 * Initializes a new {@link CompilableScript}.
@@ -34,7 +36,7 @@ public class CompilableScript extends GenericScript {
 	 */
 	public CompilableScript(ScriptData scriptData) throws ScriptException {
 		super(scriptData);
-		script = ((Compilable) getScriptEngine()).compile(new InputStreamReader(scriptData.getStream()));
+		compiled = new Compiled(scriptData, compile(scriptData, null));
 	}
 
 	/**
@@ -42,11 +44,80 @@ public class CompilableScript extends GenericScript {
 	 */
 	@Override
 	public Object execute() {
+		Compiled compiled = this.compiled;
+		long start = startTiming();
+		long cpuTime = startCpuTime();
+		long allocated = startAllocation();
 		try {
-			return script.eval();
+			Object result = memoize(() -> {
+				compiled.scriptData.enter();
+				try {
+					return compiled.script.eval(compiled.scriptData.getEngine().getContext());
+				} finally {
+					compiled.scriptData.exit();
+				}
+			});
+			stopTiming(stats.function(ScriptMetrics.EVALUATION), start, false);
+			return result;
 		} catch (ScriptException ex) {
+			stopTiming(stats.function(ScriptMetrics.EVALUATION), start, true);
 			exceptionHandler.handle(ex);
 			return null;
+		} finally {
+			stopMetering(cpuTime, allocated);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptTenant tenant() throws ScriptException {
+		return new IsolatedTenant(this, compiled.scriptData, null, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The replacement engine compiles the script again.
+	 */
+	@Override
+	synchronized void reset(ScriptData quarantined) {
+		Compiled current = compiled;
+		if (current.scriptData != quarantined) return;
+		Compiled fresh = rebuild(quarantined, replica -> new Compiled(replica, compile(replica, null)));
+		if (fresh == null) return;
+		compiled = fresh;
+		scriptData = fresh.scriptData;
+		quarantined.discard();
+	}
+
+	/**
+	 * A {@link CompiledScript} with the {@link ScriptData} it evaluates in.
+	 */
+	private static final class Compiled {
+
+		/**
+		 * The {@link ScriptData} whose engine evaluates the {@link #script}.
+		 */
+		private final ScriptData scriptData;
+
+		/**
+		 * The {@link CompiledScript} compiled from the {@link ScriptData#getSource()}, possibly
+		 * shared with other {@link Script}s of the same source.
+		 */
+		private final CompiledScript script;
+
+		/**
+		 * Initializes a new {@link Compiled}.
+		 *
+		 * @param scriptData
+		 * 		The {@link ScriptData} whose engine evaluates the script.
+		 * @param script
+		 * 		The {@link CompiledScript}.
+		 */
+		private Compiled(ScriptData scriptData, CompiledScript script) {
+			this.scriptData = scriptData;
+			this.script = script;
 		}
 	}
 }
@@ -0,0 +1,216 @@
+package us.nullbytes.rcscript.builder.script;
+
+import us.nullbytes.rcscript.conversion.ScriptObjects;
+import us.nullbytes.rcscript.expression.ExpressionFunction;
+
+import javax.script.Bindings;
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * A function of a {@link ScriptEngine} resolved once. Engines exposing their functions as a
+ * {@code JSObject}, such as Nashorn, are called directly through a {@link MethodHandle}; any
+ * other engine is called through {@link Invocable#invokeFunction(String, Object...)}, except for
+ * an {@link ExpressionFunction}, which is called directly as well.
+ *
+ * @author Corey Shupe
+ */
+abstract class FunctionTarget {
+
+	/**
+	 * Whether or not a class is the {@code Undefined} of an engine, returned as null.
+	 */
+	private final static ClassValue<Boolean> UNDEFINED = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return type.getSimpleName().equals("Undefined");
+		}
+	};
+
+	/**
+	 * Calls the function.
+	 *
+	 * @param args
+	 * 		The parameters used in the function.
+	 *
+	 * @return The return value of the function.
+	 *
+	 * @throws ScriptException
+	 * 		When the function fails to run.
+	 * @throws NoSuchMethodException
+	 * 		When the function no longer exists.
+	 */
+	abstract Object call(Object[] args) throws ScriptException, NoSuchMethodException;
+
+	/**
+	 * Resolves a function of an engine.
+	 *
+	 * @param engine
+	 * 		The {@link ScriptEngine} defining the function, which must be {@link Invocable}.
+	 * @param func
+	 * 		The name of the function.
+	 *
+	 * @return The resolved {@link FunctionTarget}.
+	 *
+	 * @throws NoSuchMethodException
+	 * 		When the engine defines nothing under the name, or something which is not a function.
+	 */
+	static FunctionTarget resolve(ScriptEngine engine, String func) throws NoSuchMethodException {
+		FunctionTarget target = direct(engine.get(func), func);
+		return target != null ? target : new Named((Invocable) engine, func);
+	}
+
+	/**
+	 * Resolves a function defined inside of engine-scope {@link Bindings} other than the engine's
+	 * own, which can only be called directly.
+	 *
+	 * @param scope
+	 * 		The {@link Bindings} defining the function.
+	 * @param func
+	 * 		The name of the function.
+	 *
+	 * @return The resolved {@link FunctionTarget}.
+	 *
+	 * @throws NoSuchMethodException
+	 * 		When the {@link Bindings} define nothing under the name, something which is not a
+	 * 		function, or a function of an engine which cannot be called directly.
+	 */
+	static FunctionTarget resolve(Bindings scope, String func) throws NoSuchMethodException {
+		FunctionTarget target = direct(scope.get(func), func);
+		if (target == null) throw new NoSuchMethodException(func + " cannot be called outside of the engine's own bindings.");
+		return target;
+	}
+
+	/**
+	 * Resolves a function value which can be called directly through its {@code JSObject}.
+	 *
+	 * @param function
+	 * 		The value defined under the name of the function.
+	 * @param func
+	 * 		The name of the function.
+	 *
+	 * @return The resolved {@link FunctionTarget}, or null if the value is no {@code JSObject} nor
+	 * {@link ExpressionFunction}.
+	 *
+	 * @throws NoSuchMethodException
+	 * 		When the value is null or not a function.
+	 */
+	private static FunctionTarget direct(Object function, String func) throws NoSuchMethodException {
+		if (function == null) throw new NoSuchMethodException(func);
+		if (function instanceof Number || function instanceof CharSequence || function instanceof Boolean || function instanceof Character) {
+			throw new NoSuchMethodException(func + " is not a function.");
+		}
+		if (function instanceof ExpressionFunction) return new Expression((ExpressionFunction) function);
+		MethodHandle call = ScriptObjects.callHandle(function.getClass());
+		if (call == null) return null;
+		if (!ScriptObjects.isFunction(function)) throw new NoSuchMethodException(func + " is not a function.");
+		return new Direct(call.bindTo(function));
+	}
+
+	/**
+	 * A function called directly through its {@code JSObject}.
+	 */
+	private static final class Direct extends FunctionTarget {
+
+		/**
+		 * The {@link MethodHandle} of {@code JSObject.call} bound to the function.
+		 */
+		private final MethodHandle call;
+
+		/**
+		 * Initializes a new {@link Direct}.
+		 *
+		 * @param call
+		 * 		The {@link MethodHandle} of {@code JSObject.call} bound to the function.
+		 */
+		private Direct(MethodHandle call) {
+			this.call = call;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object call(Object[] args) throws ScriptException {
+			Object result;
+			try {
+				result = (Object) call.invokeExact((Object) null, args);
+			} catch (RuntimeException ex) {
+				throw new ScriptException(ex);
+			} catch (Error ex) {
+				throw ex;
+			} catch (Throwable ex) {
+				throw new ScriptException(new Exception(ex));
+			}
+			return result != null && UNDEFINED.get(result.getClass()) ? null : result;
+		}
+	}
+
+	/**
+	 * A function of the rcexpr engine, called directly.
+	 */
+	private static final class Expression extends FunctionTarget {
+
+		/**
+		 * The {@link ExpressionFunction}.
+		 */
+		private final ExpressionFunction function;
+
+		/**
+		 * Initializes a new {@link Expression}.
+		 *
+		 * @param function
+		 * 		The {@link ExpressionFunction}.
+		 */
+		private Expression(ExpressionFunction function) {
+			this.function = function;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object call(Object[] args) throws ScriptException {
+			return function.call(args);
+		}
+	}
+
+	/**
+	 * A function called by name through {@link Invocable#invokeFunction(String, Object...)}.
+	 */
+	private static final class Named extends FunctionTarget {
+
+		/**
+		 * The {@link Invocable} engine defining the function.
+		 */
+		private final Invocable invocable;
+
+		/**
+		 * The name of the function.
+		 */
+		private final String func;
+
+		/**
+		 * Initializes a new {@link Named}.
+		 *
+		 * @param invocable
+		 * 		The {@link Invocable} engine defining the function.
+		 * @param func
+		 * 		The name of the function.
+		 */
+		private Named(Invocable invocable, String func) {
+			this.invocable = invocable;
+			this.func = func;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object call(Object[] args) throws ScriptException, NoSuchMethodException {
+			return invocable.invokeFunction(func, args);
+		}
+	}
+}
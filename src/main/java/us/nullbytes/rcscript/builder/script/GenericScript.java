@@ -2,12 +2,41 @@ package us.nullbytes.rcscript.builder.script;
 
 import us.nullbytes.rcscript.ExceptionHandler;
 import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptFunction;
 import us.nullbytes.rcscript.ScriptManager;
+import us.nullbytes.rcscript.ScriptManager.ExecutionMode;
+import us.nullbytes.rcscript.ScriptManager.RejectionPolicy;
+import us.nullbytes.rcscript.ScriptManager.TerminationMode;
+import us.nullbytes.rcscript.ScriptTenant;
+import us.nullbytes.rcscript.cache.CacheStats;
+import us.nullbytes.rcscript.cache.CallKey;
+import us.nullbytes.rcscript.cache.CompiledScriptCache;
+import us.nullbytes.rcscript.cache.ResultCache;
+import us.nullbytes.rcscript.conversion.NumericCoercion;
+import us.nullbytes.rcscript.data.InitFunc;
 import us.nullbytes.rcscript.data.ScriptData;
+import us.nullbytes.rcscript.data.ScriptSource;
+import us.nullbytes.rcscript.engine.BindingsPool;
+import us.nullbytes.rcscript.engine.EngineReplicas.ReplicaCall;
+import us.nullbytes.rcscript.execution.AdmissionQueue;
+import us.nullbytes.rcscript.execution.ConcurrencyLimiter;
+import us.nullbytes.rcscript.execution.ScriptMailbox;
+import us.nullbytes.rcscript.execution.ScriptOverloadException;
+import us.nullbytes.rcscript.execution.ScriptTimeoutException;
+import us.nullbytes.rcscript.execution.ScriptWatchdog;
+import us.nullbytes.rcscript.metrics.FunctionStats;
+import us.nullbytes.rcscript.metrics.ResourceMeter;
+import us.nullbytes.rcscript.metrics.ScriptMetrics;
+import us.nullbytes.rcscript.metrics.ScriptStats;
 
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 /**
@@ -19,14 +48,15 @@ import java.util.function.Supplier;
 abstract class GenericScript implements Script {
 
 	/**
-	 * The {@link ExecutorService} to handle all async computations within {@link GenericScript}s.
+	 * The start of an invocation which isn't timed, see {@link #startTiming()}.
 	 */
-	private final static ExecutorService EXECUTOR_SERVICE = Executors.newFixedThreadPool(10);
+	final static long UNTIMED = Long.MIN_VALUE;
 
 	/**
-	 * The {@link ScriptData} help within this {@link Script}.
+	 * The {@link ScriptData} help within this {@link Script}, replaced when its engine is
+	 * quarantined.
 	 */
-	ScriptData scriptData;
+	volatile ScriptData scriptData;
 
 	/**
 	 * The {@link ExceptionHandler} handling all {@link ScriptException}s.
@@ -34,6 +64,65 @@ abstract class GenericScript implements Script {
 	 */
 	ExceptionHandler<ScriptException> exceptionHandler;
 
+	/**
+	 * The {@link ScriptStats} of the identifier this {@link Script} is packed under.
+	 */
+	final ScriptStats stats;
+
+	/**
+	 * The maximum amount of concurrent async calls, 0 for no limit or -1 to follow the {@link
+	 * ExecutionMode}.
+	 */
+	private volatile int concurrencyLimit = -1;
+
+	/**
+	 * The {@link ConcurrencyLimiter} enforcing the {@link #concurrencyLimit}, or null if not yet
+	 * needed.
+	 */
+	private volatile ConcurrencyLimiter concurrencyLimiter;
+
+	/**
+	 * The deadline of async calls, or null to follow the manager's default.
+	 */
+	private volatile Duration deadline = null;
+
+	/**
+	 * Whether or not a single engine is replaced once a call overran its deadline, see {@link
+	 * #setResetOnTimeout(boolean)}.
+	 */
+	private volatile boolean resetOnTimeout = false;
+
+	/**
+	 * The {@link BindingsPool} of the {@link ScriptTenant}s, or null until the first tenant.
+	 */
+	private volatile BindingsPool bindingsPool = null;
+
+	/**
+	 * The {@link ScriptMailbox} serializing async calls, or null if not serialized.
+	 */
+	private volatile ScriptMailbox mailbox = null;
+
+	/**
+	 * The {@link AdmissionQueue} bounding the waiting async calls, or null if unbounded.
+	 */
+	private volatile AdmissionQueue admissionQueue = null;
+
+	/**
+	 * Whether or not equal concurrent async calls are coalesced, see {@link
+	 * #setSingleFlight(boolean)}.
+	 */
+	private volatile boolean singleFlight = false;
+
+	/**
+	 * The coalesced async calls in flight, removed as soon as they complete.
+	 */
+	private final ConcurrentHashMap<CallKey, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+
+	/**
+	 * The amount of holders of this {@link Script}, see {@link #retain()}, 0 once released.
+	 */
+	private final AtomicInteger holders = new AtomicInteger(1);
+
 	/**
 	 * Initializes a new {@link GenericScript}. All implementations called as a {@code super(...)}.
 	 *
@@ -43,20 +132,488 @@ abstract class GenericScript implements Script {
 	GenericScript(ScriptData scriptData) {
 		this.scriptData = scriptData;
 		this.exceptionHandler = ScriptException::printStackTrace;
+		this.stats = scriptData.getManager().getMetrics().forScript(scriptData.getIdentifier());
 	}
 
 	/**
-	 * Executes a new {@link Callable} inside of the {@link #EXECUTOR_SERVICE}.
+	 * Starts timing an invocation, if the {@link ScriptMetrics} of the manager are enabled.
+	 *
+	 * @return The start in nanoseconds, or {@link #UNTIMED}.
+	 */
+	long startTiming() {
+		return getScriptManager().getMetrics().isEnabled() ? System.nanoTime() : UNTIMED;
+	}
+
+	/**
+	 * Records a timed invocation.
+	 *
+	 * @param function
+	 * 		The {@link FunctionStats} of the invoked function.
+	 * @param start
+	 * 		The start returned by {@link #startTiming()}.
+	 * @param failed
+	 * 		Whether or not the invocation failed.
+	 */
+	static void stopTiming(FunctionStats function, long start, boolean failed) {
+		if (start != UNTIMED) function.record(System.nanoTime() - start, failed);
+	}
+
+	/**
+	 * Starts metering the CPU time of an invocation, if resource accounting is enabled in the
+	 * {@link ScriptMetrics} of the manager.
+	 *
+	 * @return The CPU time of the current thread, -1 if unmeasurable, or {@link #UNTIMED}.
+	 */
+	long startCpuTime() {
+		return getScriptManager().getMetrics().isMetering() ? ResourceMeter.cpuTime() : UNTIMED;
+	}
+
+	/**
+	 * Starts metering the bytes allocated by an invocation, if resource accounting is enabled in
+	 * the {@link ScriptMetrics} of the manager.
+	 *
+	 * @return The bytes allocated by the current thread, -1 if unmeasurable, or {@link #UNTIMED}.
+	 */
+	long startAllocation() {
+		return getScriptManager().getMetrics().isMetering() ? ResourceMeter.allocatedBytes() : UNTIMED;
+	}
+
+	/**
+	 * Records the resources of a metered invocation, which must have run on the current thread.
+	 *
+	 * @param cpuTime
+	 * 		The start returned by {@link #startCpuTime()}.
+	 * @param allocated
+	 * 		The start returned by {@link #startAllocation()}.
+	 */
+	void stopMetering(long cpuTime, long allocated) {
+		if (cpuTime == UNTIMED && allocated == UNTIMED) return;
+		long usedCpu = cpuTime < 0 ? -1 : ResourceMeter.cpuTime() - cpuTime;
+		long usedBytes = allocated < 0 ? -1 : ResourceMeter.allocatedBytes() - allocated;
+		getScriptManager().getMetrics().recordUsage(stats, usedCpu, usedBytes);
+	}
+
+	/**
+	 * Calls a function through the {@link ResultCache} of the script, if its results are memoized.
+	 *
+	 * @param func
+	 * 		The name of the function.
+	 * @param args
+	 * 		The arguments of the call.
+	 * @param call
+	 * 		The {@link ResultCache.Call} running the function.
+	 *
+	 * @return The cached or computed result.
+	 *
+	 * @throws ScriptException
+	 * 		When the function fails to run.
+	 * @throws NoSuchMethodException
+	 * 		When the function doesn't exist.
+	 */
+	Object memoize(String func, Object[] args, ResultCache.Call call) throws ScriptException, NoSuchMethodException {
+		ResultCache cache = scriptData.getResultCache();
+		if (cache == null || !cache.isMemoized(func)) return call.call();
+		return cache.get(func, args, call);
+	}
+
+	/**
+	 * Evaluates the script through the {@link ResultCache} of the script, if any.
+	 *
+	 * @param evaluation
+	 * 		The {@link ResultCache.Call} evaluating the script.
+	 *
+	 * @return The cached or computed result.
+	 *
+	 * @throws ScriptException
+	 * 		When the script fails to evaluate.
+	 */
+	Object memoize(ResultCache.Call evaluation) throws ScriptException {
+		ResultCache cache = scriptData.getResultCache();
+		try {
+			return cache == null ? evaluation.call() : cache.get(ScriptMetrics.EVALUATION, null, evaluation);
+		} catch (NoSuchMethodException ex) {
+			// an evaluation calls no function
+			throw new ScriptException(ex);
+		}
+	}
+
+	/**
+	 * Executes a new {@link Supplier} inside of the {@link ScriptManager#getExecutor()}. The time
+	 * spent waiting to run is recorded in the {@link ScriptMetrics} of the manager.
 	 *
 	 * @param callable
-	 * 		The {@link Callable} to process inside of the {@link #EXECUTOR_SERVICE}.
+	 * 		The {@link Supplier} to process inside of the {@link ScriptManager#getExecutor()}.
 	 * @param <T>
-	 * 		The type of {@link Callable} to define the {@link Future} return type.
+	 * 		The type of {@link Supplier} to define the {@link Future} return type.
 	 *
 	 * @return The {@link Future} of type {@link T}.
 	 */
 	<T> CompletableFuture<T> executeService(Supplier<T> callable) {
-		return CompletableFuture.supplyAsync(callable, EXECUTOR_SERVICE);
+		Duration deadline = this.deadline;
+		return executeService(callable, deadline == null ? getScriptManager().getDefaultDeadline() : deadline);
+	}
+
+	/**
+	 * Executes a new {@link Supplier} inside of the {@link ScriptManager#getExecutor()} like {@link
+	 * #executeService(Supplier)}, watched by the {@link ScriptWatchdog} if given a deadline.
+	 *
+	 * @param callable
+	 * 		The {@link Supplier} to process inside of the {@link ScriptManager#getExecutor()}.
+	 * @param deadline
+	 * 		The deadline counted from now, or null for none.
+	 * @param <T>
+	 * 		The type of {@link Supplier} to define the {@link Future} return type.
+	 *
+	 * @return The {@link Future} of type {@link T}.
+	 */
+	<T> CompletableFuture<T> executeService(Supplier<T> callable, Duration deadline) {
+		Executor executor = executor();
+		ConcurrencyLimiter limiter = concurrencyLimiter();
+		AdmissionQueue scriptQueue = this.admissionQueue;
+		AdmissionQueue managerQueue = getScriptManager().getAdmissionQueue();
+		long queued = startTiming();
+		if (deadline == null && scriptQueue == null && managerQueue == null && limiter == null && queued == UNTIMED)
+			return CompletableFuture.supplyAsync(callable, executor);
+		CompletableFuture<T> future = new CompletableFuture<>();
+		// only calls free to run concurrently may run on the caller
+		boolean callerMayRun = limiter == null && !(executor instanceof ScriptMailbox);
+		AdmissionQueue.Ticket ticket = AdmissionQueue.admit(future, callerMayRun, scriptQueue, managerQueue);
+		if (ticket.isRejected()) {
+			stats.recordRejection();
+			return future;
+		}
+		future.whenComplete((result, ex) -> {
+			ticket.discard();
+			if (ex instanceof ScriptTimeoutException) stats.recordTimeout();
+			else if (ex instanceof ScriptOverloadException) stats.recordRejection();
+		});
+		if (ticket.isCallerRuns()) {
+			if (deadline == null) {
+				try {
+					future.complete(callable.get());
+				} catch (Throwable ex) {
+					future.completeExceptionally(ex);
+				}
+			} else {
+				ScriptWatchdog.watch(future, deadline, TerminationMode.INTERRUPT, this::quarantine).run(callable);
+			}
+			return future;
+		}
+		ScriptWatchdog.Watch<T> watch = deadline == null ? null :
+				ScriptWatchdog.watch(future, deadline, getScriptManager().getTerminationMode(), this::quarantine);
+		Runnable call = () -> {
+			// shed or discarded while waiting for the executor or the limiter
+			if (future.isDone() || !ticket.start()) return;
+			if (queued != UNTIMED) stats.getQueueWaits().record(System.nanoTime() - queued);
+			if (watch != null) {
+				watch.run(callable);
+				return;
+			}
+			try {
+				future.complete(callable.get());
+			} catch (Throwable ex) {
+				future.completeExceptionally(ex);
+			}
+		};
+		if (limiter != null) {
+			limiter.execute(executor, call, future::completeExceptionally);
+			return future;
+		}
+		try {
+			executor.execute(call);
+		} catch (RejectedExecutionException ex) {
+			future.completeExceptionally(ex);
+		}
+		return future;
+	}
+
+	/**
+	 * Executes a call inside of the {@link ScriptManager#getExecutor()} like {@link
+	 * #executeService(Supplier)}, joining an equal call in flight instead if single-flight.
+	 * Every caller receives its own {@link CompletableFuture}, so cancelling one leaves the others
+	 * waiting.
+	 *
+	 * @param func
+	 * 		The name of the function, or {@link ScriptMetrics#EVALUATION} for plain evaluations.
+	 * @param args
+	 * 		The arguments of the call, or null for none.
+	 * @param call
+	 * 		The {@link Supplier} running the call.
+	 *
+	 * @return The {@link CompletableFuture} of the result.
+	 */
+	CompletableFuture<Object> executeShared(String func, Object[] args, Supplier<Object> call) {
+		if (!singleFlight) return executeService(call);
+		CallKey key = new CallKey(func, args);
+		CompletableFuture<Object> flight = new CompletableFuture<>();
+		CompletableFuture<Object> present = flights.putIfAbsent(key, flight);
+		if (present != null) {
+			stats.recordCoalesced();
+			return present.copy();
+		}
+		try {
+			executeService(call).whenComplete((result, ex) -> {
+				flights.remove(key, flight);
+				if (ex != null) flight.completeExceptionally(ex);
+				else flight.complete(result);
+			});
+		} catch (RuntimeException ex) {
+			flights.remove(key, flight);
+			flight.completeExceptionally(ex);
+		}
+		return flight.copy();
+	}
+
+	/**
+	 * Gets the {@link Executor} of async calls: the manager's, or the {@link ScriptMailbox} on top
+	 * of it if serialized. A mailbox is replaced once the manager's {@link Executor} changes.
+	 *
+	 * @return The {@link Executor}.
+	 */
+	private Executor executor() {
+		Executor executor = getScriptManager().getExecutor();
+		ScriptMailbox mailbox = this.mailbox;
+		if (mailbox == null) return executor;
+		if (mailbox.getExecutor() != executor) {
+			synchronized (this) {
+				if (this.mailbox == null) return executor;
+				if (this.mailbox.getExecutor() != executor) this.mailbox = new ScriptMailbox(executor);
+				mailbox = this.mailbox;
+			}
+		}
+		return mailbox;
+	}
+
+	/**
+	 * Quarantines the {@link ScriptEngine} an overdue call is still running on after its grace
+	 * period. Called on the thread of the {@link ScriptWatchdog}, so the engine is only picked here
+	 * and replaced on the manager's {@link Executor}. A single engine is only quarantined if {@link
+	 * #isResetOnTimeout()}, as its replacement loses the global state of the script.
+	 *
+	 * @param runner
+	 * 		The {@link Thread} running the overdue call.
+	 */
+	void quarantine(Thread runner) {
+		if (!resetOnTimeout) return;
+		ScriptData quarantined = scriptData;
+		offload(() -> reset(quarantined));
+	}
+
+	/**
+	 * Replaces a quarantined {@link ScriptEngine} by a fresh replica, unless it was replaced
+	 * meanwhile. The quarantined engine is discarded rather than returned to its pool, as it may
+	 * still be running. By default the primary engine is replaced, which is enough for plain
+	 * evaluations.
+	 *
+	 * @param quarantined
+	 * 		The {@link ScriptData} of the quarantined engine.
+	 */
+	synchronized void reset(ScriptData quarantined) {
+		if (scriptData != quarantined) return;
+		ScriptData fresh = rebuild(quarantined, replica -> replica);
+		if (fresh == null) return;
+		scriptData = fresh;
+		quarantined.discard();
+	}
+
+	/**
+	 * Hands the replacement of a quarantined engine to the manager's {@link Executor}, keeping the
+	 * thread of the {@link ScriptWatchdog} free for other deadlines.
+	 *
+	 * @param replacement
+	 * 		The replacement of the engine.
+	 */
+	void offload(Runnable replacement) {
+		try {
+			getScriptManager().getExecutor().execute(replacement);
+		} catch (RejectedExecutionException ex) {
+			// the manager shut down, so no further call needs the engine
+		}
+	}
+
+	/**
+	 * Creates a fresh replica of a quarantined {@link ScriptData} and prepares it. The time taken
+	 * is recorded as a compilation; a failure is passed to the {@link ExceptionHandler}.
+	 *
+	 * @param quarantined
+	 * 		The quarantined {@link ScriptData}.
+	 * @param preparer
+	 * 		The {@link ReplicaCall} compiling and evaluating the script inside of the replica.
+	 * @param <T>
+	 * 		The return type of the preparer.
+	 *
+	 * @return The return value of the preparer, or null if the {@link ScriptData} cannot be
+	 * replicated or the preparation failed.
+	 */
+	<T> T rebuild(ScriptData quarantined, ReplicaCall<T> preparer) {
+		ScriptData fresh = quarantined.replicate();
+		if (fresh == null) return null;
+		long start = System.nanoTime();
+		try {
+			T prepared = preparer.call(fresh);
+			stats.getCompileTimes().record(System.nanoTime() - start);
+			return prepared;
+		} catch (ScriptException ex) {
+			fresh.release();
+			exceptionHandler.handle(ex);
+		} catch (NoSuchMethodException ex) {
+			fresh.release();
+			ex.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setDeadline(Duration deadline) {
+		this.deadline = deadline;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Duration getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setResetOnTimeout(boolean resetOnTimeout) {
+		this.resetOnTimeout = resetOnTimeout;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isResetOnTimeout() {
+		return resetOnTimeout;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CompletableFuture<Object> executeWithin(Duration deadline, String func, Object... args) {
+		throw new UnsupportedOperationException("This type of script cannot perform function calls.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptTenant tenant() throws ScriptException {
+		throw new UnsupportedOperationException("This type of script cannot run in isolated bindings.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object executeIsolated(String func, Object... args) {
+		ScriptTenant tenant;
+		try {
+			tenant = tenant();
+		} catch (ScriptException ex) {
+			exceptionHandler.handle(ex);
+			return null;
+		}
+		try {
+			return tenant.execute(func, args);
+		} finally {
+			tenant.close();
+		}
+	}
+
+	/**
+	 * Gets the {@link BindingsPool} of the engine of a {@link ScriptData}, replacing the pool of a
+	 * quarantined engine.
+	 *
+	 * @param scriptData
+	 * 		The {@link ScriptData} of the engine running the tenant.
+	 *
+	 * @return The {@link BindingsPool}.
+	 */
+	BindingsPool bindingsPool(ScriptData scriptData) {
+		ScriptEngine engine = scriptData.getEngine();
+		BindingsPool pool = bindingsPool;
+		if (pool == null || pool.getEngine() != engine) {
+			synchronized (this) {
+				pool = bindingsPool;
+				if (pool == null || pool.getEngine() != engine) bindingsPool = pool = new BindingsPool(engine);
+			}
+		}
+		return pool;
+	}
+
+	/**
+	 * Gets the {@link ConcurrencyLimiter} limiting concurrent async calls, creating the default one
+	 * of the {@link ExecutionMode#VIRTUAL} mode if needed.
+	 *
+	 * @return The {@link ConcurrencyLimiter}, or null if unlimited.
+	 */
+	private ConcurrencyLimiter concurrencyLimiter() {
+		if (concurrencyLimit >= 0) return concurrencyLimiter;
+		if (getScriptManager().getExecutionMode() != ExecutionMode.VIRTUAL) return null;
+		ConcurrencyLimiter limiter = concurrencyLimiter;
+		if (limiter == null) {
+			synchronized (this) {
+				if (concurrencyLimiter == null) concurrencyLimiter = new ConcurrencyLimiter(getReplicaCount());
+				limiter = concurrencyLimiter;
+			}
+		}
+		return limiter;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void setConcurrencyLimit(int limit) {
+		if (limit < 0) throw new IllegalArgumentException("The concurrency limit cannot be negative.");
+		concurrencyLimiter = limit == 0 ? null : new ConcurrencyLimiter(limit);
+		concurrencyLimit = limit;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getConcurrencyLimit() {
+		if (concurrencyLimit >= 0) return concurrencyLimit;
+		return getScriptManager().getExecutionMode() == ExecutionMode.VIRTUAL ? getReplicaCount() : 0;
+	}
+
+	/**
+	 * Compiles the source of a {@link ScriptData} for its {@link ScriptEngine}, reusing any {@link
+	 * CompiledScript} of the same source from the manager's {@link CompiledScriptCache}. The result
+	 * must be evaluated against the engine's own {@link javax.script.ScriptContext}.
+	 *
+	 * @param scriptData
+	 * 		The {@link ScriptData} holding the source and a {@link Compilable} engine.
+	 * @param initFunc
+	 * 		The {@link InitFunc} of the {@link Script}, or null for simple evaluation.
+	 *
+	 * @return The {@link CompiledScript}.
+	 *
+	 * @throws ScriptException
+	 * 		When the source fails to be read or compiled.
+	 */
+	static CompiledScript compile(ScriptData scriptData, InitFunc initFunc) throws ScriptException {
+		ScriptSource source = scriptData.getSource();
+		try {
+			source.load();
+		} catch (IOException ex) {
+			throw new ScriptException(ex);
+		}
+		ScriptEngine engine = scriptData.getEngine();
+		return scriptData.getManager().getCompiledScriptCache().get(engine, source.getHash(), initFunc,
+				() -> ((Compilable) engine).compile(source.getText()));
 	}
 
 	/**
@@ -96,7 +653,7 @@ abstract class GenericScript implements Script {
 	 */
 	@Override
 	public Future<Object> executeAsync() {
-		return executeService(this::execute);
+		return executeShared(ScriptMetrics.EVALUATION, null, this::execute);
 	}
 
 	/**
@@ -112,8 +669,7 @@ abstract class GenericScript implements Script {
 	 */
 	@Override
 	public <T> T expect(Class<T> classIdentifier) {
-		Object result = execute();
-		return classIdentifier.isInstance(result) ? classIdentifier.cast(result) : null;
+		return getScriptManager().getConverters().convert(execute(), classIdentifier);
 	}
 
 	/**
@@ -129,7 +685,9 @@ abstract class GenericScript implements Script {
 	 */
 	@Override
 	public <T> CompletableFuture<T> expectLater(Class<T> classIdentifier) {
-		return executeService(() -> expect(classIdentifier));
+		if (!singleFlight) return executeService(() -> expect(classIdentifier));
+		return executeShared(ScriptMetrics.EVALUATION, null, this::execute)
+				.thenApply(result -> getScriptManager().getConverters().convert(result, classIdentifier));
 	}
 
 	/**
@@ -139,4 +697,223 @@ abstract class GenericScript implements Script {
 	public <T> CompletableFuture<T> expectLater(Class<T> classIdentifier, String func, Object... args) {
 		throw new UnsupportedOperationException("This type of script cannot perform function calls.");
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int expectInt(String func, Object... args) {
+		return NumericCoercion.toInt(execute(func, args), func);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int expectInt(String func, int a) {
+		return NumericCoercion.toInt(execute(func, a), func);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int expectInt(String func, int a, int b) {
+		return NumericCoercion.toInt(execute(func, a, b), func);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long expectLong(String func, Object... args) {
+		return NumericCoercion.toLong(execute(func, args), func);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long expectLong(String func, long a) {
+		return NumericCoercion.toLong(execute(func, a), func);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long expectLong(String func, long a, long b) {
+		return NumericCoercion.toLong(execute(func, a, b), func);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double expectDouble(String func, Object... args) {
+		return NumericCoercion.toDouble(execute(func, args), func);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double expectDouble(String func, double a) {
+		return NumericCoercion.toDouble(execute(func, a), func);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double expectDouble(String func, double a, double b) {
+		return NumericCoercion.toDouble(execute(func, a, b), func);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean expectBoolean(String func, Object... args) {
+		return NumericCoercion.toBoolean(execute(func, args), func);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> ScriptFunction<T> function(String func, Class<T> returnType) throws NoSuchMethodException {
+		throw new UnsupportedOperationException("This type of script cannot perform function calls.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <I> I bind(Class<I> iface) throws NoSuchMethodException {
+		throw new UnsupportedOperationException("This type of script cannot perform function calls.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void setSerial(boolean serial) {
+		if (!serial) mailbox = null;
+		else if (mailbox == null) mailbox = new ScriptMailbox(getScriptManager().getExecutor());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSerial() {
+		return mailbox != null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getMailboxDepth() {
+		ScriptMailbox mailbox = this.mailbox;
+		return mailbox == null ? 0 : mailbox.getDepth();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setQueueLimit(int capacity, RejectionPolicy policy) {
+		this.admissionQueue = capacity == 0 ? null : new AdmissionQueue(capacity, policy);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getQueueDepth() {
+		AdmissionQueue admissionQueue = this.admissionQueue;
+		return admissionQueue == null ? 0 : admissionQueue.getDepth();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setSingleFlight(boolean singleFlight) {
+		this.singleFlight = singleFlight;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSingleFlight() {
+		return singleFlight;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CacheStats getResultCacheStats() {
+		ResultCache cache = scriptData.getResultCache();
+		return cache == null ? null : cache.getStats();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void invalidateResults() {
+		ResultCache cache = scriptData.getResultCache();
+		if (cache != null) cache.invalidate();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getReplicaCount() {
+		return 1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getReplicaFootprint() {
+		return -1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Script retain() {
+		holders.getAndUpdate(count -> {
+			if (count == 0) throw new IllegalStateException("The script was released.");
+			return count + 1;
+		});
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void release() {
+		if (holders.getAndUpdate(count -> Math.max(count - 1, 0)) != 1) return;
+		BindingsPool pool = bindingsPool;
+		if (pool != null) pool.clear();
+		releaseEngines();
+	}
+
+	/**
+	 * Releases every {@link ScriptEngine} of this {@link Script}, once its last holder released it.
+	 */
+	void releaseEngines() {
+		scriptData.release();
+	}
 }
@@ -0,0 +1,141 @@
+package us.nullbytes.rcscript.builder.script;
+
+import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptFunction;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link InvocationHandler} of an interface bound to a {@link Script}, see {@link
+ * Script#bind(Class)}. Every method is resolved once when binding into a {@link ScriptFunction}
+ * of the same name, or the interface's default implementation if the script lacks it.
+ *
+ * @author Corey Shupe
+ */
+final class InterfaceBinding implements InvocationHandler {
+
+	/**
+	 * The arguments of a method without parameters.
+	 */
+	private final static Object[] NO_ARGS = new Object[0];
+
+	/**
+	 * The bound interface.
+	 */
+	private final Class<?> iface;
+
+	/**
+	 * The {@link ScriptFunction} of every method implemented by the script.
+	 */
+	private final Map<Method, ScriptFunction<?>> functions = new HashMap<>();
+
+	/**
+	 * The default implementation, bound to the proxy, of every other method.
+	 */
+	private final Map<Method, MethodHandle> defaults = new HashMap<>();
+
+	/**
+	 * Initializes a new {@link InterfaceBinding}.
+	 *
+	 * @param iface
+	 * 		The bound interface.
+	 */
+	private InterfaceBinding(Class<?> iface) {
+		this.iface = iface;
+	}
+
+	/**
+	 * Binds an interface to a {@link Script}.
+	 *
+	 * @param script
+	 * 		The {@link Script} implementing the interface.
+	 * @param iface
+	 * 		The interface to implement.
+	 * @param <I>
+	 * 		The type of the interface.
+	 *
+	 * @return The implementation of the interface.
+	 *
+	 * @throws NoSuchMethodException
+	 * 		When the script lacks a function for any method without a default implementation.
+	 */
+	static <I> I bind(Script script, Class<I> iface) throws NoSuchMethodException {
+		if (!iface.isInterface()) throw new IllegalArgumentException(iface.getName() + " is not an interface.");
+		InterfaceBinding binding = new InterfaceBinding(iface);
+		I proxy = iface.cast(Proxy.newProxyInstance(iface.getClassLoader(), new Class<?>[]{iface}, binding));
+		List<String> missing = new ArrayList<>();
+		for (Method method : iface.getMethods()) {
+			if (Modifier.isStatic(method.getModifiers())) continue;
+			try {
+				binding.functions.put(method, script.function(method.getName(), boxed(method.getReturnType())));
+			} catch (NoSuchMethodException ex) {
+				if (!method.isDefault()) {
+					missing.add(method.getName());
+					continue;
+				}
+				try {
+					MethodHandle handle = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup())
+							.unreflectSpecial(method, method.getDeclaringClass());
+					binding.defaults.put(method, handle.bindTo(proxy));
+				} catch (IllegalAccessException accessEx) {
+					throw new IllegalArgumentException("Cannot call the default " + method, accessEx);
+				}
+			}
+		}
+		if (!missing.isEmpty()) {
+			throw new NoSuchMethodException("The script does not implement " + iface.getName() + missing);
+		}
+		return proxy;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		ScriptFunction<?> function = functions.get(method);
+		if (function != null) return function.callWith(args == null ? NO_ARGS : args);
+		MethodHandle handle = defaults.get(method);
+		if (handle != null) return handle.invokeWithArguments(args == null ? NO_ARGS : args);
+		switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return iface.getName() + "@script";
+			default:
+				throw new UnsupportedOperationException(method.toString());
+		}
+	}
+
+	/**
+	 * Gets the wrapper of a primitive type.
+	 *
+	 * @param type
+	 * 		The type.
+	 *
+	 * @return The wrapper of the type, or the type itself if not primitive.
+	 */
+	private static Class<?> boxed(Class<?> type) {
+		if (!type.isPrimitive()) return type;
+		if (type == int.class) return Integer.class;
+		if (type == long.class) return Long.class;
+		if (type == double.class) return Double.class;
+		if (type == boolean.class) return Boolean.class;
+		if (type == float.class) return Float.class;
+		if (type == short.class) return Short.class;
+		if (type == byte.class) return Byte.class;
+		if (type == char.class) return Character.class;
+		return Void.class;
+	}
+}
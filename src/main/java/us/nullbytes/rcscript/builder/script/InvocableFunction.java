@@ -0,0 +1,298 @@
+package us.nullbytes.rcscript.builder.script;
+
+import us.nullbytes.rcscript.ScriptFunction;
+import us.nullbytes.rcscript.conversion.ResultConverter;
+import us.nullbytes.rcscript.data.ScriptData;
+import us.nullbytes.rcscript.engine.EngineReplicas;
+import us.nullbytes.rcscript.metrics.FunctionStats;
+
+import javax.script.ScriptException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The {@link ScriptFunction} of an {@link InvocableScript}, resolved once per engine replica.
+ *
+ * @param <T>
+ * 		The type of the return value.
+ *
+ * @author Corey Shupe
+ * @see ScriptFunction
+ */
+class InvocableFunction<T> implements ScriptFunction<T> {
+
+	/**
+	 * The {@link InvocableScript} defining the function.
+	 */
+	private final InvocableScript script;
+
+	/**
+	 * The name of the function.
+	 */
+	private final String name;
+
+	/**
+	 * The {@link Class} the return value is expected as.
+	 */
+	private final Class<T> returnType;
+
+	/**
+	 * The {@link ResultConverter} of the return value, remembering the last type returned.
+	 */
+	private final ResultConverter<T> converter;
+
+	/**
+	 * The {@link FunctionStats} recording every call.
+	 */
+	private final FunctionStats stats;
+
+	/**
+	 * The {@link EngineReplicas} of the script, or null if not replicated.
+	 */
+	private final EngineReplicas replicas;
+
+	/**
+	 * The {@link Targets} resolved for the current engines of the script.
+	 */
+	private volatile Targets targets;
+
+	/**
+	 * Initializes a new {@link InvocableFunction}.
+	 *
+	 * @param script
+	 * 		The {@link InvocableScript} defining the function.
+	 * @param replicas
+	 * 		The {@link EngineReplicas} of the script, or null if not replicated.
+	 * @param name
+	 * 		The name of the function.
+	 * @param returnType
+	 * 		The {@link Class} the return value is expected as.
+	 *
+	 * @throws NoSuchMethodException
+	 * 		When the function doesn't exist in every engine.
+	 */
+	InvocableFunction(InvocableScript script, EngineReplicas replicas, String name, Class<T> returnType) throws NoSuchMethodException {
+		this.script = script;
+		this.name = name;
+		this.returnType = returnType;
+		this.converter = script.getScriptManager().getConverters().forTarget(returnType);
+		this.stats = script.stats.function(name);
+		this.replicas = replicas;
+		this.targets = resolve();
+	}
+
+	/**
+	 * Resolves the function in every current engine of the script.
+	 *
+	 * @return The resolved {@link Targets}.
+	 *
+	 * @throws NoSuchMethodException
+	 * 		When the function doesn't exist in every engine.
+	 */
+	private Targets resolve() throws NoSuchMethodException {
+		int generation = script.generation;
+		if (replicas == null) {
+			ScriptData scriptData = script.scriptData;
+			return new Targets(generation, scriptData, FunctionTarget.resolve(scriptData.getEngine(), name), null, null);
+		}
+		ScriptData[] resolved = new ScriptData[replicas.getReplicaCount()];
+		FunctionTarget[] targets = new FunctionTarget[resolved.length];
+		for (int i = 0; i < targets.length; i++) {
+			resolved[i] = replicas.getReplica(i);
+			targets[i] = FunctionTarget.resolve(resolved[i].getEngine(), name);
+		}
+		return new Targets(generation, null, null, resolved, targets);
+	}
+
+	/**
+	 * Gets the {@link Targets} of the current engines, resolving the function again once an engine
+	 * of the script was quarantined.
+	 *
+	 * @return The current {@link Targets}.
+	 *
+	 * @throws NoSuchMethodException
+	 * 		When the function no longer exists in every engine.
+	 */
+	private Targets current() throws NoSuchMethodException {
+		Targets targets = this.targets;
+		if (targets.generation == script.generation) return targets;
+		synchronized (this) {
+			if (this.targets.generation != script.generation) this.targets = resolve();
+			return this.targets;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Class<T> getReturnType() {
+		return returnType;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public T call() {
+		return callWith();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public T call(Object a) {
+		return callWith(a);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public T call(Object a, Object b) {
+		return callWith(a, b);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public T call(Object a, Object b, Object c) {
+		return callWith(a, b, c);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public T call(Object a, Object b, Object c, Object d) {
+		return callWith(a, b, c, d);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public T callWith(Object... args) {
+		Object result;
+		long start = script.startTiming();
+		long cpuTime = script.startCpuTime();
+		long allocated = script.startAllocation();
+		try {
+			Targets targets = current();
+			result = script.memoize(name, args, () -> {
+				if (replicas != null) return replicas.callIndexed((index, replica) -> targets.on(index, replica, name).call(args));
+				targets.scriptData.enter();
+				try {
+					return targets.target.call(args);
+				} finally {
+					targets.scriptData.exit();
+				}
+			});
+			GenericScript.stopTiming(stats, start, false);
+		} catch (ScriptException ex) {
+			GenericScript.stopTiming(stats, start, true);
+			script.exceptionHandler.handle(ex);
+			return null;
+		} catch (NoSuchMethodException ex) {
+			GenericScript.stopTiming(stats, start, true);
+			ex.printStackTrace();
+			return null;
+		} finally {
+			script.stopMetering(cpuTime, allocated);
+		}
+		if (returnType == Object.class) return returnType.cast(result);
+		return converter.convert(result);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CompletableFuture<T> callAsync(Object... args) {
+		return script.executeService(() -> callWith(args));
+	}
+
+	/**
+	 * The {@link FunctionTarget}s of the engines of the script at one generation.
+	 */
+	private static final class Targets {
+
+		/**
+		 * The generation of the script the targets were resolved at.
+		 */
+		private final int generation;
+
+		/**
+		 * The {@link ScriptData} of the single engine, or null if replicated.
+		 */
+		private final ScriptData scriptData;
+
+		/**
+		 * The {@link FunctionTarget} of the single engine, or null if replicated.
+		 */
+		private final FunctionTarget target;
+
+		/**
+		 * The {@link ScriptData} of every replica the targets were resolved from, or null if not replicated.
+		 */
+		private final ScriptData[] replicas;
+
+		/**
+		 * The {@link FunctionTarget} of every replica, or null if not replicated.
+		 */
+		private final FunctionTarget[] targets;
+
+		/**
+		 * Initializes a new {@link Targets}.
+		 *
+		 * @param generation
+		 * 		The generation of the script the targets were resolved at.
+		 * @param scriptData
+		 * 		The {@link ScriptData} of the single engine, or null if replicated.
+		 * @param target
+		 * 		The {@link FunctionTarget} of the single engine, or null if replicated.
+		 * @param replicas
+		 * 		The {@link ScriptData} of every replica the targets were resolved from, or null if not replicated.
+		 * @param targets
+		 * 		The {@link FunctionTarget} of every replica, or null if not replicated.
+		 */
+		private Targets(int generation, ScriptData scriptData, FunctionTarget target, ScriptData[] replicas, FunctionTarget[] targets) {
+			this.generation = generation;
+			this.scriptData = scriptData;
+			this.target = target;
+			this.replicas = replicas;
+			this.targets = targets;
+		}
+
+		/**
+		 * Gets the {@link FunctionTarget} of the replica a call holds. A replica replaced after the
+		 * targets were resolved, but before the script moved to its next generation, has the
+		 * function resolved in its own engine instead, so a call never runs the engine it replaced.
+		 *
+		 * @param index
+		 * 		The index of the replica.
+		 * @param replica
+		 * 		The {@link ScriptData} of the replica the call holds.
+		 * @param name
+		 * 		The name of the function.
+		 *
+		 * @return The {@link FunctionTarget} in the engine of the replica.
+		 *
+		 * @throws NoSuchMethodException
+		 * 		When the function doesn't exist in the engine of the replica.
+		 */
+		private FunctionTarget on(int index, ScriptData replica, String name) throws NoSuchMethodException {
+			if (replicas[index] == replica) return targets[index];
+			return FunctionTarget.resolve(replica.getEngine(), name);
+		}
+	}
+}
@@ -1,16 +1,23 @@
 package us.nullbytes.rcscript.builder.script;
 
 import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptFunction;
+import us.nullbytes.rcscript.ScriptTenant;
+import us.nullbytes.rcscript.ScriptBuilder.ReplicaMode;
 import us.nullbytes.rcscript.data.InitFunc;
 import us.nullbytes.rcscript.data.ScriptData;
+import us.nullbytes.rcscript.engine.EngineReplicas;
 
-import javax.script.Compilable;
-import javax.script.CompiledScript;
 import javax.script.Invocable;
+import javax.script.ScriptEngine;
 import javax.script.ScriptException;
-import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * An implementation of {@link GenericScript} which has functions to invoke.
@@ -39,9 +46,20 @@ public class InvocableScript extends GenericScript {
 	private final InitFunc initFunc;
 
 	/**
-	 * The {@link Invocable} saved to allow for further execution.
+	 * The {@link EngineReplicas} running this {@link Script}, or null if it only has one engine.
 	 */
-	private final Invocable invocable;
+	private final EngineReplicas replicas;
+
+	/**
+	 * The implementations of every interface bound so far, see {@link #bind(Class)}.
+	 */
+	private final Map<Class<?>, Object> bindings = new ConcurrentHashMap<>();
+
+	/**
+	 * The amount of engines quarantined so far, letting resolved functions notice a replaced
+	 * engine.
+	 */
+	volatile int generation = 0;
 
 	/**
 	 * Initializes a new {@link InvocableScript}.
@@ -58,9 +76,54 @@ public class InvocableScript extends GenericScript {
 	public InvocableScript(ScriptData scriptData, InitFunc initFunc) throws ScriptException {
 		super(scriptData);
 		this.initFunc = initFunc;
-		CompiledScript script = ((Compilable) getScriptEngine()).compile(new InputStreamReader(scriptData.getStream()));
-		script.eval();
-		this.invocable = ((Invocable) getScriptEngine());
+		compile(scriptData, initFunc).eval(getScriptEngine().getContext());
+		this.replicas = null;
+	}
+
+	/**
+	 * Initializes a new {@link InvocableScript} running on several {@link ScriptEngine} replicas.
+	 *
+	 * @param replicas
+	 * 		The {@link ScriptData} of every replica, the first used in the {@link GenericScript}.
+	 * @param mode
+	 * 		The {@link ReplicaMode} choosing which replica a calling thread uses.
+	 * @param initFunc
+	 * 		The initial function for the {@link Script}.
+	 *
+	 * @throws ScriptException
+	 * 		Thrown when the script fails to eval or compile in any replica.
+	 * @see GenericScript#GenericScript(ScriptData)
+	 */
+	public InvocableScript(List<ScriptData> replicas, ReplicaMode mode, InitFunc initFunc) throws ScriptException {
+		super(replicas.get(0));
+		this.initFunc = initFunc;
+		this.replicas = new EngineReplicas(replicas, mode, replica -> compile(replica, initFunc).eval(replica.getEngine().getContext()));
+	}
+
+	/**
+	 * Invokes a function on the engine, or on a free replica if replicated.
+	 *
+	 * @param func
+	 * 		The function to call.
+	 * @param args
+	 * 		The parameters used in the function.
+	 *
+	 * @return The return value of the function.
+	 *
+	 * @throws ScriptException
+	 * 		When the function fails to run, or the {@link Script} was released.
+	 * @throws NoSuchMethodException
+	 * 		When the function doesn't exist.
+	 */
+	private Object invoke(String func, Object[] args) throws ScriptException, NoSuchMethodException {
+		if (replicas != null) return replicas.call(replica -> ((Invocable) replica.getEngine()).invokeFunction(func, args));
+		ScriptData scriptData = this.scriptData;
+		scriptData.enter();
+		try {
+			return ((Invocable) scriptData.getEngine()).invokeFunction(func, args);
+		} finally {
+			scriptData.exit();
+		}
 	}
 
 	/**
@@ -68,15 +131,7 @@ public class InvocableScript extends GenericScript {
 	 */
 	@Override
 	public Object execute() {
-		try {
-			return invocable.invokeFunction(initFunc.getName(), initFunc.getParams());
-		} catch (ScriptException ex) {
-			exceptionHandler.handle(ex);
-			return null;
-		} catch (NoSuchMethodException ex) {
-			ex.printStackTrace();
-			return null;
-		}
+		return execute(initFunc.getName(), initFunc.getParams());
 	}
 
 	/**
@@ -84,14 +139,23 @@ public class InvocableScript extends GenericScript {
 	 */
 	@Override
 	public Object execute(String func, Object... args) {
+		long start = startTiming();
+		long cpuTime = startCpuTime();
+		long allocated = startAllocation();
 		try {
-			return invocable.invokeFunction(func, args);
+			Object result = memoize(func, args, () -> invoke(func, args));
+			stopTiming(stats.function(func), start, false);
+			return result;
 		} catch (ScriptException ex) {
+			stopTiming(stats.function(func), start, true);
 			exceptionHandler.handle(ex);
 			return null;
 		} catch (NoSuchMethodException ex) {
+			stopTiming(stats.function(func), start, true);
 			ex.printStackTrace();
 			return null;
+		} finally {
+			stopMetering(cpuTime, allocated);
 		}
 	}
 
@@ -100,7 +164,80 @@ public class InvocableScript extends GenericScript {
 	 */
 	@Override
 	public Future<Object> executeAsync(String func, Object... args) {
-		return executeService(() -> execute(func, args));
+		return executeShared(func, args, () -> execute(func, args));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CompletableFuture<Object> executeWithin(Duration deadline, String func, Object... args) {
+		return executeService(() -> execute(func, args), deadline);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * If replicated, the replica the overdue call runs on is always quarantined, as the other
+	 * replicas keep serving calls.
+	 */
+	@Override
+	void quarantine(Thread runner) {
+		if (replicas == null) {
+			super.quarantine(runner);
+			return;
+		}
+		int index = replicas.indexOwnedBy(runner);
+		if (index < 0) return;
+		ScriptData quarantined = replicas.getReplica(index);
+		offload(() -> resetReplica(index, quarantined));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The replacement engine evaluates the script again.
+	 */
+	@Override
+	synchronized void reset(ScriptData quarantined) {
+		if (scriptData != quarantined) return;
+		ScriptData fresh = rebuild(quarantined, this::prepare);
+		if (fresh == null) return;
+		scriptData = fresh;
+		generation++;
+		quarantined.discard();
+	}
+
+	/**
+	 * Replaces a quarantined replica by a freshly evaluated one, unless it was replaced meanwhile.
+	 *
+	 * @param index
+	 * 		The index of the replica.
+	 * @param quarantined
+	 * 		The {@link ScriptData} of the quarantined replica.
+	 */
+	private synchronized void resetReplica(int index, ScriptData quarantined) {
+		if (replicas.getReplica(index) != quarantined) return;
+		ScriptData fresh = rebuild(quarantined, this::prepare);
+		if (fresh == null) return;
+		replicas.replace(index, fresh);
+		if (index == 0) scriptData = fresh;
+		generation++;
+		quarantined.discard();
+	}
+
+	/**
+	 * Evaluates the script inside of a fresh replica.
+	 *
+	 * @param replica
+	 * 		The {@link ScriptData} of the replica.
+	 *
+	 * @return The prepared replica.
+	 *
+	 * @throws ScriptException
+	 * 		When the evaluation fails.
+	 */
+	private ScriptData prepare(ScriptData replica) throws ScriptException {
+		compile(replica, initFunc).eval(replica.getEngine().getContext());
+		return replica;
 	}
 
 	/**
@@ -108,8 +245,7 @@ public class InvocableScript extends GenericScript {
 	 */
 	@Override
 	public <T> T expect(Class<T> classIdentifier, String func, Object... args) {
-		Object result = execute(func, args);
-		return classIdentifier.isInstance(result) ? classIdentifier.cast(result) : null;
+		return getScriptManager().getConverters().convert(execute(func, args), classIdentifier);
 	}
 
 	/**
@@ -117,6 +253,84 @@ public class InvocableScript extends GenericScript {
 	 */
 	@Override
 	public <T> CompletableFuture<T> expectLater(Class<T> classIdentifier, String func, Object... args) {
-		return executeService(() -> expect(classIdentifier, func, args));
+		if (!isSingleFlight()) return executeService(() -> expect(classIdentifier, func, args));
+		return executeShared(func, args, () -> execute(func, args))
+				.thenApply(result -> getScriptManager().getConverters().convert(result, classIdentifier));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> ScriptFunction<T> function(String func, Class<T> returnType) throws NoSuchMethodException {
+		return new InvocableFunction<>(this, replicas, func, returnType);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <I> I bind(Class<I> iface) throws NoSuchMethodException {
+		Object bound = bindings.get(iface);
+		if (bound == null) {
+			bound = InterfaceBinding.bind(this, iface);
+			Object present = bindings.putIfAbsent(iface, bound);
+			if (present != null) bound = present;
+		}
+		return iface.cast(bound);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Tenants run on the primary engine, holding the lock of its replica while they run so the
+	 * engine is never entered by a call of the script at the same time.
+	 */
+	@Override
+	public ScriptTenant tenant() throws ScriptException {
+		return new IsolatedTenant(this, scriptData, initFunc, replicas);
+	}
+
+	/**
+	 * Runs an action on every current {@link ScriptEngine} of this {@link Script}, on each replica
+	 * while holding its lock, so the action never overlaps a call of the replica.
+	 *
+	 * @param action
+	 * 		The {@link Consumer} of each {@link ScriptEngine}.
+	 *
+	 * @throws ScriptException
+	 * 		When interrupted while waiting on a busy replica.
+	 */
+	public void forEachEngine(Consumer<ScriptEngine> action) throws ScriptException {
+		if (replicas != null) {
+			replicas.forEach(replica -> action.accept(replica.getEngine()));
+			return;
+		}
+		ScriptData scriptData = this.scriptData;
+		if (!scriptData.isReleased()) action.accept(scriptData.getEngine());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getReplicaCount() {
+		return replicas == null ? 1 : replicas.getReplicaCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getReplicaFootprint() {
+		return replicas == null ? -1 : replicas.getFootprint();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void releaseEngines() {
+		if (replicas == null) super.releaseEngines();
+		else replicas.release();
 	}
 }
@@ -0,0 +1,270 @@
+package us.nullbytes.rcscript.builder.script;
+
+import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptTenant;
+import us.nullbytes.rcscript.data.InitFunc;
+import us.nullbytes.rcscript.data.ScriptData;
+import us.nullbytes.rcscript.engine.BindingsPool;
+import us.nullbytes.rcscript.engine.EngineReplicas;
+import us.nullbytes.rcscript.metrics.ScriptMetrics;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link ScriptTenant} of a {@link CompilableScript} or {@link InvocableScript}, evaluating the
+ * shared {@link CompiledScript} inside of {@link Bindings} leased from the script's {@link
+ * BindingsPool}.
+ *
+ * @author Corey Shupe
+ * @see ScriptTenant
+ */
+class IsolatedTenant implements ScriptTenant {
+
+	/**
+	 * The {@link GenericScript} this is a tenant of.
+	 */
+	private final GenericScript script;
+
+	/**
+	 * The {@link InitFunc} of the script, or null if it has no functions.
+	 */
+	private final InitFunc initFunc;
+
+	/**
+	 * The {@link ScriptData} of the engine running the tenant.
+	 */
+	private final ScriptData scriptData;
+
+	/**
+	 * The {@link EngineReplicas} whose first replica runs the tenant, or null if not replicated.
+	 */
+	private final EngineReplicas replicas;
+
+	/**
+	 * The {@link CompiledScript} shared with the script.
+	 */
+	private final CompiledScript compiled;
+
+	/**
+	 * The {@link BindingsPool.Lease} of the tenant's {@link Bindings}.
+	 */
+	private final BindingsPool.Lease lease;
+
+	/**
+	 * The {@link ScriptContext} whose engine scope is the tenant's {@link Bindings}.
+	 */
+	private final ScriptContext context;
+
+	/**
+	 * The {@link FunctionTarget}s resolved inside of the tenant's {@link Bindings} so far.
+	 */
+	private final Map<String, FunctionTarget> functions = new HashMap<>();
+
+	/**
+	 * Whether or not this tenant was closed.
+	 */
+	private boolean closed = false;
+
+	/**
+	 * Initializes a new {@link IsolatedTenant}, evaluating the script inside of the tenant's
+	 * {@link Bindings} if it has functions.
+	 *
+	 * @param script
+	 * 		The {@link GenericScript} this is a tenant of.
+	 * @param scriptData
+	 * 		The {@link ScriptData} of the engine running the tenant.
+	 * @param initFunc
+	 * 		The {@link InitFunc} of the script, or null if it has no functions.
+	 * @param replicas
+	 * 		The {@link EngineReplicas} whose first replica is given, or null if not replicated.
+	 *
+	 * @throws ScriptException
+	 * 		When the script fails to evaluate or compile.
+	 */
+	IsolatedTenant(GenericScript script, ScriptData scriptData, InitFunc initFunc, EngineReplicas replicas) throws ScriptException {
+		this.script = script;
+		this.initFunc = initFunc;
+		this.scriptData = scriptData;
+		this.replicas = replicas;
+		this.compiled = GenericScript.compile(scriptData, initFunc);
+		BindingsPool pool = script.bindingsPool(scriptData);
+		this.lease = pool.lease();
+		this.context = pool.createContext(lease);
+		if (initFunc == null) return;
+		try {
+			run(() -> compiled.eval(context));
+		} catch (NoSuchMethodException ex) {
+			lease.release();
+			throw new ScriptException(ex);
+		} catch (ScriptException | RuntimeException ex) {
+			lease.release();
+			throw ex;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Script getScript() {
+		return script;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Bindings getBindings() {
+		return lease.getBindings();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized Object execute() {
+		if (initFunc != null) return execute(initFunc.getName(), initFunc.getParams());
+		checkOpen();
+		long start = script.startTiming();
+		long cpuTime = script.startCpuTime();
+		long allocated = script.startAllocation();
+		try {
+			Object result = run(() -> compiled.eval(context));
+			GenericScript.stopTiming(script.stats.function(ScriptMetrics.EVALUATION), start, false);
+			return result;
+		} catch (ScriptException ex) {
+			GenericScript.stopTiming(script.stats.function(ScriptMetrics.EVALUATION), start, true);
+			script.exceptionHandler.handle(ex);
+			return null;
+		} catch (NoSuchMethodException ex) {
+			GenericScript.stopTiming(script.stats.function(ScriptMetrics.EVALUATION), start, true);
+			ex.printStackTrace();
+			return null;
+		} finally {
+			script.stopMetering(cpuTime, allocated);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized Object execute(String func, Object... args) {
+		if (initFunc == null) throw new UnsupportedOperationException("This type of script cannot perform function calls.");
+		checkOpen();
+		long start = script.startTiming();
+		long cpuTime = script.startCpuTime();
+		long allocated = script.startAllocation();
+		try {
+			FunctionTarget resolved = functions.get(func);
+			if (resolved == null) {
+				resolved = FunctionTarget.resolve(lease.getBindings(), func);
+				functions.put(func, resolved);
+			}
+			FunctionTarget target = resolved;
+			Object result = run(() -> target.call(args));
+			GenericScript.stopTiming(script.stats.function(func), start, false);
+			return result;
+		} catch (ScriptException ex) {
+			GenericScript.stopTiming(script.stats.function(func), start, true);
+			script.exceptionHandler.handle(ex);
+			return null;
+		} catch (NoSuchMethodException ex) {
+			GenericScript.stopTiming(script.stats.function(func), start, true);
+			ex.printStackTrace();
+			return null;
+		} finally {
+			script.stopMetering(cpuTime, allocated);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> T expect(Class<T> classIdentifier, String func, Object... args) {
+		return script.getScriptManager().getConverters().convert(execute(func, args), classIdentifier);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) return;
+		closed = true;
+		functions.clear();
+		lease.release();
+	}
+
+	/**
+	 * Runs a call on the engine of the tenant, holding the lock of its replica if replicated so no
+	 * call of the script runs on the engine meanwhile.
+	 *
+	 * @param call
+	 * 		The {@link TenantCall} to run.
+	 *
+	 * @return The return value of the call.
+	 *
+	 * @throws ScriptException
+	 * 		When the script fails inside of the call, or its engine was released or quarantined.
+	 * @throws NoSuchMethodException
+	 * 		When the called function doesn't exist.
+	 */
+	private Object run(TenantCall call) throws ScriptException, NoSuchMethodException {
+		if (replicas != null) {
+			return replicas.callOn(0, (index, replica) -> {
+				if (replica != scriptData) throw new ScriptException("The engine of the tenant was quarantined.");
+				return call.call();
+			});
+		}
+		scriptData.enter();
+		try {
+			return call.call();
+		} finally {
+			scriptData.exit();
+		}
+	}
+
+	/**
+	 * Checks that this tenant is still open.
+	 *
+	 * @throws IllegalStateException
+	 * 		When the tenant was closed.
+	 */
+	private void checkOpen() {
+		if (closed) throw new IllegalStateException("The tenant was closed.");
+	}
+
+	/**
+	 * A call made against the engine of the tenant.
+	 */
+	@FunctionalInterface
+	private interface TenantCall {
+
+		/**
+		 * Runs the call.
+		 *
+		 * @return The return value of the call.
+		 *
+		 * @throws ScriptException
+		 * 		When the script fails inside of the call.
+		 * @throws NoSuchMethodException
+		 * 		When the called function doesn't exist.
+		 */
+		Object call() throws ScriptException, NoSuchMethodException;
+	}
+}
@@ -0,0 +1,534 @@
+package us.nullbytes.rcscript.builder.script;
+
+import us.nullbytes.rcscript.ExceptionHandler;
+import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptBuilder;
+import us.nullbytes.rcscript.ScriptFunction;
+import us.nullbytes.rcscript.ScriptManager;
+import us.nullbytes.rcscript.ScriptManager.RejectionPolicy;
+import us.nullbytes.rcscript.ScriptTenant;
+import us.nullbytes.rcscript.cache.CacheStats;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * A {@link Script} compiled on first use, see {@link ScriptBuilder#setLazy(boolean)}. Concurrent
+ * first uses wait for a single compilation, and a failed compilation is remembered rather than
+ * retried. Every call is forwarded to the compiled {@link Script}, compiling it if needed, except
+ * for the statistics which are empty before compilation.
+ *
+ * @author Corey Shupe
+ * @see Script
+ */
+public class LazyScript implements Script {
+
+	/**
+	 * The {@link ScriptManager} of the {@link Script}.
+	 */
+	private final ScriptManager manager;
+
+	/**
+	 * The {@link Compiler} of the {@link Script}, or null once compiled.
+	 */
+	private Compiler compiler;
+
+	/**
+	 * The compiled {@link Script}, or null if not yet compiled.
+	 */
+	private volatile Script script = null;
+
+	/**
+	 * The {@link ScriptException} the compilation failed with, or null.
+	 */
+	private ScriptException failure = null;
+
+	/**
+	 * The amount of holders of this {@link Script}, see {@link #retain()}, 0 once released.
+	 */
+	private int holders = 1;
+
+	/**
+	 * The {@link ExceptionHandler} handling all {@link ScriptException}s.
+	 * By default {@code ScriptException::printStackTrace}
+	 */
+	private ExceptionHandler<ScriptException> exceptionHandler = ScriptException::printStackTrace;
+
+	/**
+	 * Initializes a new {@link LazyScript}.
+	 *
+	 * @param manager
+	 * 		The {@link ScriptManager} of the {@link Script}.
+	 * @param compiler
+	 * 		The {@link Compiler} called on first use.
+	 */
+	public LazyScript(ScriptManager manager, Compiler compiler) {
+		this.manager = manager;
+		this.compiler = compiler;
+	}
+
+	/**
+	 * Gets the compiled {@link Script}, compiling it if needed.
+	 *
+	 * @return The compiled {@link Script}.
+	 *
+	 * @throws ScriptException
+	 * 		When the compilation fails, or failed before.
+	 */
+	public Script resolve() throws ScriptException {
+		Script script = this.script;
+		if (script != null) return script;
+		synchronized (this) {
+			if (this.script != null) return this.script;
+			if (holders == 0) throw new ScriptException("The script was released before being compiled.");
+			if (failure != null) throw failure;
+			try {
+				script = compiler.compile();
+			} catch (ScriptException ex) {
+				failure = ex;
+				exceptionHandler.handle(ex);
+				throw ex;
+			}
+			compiler = null;
+			script.handleExceptions(exceptionHandler);
+			this.script = script;
+			return script;
+		}
+	}
+
+	/**
+	 * Gets the compiled {@link Script}, compiling it if needed. A failed compilation is passed to
+	 * the {@link ExceptionHandler} of this {@link Script} once.
+	 *
+	 * @return The compiled {@link Script}, or null if the compilation failed.
+	 */
+	public Script unwrap() {
+		try {
+			return resolve();
+		} catch (ScriptException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Checks if this {@link Script} was compiled.
+	 *
+	 * @return True if compiled successfully.
+	 */
+	public boolean isResolved() {
+		return script != null;
+	}
+
+	/**
+	 * Gets the compiled {@link Script} to forward a call to, compiling it if needed.
+	 *
+	 * @return The compiled {@link Script}.
+	 *
+	 * @throws IllegalStateException
+	 * 		When the compilation fails, or failed before.
+	 */
+	private Script compiled() {
+		try {
+			return resolve();
+		} catch (ScriptException ex) {
+			throw new IllegalStateException("The script failed to compile.", ex);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptManager getScriptManager() {
+		return manager;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptEngine getScriptEngine() {
+		return compiled().getScriptEngine();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object execute() {
+		return compiled().execute();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object execute(String func, Object... args) {
+		return compiled().execute(func, args);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Future<Object> executeAsync() {
+		return compiled().executeAsync();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Future<Object> executeAsync(String func, Object... args) {
+		return compiled().executeAsync(func, args);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CompletableFuture<Object> executeWithin(Duration deadline, String func, Object... args) {
+		return compiled().executeWithin(deadline, func, args);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> T expect(Class<T> classIdentifier) {
+		return compiled().expect(classIdentifier);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> T expect(Class<T> classIdentifier, String func, Object... args) {
+		return compiled().expect(classIdentifier, func, args);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> CompletableFuture<T> expectLater(Class<T> classIdentifier) {
+		return compiled().expectLater(classIdentifier);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> CompletableFuture<T> expectLater(Class<T> classIdentifier, String func, Object... args) {
+		return compiled().expectLater(classIdentifier, func, args);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int expectInt(String func, Object... args) {
+		return compiled().expectInt(func, args);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int expectInt(String func, int a) {
+		return compiled().expectInt(func, a);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int expectInt(String func, int a, int b) {
+		return compiled().expectInt(func, a, b);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long expectLong(String func, Object... args) {
+		return compiled().expectLong(func, args);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long expectLong(String func, long a) {
+		return compiled().expectLong(func, a);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long expectLong(String func, long a, long b) {
+		return compiled().expectLong(func, a, b);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double expectDouble(String func, Object... args) {
+		return compiled().expectDouble(func, args);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double expectDouble(String func, double a) {
+		return compiled().expectDouble(func, a);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double expectDouble(String func, double a, double b) {
+		return compiled().expectDouble(func, a, b);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean expectBoolean(String func, Object... args) {
+		return compiled().expectBoolean(func, args);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> ScriptFunction<T> function(String func, Class<T> returnType) throws NoSuchMethodException {
+		return compiled().function(func, returnType);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <I> I bind(Class<I> iface) throws NoSuchMethodException {
+		return compiled().bind(iface);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptTenant tenant() throws ScriptException {
+		return resolve().tenant();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object executeIsolated(String func, Object... args) {
+		return compiled().executeIsolated(func, args);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * A failed compilation is passed to the {@link ExceptionHandler} set at that point.
+	 */
+	@Override
+	public synchronized void handleExceptions(ExceptionHandler<ScriptException> exceptionHandler) {
+		this.exceptionHandler = exceptionHandler;
+		if (script != null) script.handleExceptions(exceptionHandler);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setConcurrencyLimit(int limit) {
+		compiled().setConcurrencyLimit(limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getConcurrencyLimit() {
+		return compiled().getConcurrencyLimit();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setDeadline(Duration deadline) {
+		compiled().setDeadline(deadline);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Duration getDeadline() {
+		return compiled().getDeadline();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setResetOnTimeout(boolean resetOnTimeout) {
+		compiled().setResetOnTimeout(resetOnTimeout);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isResetOnTimeout() {
+		return compiled().isResetOnTimeout();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setSerial(boolean serial) {
+		compiled().setSerial(serial);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSerial() {
+		return compiled().isSerial();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Before compilation no call runs, so 0.
+	 */
+	@Override
+	public int getMailboxDepth() {
+		Script script = this.script;
+		return script == null ? 0 : script.getMailboxDepth();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setQueueLimit(int capacity, RejectionPolicy policy) {
+		compiled().setQueueLimit(capacity, policy);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Before compilation no call waits, so 0.
+	 */
+	@Override
+	public int getQueueDepth() {
+		Script script = this.script;
+		return script == null ? 0 : script.getQueueDepth();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setSingleFlight(boolean singleFlight) {
+		compiled().setSingleFlight(singleFlight);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSingleFlight() {
+		return compiled().isSingleFlight();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Before compilation nothing is memoized, so null.
+	 */
+	@Override
+	public CacheStats getResultCacheStats() {
+		Script script = this.script;
+		return script == null ? null : script.getResultCacheStats();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void invalidateResults() {
+		Script script = this.script;
+		if (script != null) script.invalidateResults();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Before compilation no {@link ScriptEngine} is held, so 0.
+	 */
+	@Override
+	public int getReplicaCount() {
+		Script script = this.script;
+		return script == null ? 0 : script.getReplicaCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getReplicaFootprint() {
+		Script script = this.script;
+		return script == null ? -1 : script.getReplicaFootprint();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized Script retain() {
+		if (holders == 0) throw new IllegalStateException("The script was released.");
+		holders++;
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * A {@link LazyScript} released before its first use is never compiled.
+	 */
+	@Override
+	public synchronized void release() {
+		if (holders == 0 || --holders > 0) return;
+		compiler = null;
+		if (script != null) script.release();
+	}
+
+	/**
+	 * Compiles the {@link Script} on first use.
+	 */
+	@FunctionalInterface
+	public interface Compiler {
+
+		/**
+		 * Compiles the {@link Script}.
+		 *
+		 * @return The compiled {@link Script}.
+		 *
+		 * @throws ScriptException
+		 * 		When the {@link Script} fails to compile.
+		 */
+		Script compile() throws ScriptException;
+	}
+}
@@ -2,9 +2,10 @@ package us.nullbytes.rcscript.builder.script;
 
 import us.nullbytes.rcscript.Script;
 import us.nullbytes.rcscript.data.ScriptData;
+import us.nullbytes.rcscript.metrics.ScriptMetrics;
 
 import javax.script.ScriptException;
-import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 
 /**
  * The most simple implementation of {@link GenericScript} for things with only evaluation.
@@ -35,11 +36,31 @@ public class SimpleScript extends GenericScript {
 	 */
 	@Override
 	public Object execute() {
+		long start = startTiming();
+		long cpuTime = startCpuTime();
+		long allocated = startAllocation();
 		try {
-			return getScriptEngine().eval(new InputStreamReader(scriptData.getStream()));
+			ScriptData scriptData = this.scriptData;
+			Object result = memoize(() -> {
+				scriptData.enter();
+				try {
+					return scriptData.getEngine().eval(scriptData.getSource().getText());
+				} finally {
+					scriptData.exit();
+				}
+			});
+			stopTiming(stats.function(ScriptMetrics.EVALUATION), start, false);
+			return result;
 		} catch (ScriptException ex) {
+			stopTiming(stats.function(ScriptMetrics.EVALUATION), start, true);
 			exceptionHandler.handle(ex);
 			return null;
+		} catch (UncheckedIOException ex) {
+			stopTiming(stats.function(ScriptMetrics.EVALUATION), start, true);
+			exceptionHandler.handle(new ScriptException(ex.getCause()));
+			return null;
+		} finally {
+			stopMetering(cpuTime, allocated);
 		}
 	}
 }
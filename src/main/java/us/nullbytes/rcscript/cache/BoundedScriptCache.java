@@ -0,0 +1,630 @@
+package us.nullbytes.rcscript.cache;
+
+import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptManager;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Script} cache of a {@link ScriptManager} following an {@link EvictionPolicy}. Every
+ * operation is synchronized, so the cache is safe to share between threads whatever {@link
+ * ScriptManager.IdentifierRule} it follows.
+ * <p>
+ * Expired entries are removed when looked up, and by a sweep running at most once a second
+ * during other operations. The {@link #entrySet()} is a snapshot and does not support removal.
+ *
+ * @author Corey Shupe
+ */
+public class BoundedScriptCache extends AbstractMap<Object, Script> {
+
+	/**
+	 * The minimum time between two sweeps of expired entries.
+	 */
+	private final static long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+	/**
+	 * The {@link EvictionPolicy} followed.
+	 */
+	private final EvictionPolicy policy;
+
+	/**
+	 * The {@link Consumer} releasing evicted {@link Script}s, after the policy's listener.
+	 */
+	private final Consumer<Script> releaser;
+
+	/**
+	 * Whether or not identifiers are equated by {@code ==}.
+	 */
+	private final boolean identity;
+
+	/**
+	 * The admission window of new entries in access order, always empty under {@link
+	 * EvictionPolicy.Admission#LRU}.
+	 */
+	private final LinkedHashMap<Object, Node> window = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * The main entries in access order.
+	 */
+	private final LinkedHashMap<Object, Node> main = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * The {@link FrequencySketch} choosing admissions, or null under {@link
+	 * EvictionPolicy.Admission#LRU}.
+	 */
+	private final FrequencySketch sketch;
+
+	/**
+	 * The maximum amount of entries in the {@link #window}.
+	 */
+	private long windowSize;
+
+	/**
+	 * The most entries held at once, sizing the {@link #sketch} and {@link #window} when only the
+	 * weight is bounded.
+	 */
+	private long capacity = 0;
+
+	/**
+	 * The time after the last access an entry expires, or -1.
+	 */
+	private final long expireAfterAccess;
+
+	/**
+	 * The time after the insertion an entry expires, or -1.
+	 */
+	private final long expireAfterWrite;
+
+	/**
+	 * The amount of evicted entries.
+	 */
+	private final LongAdder evictionCount = new LongAdder();
+
+	/**
+	 * The total weight of evicted entries.
+	 */
+	private final LongAdder evictionWeight = new LongAdder();
+
+	/**
+	 * The total weight of all entries.
+	 */
+	private long weight = 0;
+
+	/**
+	 * The {@link System#nanoTime()} of the last sweep of expired entries.
+	 */
+	private long lastSweep = System.nanoTime();
+
+	/**
+	 * Initializes a new {@link BoundedScriptCache}.
+	 *
+	 * @param rule
+	 * 		The {@link ScriptManager.IdentifierRule} equating identifiers.
+	 * @param policy
+	 * 		The {@link EvictionPolicy} to follow.
+	 * @param releaser
+	 * 		The {@link Consumer} releasing evicted {@link Script}s.
+	 */
+	public BoundedScriptCache(ScriptManager.IdentifierRule rule, EvictionPolicy policy, Consumer<Script> releaser) {
+		this.policy = policy;
+		this.releaser = releaser;
+		this.identity = rule == ScriptManager.IdentifierRule.IDENTITY;
+		this.expireAfterAccess = policy.getExpireAfterAccess() == null ? -1 : policy.getExpireAfterAccess().toNanos();
+		this.expireAfterWrite = policy.getExpireAfterWrite() == null ? -1 : policy.getExpireAfterWrite().toNanos();
+		if (policy.getAdmission() == EvictionPolicy.Admission.TINY_LFU && policy.getMaximumSize() >= 0) {
+			this.sketch = new FrequencySketch(policy.getMaximumSize());
+			this.windowSize = Math.max(1, policy.getMaximumSize() / 100);
+		} else if (policy.getAdmission() == EvictionPolicy.Admission.TINY_LFU && policy.getMaximumWeight() >= 0) {
+			// a weight says nothing about the amount of entries, so both grow with the cache
+			this.sketch = new FrequencySketch(0);
+			this.windowSize = 1;
+		} else {
+			this.sketch = null;
+			this.windowSize = 0;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Script get(Object identifier) {
+		Object key = keyOf(identifier);
+		List<Node> evicted = new ArrayList<>();
+		Script script = null;
+		synchronized (this) {
+			long now = System.nanoTime();
+			if (sketch != null) sketch.increment(key);
+			Node node = window.get(key);
+			if (node == null) node = main.get(key);
+			if (node != null) {
+				if (isExpired(node, now)) {
+					evict(node, EvictionPolicy.Cause.EXPIRED, evicted);
+				} else {
+					node.accessTime = now;
+					script = node.script;
+				}
+			}
+			sweep(now, false, evicted);
+		}
+		notifyEvicted(evicted);
+		return script;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean containsKey(Object identifier) {
+		Object key = keyOf(identifier);
+		synchronized (this) {
+			Node node = window.containsKey(key) ? window.get(key) : main.get(key);
+			return node != null && !isExpired(node, System.nanoTime());
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Script put(Object identifier, Script script) {
+		Object key = keyOf(identifier);
+		long scriptWeight = policy.getWeigher().applyAsLong(script);
+		List<Node> evicted = new ArrayList<>();
+		Script previous = null;
+		synchronized (this) {
+			long now = System.nanoTime();
+			if (sketch != null) sketch.increment(key);
+			Node node = window.get(key);
+			if (node == null) node = main.get(key);
+			if (node != null) {
+				previous = node.script;
+				update(node, script, scriptWeight);
+				node.writeTime = node.accessTime = now;
+			} else {
+				node = new Node(key, identifier, script, scriptWeight, now);
+				(sketch == null ? main : window).put(key, node);
+				weight += scriptWeight;
+				grow();
+			}
+			sweep(now, true, evicted);
+			trim(evicted);
+		}
+		notifyEvicted(evicted);
+		return previous;
+	}
+
+	/**
+	 * Weighs the {@link Script} of an entry again, such as a lazily compiled {@link Script} once
+	 * compiled. The entry keeps its place in the eviction order.
+	 *
+	 * @param identifier
+	 * 		The identifier of the entry.
+	 * @param script
+	 * 		The {@link Script} expected in the entry.
+	 */
+	public void reweigh(Object identifier, Script script) {
+		Object key = keyOf(identifier);
+		long scriptWeight = policy.getWeigher().applyAsLong(script);
+		List<Node> evicted = new ArrayList<>();
+		synchronized (this) {
+			Node node = window.get(key);
+			if (node == null) node = main.get(key);
+			if (node == null || node.script != script || node.weight == scriptWeight) return;
+			update(node, script, scriptWeight);
+			trim(evicted);
+		}
+		notifyEvicted(evicted);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized Script remove(Object identifier) {
+		Object key = keyOf(identifier);
+		Node node = window.remove(key);
+		if (node == null) node = main.remove(key);
+		if (node == null) return null;
+		weight -= node.weight;
+		return node.script;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void clear() {
+		window.clear();
+		main.clear();
+		weight = 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized int size() {
+		return window.size() + main.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized Set<Entry<Object, Script>> entrySet() {
+		List<Entry<Object, Script>> entries = new ArrayList<>(size());
+		for (Node node : main.values()) entries.add(new SimpleImmutableEntry<>(node.identifier, node.script));
+		for (Node node : window.values()) entries.add(new SimpleImmutableEntry<>(node.identifier, node.script));
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<Entry<Object, Script>> iterator() {
+				return entries.iterator();
+			}
+
+			@Override
+			public int size() {
+				return entries.size();
+			}
+		};
+	}
+
+	/**
+	 * Removes every expired entry now, rather than waiting for the next sweep.
+	 */
+	public void cleanUp() {
+		List<Node> evicted = new ArrayList<>();
+		synchronized (this) {
+			sweep(System.nanoTime(), true, evicted);
+		}
+		notifyEvicted(evicted);
+	}
+
+	/**
+	 * Gets the {@link EvictionPolicy} followed.
+	 *
+	 * @return The {@link EvictionPolicy}.
+	 */
+	public EvictionPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Gets the total weight of all entries.
+	 *
+	 * @return The weight of the cache.
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Gets the amount of evicted entries.
+	 *
+	 * @return The amount of evictions.
+	 */
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	/**
+	 * Gets the total weight of evicted entries.
+	 *
+	 * @return The evicted weight.
+	 */
+	public long getEvictionWeight() {
+		return evictionWeight.sum();
+	}
+
+	/**
+	 * Gets the key an identifier is stored under.
+	 *
+	 * @param identifier
+	 * 		The identifier.
+	 *
+	 * @return The key of the identifier.
+	 */
+	private Object keyOf(Object identifier) {
+		return identity ? new IdentityKey(identifier) : identifier;
+	}
+
+	/**
+	 * Sizes the {@link #sketch} and {@link #window} from the most entries held at once, when only
+	 * the weight is bounded. Must be called while holding the lock on {@code this}.
+	 */
+	private void grow() {
+		if (sketch == null || policy.getMaximumSize() >= 0 || size() <= capacity) return;
+		capacity = size();
+		sketch.ensureCapacity(capacity);
+		windowSize = Math.max(1, capacity / 100);
+	}
+
+	/**
+	 * Replaces the {@link Script} of an entry. Must be called while holding the lock on {@code
+	 * this}.
+	 *
+	 * @param node
+	 * 		The {@link Node} of the entry.
+	 * @param script
+	 * 		The new {@link Script}.
+	 * @param scriptWeight
+	 * 		The weight of the new {@link Script}.
+	 */
+	private void update(Node node, Script script, long scriptWeight) {
+		weight += scriptWeight - node.weight;
+		node.script = script;
+		node.weight = scriptWeight;
+	}
+
+	/**
+	 * Checks if an entry expired. Must be called while holding the lock on {@code this}.
+	 *
+	 * @param node
+	 * 		The {@link Node} of the entry.
+	 * @param now
+	 * 		The current {@link System#nanoTime()}.
+	 *
+	 * @return True if the entry expired.
+	 */
+	private boolean isExpired(Node node, long now) {
+		return (expireAfterAccess >= 0 && now - node.accessTime >= expireAfterAccess) ||
+				(expireAfterWrite >= 0 && now - node.writeTime >= expireAfterWrite);
+	}
+
+	/**
+	 * Evicts expired entries, if any can expire and the last sweep is old enough. Must be called
+	 * while holding the lock on {@code this}.
+	 *
+	 * @param now
+	 * 		The current {@link System#nanoTime()}.
+	 * @param force
+	 * 		Whether or not to sweep regardless of the last sweep.
+	 * @param evicted
+	 * 		The {@link List} collecting evicted {@link Node}s.
+	 */
+	private void sweep(long now, boolean force, List<Node> evicted) {
+		if (expireAfterAccess < 0 && expireAfterWrite < 0) return;
+		if (!force && now - lastSweep < SWEEP_INTERVAL) return;
+		lastSweep = now;
+		sweep(window, now, evicted);
+		sweep(main, now, evicted);
+	}
+
+	/**
+	 * Evicts expired entries of one region. Entries are in access order, so without a write expiry
+	 * the sweep stops at the first live entry.
+	 *
+	 * @param region
+	 * 		The region to sweep.
+	 * @param now
+	 * 		The current {@link System#nanoTime()}.
+	 * @param evicted
+	 * 		The {@link List} collecting evicted {@link Node}s.
+	 */
+	private void sweep(LinkedHashMap<Object, Node> region, long now, List<Node> evicted) {
+		Iterator<Node> iterator = region.values().iterator();
+		while (iterator.hasNext()) {
+			Node node = iterator.next();
+			if (isExpired(node, now)) {
+				iterator.remove();
+				evicted(node, EvictionPolicy.Cause.EXPIRED, evicted);
+			} else if (expireAfterWrite < 0) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Evicts entries until the maximum size and weight are respected. Under {@link
+	 * EvictionPolicy.Admission#TINY_LFU} entries leaving the window only replace the least recently
+	 * used main entry if they were seen more often. Must be called while holding the lock on
+	 * {@code this}.
+	 *
+	 * @param evicted
+	 * 		The {@link List} collecting evicted {@link Node}s.
+	 */
+	private void trim(List<Node> evicted) {
+		while (window.size() > windowSize) {
+			Node candidate = first(window);
+			window.remove(candidate.key);
+			main.put(candidate.key, candidate);
+			EvictionPolicy.Cause cause = overflow();
+			if (cause == null) continue;
+			Node victim = first(main);
+			if (victim != candidate && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+				evict(candidate, cause, evicted);
+			} else {
+				evict(victim, cause, evicted);
+			}
+		}
+		EvictionPolicy.Cause cause;
+		while ((cause = overflow()) != null) {
+			Node victim = main.isEmpty() ? first(window) : first(main);
+			if (victim == null) return;
+			evict(victim, cause, evicted);
+		}
+	}
+
+	/**
+	 * Gets the bound currently exceeded. Must be called while holding the lock on {@code this}.
+	 *
+	 * @return The {@link EvictionPolicy.Cause} of the next eviction, or null if within bounds.
+	 */
+	private EvictionPolicy.Cause overflow() {
+		if (policy.getMaximumSize() >= 0 && size() > policy.getMaximumSize()) return EvictionPolicy.Cause.SIZE;
+		if (policy.getMaximumWeight() >= 0 && weight > policy.getMaximumWeight()) return EvictionPolicy.Cause.WEIGHT;
+		return null;
+	}
+
+	/**
+	 * Removes an entry and records its eviction. Must be called while holding the lock on {@code
+	 * this}.
+	 *
+	 * @param node
+	 * 		The {@link Node} to evict.
+	 * @param cause
+	 * 		The {@link EvictionPolicy.Cause} of the eviction.
+	 * @param evicted
+	 * 		The {@link List} collecting evicted {@link Node}s.
+	 */
+	private void evict(Node node, EvictionPolicy.Cause cause, List<Node> evicted) {
+		if (window.remove(node.key) == null) main.remove(node.key);
+		evicted(node, cause, evicted);
+	}
+
+	/**
+	 * Records the eviction of an already removed entry. Must be called while holding the lock on
+	 * {@code this}.
+	 *
+	 * @param node
+	 * 		The evicted {@link Node}.
+	 * @param cause
+	 * 		The {@link EvictionPolicy.Cause} of the eviction.
+	 * @param evicted
+	 * 		The {@link List} collecting evicted {@link Node}s.
+	 */
+	private void evicted(Node node, EvictionPolicy.Cause cause, List<Node> evicted) {
+		weight -= node.weight;
+		node.cause = cause;
+		evicted.add(node);
+		evictionCount.increment();
+		evictionWeight.add(node.weight);
+	}
+
+	/**
+	 * Notifies the policy's listener of evicted entries then releases their {@link Script}s,
+	 * outside of the lock.
+	 *
+	 * @param evicted
+	 * 		The evicted {@link Node}s.
+	 */
+	private void notifyEvicted(List<Node> evicted) {
+		for (Node node : evicted) {
+			policy.getListener().onEviction(node.identifier, node.script, node.cause);
+			releaser.accept(node.script);
+		}
+	}
+
+	/**
+	 * Gets the least recently used entry of a region.
+	 *
+	 * @param region
+	 * 		The region.
+	 *
+	 * @return The first {@link Node}, or null if empty.
+	 */
+	private static Node first(LinkedHashMap<Object, Node> region) {
+		Iterator<Node> iterator = region.values().iterator();
+		return iterator.hasNext() ? iterator.next() : null;
+	}
+
+	/**
+	 * A cached entry.
+	 */
+	private static final class Node {
+
+		/**
+		 * The key the entry is stored under.
+		 */
+		private final Object key;
+
+		/**
+		 * The identifier of the entry.
+		 */
+		private final Object identifier;
+
+		/**
+		 * The cached {@link Script}.
+		 */
+		private Script script;
+
+		/**
+		 * The weight of the {@link #script}.
+		 */
+		private long weight;
+
+		/**
+		 * The {@link System#nanoTime()} of the insertion.
+		 */
+		private long writeTime;
+
+		/**
+		 * The {@link System#nanoTime()} of the last access.
+		 */
+		private long accessTime;
+
+		/**
+		 * The {@link EvictionPolicy.Cause} of the eviction, or null while cached.
+		 */
+		private EvictionPolicy.Cause cause = null;
+
+		/**
+		 * Initializes a new {@link Node}.
+		 *
+		 * @param key
+		 * 		The key the entry is stored under.
+		 * @param identifier
+		 * 		The identifier of the entry.
+		 * @param script
+		 * 		The cached {@link Script}.
+		 * @param weight
+		 * 		The weight of the {@link Script}.
+		 * @param now
+		 * 		The current {@link System#nanoTime()}.
+		 */
+		private Node(Object key, Object identifier, Script script, long weight, long now) {
+			this.key = key;
+			this.identifier = identifier;
+			this.script = script;
+			this.weight = weight;
+			this.writeTime = now;
+			this.accessTime = now;
+		}
+	}
+
+	/**
+	 * An identifier equated by {@code ==}, for {@link ScriptManager.IdentifierRule#IDENTITY}.
+	 */
+	private static final class IdentityKey {
+
+		/**
+		 * The wrapped identifier.
+		 */
+		private final Object identifier;
+
+		/**
+		 * Initializes a new {@link IdentityKey}.
+		 *
+		 * @param identifier
+		 * 		The wrapped identifier.
+		 */
+		private IdentityKey(Object identifier) {
+			this.identifier = identifier;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof IdentityKey && ((IdentityKey) o).identifier == identifier;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(identifier);
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package us.nullbytes.rcscript.cache;
+
+/**
+ * A snapshot of the statistics of a cache. A simple data class for tuning a cache against real
+ * traffic.
+ *
+ * @author Corey Shupe
+ */
+public class CacheStats {
+
+	/**
+	 * The amount of lookups which found an entry.
+	 */
+	private final long hitCount;
+
+	/**
+	 * The amount of lookups which found nothing.
+	 */
+	private final long missCount;
+
+	/**
+	 * The amount of evicted entries.
+	 */
+	private final long evictionCount;
+
+	/**
+	 * The total weight of evicted entries.
+	 */
+	private final long evictionWeight;
+
+	/**
+	 * The amount of entries.
+	 */
+	private final long size;
+
+	/**
+	 * The total weight of all entries.
+	 */
+	private final long weight;
+
+	/**
+	 * An initializer for a new {@link CacheStats}.
+	 *
+	 * @param hitCount
+	 * 		The amount of lookups which found an entry.
+	 * @param missCount
+	 * 		The amount of lookups which found nothing.
+	 * @param evictionCount
+	 * 		The amount of evicted entries.
+	 * @param evictionWeight
+	 * 		The total weight of evicted entries.
+	 * @param size
+	 * 		The amount of entries.
+	 * @param weight
+	 * 		The total weight of all entries.
+	 */
+	public CacheStats(long hitCount, long missCount, long evictionCount, long evictionWeight, long size, long weight) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.evictionWeight = evictionWeight;
+		this.size = size;
+		this.weight = weight;
+	}
+
+	/**
+	 * Gets the amount of lookups which found an entry.
+	 *
+	 * @return The amount of hits.
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Gets the amount of lookups which found nothing.
+	 *
+	 * @return The amount of misses.
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Gets the ratio of lookups which found an entry.
+	 *
+	 * @return The hit rate between 0 and 1, or 1 if nothing was looked up.
+	 */
+	public double getHitRate() {
+		long lookups = hitCount + missCount;
+		return lookups == 0 ? 1 : (double) hitCount / lookups;
+	}
+
+	/**
+	 * Gets the amount of evicted entries.
+	 *
+	 * @return The amount of evictions.
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Gets the total weight of evicted entries.
+	 *
+	 * @return The evicted weight.
+	 */
+	public long getEvictionWeight() {
+		return evictionWeight;
+	}
+
+	/**
+	 * Gets the amount of entries.
+	 *
+	 * @return The size of the cache.
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Gets the total weight of all entries.
+	 *
+	 * @return The weight of the cache.
+	 */
+	public long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "CacheStats{hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount +
+				", evictionWeight=" + evictionWeight + ", size=" + size + ", weight=" + weight + '}';
+	}
+}
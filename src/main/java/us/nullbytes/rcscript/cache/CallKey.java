@@ -0,0 +1,79 @@
+package us.nullbytes.rcscript.cache;
+
+import java.util.Arrays;
+
+/**
+ * The identity of a call: the name of a function and its arguments, compared by {@link
+ * Object#equals(Object)} and arrays by their content. The arguments are copied, yet their elements
+ * should not be mutated while the key is in use.
+ *
+ * @author Corey Shupe
+ * @see ResultCache
+ */
+public final class CallKey {
+
+	/**
+	 * The name of the function.
+	 */
+	private final String func;
+
+	/**
+	 * A copy of the arguments.
+	 */
+	private final Object[] args;
+
+	/**
+	 * The hash of the {@link #func} and {@link #args}.
+	 */
+	private final int hash;
+
+	/**
+	 * Initializes a new {@link CallKey}.
+	 *
+	 * @param func
+	 * 		The name of the function.
+	 * @param args
+	 * 		The arguments, copied, or null for none.
+	 */
+	public CallKey(String func, Object[] args) {
+		this.func = func;
+		this.args = args == null ? new Object[0] : args.clone();
+		this.hash = 31 * func.hashCode() + Arrays.deepHashCode(this.args);
+	}
+
+	/**
+	 * Gets the name of the function.
+	 *
+	 * @return The name of the function.
+	 */
+	public String getFunction() {
+		return func;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof CallKey)) return false;
+		CallKey that = (CallKey) o;
+		return hash == that.hash && func.equals(that.func) && Arrays.deepEquals(args, that.args);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return func + Arrays.deepToString(args);
+	}
+}
@@ -0,0 +1,337 @@
+package us.nullbytes.rcscript.cache;
+
+import us.nullbytes.rcscript.ScriptManager;
+import us.nullbytes.rcscript.data.InitFunc;
+import us.nullbytes.rcscript.data.ScriptSource;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, least recently used cache of {@link CompiledScript}s shared by every builder of a
+ * {@link ScriptManager}. Entries are addressed by a hash of the source, the engine name and the
+ * init function, so identical sources are compiled only once.
+ * <p>
+ * Most engines bind a {@link CompiledScript} to the engine which compiled it, evaluating it in
+ * that engine's global rather than the one of the context given. Such entries are only shared
+ * between scripts of the same {@link ScriptEngine}, for instance a pooled engine leased again
+ * after a release, unless the engine's factory sets the {@link #PORTABLE_PARAMETER}. They are
+ * removed once their {@link ScriptEngine} is dropped for good, see {@link
+ * #invalidate(ScriptEngine)}.
+ *
+ * @author Corey Shupe
+ */
+public class CompiledScriptCache {
+
+	/**
+	 * The {@link javax.script.ScriptEngineFactory#getParameter(String)} key an engine sets to
+	 * {@link Boolean#TRUE} if its {@link CompiledScript}s can be evaluated against the context of
+	 * any other engine of the same factory.
+	 */
+	public final static String PORTABLE_PARAMETER = "us.nullbytes.rcscript.portableCompiledScripts";
+
+	/**
+	 * The {@link Map} holding all cached {@link CompiledScript}s in access order.
+	 */
+	private final LinkedHashMap<Key, CompiledScript> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * The amount of lookups served from the cache.
+	 */
+	private final LongAdder hitCount = new LongAdder();
+
+	/**
+	 * The amount of lookups which had to compile.
+	 */
+	private final LongAdder missCount = new LongAdder();
+
+	/**
+	 * The amount of entries removed to respect {@link #maxSize}.
+	 */
+	private final LongAdder evictionCount = new LongAdder();
+
+	/**
+	 * The maximum amount of cached {@link CompiledScript}s.
+	 */
+	private int maxSize;
+
+	/**
+	 * Initializes a new {@link CompiledScriptCache}.
+	 *
+	 * @param maxSize
+	 * 		The maximum amount of cached {@link CompiledScript}s, 0 to disable caching.
+	 */
+	public CompiledScriptCache(int maxSize) {
+		setMaxSize(maxSize);
+	}
+
+	/**
+	 * Gets the {@link CompiledScript} for a source, compiling and caching it if absent.
+	 *
+	 * @param engine
+	 * 		The {@link ScriptEngine} the source is compiled for.
+	 * @param sourceHash
+	 * 		The hash of the source, see {@link ScriptSource#getHash()}.
+	 * @param initFunc
+	 * 		The {@link InitFunc} of the script, or null for simple evaluation.
+	 * @param compiler
+	 * 		The {@link Compiler} used when the source is not cached.
+	 *
+	 * @return The cached or compiled {@link CompiledScript}, to be evaluated against the context of
+	 * the given {@link ScriptEngine}.
+	 *
+	 * @throws ScriptException
+	 * 		When the source fails to compile.
+	 */
+	public CompiledScript get(ScriptEngine engine, String sourceHash, InitFunc initFunc, Compiler compiler) throws ScriptException {
+		boolean portable = Boolean.TRUE.equals(engine.getFactory().getParameter(PORTABLE_PARAMETER));
+		Key key = new Key(engine.getFactory().getEngineName(), portable ? null : engine, sourceHash, initFunc);
+		CompiledScript script;
+		synchronized (entries) {
+			script = entries.get(key);
+		}
+		if (script != null) {
+			hitCount.increment();
+			return script;
+		}
+		missCount.increment();
+		script = compiler.compile();
+		synchronized (entries) {
+			CompiledScript present = entries.putIfAbsent(key, script);
+			if (present != null) return present;
+			trim();
+		}
+		return script;
+	}
+
+	/**
+	 * Removes every entry compiled from the source with the given hash.
+	 *
+	 * @param sourceHash
+	 * 		The hash of the source, see {@link ScriptSource#getHash()}.
+	 */
+	public void invalidate(String sourceHash) {
+		synchronized (entries) {
+			entries.keySet().removeIf(key -> key.sourceHash.equals(sourceHash));
+		}
+	}
+
+	/**
+	 * Removes every entry bound to a {@link ScriptEngine}, once it was dropped by its pool or
+	 * quarantined, as well as entries bound to collected engines.
+	 *
+	 * @param engine
+	 * 		The {@link ScriptEngine}.
+	 */
+	public void invalidate(ScriptEngine engine) {
+		synchronized (entries) {
+			entries.keySet().removeIf(key -> key.engine != null && (key.engine.get() == engine || key.engine.get() == null));
+		}
+	}
+
+	/**
+	 * Removes every entry.
+	 */
+	public void invalidateAll() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Sets the maximum amount of cached {@link CompiledScript}s, evicting the least recently used.
+	 *
+	 * @param maxSize
+	 * 		The maximum amount of cached {@link CompiledScript}s, 0 to disable caching.
+	 */
+	public void setMaxSize(int maxSize) {
+		if (maxSize < 0) throw new IllegalArgumentException("The maximum size cannot be negative.");
+		synchronized (entries) {
+			this.maxSize = maxSize;
+			trim();
+		}
+	}
+
+	/**
+	 * Gets the maximum amount of cached {@link CompiledScript}s.
+	 *
+	 * @return The maximum amount of cached {@link CompiledScript}s.
+	 */
+	public int getMaxSize() {
+		synchronized (entries) {
+			return maxSize;
+		}
+	}
+
+	/**
+	 * Gets the amount of cached {@link CompiledScript}s.
+	 *
+	 * @return The amount of cached {@link CompiledScript}s.
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Gets the amount of lookups served from the cache.
+	 *
+	 * @return The amount of hits.
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * Gets the amount of lookups which had to compile.
+	 *
+	 * @return The amount of misses.
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * Gets the amount of entries evicted to respect the maximum size.
+	 *
+	 * @return The amount of evictions.
+	 */
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	/**
+	 * Evicts the least recently used entries until the maximum size is respected. Must be called
+	 * while holding the lock on {@link #entries}.
+	 */
+	private void trim() {
+		Iterator<Key> iterator = entries.keySet().iterator();
+		while (entries.size() > maxSize && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+			evictionCount.increment();
+		}
+	}
+
+	/**
+	 * Compiles a source on a cache miss.
+	 */
+	@FunctionalInterface
+	public interface Compiler {
+
+		/**
+		 * Compiles the source.
+		 *
+		 * @return The {@link CompiledScript}.
+		 *
+		 * @throws ScriptException
+		 * 		When the source fails to compile.
+		 */
+		CompiledScript compile() throws ScriptException;
+	}
+
+	/**
+	 * The address of a cached {@link CompiledScript}.
+	 */
+	private static final class Key {
+
+		/**
+		 * The name of the engine.
+		 */
+		private final String engineName;
+
+		/**
+		 * The {@link ScriptEngine} the entry is bound to, or null if portable. Weakly referenced
+		 * so the key never keeps an engine alive.
+		 */
+		private final WeakReference<ScriptEngine> engine;
+
+		/**
+		 * The identity hash code of the {@link #engine}, or 0 if portable.
+		 */
+		private final int engineHash;
+
+		/**
+		 * The hash of the source.
+		 */
+		private final String sourceHash;
+
+		/**
+		 * The name of the init function, or null for simple evaluation.
+		 */
+		private final String initName;
+
+		/**
+		 * The parameters of the init function.
+		 */
+		private final Object[] initParams;
+
+		/**
+		 * Initializes a new {@link Key}.
+		 *
+		 * @param engineName
+		 * 		The name of the engine.
+		 * @param engine
+		 * 		The {@link ScriptEngine} the entry is bound to, or null if portable.
+		 * @param sourceHash
+		 * 		The hash of the source.
+		 * @param initFunc
+		 * 		The {@link InitFunc} of the script, or null for simple evaluation.
+		 */
+		private Key(String engineName, ScriptEngine engine, String sourceHash, InitFunc initFunc) {
+			this.engineName = engineName;
+			this.engine = engine == null ? null : new WeakReference<>(engine);
+			this.engineHash = System.identityHashCode(engine);
+			this.sourceHash = sourceHash;
+			this.initName = initFunc == null ? null : initFunc.getName();
+			this.initParams = initFunc == null ? null : initFunc.getParams();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Key)) return false;
+			Key that = (Key) o;
+			return engineName.equals(that.engineName) &&
+					sameEngine(that) &&
+					sourceHash.equals(that.sourceHash) &&
+					Objects.equals(initName, that.initName) &&
+					Arrays.deepEquals(initParams, that.initParams);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			return Objects.hash(engineName, engineHash, sourceHash, initName, Arrays.deepHashCode(initParams));
+		}
+
+		/**
+		 * Checks if another {@link Key} is bound to the same {@link ScriptEngine}, a collected
+		 * engine matching none.
+		 *
+		 * @param that
+		 * 		The other {@link Key}.
+		 *
+		 * @return True if both are portable or bound to the same live {@link ScriptEngine}.
+		 */
+		private boolean sameEngine(Key that) {
+			if (engine == null || that.engine == null) return engine == that.engine;
+			ScriptEngine engine = this.engine.get();
+			return engine != null && engine == that.engine.get();
+		}
+	}
+}
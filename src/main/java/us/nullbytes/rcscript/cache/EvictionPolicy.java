@@ -0,0 +1,282 @@
+package us.nullbytes.rcscript.cache;
+
+import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptManager;
+
+import java.time.Duration;
+import java.util.function.ToLongFunction;
+
+/**
+ * A representation of the rules bounding the {@link Script} cache of a {@link ScriptManager}.
+ * Every setter returns {@code this} so a policy reads like a builder:
+ * <pre>
+ *     {@code
+ *     manager.applyEvictionPolicy(new EvictionPolicy()
+ *          .setMaximumSize(10_000)
+ *          .setExpireAfterAccess(Duration.ofMinutes(30))
+ *          .setAdmission(EvictionPolicy.Admission.TINY_LFU));
+ *     }
+ * </pre>
+ *
+ * @author Corey Shupe
+ * @see ScriptManager#applyEvictionPolicy(EvictionPolicy)
+ */
+public class EvictionPolicy {
+
+	/**
+	 * The maximum amount of cached {@link Script}s, or -1 for no maximum.
+	 */
+	private long maximumSize = -1;
+
+	/**
+	 * The maximum total weight of cached {@link Script}s, or -1 for no maximum.
+	 */
+	private long maximumWeight = -1;
+
+	/**
+	 * The {@link ToLongFunction} estimating the weight of a {@link Script}.
+	 */
+	private ToLongFunction<Script> weigher = Script::getReplicaCount;
+
+	/**
+	 * The time a {@link Script} stays cached after its last unpack, or null for no expiry.
+	 */
+	private Duration expireAfterAccess = null;
+
+	/**
+	 * The time a {@link Script} stays cached after its insertion, or null for no expiry.
+	 */
+	private Duration expireAfterWrite = null;
+
+	/**
+	 * The {@link Admission} choosing which {@link Script}s stay cached when full.
+	 */
+	private Admission admission = Admission.LRU;
+
+	/**
+	 * The {@link EvictionListener} notified of every eviction.
+	 */
+	private EvictionListener listener = (identifier, script, cause) -> {};
+
+	/**
+	 * Sets the maximum amount of cached {@link Script}s.
+	 *
+	 * @param maximumSize
+	 * 		The maximum amount of cached {@link Script}s, or -1 for no maximum.
+	 *
+	 * @return {@code this}
+	 */
+	public EvictionPolicy setMaximumSize(long maximumSize) {
+		this.maximumSize = maximumSize;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum total weight of cached {@link Script}s.
+	 *
+	 * @param maximumWeight
+	 * 		The maximum total weight, or -1 for no maximum.
+	 *
+	 * @return {@code this}
+	 */
+	public EvictionPolicy setMaximumWeight(long maximumWeight) {
+		this.maximumWeight = maximumWeight;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link ToLongFunction} estimating the weight of a {@link Script}.
+	 * Default: the amount of {@link javax.script.ScriptEngine}s it holds, see {@link
+	 * Script#getReplicaCount()}.
+	 *
+	 * @param weigher
+	 * 		The {@link ToLongFunction} estimating the weight.
+	 *
+	 * @return {@code this}
+	 */
+	public EvictionPolicy setWeigher(ToLongFunction<Script> weigher) {
+		this.weigher = weigher;
+		return this;
+	}
+
+	/**
+	 * Sets the time a {@link Script} stays cached after its last unpack.
+	 *
+	 * @param expireAfterAccess
+	 * 		The time to stay cached, or null for no expiry.
+	 *
+	 * @return {@code this}
+	 */
+	public EvictionPolicy setExpireAfterAccess(Duration expireAfterAccess) {
+		this.expireAfterAccess = expireAfterAccess;
+		return this;
+	}
+
+	/**
+	 * Sets the time a {@link Script} stays cached after its insertion.
+	 *
+	 * @param expireAfterWrite
+	 * 		The time to stay cached, or null for no expiry.
+	 *
+	 * @return {@code this}
+	 */
+	public EvictionPolicy setExpireAfterWrite(Duration expireAfterWrite) {
+		this.expireAfterWrite = expireAfterWrite;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link Admission} choosing which {@link Script}s stay cached when full.
+	 * Default: {@link Admission#LRU}
+	 *
+	 * @param admission
+	 * 		The {@link Admission} to follow.
+	 *
+	 * @return {@code this}
+	 */
+	public EvictionPolicy setAdmission(Admission admission) {
+		this.admission = admission;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link EvictionListener} notified of every eviction. The {@link ScriptManager}
+	 * releases the evicted {@link Script} after notifying it.
+	 *
+	 * @param listener
+	 * 		The {@link EvictionListener} to notify.
+	 *
+	 * @return {@code this}
+	 */
+	public EvictionPolicy setListener(EvictionListener listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	/**
+	 * Gets the maximum amount of cached {@link Script}s.
+	 *
+	 * @return The maximum amount, or -1 for no maximum.
+	 */
+	public long getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Gets the maximum total weight of cached {@link Script}s.
+	 *
+	 * @return The maximum total weight, or -1 for no maximum.
+	 */
+	public long getMaximumWeight() {
+		return maximumWeight;
+	}
+
+	/**
+	 * Gets the {@link ToLongFunction} estimating the weight of a {@link Script}.
+	 *
+	 * @return The weigher.
+	 */
+	public ToLongFunction<Script> getWeigher() {
+		return weigher;
+	}
+
+	/**
+	 * Gets the time a {@link Script} stays cached after its last unpack.
+	 *
+	 * @return The time to stay cached, or null for no expiry.
+	 */
+	public Duration getExpireAfterAccess() {
+		return expireAfterAccess;
+	}
+
+	/**
+	 * Gets the time a {@link Script} stays cached after its insertion.
+	 *
+	 * @return The time to stay cached, or null for no expiry.
+	 */
+	public Duration getExpireAfterWrite() {
+		return expireAfterWrite;
+	}
+
+	/**
+	 * Gets the {@link Admission} choosing which {@link Script}s stay cached when full.
+	 *
+	 * @return The {@link Admission}.
+	 */
+	public Admission getAdmission() {
+		return admission;
+	}
+
+	/**
+	 * Gets the {@link EvictionListener} notified of every eviction.
+	 *
+	 * @return The {@link EvictionListener}.
+	 */
+	public EvictionListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Checks if this policy bounds the cache in any way.
+	 *
+	 * @return True if any maximum or expiry is set.
+	 */
+	public boolean isBounded() {
+		return maximumSize >= 0 || maximumWeight >= 0 || expireAfterAccess != null || expireAfterWrite != null;
+	}
+
+	/**
+	 * The {@code enum} referencing ways to choose which {@link Script}s stay cached when full.
+	 */
+	public enum Admission {
+
+		/**
+		 * The least recently unpacked {@link Script} is evicted.
+		 */
+		LRU,
+		/**
+		 * New {@link Script}s pass a small LRU window, then only replace the least recently
+		 * unpacked {@link Script} if they're unpacked more often (W-TinyLFU). Resists scans of
+		 * rarely used identifiers flushing the hot ones.
+		 */
+		TINY_LFU
+	}
+
+	/**
+	 * The {@code enum} referencing why a {@link Script} was evicted.
+	 */
+	public enum Cause {
+
+		/**
+		 * The maximum size was exceeded.
+		 */
+		SIZE,
+		/**
+		 * The maximum weight was exceeded.
+		 */
+		WEIGHT,
+		/**
+		 * The {@link Script} expired.
+		 */
+		EXPIRED
+	}
+
+	/**
+	 * Notified when a {@link Script} is evicted from a cache.
+	 */
+	@FunctionalInterface
+	public interface EvictionListener {
+
+		/**
+		 * Handles an eviction.
+		 *
+		 * @param identifier
+		 * 		The identifier of the evicted {@link Script}.
+		 * @param script
+		 * 		The evicted {@link Script}.
+		 * @param cause
+		 * 		The {@link Cause} of the eviction.
+		 */
+		void onEviction(Object identifier, Script script, Cause cause);
+	}
+}
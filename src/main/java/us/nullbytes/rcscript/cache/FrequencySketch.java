@@ -0,0 +1,144 @@
+package us.nullbytes.rcscript.cache;
+
+/**
+ * A count-min sketch estimating how often keys were seen, with counters saturating at 15 and
+ * halved periodically so old popularity fades. Not thread safe.
+ *
+ * @author Corey Shupe
+ */
+final class FrequencySketch {
+
+	/**
+	 * The seeds of the hash of every row.
+	 */
+	private final static long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+	/**
+	 * The highest value of a counter.
+	 */
+	private final static int MAX_COUNT = 15;
+
+	/**
+	 * The counters, one row per seed.
+	 */
+	private byte[][] table;
+
+	/**
+	 * The mask selecting a counter of a row.
+	 */
+	private int mask;
+
+	/**
+	 * The amount of increments before every counter is halved.
+	 */
+	private int sampleSize;
+
+	/**
+	 * The amount of increments since the last halving.
+	 */
+	private int additions = 0;
+
+	/**
+	 * Initializes a new {@link FrequencySketch}.
+	 *
+	 * @param expectedSize
+	 * 		The amount of keys expected to be tracked.
+	 */
+	FrequencySketch(long expectedSize) {
+		ensureCapacity(expectedSize);
+	}
+
+	/**
+	 * Widens the rows to track an amount of keys, if they are too narrow. Widening forgets every
+	 * count, so the rows only ever grow.
+	 *
+	 * @param expectedSize
+	 * 		The amount of keys expected to be tracked.
+	 */
+	void ensureCapacity(long expectedSize) {
+		int width = Integer.highestOneBit((int) Math.max(16, Math.min(expectedSize, 1 << 24)) * 2 - 1);
+		if (table != null && width <= table[0].length) return;
+		this.table = new byte[SEEDS.length][width];
+		this.mask = width - 1;
+		this.sampleSize = width * 10;
+		this.additions = 0;
+	}
+
+	/**
+	 * Records one sighting of a key.
+	 *
+	 * @param key
+	 * 		The key seen.
+	 */
+	void increment(Object key) {
+		int hash = spread(key.hashCode());
+		boolean added = false;
+		for (int i = 0; i < SEEDS.length; i++) {
+			int index = indexOf(hash, i);
+			if (table[i][index] < MAX_COUNT) {
+				table[i][index]++;
+				added = true;
+			}
+		}
+		if (added && ++additions >= sampleSize) reset();
+	}
+
+	/**
+	 * Estimates how often a key was seen.
+	 *
+	 * @param key
+	 * 		The key to estimate.
+	 *
+	 * @return The estimated frequency, between 0 and 15.
+	 */
+	int frequency(Object key) {
+		int hash = spread(key.hashCode());
+		int frequency = MAX_COUNT;
+		for (int i = 0; i < SEEDS.length; i++) {
+			frequency = Math.min(frequency, table[i][indexOf(hash, i)]);
+		}
+		return frequency;
+	}
+
+	/**
+	 * Halves every counter.
+	 */
+	private void reset() {
+		for (byte[] row : table) {
+			for (int i = 0; i < row.length; i++) {
+				row[i] >>>= 1;
+			}
+		}
+		additions /= 2;
+	}
+
+	/**
+	 * Gets the counter of a hash in a row.
+	 *
+	 * @param hash
+	 * 		The spread hash of the key.
+	 * @param row
+	 * 		The row of the counter.
+	 *
+	 * @return The index of the counter.
+	 */
+	private int indexOf(int hash, int row) {
+		long value = (hash + SEEDS[row]) * SEEDS[row];
+		value += value >>> 32;
+		return (int) value & mask;
+	}
+
+	/**
+	 * Spreads a poor hash code over every bit.
+	 *
+	 * @param hash
+	 * 		The hash code.
+	 *
+	 * @return The spread hash.
+	 */
+	private static int spread(int hash) {
+		hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+		hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+		return (hash >>> 16) ^ hash;
+	}
+}
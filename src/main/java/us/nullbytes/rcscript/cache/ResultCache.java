@@ -0,0 +1,226 @@
+package us.nullbytes.rcscript.cache;
+
+import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.metrics.ScriptMetrics;
+
+import javax.script.ScriptException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, least recently used cache of the results of a {@link Script}'s pure functions,
+ * addressed by the function and its arguments. A pure function is one whose result depends only
+ * on its arguments and the bindings of the script, so every result is dropped whenever the
+ * bindings change, see {@link #invalidate()}.
+ * <p>
+ * Calls are addressed by their {@link CallKey}, so arguments should not be mutated after the
+ * call. Failed calls are never cached.
+ *
+ * @author Corey Shupe
+ */
+public class ResultCache {
+
+	/**
+	 * The {@link java.util.Map} holding all cached results in access order.
+	 */
+	private final LinkedHashMap<CallKey, Object> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * The names of the memoized functions.
+	 */
+	private final Set<String> functions;
+
+	/**
+	 * The maximum amount of cached results.
+	 */
+	private final int maxSize;
+
+	/**
+	 * The version of the bindings, incremented by {@link #invalidate()} so that results computed
+	 * against older bindings are not cached.
+	 */
+	private volatile long version = 0;
+
+	/**
+	 * The amount of calls served from the cache.
+	 */
+	private final LongAdder hitCount = new LongAdder();
+
+	/**
+	 * The amount of calls which had to run.
+	 */
+	private final LongAdder missCount = new LongAdder();
+
+	/**
+	 * The amount of results removed to respect the {@link #maxSize}.
+	 */
+	private final LongAdder evictionCount = new LongAdder();
+
+	/**
+	 * The amount of times the bindings changed.
+	 */
+	private final LongAdder invalidationCount = new LongAdder();
+
+	/**
+	 * Initializes a new {@link ResultCache}.
+	 *
+	 * @param maxSize
+	 * 		The maximum amount of cached results.
+	 * @param functions
+	 * 		The names of the memoized functions; the evaluation of a {@link Script} without
+	 * 		functions is memoized either way.
+	 */
+	public ResultCache(int maxSize, String... functions) {
+		if (maxSize < 1) throw new IllegalArgumentException("The maximum size must be positive.");
+		this.maxSize = maxSize;
+		this.functions = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(functions)));
+	}
+
+	/**
+	 * Checks if the results of a function are memoized.
+	 *
+	 * @param func
+	 * 		The name of the function.
+	 *
+	 * @return True if the function was named on creation.
+	 */
+	public boolean isMemoized(String func) {
+		return functions.contains(func);
+	}
+
+	/**
+	 * Gets the result of a call, running and caching it if absent.
+	 *
+	 * @param func
+	 * 		The name of the function, or {@link ScriptMetrics#EVALUATION} for plain evaluations.
+	 * @param args
+	 * 		The arguments of the call.
+	 * @param call
+	 * 		The {@link Call} running the function when the result is not cached.
+	 *
+	 * @return The cached or computed result.
+	 *
+	 * @throws ScriptException
+	 * 		When the function fails to run.
+	 * @throws NoSuchMethodException
+	 * 		When the function doesn't exist.
+	 */
+	public Object get(String func, Object[] args, Call call) throws ScriptException, NoSuchMethodException {
+		CallKey key = new CallKey(func, args);
+		long version = this.version;
+		synchronized (entries) {
+			if (entries.containsKey(key)) {
+				hitCount.increment();
+				return entries.get(key);
+			}
+		}
+		missCount.increment();
+		Object result = call.call();
+		synchronized (entries) {
+			if (version == this.version) {
+				entries.put(key, result);
+				trim();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Drops every cached result, as the bindings of the {@link Script} changed. Results of calls
+	 * still running against the old bindings are not cached.
+	 */
+	public void invalidate() {
+		synchronized (entries) {
+			version++;
+			entries.clear();
+		}
+		invalidationCount.increment();
+	}
+
+	/**
+	 * Gets the version of the bindings, incremented on every {@link #invalidate()}.
+	 *
+	 * @return The version.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the names of the memoized functions.
+	 *
+	 * @return An unmodifiable {@link Set} of the names.
+	 */
+	public Set<String> getFunctions() {
+		return functions;
+	}
+
+	/**
+	 * Gets the maximum amount of cached results.
+	 *
+	 * @return The maximum amount of cached results.
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Gets the amount of times the bindings changed.
+	 *
+	 * @return The amount of invalidations.
+	 */
+	public long getInvalidationCount() {
+		return invalidationCount.sum();
+	}
+
+	/**
+	 * Takes a snapshot of the statistics of this cache. Every result weighs 1.
+	 *
+	 * @return The {@link CacheStats}.
+	 */
+	public CacheStats getStats() {
+		int size;
+		synchronized (entries) {
+			size = entries.size();
+		}
+		long evictions = evictionCount.sum();
+		return new CacheStats(hitCount.sum(), missCount.sum(), evictions, evictions, size, size);
+	}
+
+	/**
+	 * Evicts the least recently used results until the maximum size is respected. Must be called
+	 * while holding the lock on {@link #entries}.
+	 */
+	private void trim() {
+		Iterator<CallKey> iterator = entries.keySet().iterator();
+		while (entries.size() > maxSize && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+			evictionCount.increment();
+		}
+	}
+
+	/**
+	 * Runs a function when its result is not cached.
+	 */
+	@FunctionalInterface
+	public interface Call {
+
+		/**
+		 * Runs the function.
+		 *
+		 * @return The result.
+		 *
+		 * @throws ScriptException
+		 * 		When the function fails to run.
+		 * @throws NoSuchMethodException
+		 * 		When the function doesn't exist.
+		 */
+		Object call() throws ScriptException, NoSuchMethodException;
+	}
+}
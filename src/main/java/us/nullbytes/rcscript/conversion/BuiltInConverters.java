@@ -0,0 +1,263 @@
+package us.nullbytes.rcscript.conversion;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The built-in {@link ResultConverter}s of every {@link ConverterRegistry}.
+ *
+ * @author Corey Shupe
+ * @see ConverterRegistry
+ */
+final class BuiltInConverters {
+
+	/**
+	 * {@code Class.isRecord()}, or null before Java 16.
+	 */
+	private final static Method IS_RECORD;
+
+	/**
+	 * {@code Class.getRecordComponents()}, or null before Java 16.
+	 */
+	private final static Method GET_RECORD_COMPONENTS;
+
+	/**
+	 * {@code RecordComponent.getName()}, or null before Java 16.
+	 */
+	private final static Method COMPONENT_NAME;
+
+	/**
+	 * {@code RecordComponent.getType()}, or null before Java 16.
+	 */
+	private final static Method COMPONENT_TYPE;
+
+	static {
+		Method isRecord = null, getRecordComponents = null, componentName = null, componentType = null;
+		try {
+			isRecord = Class.class.getMethod("isRecord");
+			getRecordComponents = Class.class.getMethod("getRecordComponents");
+			Class<?> component = Class.forName("java.lang.reflect.RecordComponent");
+			componentName = component.getMethod("getName");
+			componentType = component.getMethod("getType");
+		} catch (ReflectiveOperationException ex) {
+			isRecord = null;
+		}
+		IS_RECORD = isRecord;
+		GET_RECORD_COMPONENTS = getRecordComponents;
+		COMPONENT_NAME = componentName;
+		COMPONENT_TYPE = componentType;
+	}
+
+	/**
+	 * Prevents initialization.
+	 */
+	private BuiltInConverters() {
+	}
+
+	/**
+	 * Creates the built-in {@link ResultConverter} of a pair of types.
+	 *
+	 * @param source
+	 * 		The {@link Class} of the values to convert.
+	 * @param target
+	 * 		The {@link Class} to convert into.
+	 * @param registry
+	 * 		The {@link ConverterRegistry} converting record components.
+	 *
+	 * @return The {@link ResultConverter}, or null if no built-in converter accepts the pair.
+	 */
+	static ResultConverter<?> create(Class<?> source, Class<?> target, ConverterRegistry registry) {
+		if (ScriptObjects.isScriptObject(source) && target != Object.class) {
+			if (target.isAssignableFrom(ArrayList.class)) {
+				return value -> ScriptObjects.isArray(value) ? toJava(value) : null;
+			} else if (target.isAssignableFrom(LinkedHashMap.class)) {
+				return value -> ScriptObjects.isArray(value) || ScriptObjects.isFunction(value) ? null : toJava(value);
+			}
+		}
+		if (target.isAssignableFrom(source) || (target.isPrimitive() && wrap(target) == source)) {
+			return value -> value;
+		}
+		if (Number.class.isAssignableFrom(source) && Number.class.isAssignableFrom(wrap(target))) {
+			return value -> NumericCoercion.coerce((Number) value, target);
+		}
+		if (target == String.class || target == CharSequence.class) {
+			if (Number.class.isAssignableFrom(source) || source == Boolean.class || source == Character.class ||
+					CharSequence.class.isAssignableFrom(source)) {
+				return Object::toString;
+			}
+		}
+		if ((target == Character.class || target == char.class) && CharSequence.class.isAssignableFrom(source)) {
+			return value -> ((CharSequence) value).length() == 1 ? ((CharSequence) value).charAt(0) : null;
+		}
+		if (target.isAssignableFrom(ArrayList.class)) {
+			if (source.isArray()) return BuiltInConverters::arrayToList;
+			if (Collection.class.isAssignableFrom(source)) return value -> copy((Collection<?>) value);
+		}
+		if (Map.class.isAssignableFrom(source)) {
+			if (target.isAssignableFrom(LinkedHashMap.class)) return value -> copy((Map<?, ?>) value);
+			if (isRecord(target)) return recordConverter(target, registry);
+		}
+		return null;
+	}
+
+	/**
+	 * Converts a script object and everything it holds into Java collections. Script arrays become
+	 * {@link List}s, other script objects except functions become {@link Map}s.
+	 *
+	 * @param value
+	 * 		The value.
+	 *
+	 * @return The converted value, or the value itself if not a script object.
+	 */
+	static Object toJava(Object value) {
+		if (value == null || !ScriptObjects.isScriptObject(value.getClass()) || ScriptObjects.isFunction(value)) return value;
+		if (ScriptObjects.isArray(value)) {
+			Object[] elements = ScriptObjects.toArray(value);
+			List<Object> list = new ArrayList<>(elements.length);
+			for (Object element : elements) list.add(toJava(element));
+			return list;
+		}
+		return copy((Map<?, ?>) value);
+	}
+
+	/**
+	 * Copies a {@link Map}, converting its script object values.
+	 *
+	 * @param map
+	 * 		The {@link Map}.
+	 *
+	 * @return The copy.
+	 */
+	private static Map<Object, Object> copy(Map<?, ?> map) {
+		Map<Object, Object> copy = new LinkedHashMap<>();
+		for (Map.Entry<?, ?> entry : map.entrySet()) copy.put(entry.getKey(), toJava(entry.getValue()));
+		return copy;
+	}
+
+	/**
+	 * Copies a {@link Collection}, converting its script object elements.
+	 *
+	 * @param collection
+	 * 		The {@link Collection}.
+	 *
+	 * @return The copy.
+	 */
+	private static List<Object> copy(Collection<?> collection) {
+		List<Object> copy = new ArrayList<>(collection.size());
+		for (Object element : collection) copy.add(toJava(element));
+		return copy;
+	}
+
+	/**
+	 * Copies a Java array of any component type into a {@link List}.
+	 *
+	 * @param array
+	 * 		The array.
+	 *
+	 * @return The copy.
+	 */
+	private static List<Object> arrayToList(Object array) {
+		if (array instanceof Object[]) return copy(Arrays.asList((Object[]) array));
+		int length = Array.getLength(array);
+		List<Object> copy = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) copy.add(Array.get(array, i));
+		return copy;
+	}
+
+	/**
+	 * Checks if a class is a record.
+	 *
+	 * @param type
+	 * 		The class.
+	 *
+	 * @return True if records exist in this runtime and the class is one.
+	 */
+	private static boolean isRecord(Class<?> type) {
+		if (IS_RECORD == null) return false;
+		try {
+			return (boolean) IS_RECORD.invoke(type);
+		} catch (ReflectiveOperationException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Creates the {@link ResultConverter} of a {@link Map} into a record, taking every component
+	 * from the entry of the same name. The components are resolved once; their values are
+	 * converted through the {@link ConverterRegistry}, and a missing primitive becomes 0 or false.
+	 *
+	 * @param record
+	 * 		The record class.
+	 * @param registry
+	 * 		The {@link ConverterRegistry} converting the components.
+	 *
+	 * @return The {@link ResultConverter}, or null if the record cannot be constructed.
+	 */
+	private static ResultConverter<?> recordConverter(Class<?> record, ConverterRegistry registry) {
+		String[] names;
+		Class<?>[] types;
+		Constructor<?> constructor;
+		try {
+			Object[] components = (Object[]) GET_RECORD_COMPONENTS.invoke(record);
+			names = new String[components.length];
+			types = new Class<?>[components.length];
+			for (int i = 0; i < components.length; i++) {
+				names[i] = (String) COMPONENT_NAME.invoke(components[i]);
+				types[i] = (Class<?>) COMPONENT_TYPE.invoke(components[i]);
+			}
+			constructor = record.getDeclaredConstructor(types);
+			if (!constructor.trySetAccessible()) return null;
+		} catch (ReflectiveOperationException ex) {
+			return null;
+		}
+		return value -> {
+			Map<?, ?> map = (Map<?, ?>) value;
+			Object[] args = new Object[names.length];
+			for (int i = 0; i < names.length; i++) {
+				Object component = map.get(names[i]);
+				if (component == null) {
+					args[i] = types[i].isPrimitive() ? Array.get(Array.newInstance(types[i], 1), 0) : null;
+				} else if ((args[i] = registry.convert(component, types[i])) == null) {
+					return null;
+				}
+			}
+			try {
+				return constructor.newInstance(args);
+			} catch (InvocationTargetException ex) {
+				if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+				throw new IllegalStateException(ex.getCause());
+			} catch (ReflectiveOperationException ex) {
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * Gets the wrapper of a primitive type.
+	 *
+	 * @param type
+	 * 		The type.
+	 *
+	 * @return The wrapper type, or the type itself if not primitive.
+	 */
+	private static Class<?> wrap(Class<?> type) {
+		if (!type.isPrimitive()) return type;
+		if (type == int.class) return Integer.class;
+		if (type == long.class) return Long.class;
+		if (type == double.class) return Double.class;
+		if (type == float.class) return Float.class;
+		if (type == short.class) return Short.class;
+		if (type == byte.class) return Byte.class;
+		if (type == boolean.class) return Boolean.class;
+		if (type == char.class) return Character.class;
+		return Void.class;
+	}
+}
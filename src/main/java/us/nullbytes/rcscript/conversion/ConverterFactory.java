@@ -0,0 +1,27 @@
+package us.nullbytes.rcscript.conversion;
+
+/**
+ * Creates the {@link ResultConverter} of a pair of source and target type, see {@link
+ * ConverterRegistry#register(ConverterFactory)}.
+ *
+ * @author Corey Shupe
+ */
+@FunctionalInterface
+public interface ConverterFactory {
+
+	/**
+	 * Creates a {@link ResultConverter}.
+	 *
+	 * @param source
+	 * 		The {@link Class} of the values to convert.
+	 * @param target
+	 * 		The {@link Class} to convert into.
+	 * @param registry
+	 * 		The {@link ConverterRegistry} resolving the converter, to convert nested values.
+	 * @param <T>
+	 * 		The target type.
+	 *
+	 * @return The {@link ResultConverter}, or null if this factory cannot convert the pair.
+	 */
+	<T> ResultConverter<T> create(Class<?> source, Class<T> target, ConverterRegistry registry);
+}
@@ -0,0 +1,271 @@
+package us.nullbytes.rcscript.conversion;
+
+import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The {@link ResultConverter}s of a {@link ScriptManager}, converting the values returned by its
+ * {@link Script}s into the types callers expect. The converter of a pair of source and target
+ * type is resolved once and cached, so converting a value costs a lookup and a direct call.
+ * <p>
+ * Converters are resolved from the registered {@link ConverterFactory}s, the most recently
+ * registered first, then from the built-in converters:
+ * <ul>
+ * <li>values already of the target type are returned as they are, except for script objects</li>
+ * <li>numbers are coerced between number types, see {@link NumericCoercion}</li>
+ * <li>numbers, booleans and characters are converted to {@link String}s</li>
+ * <li>script arrays, Java arrays and collections are copied into a {@link List}</li>
+ * <li>script objects and maps are copied into a {@link Map}, or a record by component name</li>
+ * </ul>
+ * Values no converter accepts are converted to null.
+ *
+ * @author Corey Shupe
+ * @see ScriptManager#getConverters()
+ */
+public class ConverterRegistry {
+
+	/**
+	 * The {@link ResultConverter} of pairs no factory converts.
+	 */
+	private final static ResultConverter<?> NONE = value -> null;
+
+	/**
+	 * The registered {@link ConverterFactory}s, the most recently registered first.
+	 */
+	private final List<ConverterFactory> factories = new CopyOnWriteArrayList<>();
+
+	/**
+	 * The resolved {@link ResultConverter}s by source type, then target type.
+	 */
+	private volatile ClassValue<Map<Class<?>, ResultConverter<?>>> resolved = newCache();
+
+	/**
+	 * Registers a {@link ResultConverter} of a pair of types, taking precedence over every
+	 * converter registered before.
+	 *
+	 * @param source
+	 * 		The {@link Class} of the values to convert, including subclasses.
+	 * @param target
+	 * 		The exact {@link Class} to convert into.
+	 * @param converter
+	 * 		The {@link ResultConverter}.
+	 * @param <T>
+	 * 		The target type.
+	 *
+	 * @return {@code this}
+	 */
+	public <T> ConverterRegistry register(Class<?> source, Class<T> target, ResultConverter<? extends T> converter) {
+		return register(new ConverterFactory() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public <R> ResultConverter<R> create(Class<?> from, Class<R> to, ConverterRegistry registry) {
+				return to == target && source.isAssignableFrom(from) ? (ResultConverter<R>) converter : null;
+			}
+		});
+	}
+
+	/**
+	 * Registers a {@link ConverterFactory}, taking precedence over every converter registered
+	 * before.
+	 *
+	 * @param factory
+	 * 		The {@link ConverterFactory}.
+	 *
+	 * @return {@code this}
+	 */
+	public ConverterRegistry register(ConverterFactory factory) {
+		factories.add(0, factory);
+		resolved = newCache();
+		return this;
+	}
+
+	/**
+	 * Gets the {@link ResultConverter} of a pair of types, resolving it on first use.
+	 *
+	 * @param source
+	 * 		The {@link Class} of the values to convert.
+	 * @param target
+	 * 		The {@link Class} to convert into.
+	 * @param <T>
+	 * 		The target type.
+	 *
+	 * @return The {@link ResultConverter}, converting to null if no converter accepts the pair.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> ResultConverter<T> converter(Class<?> source, Class<T> target) {
+		Map<Class<?>, ResultConverter<?>> converters = resolved.get(source);
+		ResultConverter<?> converter = converters.get(target);
+		if (converter == null) {
+			converter = resolve(source, target);
+			ResultConverter<?> existing = converters.putIfAbsent(target, converter);
+			if (existing != null) converter = existing;
+		}
+		return (ResultConverter<T>) converter;
+	}
+
+	/**
+	 * Converts a value.
+	 *
+	 * @param value
+	 * 		The value returned by a {@link Script}.
+	 * @param target
+	 * 		The {@link Class} to convert into.
+	 * @param <T>
+	 * 		The target type.
+	 *
+	 * @return The converted value, or null if the value is null or cannot be converted.
+	 */
+	public <T> T convert(Object value, Class<T> target) {
+		if (value == null) return null;
+		return this.<T>converter(value.getClass(), target).convert(value);
+	}
+
+	/**
+	 * Creates a {@link ResultConverter} into a single type, remembering the converter of the last
+	 * source type it saw. Functions usually return a single type, so repeated conversions skip the
+	 * lookup.
+	 *
+	 * @param target
+	 * 		The {@link Class} to convert into.
+	 * @param <T>
+	 * 		The target type.
+	 *
+	 * @return The {@link ResultConverter}.
+	 */
+	public <T> ResultConverter<T> forTarget(Class<T> target) {
+		return new TargetConverter<>(target);
+	}
+
+	/**
+	 * Creates a copy of this registry with the same {@link ConverterFactory}s.
+	 *
+	 * @return The copy.
+	 */
+	public ConverterRegistry copy() {
+		ConverterRegistry that = new ConverterRegistry();
+		that.factories.addAll(this.factories);
+		return that;
+	}
+
+	/**
+	 * Resolves the {@link ResultConverter} of a pair of types.
+	 *
+	 * @param source
+	 * 		The {@link Class} of the values to convert.
+	 * @param target
+	 * 		The {@link Class} to convert into.
+	 *
+	 * @return The {@link ResultConverter}, or {@link #NONE}.
+	 */
+	private ResultConverter<?> resolve(Class<?> source, Class<?> target) {
+		for (ConverterFactory factory : factories) {
+			ResultConverter<?> converter = factory.create(source, target, this);
+			if (converter != null) return converter;
+		}
+		ResultConverter<?> converter = BuiltInConverters.create(source, target, this);
+		return converter == null ? NONE : converter;
+	}
+
+	/**
+	 * Creates an empty cache of resolved {@link ResultConverter}s.
+	 *
+	 * @return The cache.
+	 */
+	private static ClassValue<Map<Class<?>, ResultConverter<?>>> newCache() {
+		return new ClassValue<>() {
+			@Override
+			protected Map<Class<?>, ResultConverter<?>> computeValue(Class<?> type) {
+				return new ConcurrentHashMap<>();
+			}
+		};
+	}
+
+	/**
+	 * A {@link ResultConverter} into a single type, see {@link #forTarget(Class)}.
+	 *
+	 * @param <T>
+	 * 		The target type.
+	 */
+	private final class TargetConverter<T> implements ResultConverter<T> {
+
+		/**
+		 * The {@link Class} to convert into.
+		 */
+		private final Class<T> target;
+
+		/**
+		 * The last resolved {@link Resolved} pair, or null.
+		 */
+		private volatile Resolved<T> last = null;
+
+		/**
+		 * Initializes a new {@link TargetConverter}.
+		 *
+		 * @param target
+		 * 		The {@link Class} to convert into.
+		 */
+		private TargetConverter(Class<T> target) {
+			this.target = target;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public T convert(Object value) {
+			if (value == null) return null;
+			Resolved<T> last = this.last;
+			if (last == null || last.source != value.getClass() || last.cache != resolved) {
+				ClassValue<Map<Class<?>, ResultConverter<?>>> cache = resolved;
+				last = new Resolved<>(value.getClass(), converter(value.getClass(), target), cache);
+				this.last = last;
+			}
+			return last.converter.convert(value);
+		}
+	}
+
+	/**
+	 * A source type with its resolved {@link ResultConverter}.
+	 *
+	 * @param <T>
+	 * 		The target type.
+	 */
+	private static final class Resolved<T> {
+
+		/**
+		 * The {@link Class} of the values to convert.
+		 */
+		private final Class<?> source;
+
+		/**
+		 * The resolved {@link ResultConverter}.
+		 */
+		private final ResultConverter<T> converter;
+
+		/**
+		 * The cache the converter was resolved from, outdated once another factory registers.
+		 */
+		private final ClassValue<Map<Class<?>, ResultConverter<?>>> cache;
+
+		/**
+		 * Initializes a new {@link Resolved}.
+		 *
+		 * @param source
+		 * 		The {@link Class} of the values to convert.
+		 * @param converter
+		 * 		The resolved {@link ResultConverter}.
+		 * @param cache
+		 * 		The cache the converter was resolved from.
+		 */
+		private Resolved(Class<?> source, ResultConverter<T> converter, ClassValue<Map<Class<?>, ResultConverter<?>>> cache) {
+			this.source = source;
+			this.converter = converter;
+			this.cache = cache;
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package us.nullbytes.rcscript.conversion;
+
+import us.nullbytes.rcscript.Script;
+
+/**
+ * Coerces the numbers returned by script engines into the number type a caller expects. Engines
+ * differ in the types they return, such as JavaScript engines returning a {@link Double} for
+ * every number, so a value is converted whenever no precision is lost.
+ *
+ * @author Corey Shupe
+ */
+public final class NumericCoercion {
+
+	/**
+	 * Prevents initialization.
+	 */
+	private NumericCoercion() {
+	}
+
+	/**
+	 * Casts a value to a type, coercing numbers between number types.
+	 *
+	 * @param value
+	 * 		The value returned by a {@link Script}.
+	 * @param type
+	 * 		The {@link Class} expected.
+	 * @param <T>
+	 * 		The type expected.
+	 *
+	 * @return The value as a {@link T}, or null if it cannot be one without losing precision.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T cast(Object value, Class<T> type) {
+		if (type.isInstance(value)) return type.cast(value);
+		if (!(value instanceof Number)) return null;
+		return (T) coerce((Number) value, type);
+	}
+
+	/**
+	 * Converts a number to a number type.
+	 *
+	 * @param value
+	 * 		The number.
+	 * @param type
+	 * 		The {@link Class} expected, a wrapper or primitive type.
+	 *
+	 * @return The converted number, or null if the type is not a number type or precision would
+	 * be lost.
+	 */
+	public static Number coerce(Number value, Class<?> type) {
+		if (type == Integer.class || type == int.class) {
+			return isInt(value) ? (Number) value.intValue() : null;
+		} else if (type == Long.class || type == long.class) {
+			return isLong(value) ? (Number) value.longValue() : null;
+		} else if (type == Double.class || type == double.class || type == Number.class) {
+			return value.doubleValue();
+		} else if (type == Float.class || type == float.class) {
+			return value.floatValue();
+		} else if (type == Short.class || type == short.class) {
+			return isInt(value) && value.intValue() == value.shortValue() ? (Number) value.shortValue() : null;
+		} else if (type == Byte.class || type == byte.class) {
+			return isInt(value) && value.intValue() == value.byteValue() ? (Number) value.byteValue() : null;
+		}
+		return null;
+	}
+
+	/**
+	 * Converts a value to an {@code int}.
+	 *
+	 * @param value
+	 * 		The value returned by a {@link Script}.
+	 * @param func
+	 * 		The function which returned the value, for the failure message.
+	 *
+	 * @return The value as an {@code int}, or 0 if null.
+	 *
+	 * @throws ClassCastException
+	 * 		When the value is not a number or is not a whole {@code int}.
+	 */
+	public static int toInt(Object value, String func) {
+		if (value == null) return 0;
+		if (value instanceof Integer) return (Integer) value;
+		if (value instanceof Number && isInt((Number) value)) return ((Number) value).intValue();
+		throw mismatch(value, func, "int");
+	}
+
+	/**
+	 * Converts a value to a {@code long}.
+	 *
+	 * @param value
+	 * 		The value returned by a {@link Script}.
+	 * @param func
+	 * 		The function which returned the value, for the failure message.
+	 *
+	 * @return The value as a {@code long}, or 0 if null.
+	 *
+	 * @throws ClassCastException
+	 * 		When the value is not a number or is not a whole {@code long}.
+	 */
+	public static long toLong(Object value, String func) {
+		if (value == null) return 0;
+		if (value instanceof Long || value instanceof Integer) return ((Number) value).longValue();
+		if (value instanceof Number && isLong((Number) value)) return ((Number) value).longValue();
+		throw mismatch(value, func, "long");
+	}
+
+	/**
+	 * Converts a value to a {@code double}.
+	 *
+	 * @param value
+	 * 		The value returned by a {@link Script}.
+	 * @param func
+	 * 		The function which returned the value, for the failure message.
+	 *
+	 * @return The value as a {@code double}, or 0 if null.
+	 *
+	 * @throws ClassCastException
+	 * 		When the value is not a number.
+	 */
+	public static double toDouble(Object value, String func) {
+		if (value == null) return 0;
+		if (value instanceof Number) return ((Number) value).doubleValue();
+		throw mismatch(value, func, "double");
+	}
+
+	/**
+	 * Converts a value to a {@code boolean}.
+	 *
+	 * @param value
+	 * 		The value returned by a {@link Script}.
+	 * @param func
+	 * 		The function which returned the value, for the failure message.
+	 *
+	 * @return The value as a {@code boolean}, or false if null.
+	 *
+	 * @throws ClassCastException
+	 * 		When the value is not a {@link Boolean}.
+	 */
+	public static boolean toBoolean(Object value, String func) {
+		if (value == null) return false;
+		if (value instanceof Boolean) return (Boolean) value;
+		throw mismatch(value, func, "boolean");
+	}
+
+	/**
+	 * Checks if a number is a whole {@code int}.
+	 *
+	 * @param value
+	 * 		The number.
+	 *
+	 * @return True if converting it to an {@code int} loses nothing.
+	 */
+	private static boolean isInt(Number value) {
+		if (value instanceof Integer || value instanceof Short || value instanceof Byte) return true;
+		if (value instanceof Long) return value.longValue() == value.intValue();
+		double number = value.doubleValue();
+		return number == value.intValue();
+	}
+
+	/**
+	 * Checks if a number is a whole {@code long}.
+	 *
+	 * @param value
+	 * 		The number.
+	 *
+	 * @return True if converting it to a {@code long} loses nothing.
+	 */
+	private static boolean isLong(Number value) {
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) return true;
+		double number = value.doubleValue();
+		return number == value.longValue() && number != 0x1p63;
+	}
+
+	/**
+	 * Creates the failure of a value not matching a primitive type.
+	 *
+	 * @param value
+	 * 		The value.
+	 * @param func
+	 * 		The function which returned the value.
+	 * @param type
+	 * 		The name of the primitive type.
+	 *
+	 * @return The {@link ClassCastException} to throw.
+	 */
+	private static ClassCastException mismatch(Object value, String func, String type) {
+		return new ClassCastException(func + " returned " + value + " (" + value.getClass().getName() + "), not " +
+				("int".equals(type) ? "an " : "a ") + type + '.');
+	}
+}
@@ -0,0 +1,25 @@
+package us.nullbytes.rcscript.conversion;
+
+/**
+ * Converts a value returned by a script into the type a caller expects. A converter is resolved
+ * once per pair of source and target type by a {@link ConverterRegistry}, so it may assume the
+ * values it receives are of its source type.
+ *
+ * @param <T>
+ * 		The target type.
+ *
+ * @author Corey Shupe
+ */
+@FunctionalInterface
+public interface ResultConverter<T> {
+
+	/**
+	 * Converts a value.
+	 *
+	 * @param value
+	 * 		The non-null value returned by a script.
+	 *
+	 * @return The converted value, or null if this value cannot be converted.
+	 */
+	T convert(Object value);
+}
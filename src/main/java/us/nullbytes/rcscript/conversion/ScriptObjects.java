@@ -0,0 +1,194 @@
+package us.nullbytes.rcscript.conversion;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Access to the objects some engines return for script values, such as the {@code JSObject} of
+ * Nashorn. The engine's API is not a dependency, so its methods are found once per class and
+ * called through {@link MethodHandle}s.
+ *
+ * @author Corey Shupe
+ */
+public final class ScriptObjects {
+
+	/**
+	 * The {@link MethodHandle}s of the {@code JSObject} methods by the class of an object, or null
+	 * for classes which are not a {@code JSObject}.
+	 */
+	private final static ClassValue<Handles> HANDLES = new ClassValue<>() {
+		@Override
+		protected Handles computeValue(Class<?> type) {
+			Class<?> jsObject = findJsObject(type);
+			if (jsObject == null) return null;
+			try {
+				return new Handles(MethodHandles.publicLookup(), jsObject);
+			} catch (ReflectiveOperationException ex) {
+				return null;
+			}
+		}
+	};
+
+	/**
+	 * Prevents initialization.
+	 */
+	private ScriptObjects() {
+	}
+
+	/**
+	 * Checks if instances of a class are script objects.
+	 *
+	 * @param type
+	 * 		The class.
+	 *
+	 * @return True if the class implements a {@code JSObject}.
+	 */
+	public static boolean isScriptObject(Class<?> type) {
+		return HANDLES.get(type) != null;
+	}
+
+	/**
+	 * Checks if a value is a script function.
+	 *
+	 * @param value
+	 * 		The value.
+	 *
+	 * @return True if the value is a {@code JSObject} function.
+	 */
+	public static boolean isFunction(Object value) {
+		Handles handles = HANDLES.get(value.getClass());
+		return handles != null && (boolean) invoke(handles.isFunction, value);
+	}
+
+	/**
+	 * Checks if a value is a script array.
+	 *
+	 * @param value
+	 * 		The value.
+	 *
+	 * @return True if the value is a {@code JSObject} array.
+	 */
+	public static boolean isArray(Object value) {
+		Handles handles = HANDLES.get(value.getClass());
+		return handles != null && (boolean) invoke(handles.isArray, value);
+	}
+
+	/**
+	 * Gets the elements of a script array.
+	 *
+	 * @param value
+	 * 		The script array, see {@link #isArray(Object)}.
+	 *
+	 * @return The elements of the array.
+	 */
+	public static Object[] toArray(Object value) {
+		Handles handles = HANDLES.get(value.getClass());
+		Object length = invoke(handles.getMember, value, "length");
+		Object[] elements = new Object[length instanceof Number ? ((Number) length).intValue() : 0];
+		for (int i = 0; i < elements.length; i++) {
+			elements[i] = invoke(handles.getSlot, value, i);
+		}
+		return elements;
+	}
+
+	/**
+	 * Gets the {@link MethodHandle} of {@code JSObject.call(Object, Object...)}.
+	 *
+	 * @param type
+	 * 		The class of a script object.
+	 *
+	 * @return The {@link MethodHandle}, or null if the class is not a script object.
+	 */
+	public static MethodHandle callHandle(Class<?> type) {
+		Handles handles = HANDLES.get(type);
+		return handles == null ? null : handles.call;
+	}
+
+	/**
+	 * Invokes a {@link MethodHandle} of a script object.
+	 *
+	 * @param handle
+	 * 		The {@link MethodHandle}.
+	 * @param args
+	 * 		The receiver and arguments.
+	 *
+	 * @return The return value.
+	 */
+	private static Object invoke(MethodHandle handle, Object... args) {
+		try {
+			return handle.invokeWithArguments(args);
+		} catch (RuntimeException | Error ex) {
+			throw ex;
+		} catch (Throwable ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Finds the {@code JSObject} interface implemented by a class.
+	 *
+	 * @param type
+	 * 		The class.
+	 *
+	 * @return The {@code JSObject} interface, or null if not implemented.
+	 */
+	private static Class<?> findJsObject(Class<?> type) {
+		for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+			for (Class<?> implemented : current.getInterfaces()) {
+				if (implemented.getName().endsWith(".api.scripting.JSObject")) return implemented;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The {@link MethodHandle}s of the methods of a {@code JSObject}.
+	 */
+	private static final class Handles {
+
+		/**
+		 * {@code Object call(Object thiz, Object... args)}
+		 */
+		private final MethodHandle call;
+
+		/**
+		 * {@code boolean isFunction()}
+		 */
+		private final MethodHandle isFunction;
+
+		/**
+		 * {@code boolean isArray()}
+		 */
+		private final MethodHandle isArray;
+
+		/**
+		 * {@code Object getMember(String name)}
+		 */
+		private final MethodHandle getMember;
+
+		/**
+		 * {@code Object getSlot(int index)}
+		 */
+		private final MethodHandle getSlot;
+
+		/**
+		 * Finds the {@link MethodHandle}s of a {@code JSObject}.
+		 *
+		 * @param lookup
+		 * 		The {@link MethodHandles.Lookup} finding the methods.
+		 * @param jsObject
+		 * 		The {@code JSObject} interface.
+		 *
+		 * @throws ReflectiveOperationException
+		 * 		When a method is missing.
+		 */
+		private Handles(MethodHandles.Lookup lookup, Class<?> jsObject) throws ReflectiveOperationException {
+			this.call = lookup.findVirtual(jsObject, "call", MethodType.methodType(Object.class, Object.class, Object[].class));
+			this.isFunction = lookup.findVirtual(jsObject, "isFunction", MethodType.methodType(boolean.class));
+			this.isArray = lookup.findVirtual(jsObject, "isArray", MethodType.methodType(boolean.class));
+			this.getMember = lookup.findVirtual(jsObject, "getMember", MethodType.methodType(Object.class, String.class));
+			this.getSlot = lookup.findVirtual(jsObject, "getSlot", MethodType.methodType(Object.class, int.class));
+		}
+	}
+}
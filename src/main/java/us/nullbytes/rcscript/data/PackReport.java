@@ -0,0 +1,67 @@
+package us.nullbytes.rcscript.data;
+
+import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptManager;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A representation of a bulk pack, such as {@link ScriptManager#packDirectory}. A data class
+ * holding every packed identifier and every failure by the file they came from.
+ *
+ * @author Corey Shupe
+ */
+public class PackReport {
+
+	/**
+	 * A {@link Map} of every packed file to the identifier of its {@link Script}.
+	 */
+	private final Map<Path, Object> packed;
+
+	/**
+	 * A {@link Map} of every failed file to the {@link Exception} it failed with.
+	 */
+	private final Map<Path, Exception> failures;
+
+	/**
+	 * An initializer for a new {@link PackReport}.
+	 *
+	 * @param packed
+	 * 		The packed files and their identifiers.
+	 * @param failures
+	 * 		The failed files and their {@link Exception}s.
+	 */
+	public PackReport(Map<Path, Object> packed, Map<Path, Exception> failures) {
+		this.packed = Collections.unmodifiableMap(packed);
+		this.failures = Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * Gets every packed file and the identifier of its {@link Script}.
+	 *
+	 * @return The packed files and their identifiers.
+	 */
+	public Map<Path, Object> getPacked() {
+		return packed;
+	}
+
+	/**
+	 * Gets every failed file and the {@link Exception} it failed with.
+	 *
+	 * @return The failed files and their {@link Exception}s.
+	 */
+	public Map<Path, Exception> getFailures() {
+		return failures;
+	}
+
+	/**
+	 * Checks if every file was packed.
+	 *
+	 * @return True if nothing failed.
+	 */
+	public boolean isSuccessful() {
+		return failures.isEmpty();
+	}
+}
@@ -2,9 +2,14 @@ package us.nullbytes.rcscript.data;
 
 import us.nullbytes.rcscript.Script;
 import us.nullbytes.rcscript.ScriptManager;
+import us.nullbytes.rcscript.cache.ResultCache;
+import us.nullbytes.rcscript.engine.EnginePool;
 
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
-import java.io.InputStream;
+import javax.script.ScriptException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * A representation of a {@link Script}'s data. A data class to contain all of a {@link Script}'s
@@ -14,6 +19,16 @@ import java.io.InputStream;
  */
 public class ScriptData {
 
+	/**
+	 * The bit of the {@link #state} set once released or discarded.
+	 */
+	private final static long RELEASED = 1;
+
+	/**
+	 * The amount added to the {@link #state} by every call using the {@link #engine}.
+	 */
+	private final static long CALL = 2;
+
 	/**
 	 * A {@link ScriptManager} representing the parent manager.
 	 */
@@ -25,9 +40,34 @@ public class ScriptData {
 	private final ScriptEngine engine;
 
 	/**
-	 * An {@link InputStream} representing the stream of the {@link Script}.
+	 * A {@link ScriptSource} representing the source of the {@link Script}.
+	 */
+	private ScriptSource source;
+
+	/**
+	 * The {@link EnginePool.Lease} the {@link #engine} was received from, or null if not pooled.
+	 */
+	private final EnginePool.Lease lease;
+
+	/**
+	 * The identifier the {@link Script} is packed under, or null if not packed.
+	 */
+	private Object identifier = null;
+
+	/**
+	 * The {@link Supplier} creating fresh replicas of this data, or null if unsupported.
 	 */
-	private InputStream stream;
+	private Supplier<ScriptData> replicator = null;
+
+	/**
+	 * The {@link ResultCache} memoizing the {@link Script}'s results, or null if not memoized.
+	 */
+	private ResultCache resultCache = null;
+
+	/**
+	 * The {@link #RELEASED} bit, plus {@link #CALL} for every call using the {@link #engine}.
+	 */
+	private final AtomicLong state = new AtomicLong();
 
 	/**
 	 * An initializer for new {@link ScriptData}.
@@ -36,13 +76,31 @@ public class ScriptData {
 	 * 		The {@link ScriptManager} for the {@link Script}.
 	 * @param engine
 	 * 		The {@link ScriptEngine} for the {@link Script}.
-	 * @param stream
-	 * 		The {@link InputStream} for the {@link Script}.
+	 * @param source
+	 * 		The {@link ScriptSource} for the {@link Script}.
 	 */
-	public ScriptData(ScriptManager manager, ScriptEngine engine, InputStream stream) {
+	public ScriptData(ScriptManager manager, ScriptEngine engine, ScriptSource source) {
 		this.manager = manager;
 		this.engine = engine;
-		this.stream = stream;
+		this.source = source;
+		this.lease = null;
+	}
+
+	/**
+	 * An initializer for new {@link ScriptData} running on a pooled {@link ScriptEngine}.
+	 *
+	 * @param manager
+	 * 		The {@link ScriptManager} for the {@link Script}.
+	 * @param lease
+	 * 		The {@link EnginePool.Lease} holding the {@link ScriptEngine} for the {@link Script}.
+	 * @param source
+	 * 		The {@link ScriptSource} for the {@link Script}.
+	 */
+	public ScriptData(ScriptManager manager, EnginePool.Lease lease, ScriptSource source) {
+		this.manager = manager;
+		this.engine = lease.getEngine();
+		this.source = source;
+		this.lease = lease;
 	}
 
 	/**
@@ -64,21 +122,140 @@ public class ScriptData {
 	}
 
 	/**
-	 * Gets the {@link InputStream} containing the runnable script.
+	 * Gets the {@link ScriptSource} containing the runnable script.
 	 *
-	 * @return The {@link InputStream}.
+	 * @return The {@link ScriptSource}.
 	 */
-	public InputStream getStream() {
-		return stream;
+	public ScriptSource getSource() {
+		return source;
 	}
 
 	/**
-	 * Sets the {@link InputStream}, representing a new or different script.
+	 * Sets the {@link ScriptSource}, representing a new or different script.
 	 *
-	 * @param stream
-	 * 		The {@link InputStream} to read from.
+	 * @param source
+	 * 		The {@link ScriptSource} to read from.
+	 */
+	public void setSource(ScriptSource source) {
+		this.source = source;
+	}
+
+	/**
+	 * Gets the identifier the {@link Script} is packed under.
+	 *
+	 * @return The identifier, or null if not packed.
+	 */
+	public Object getIdentifier() {
+		return identifier;
+	}
+
+	/**
+	 * Sets the identifier the {@link Script} is packed under.
+	 *
+	 * @param identifier
+	 * 		The identifier, or null if not packed.
+	 */
+	public void setIdentifier(Object identifier) {
+		this.identifier = identifier;
+	}
+
+	/**
+	 * Sets the {@link Supplier} creating fresh replicas of this data: a new {@link ScriptEngine}
+	 * prepared like this one, with the same source and identifier, yet nothing evaluated.
+	 *
+	 * @param replicator
+	 * 		The {@link Supplier} creating replicas, or null if unsupported.
+	 */
+	public void setReplicator(Supplier<ScriptData> replicator) {
+		this.replicator = replicator;
+	}
+
+	/**
+	 * Creates a fresh replica of this data, see {@link #setReplicator(Supplier)}.
+	 *
+	 * @return The replica, or null if unsupported.
+	 */
+	public ScriptData replicate() {
+		return replicator == null ? null : replicator.get();
+	}
+
+	/**
+	 * Gets the {@link ResultCache} memoizing the {@link Script}'s results, shared by all replicas.
+	 *
+	 * @return The {@link ResultCache}, or null if not memoized.
+	 */
+	public ResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Sets the {@link ResultCache} memoizing the {@link Script}'s results.
+	 *
+	 * @param resultCache
+	 * 		The {@link ResultCache}, or null if not memoized.
+	 */
+	public void setResultCache(ResultCache resultCache) {
+		this.resultCache = resultCache;
+	}
+
+	/**
+	 * Marks the start of a call using the {@link ScriptEngine}, which must be followed by {@link
+	 * #exit()} once done. A released {@link ScriptEngine} is only returned to its {@link
+	 * EnginePool} once every call exited.
+	 *
+	 * @throws ScriptException
+	 * 		When the {@link ScriptData} was released or discarded.
+	 */
+	public void enter() throws ScriptException {
+		long current;
+		do {
+			current = state.get();
+			if ((current & RELEASED) != 0) throw new ScriptException("The script was released.");
+		} while (!state.compareAndSet(current, current + CALL));
+	}
+
+	/**
+	 * Marks the end of a call started by {@link #enter()}, returning the {@link ScriptEngine} to
+	 * its {@link EnginePool} if it was released meanwhile.
+	 */
+	public void exit() {
+		if (state.addAndGet(-CALL) == RELEASED) giveBack();
+	}
+
+	/**
+	 * Checks if this {@link ScriptData} was released or discarded.
+	 *
+	 * @return True if no more calls may use the {@link ScriptEngine}.
+	 */
+	public boolean isReleased() {
+		return (state.get() & RELEASED) != 0;
+	}
+
+	/**
+	 * Drops the {@link ScriptEngine} rather than returning it to the {@link EnginePool}, for
+	 * engines which may still be running a script. Further calls fail.
+	 */
+	public void discard() {
+		if ((state.getAndUpdate(current -> current | RELEASED) & RELEASED) != 0) return;
+		if (lease != null) lease.discard();
+		else manager.getCompiledScriptCache().invalidate(engine);
+	}
+
+	/**
+	 * Returns the {@link ScriptEngine} to the {@link EnginePool} it was leased from, if any, once
+	 * every call in flight exited. Further calls fail.
+	 */
+	public void release() {
+		if (state.getAndUpdate(current -> current | RELEASED) == 0) giveBack();
+	}
+
+	/**
+	 * Returns the {@link ScriptEngine} to its {@link EnginePool}, once released with no call in
+	 * flight. The {@link CompiledScript}s bound to it stay cached for its next lease, until the
+	 * pool drops it.
 	 */
-	public void setStream(InputStream stream) {
-		this.stream = stream;
+	private void giveBack() {
+		if (lease != null) lease.release();
+		else manager.getCompiledScriptCache().invalidate(engine);
 	}
 }
@@ -0,0 +1,372 @@
+package us.nullbytes.rcscript.data;
+
+import us.nullbytes.rcscript.Script;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A representation of a {@link Script}'s source. The source is read and decoded once, and encoded
+ * at most once, then can be read again any amount of times without copying.
+ * <p>
+ * Files, streams and resources are decoded as UTF-8 unless given a {@link Charset}.
+ *
+ * @author Corey Shupe
+ */
+public final class ScriptSource {
+
+	/**
+	 * The characters used to print a hash.
+	 */
+	private final static char[] HEX = "0123456789abcdef".toCharArray();
+
+	/**
+	 * A description of where the source comes from.
+	 */
+	private final String name;
+
+	/**
+	 * The {@link Charset} the source is encoded with.
+	 */
+	private final Charset charset;
+
+	/**
+	 * The {@link Loader} reading the encoded source, or null once loaded.
+	 */
+	private Loader loader;
+
+	/**
+	 * The encoded source, or null if not yet loaded or encoded.
+	 */
+	private byte[] bytes;
+
+	/**
+	 * The decoded source, or null if not yet decoded.
+	 */
+	private volatile String text;
+
+	/**
+	 * The hash of the decoded source, or null if not yet computed.
+	 */
+	private volatile String hash;
+
+	/**
+	 * Initializes a new {@link ScriptSource}.
+	 *
+	 * @param name
+	 * 		A description of where the source comes from.
+	 * @param charset
+	 * 		The {@link Charset} the source is encoded with.
+	 * @param loader
+	 * 		The {@link Loader} reading the encoded source, or null if already known.
+	 * @param bytes
+	 * 		The encoded source, or null if loaded later or backed by text.
+	 * @param text
+	 * 		The decoded source, or null if decoded later.
+	 */
+	private ScriptSource(String name, Charset charset, Loader loader, byte[] bytes, String text) {
+		this.name = name;
+		this.charset = charset;
+		this.loader = loader;
+		this.bytes = bytes;
+		this.text = text;
+	}
+
+	/**
+	 * Creates a {@link ScriptSource} of a {@link String}.
+	 *
+	 * @param script
+	 * 		The script.
+	 *
+	 * @return The created {@link ScriptSource}.
+	 */
+	public static ScriptSource of(String script) {
+		return new ScriptSource("<string>", StandardCharsets.UTF_8, null, null, script);
+	}
+
+	/**
+	 * Creates a {@link ScriptSource} of a copy of the remaining characters of a {@link CharBuffer}.
+	 * The position of the buffer is left untouched.
+	 *
+	 * @param script
+	 * 		The script.
+	 *
+	 * @return The created {@link ScriptSource}.
+	 */
+	public static ScriptSource of(CharBuffer script) {
+		return new ScriptSource("<buffer>", StandardCharsets.UTF_8, null, null, script.toString());
+	}
+
+	/**
+	 * Creates a {@link ScriptSource} of encoded bytes. The array is not copied and should not be
+	 * modified afterwards.
+	 *
+	 * @param script
+	 * 		The encoded script.
+	 * @param charset
+	 * 		The {@link Charset} the script is encoded with.
+	 *
+	 * @return The created {@link ScriptSource}.
+	 */
+	public static ScriptSource of(byte[] script, Charset charset) {
+		return new ScriptSource("<bytes>", charset, null, script, null);
+	}
+
+	/**
+	 * Creates a {@link ScriptSource} of a UTF-8 file, read on first use.
+	 *
+	 * @param path
+	 * 		The {@link Path} of the file.
+	 *
+	 * @return The created {@link ScriptSource}.
+	 */
+	public static ScriptSource of(Path path) {
+		return of(path, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Creates a {@link ScriptSource} of a file, read on first use.
+	 *
+	 * @param path
+	 * 		The {@link Path} of the file.
+	 * @param charset
+	 * 		The {@link Charset} the file is encoded with.
+	 *
+	 * @return The created {@link ScriptSource}.
+	 */
+	public static ScriptSource of(Path path, Charset charset) {
+		return new ScriptSource(path.toString(), charset, () -> Files.readAllBytes(path), null, null);
+	}
+
+	/**
+	 * Creates a {@link ScriptSource} of a UTF-8 {@link InputStream}, read and closed on first use.
+	 *
+	 * @param stream
+	 * 		The {@link InputStream} of the script.
+	 *
+	 * @return The created {@link ScriptSource}.
+	 */
+	public static ScriptSource of(InputStream stream) {
+		return of(stream, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Creates a {@link ScriptSource} of an {@link InputStream}, read and closed on first use.
+	 *
+	 * @param stream
+	 * 		The {@link InputStream} of the script.
+	 * @param charset
+	 * 		The {@link Charset} the stream is encoded with.
+	 *
+	 * @return The created {@link ScriptSource}.
+	 */
+	public static ScriptSource of(InputStream stream, Charset charset) {
+		return new ScriptSource("<stream>", charset, () -> {
+			try (InputStream in = stream) {
+				return in.readAllBytes();
+			}
+		}, null, null);
+	}
+
+	/**
+	 * Creates a {@link ScriptSource} of a UTF-8 resource, read on first use. The location is always
+	 * taken from the root of the class path, with or without a leading {@code /}.
+	 *
+	 * @param location
+	 * 		The location of the resource.
+	 *
+	 * @return The created {@link ScriptSource}.
+	 */
+	public static ScriptSource ofResource(String location) {
+		return ofResource(ScriptSource.class, location.startsWith("/") ? location : '/' + location);
+	}
+
+	/**
+	 * Creates a {@link ScriptSource} of a UTF-8 resource, read on first use. The location is
+	 * resolved like {@link Class#getResourceAsStream(String)}: relative to the package of the class
+	 * unless it starts with a {@code /}.
+	 *
+	 * @param anchor
+	 * 		The {@link Class} resolving the location.
+	 * @param location
+	 * 		The location of the resource.
+	 *
+	 * @return The created {@link ScriptSource}.
+	 */
+	public static ScriptSource ofResource(Class<?> anchor, String location) {
+		return new ScriptSource(location, StandardCharsets.UTF_8, () -> {
+			try (InputStream in = anchor.getResourceAsStream(location)) {
+				if (in == null) throw new IOException("Resource not found: " + location);
+				return in.readAllBytes();
+			}
+		}, null, null);
+	}
+
+	/**
+	 * Reads and decodes the source now, rather than on first use.
+	 *
+	 * @return {@code this}
+	 *
+	 * @throws IOException
+	 * 		When the source fails to be read.
+	 */
+	public ScriptSource load() throws IOException {
+		if (text == null) {
+			synchronized (this) {
+				if (text == null) {
+					if (loader != null) {
+						bytes = loader.load();
+						loader = null;
+					}
+					text = new String(bytes, charset);
+				}
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Gets the decoded source, reading it if needed.
+	 *
+	 * @return The decoded source.
+	 *
+	 * @throws UncheckedIOException
+	 * 		When the source fails to be read.
+	 */
+	public String getText() {
+		String text = this.text;
+		if (text != null) return text;
+		try {
+			return load().text;
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Opens a new {@link Reader} over the decoded source.
+	 *
+	 * @return The opened {@link Reader}.
+	 */
+	public Reader openReader() {
+		return new StringReader(getText());
+	}
+
+	/**
+	 * Opens a new {@link InputStream} over the encoded source, encoding a source backed by text on
+	 * first use.
+	 *
+	 * @return The opened {@link InputStream}.
+	 */
+	public InputStream openStream() {
+		String text = getText();
+		byte[] bytes;
+		synchronized (this) {
+			if (this.bytes == null) this.bytes = text.getBytes(charset);
+			bytes = this.bytes;
+		}
+		return new ByteArrayInputStream(bytes);
+	}
+
+	/**
+	 * Gets the amount of characters in the decoded source.
+	 *
+	 * @return The length of the source.
+	 */
+	public int length() {
+		return getText().length();
+	}
+
+	/**
+	 * Gets the {@link Charset} the source is encoded with.
+	 *
+	 * @return The {@link Charset} of the source.
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Gets a description of where the source comes from, such as a file path.
+	 *
+	 * @return The name of the source.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the SHA-256 hash of the decoded source. Sources with the same text share the same hash
+	 * regardless of their {@link Charset}.
+	 *
+	 * @return The hexadecimal hash of the source.
+	 */
+	public String getHash() {
+		String hash = this.hash;
+		if (hash == null) {
+			MessageDigest digest;
+			try {
+				digest = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException ex) {
+				throw new IllegalStateException(ex);
+			}
+			String text = getText();
+			ByteBuffer chunk = ByteBuffer.allocate(8192);
+			for (int i = 0; i < text.length(); i++) {
+				if (chunk.remaining() < 2) {
+					chunk.flip();
+					digest.update(chunk);
+					chunk.clear();
+				}
+				chunk.putChar(text.charAt(i));
+			}
+			chunk.flip();
+			digest.update(chunk);
+			byte[] result = digest.digest();
+			char[] chars = new char[result.length * 2];
+			for (int i = 0; i < result.length; i++) {
+				chars[i * 2] = HEX[(result[i] >> 4) & 0xF];
+				chars[i * 2 + 1] = HEX[result[i] & 0xF];
+			}
+			this.hash = hash = new String(chars);
+		}
+		return hash;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	/**
+	 * Reads the encoded source.
+	 */
+	@FunctionalInterface
+	private interface Loader {
+
+		/**
+		 * Reads the encoded source.
+		 *
+		 * @return The encoded source.
+		 *
+		 * @throws IOException
+		 * 		When the source fails to be read.
+		 */
+		byte[] load() throws IOException;
+	}
+}
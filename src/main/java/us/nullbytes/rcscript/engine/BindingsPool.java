@@ -0,0 +1,279 @@
+package us.nullbytes.rcscript.engine;
+
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.SimpleScriptContext;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of engine-scope {@link Bindings} created by a single {@link ScriptEngine}, used to run
+ * one compiled script for many tenants without any tenant seeing the state of another. Returned
+ * {@link Bindings} are reset to the state they were created in rather than reallocated:
+ * every key added is removed, and keys the engine refuses to remove, such as the top-level
+ * declarations of JavaScript, are cleared to null instead. Changes made to objects shared by every
+ * scope of the engine, such as its built-in objects, are not undone.
+ *
+ * @author Corey Shupe
+ */
+public class BindingsPool {
+
+	/**
+	 * The {@link ScriptEngine} creating the {@link Bindings}.
+	 */
+	private final ScriptEngine engine;
+
+	/**
+	 * The released {@link Lease}s whose {@link Bindings} wait to be leased again.
+	 */
+	private final Deque<Lease> idle = new ConcurrentLinkedDeque<>();
+
+	/**
+	 * The amount of {@link Lease}s inside of {@link #idle}.
+	 */
+	private final AtomicInteger idleCount = new AtomicInteger();
+
+	/**
+	 * The amount of {@link Bindings} created by this pool.
+	 */
+	private final LongAdder createdCount = new LongAdder();
+
+	/**
+	 * The amount of leases which were served from {@link #idle}.
+	 */
+	private final LongAdder reusedCount = new LongAdder();
+
+	/**
+	 * The maximum amount of idle {@link Bindings} retained after release.
+	 */
+	private volatile int maxIdle = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Initializes a new {@link BindingsPool}.
+	 *
+	 * @param engine
+	 * 		The {@link ScriptEngine} creating the {@link Bindings}.
+	 */
+	public BindingsPool(ScriptEngine engine) {
+		this.engine = engine;
+	}
+
+	/**
+	 * Gets the {@link ScriptEngine} creating the {@link Bindings}.
+	 *
+	 * @return The {@link ScriptEngine}.
+	 */
+	public ScriptEngine getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Leases {@link Bindings}, reusing idle ones when available.
+	 *
+	 * @return The {@link Lease} holding the {@link Bindings}.
+	 */
+	public Lease lease() {
+		Lease lease = idle.pollFirst();
+		if (lease == null) {
+			createdCount.increment();
+			Bindings bindings = engine.createBindings();
+			return new Lease(this, bindings, new HashMap<>(bindings));
+		}
+		idleCount.decrementAndGet();
+		reusedCount.increment();
+		return new Lease(this, lease.bindings, lease.baseline);
+	}
+
+	/**
+	 * Creates a {@link ScriptContext} whose engine scope is the leased {@link Bindings}, sharing
+	 * the global scope, reader and writers of the {@link ScriptEngine}'s own context.
+	 *
+	 * @param lease
+	 * 		The {@link Lease} of this pool.
+	 *
+	 * @return The {@link ScriptContext}.
+	 */
+	public ScriptContext createContext(Lease lease) {
+		ScriptContext parent = engine.getContext();
+		ScriptContext context = new SimpleScriptContext();
+		context.setBindings(lease.bindings, ScriptContext.ENGINE_SCOPE);
+		context.setBindings(parent.getBindings(ScriptContext.GLOBAL_SCOPE), ScriptContext.GLOBAL_SCOPE);
+		context.setReader(parent.getReader());
+		context.setWriter(parent.getWriter());
+		context.setErrorWriter(parent.getErrorWriter());
+		return context;
+	}
+
+	/**
+	 * Returns a {@link Lease} to the pool, resetting its {@link Bindings}. The {@link Bindings} are
+	 * discarded if the pool already holds {@link #maxIdle} idle ones or the reset fails.
+	 *
+	 * @param lease
+	 * 		The {@link Lease} to return.
+	 */
+	private void giveBack(Lease lease) {
+		if (idleCount.incrementAndGet() > maxIdle) {
+			idleCount.decrementAndGet();
+			return;
+		}
+		try {
+			reset(lease);
+		} catch (RuntimeException ex) {
+			idleCount.decrementAndGet();
+			return;
+		}
+		idle.offerFirst(lease);
+	}
+
+	/**
+	 * Resets the {@link Bindings} of a {@link Lease} to the state they were created in.
+	 *
+	 * @param lease
+	 * 		The {@link Lease} to reset.
+	 */
+	private static void reset(Lease lease) {
+		Bindings bindings = lease.bindings;
+		for (String key : new ArrayList<>(bindings.keySet())) {
+			if (lease.baseline.containsKey(key)) continue;
+			bindings.remove(key);
+			if (bindings.containsKey(key)) bindings.put(key, null);
+		}
+		for (Map.Entry<String, Object> entry : lease.baseline.entrySet()) {
+			bindings.put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Sets the maximum amount of idle {@link Bindings} retained, discarding any extra.
+	 *
+	 * @param maxIdle
+	 * 		The maximum amount of idle {@link Bindings}.
+	 */
+	public void setMaxIdle(int maxIdle) {
+		if (maxIdle < 0) throw new IllegalArgumentException("The maximum idle count cannot be negative.");
+		this.maxIdle = maxIdle;
+		while (idleCount.get() > maxIdle && idle.pollLast() != null) {
+			idleCount.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Gets the maximum amount of idle {@link Bindings} retained.
+	 *
+	 * @return The maximum amount of idle {@link Bindings}.
+	 */
+	public int getMaxIdle() {
+		return maxIdle;
+	}
+
+	/**
+	 * Gets the amount of idle {@link Bindings}.
+	 *
+	 * @return The amount of idle {@link Bindings}.
+	 */
+	public int getIdleCount() {
+		return idleCount.get();
+	}
+
+	/**
+	 * Gets the amount of {@link Bindings} created by this pool.
+	 *
+	 * @return The amount of created {@link Bindings}.
+	 */
+	public long getCreatedCount() {
+		return createdCount.sum();
+	}
+
+	/**
+	 * Gets the amount of leases served by idle {@link Bindings}.
+	 *
+	 * @return The amount of reused {@link Bindings}.
+	 */
+	public long getReusedCount() {
+		return reusedCount.sum();
+	}
+
+	/**
+	 * Discards all idle {@link Bindings}.
+	 */
+	public void clear() {
+		while (idle.pollFirst() != null) {
+			idleCount.decrementAndGet();
+		}
+	}
+
+	/**
+	 * A single lease of {@link Bindings} from a {@link BindingsPool}.
+	 */
+	public static final class Lease {
+
+		/**
+		 * The {@link BindingsPool} the {@link Bindings} were leased from.
+		 */
+		private final BindingsPool pool;
+
+		/**
+		 * The {@link Bindings} leased.
+		 */
+		private final Bindings bindings;
+
+		/**
+		 * The entries of the {@link Bindings} when created, restored on every reset.
+		 */
+		private final Map<String, Object> baseline;
+
+		/**
+		 * Whether or not the lease was released.
+		 */
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		/**
+		 * Initializes a new {@link Lease}.
+		 *
+		 * @param pool
+		 * 		The {@link BindingsPool} the {@link Bindings} were leased from.
+		 * @param bindings
+		 * 		The {@link Bindings} leased.
+		 * @param baseline
+		 * 		The entries of the {@link Bindings} when created.
+		 */
+		private Lease(BindingsPool pool, Bindings bindings, Map<String, Object> baseline) {
+			this.pool = pool;
+			this.bindings = bindings;
+			this.baseline = baseline;
+		}
+
+		/**
+		 * Gets the leased {@link Bindings}.
+		 *
+		 * @return The leased {@link Bindings}.
+		 */
+		public Bindings getBindings() {
+			return bindings;
+		}
+
+		/**
+		 * Checks if this lease was already released.
+		 *
+		 * @return True if released.
+		 */
+		public boolean isReleased() {
+			return released.get();
+		}
+
+		/**
+		 * Resets the {@link Bindings} and returns them to their {@link BindingsPool}. Releasing
+		 * more than once has no effect.
+		 */
+		public void release() {
+			if (released.compareAndSet(false, true)) pool.giveBack(this);
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package us.nullbytes.rcscript.engine;
+
+import javax.script.ScriptEngine;
+
+/**
+ * Reports a {@link ScriptEngine} lease which was garbage collected without being released. When
+ * lease sites are tracked, the stack trace points at the code which leased the engine.
+ *
+ * @author Corey Shupe
+ * @see EnginePool#setTrackLeaseSites(boolean)
+ */
+public class EngineLeakException extends RuntimeException {
+
+	/**
+	 * The serialization version.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Initializes a new {@link EngineLeakException}.
+	 *
+	 * @param engineName
+	 * 		The name of the leaked {@link ScriptEngine}.
+	 */
+	EngineLeakException(String engineName) {
+		super("A " + engineName + " engine was leased but never released.");
+	}
+}
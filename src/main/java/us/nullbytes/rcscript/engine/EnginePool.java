@@ -0,0 +1,511 @@
+package us.nullbytes.rcscript.engine;
+
+import us.nullbytes.rcscript.ExceptionHandler;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.SimpleScriptContext;
+import java.lang.ref.Cleaner;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A pool of {@link ScriptEngine}s produced by a single {@link ScriptEngineFactory}. Engines are
+ * leased when a script is built and returned, with a fresh {@link ScriptContext}, once the script
+ * is released.
+ *
+ * @author Corey Shupe
+ */
+public class EnginePool {
+
+	/**
+	 * The {@link Cleaner} used to detect {@link Lease}s which were never released.
+	 */
+	private final static Cleaner CLEANER = Cleaner.create();
+
+	/**
+	 * The {@link ScriptEngineFactory} to produce {@link ScriptEngine}s.
+	 */
+	private final ScriptEngineFactory factory;
+
+	/**
+	 * The {@link ScriptEngine}s currently waiting to be leased.
+	 */
+	private final Deque<ScriptEngine> idle = new ConcurrentLinkedDeque<>();
+
+	/**
+	 * The amount of {@link ScriptEngine}s inside of {@link #idle}.
+	 */
+	private final AtomicInteger idleCount = new AtomicInteger();
+
+	/**
+	 * The amount of {@link ScriptEngine}s currently leased.
+	 */
+	private final AtomicInteger leasedCount = new AtomicInteger();
+
+	/**
+	 * The amount of {@link ScriptEngine}s either idle or leased.
+	 */
+	private final AtomicInteger totalCount = new AtomicInteger();
+
+	/**
+	 * The amount of {@link ScriptEngine}s created by this pool.
+	 */
+	private final LongAdder createdCount = new LongAdder();
+
+	/**
+	 * The amount of {@link Lease}s which were served from {@link #idle}.
+	 */
+	private final LongAdder reusedCount = new LongAdder();
+
+	/**
+	 * The amount of {@link Lease}s which were collected without being released.
+	 */
+	private final LongAdder leakedCount = new LongAdder();
+
+	/**
+	 * The minimum amount of idle {@link ScriptEngine}s kept warm.
+	 */
+	private volatile int minIdle = 0;
+
+	/**
+	 * The maximum amount of idle {@link ScriptEngine}s retained after release.
+	 */
+	private volatile int maxIdle = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The maximum amount of {@link ScriptEngine}s either idle or leased.
+	 */
+	private volatile int maxTotal = Integer.MAX_VALUE;
+
+	/**
+	 * Whether or not to record the stack trace of every lease for leak reports.
+	 */
+	private volatile boolean trackLeaseSites = false;
+
+	/**
+	 * The {@link ExceptionHandler} notified of every leaked {@link Lease}.
+	 */
+	private volatile ExceptionHandler<EngineLeakException> leakHandler = ex -> {};
+
+	/**
+	 * The {@link Consumer} notified of every {@link ScriptEngine} this pool drops for good.
+	 */
+	private volatile Consumer<ScriptEngine> dropListener = engine -> {};
+
+	/**
+	 * Initializes a new {@link EnginePool}.
+	 *
+	 * @param factory
+	 * 		The {@link ScriptEngineFactory} which provides {@link ScriptEngine}s.
+	 */
+	public EnginePool(ScriptEngineFactory factory) {
+		this.factory = factory;
+	}
+
+	/**
+	 * Gets the {@link ScriptEngineFactory} backing this pool.
+	 *
+	 * @return The {@link ScriptEngineFactory}.
+	 */
+	public ScriptEngineFactory getFactory() {
+		return factory;
+	}
+
+	/**
+	 * Leases a {@link ScriptEngine}, reusing an idle one when available, and creates engines until
+	 * {@link #getMinIdle()} are idle again.
+	 *
+	 * @return The {@link Lease} holding the {@link ScriptEngine}.
+	 *
+	 * @throws IllegalStateException
+	 * 		When no engine is idle and {@link #getMaxTotal()} engines already exist.
+	 */
+	public Lease lease() {
+		ScriptEngine engine = idle.pollFirst();
+		if (engine == null) {
+			if (!reserve()) throw new IllegalStateException("The pool already holds " + maxTotal + " " + factory.getEngineName() + " engines.");
+			engine = create();
+		} else {
+			idleCount.decrementAndGet();
+			reusedCount.increment();
+		}
+		leasedCount.incrementAndGet();
+		Lease lease = new Lease(this, engine, trackLeaseSites ? new EngineLeakException(factory.getEngineName()) : null);
+		refill();
+		return lease;
+	}
+
+	/**
+	 * Reserves room for one more {@link ScriptEngine} below {@link #maxTotal}.
+	 *
+	 * @return True if reserved, false if the pool is full.
+	 */
+	private boolean reserve() {
+		int current;
+		do {
+			current = totalCount.get();
+			if (current >= maxTotal) return false;
+		} while (!totalCount.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	/**
+	 * Creates idle {@link ScriptEngine}s until {@link #minIdle} are idle or the pool is full.
+	 */
+	private void refill() {
+		while (idleCount.get() < minIdle && reserve()) {
+			idleCount.incrementAndGet();
+			idle.offerLast(create());
+		}
+	}
+
+	/**
+	 * Creates a brand new {@link ScriptEngine} from the {@link #factory}.
+	 *
+	 * @return The created {@link ScriptEngine}.
+	 */
+	private ScriptEngine create() {
+		createdCount.increment();
+		return factory.getScriptEngine();
+	}
+
+	/**
+	 * Drops a {@link ScriptEngine} for good, notifying the {@link #dropListener}.
+	 *
+	 * @param engine
+	 * 		The {@link ScriptEngine} to drop.
+	 */
+	private void drop(ScriptEngine engine) {
+		totalCount.decrementAndGet();
+		dropListener.accept(engine);
+	}
+
+	/**
+	 * Returns a {@link ScriptEngine} to the pool, giving it a fresh {@link ScriptContext} so no
+	 * scope, reader or writer set by the last lease reaches the next one. The engine is discarded
+	 * if the pool already holds {@link #maxIdle} idle engines or the reset fails.
+	 *
+	 * @param engine
+	 * 		The {@link ScriptEngine} to return.
+	 */
+	private void giveBack(ScriptEngine engine) {
+		leasedCount.decrementAndGet();
+		if (idleCount.incrementAndGet() > maxIdle) {
+			idleCount.decrementAndGet();
+			drop(engine);
+			return;
+		}
+		try {
+			ScriptContext context = new SimpleScriptContext();
+			context.setBindings(engine.createBindings(), ScriptContext.ENGINE_SCOPE);
+			engine.setContext(context);
+		} catch (RuntimeException ex) {
+			idleCount.decrementAndGet();
+			drop(engine);
+			return;
+		}
+		idle.offerFirst(engine);
+	}
+
+	/**
+	 * Sets the minimum amount of idle {@link ScriptEngine}s, creating engines until it's met. The
+	 * pool creates engines again whenever a lease takes it below the minimum.
+	 *
+	 * @param minIdle
+	 * 		The minimum amount of idle {@link ScriptEngine}s.
+	 */
+	public void setMinIdle(int minIdle) {
+		if (minIdle < 0) throw new IllegalArgumentException("The minimum idle count cannot be negative.");
+		if (minIdle > maxTotal) throw new IllegalArgumentException("The minimum idle count cannot be above the maximum total.");
+		this.minIdle = minIdle;
+		if (maxIdle < minIdle) maxIdle = minIdle;
+		refill();
+	}
+
+	/**
+	 * Gets the minimum amount of idle {@link ScriptEngine}s kept warm.
+	 *
+	 * @return The minimum amount of idle {@link ScriptEngine}s.
+	 */
+	public int getMinIdle() {
+		return minIdle;
+	}
+
+	/**
+	 * Sets the maximum amount of idle {@link ScriptEngine}s retained, discarding any extra.
+	 *
+	 * @param maxIdle
+	 * 		The maximum amount of idle {@link ScriptEngine}s.
+	 */
+	public void setMaxIdle(int maxIdle) {
+		if (maxIdle < minIdle) throw new IllegalArgumentException("The maximum idle count cannot be below the minimum.");
+		this.maxIdle = maxIdle;
+		ScriptEngine engine;
+		while (idleCount.get() > maxIdle && (engine = idle.pollLast()) != null) {
+			idleCount.decrementAndGet();
+			drop(engine);
+		}
+	}
+
+	/**
+	 * Gets the maximum amount of idle {@link ScriptEngine}s retained.
+	 *
+	 * @return The maximum amount of idle {@link ScriptEngine}s.
+	 */
+	public int getMaxIdle() {
+		return maxIdle;
+	}
+
+	/**
+	 * Sets the maximum amount of {@link ScriptEngine}s either idle or leased, after which {@link
+	 * #lease()} fails until an engine is dropped. Lowering the maximum drops no engine, it only
+	 * stops the pool from creating more.
+	 *
+	 * @param maxTotal
+	 * 		The maximum amount of {@link ScriptEngine}s.
+	 */
+	public void setMaxTotal(int maxTotal) {
+		if (maxTotal < 1) throw new IllegalArgumentException("The maximum total count must be positive.");
+		if (maxTotal < minIdle) throw new IllegalArgumentException("The maximum total count cannot be below the minimum idle count.");
+		this.maxTotal = maxTotal;
+	}
+
+	/**
+	 * Gets the maximum amount of {@link ScriptEngine}s either idle or leased.
+	 *
+	 * @return The maximum amount of {@link ScriptEngine}s.
+	 */
+	public int getMaxTotal() {
+		return maxTotal;
+	}
+
+	/**
+	 * Sets whether or not every lease records its stack trace, so leak reports point to the code
+	 * which leased the {@link ScriptEngine}.
+	 *
+	 * @param trackLeaseSites
+	 * 		True to record the stack trace of every lease.
+	 */
+	public void setTrackLeaseSites(boolean trackLeaseSites) {
+		this.trackLeaseSites = trackLeaseSites;
+	}
+
+	/**
+	 * Sets the {@link ExceptionHandler} notified when a {@link Lease} is garbage collected without
+	 * being released. By default leaks are only counted.
+	 *
+	 * @param leakHandler
+	 * 		The {@link ExceptionHandler} to handle leaks.
+	 */
+	public void setLeakHandler(ExceptionHandler<EngineLeakException> leakHandler) {
+		this.leakHandler = leakHandler;
+	}
+
+	/**
+	 * Sets the {@link Consumer} notified of every {@link ScriptEngine} this pool drops for good,
+	 * such as an engine returned while the pool is full or a discarded lease, so state bound to
+	 * the engine can be dropped as well.
+	 *
+	 * @param dropListener
+	 * 		The {@link Consumer} of dropped {@link ScriptEngine}s.
+	 */
+	public void setDropListener(Consumer<ScriptEngine> dropListener) {
+		this.dropListener = dropListener;
+	}
+
+	/**
+	 * Gets the amount of idle {@link ScriptEngine}s.
+	 *
+	 * @return The amount of idle {@link ScriptEngine}s.
+	 */
+	public int getIdleCount() {
+		return idleCount.get();
+	}
+
+	/**
+	 * Gets the amount of leased {@link ScriptEngine}s.
+	 *
+	 * @return The amount of leased {@link ScriptEngine}s.
+	 */
+	public int getLeasedCount() {
+		return leasedCount.get();
+	}
+
+	/**
+	 * Gets the amount of {@link ScriptEngine}s either idle or leased.
+	 *
+	 * @return The amount of pooled {@link ScriptEngine}s.
+	 */
+	public int getTotalCount() {
+		return totalCount.get();
+	}
+
+	/**
+	 * Gets the amount of {@link ScriptEngine}s created by this pool.
+	 *
+	 * @return The amount of created {@link ScriptEngine}s.
+	 */
+	public long getCreatedCount() {
+		return createdCount.sum();
+	}
+
+	/**
+	 * Gets the amount of leases served by an idle {@link ScriptEngine}.
+	 *
+	 * @return The amount of reused {@link ScriptEngine}s.
+	 */
+	public long getReusedCount() {
+		return reusedCount.sum();
+	}
+
+	/**
+	 * Gets the amount of leases which were garbage collected without being released.
+	 *
+	 * @return The amount of leaked leases.
+	 */
+	public long getLeakedCount() {
+		return leakedCount.sum();
+	}
+
+	/**
+	 * Discards all idle {@link ScriptEngine}s.
+	 */
+	public void clear() {
+		ScriptEngine engine;
+		while ((engine = idle.pollFirst()) != null) {
+			idleCount.decrementAndGet();
+			drop(engine);
+		}
+	}
+
+	/**
+	 * A single lease of a {@link ScriptEngine} from an {@link EnginePool}.
+	 */
+	public static final class Lease {
+
+		/**
+		 * The {@link ScriptEngine} leased.
+		 */
+		private final ScriptEngine engine;
+
+		/**
+		 * The shared state between this lease and its {@link Cleaner.Cleanable}.
+		 */
+		private final LeaseState state;
+
+		/**
+		 * The {@link Cleaner.Cleanable} registered to detect leaks.
+		 */
+		private final Cleaner.Cleanable cleanable;
+
+		/**
+		 * Initializes a new {@link Lease}.
+		 *
+		 * @param pool
+		 * 		The {@link EnginePool} the {@link ScriptEngine} was leased from.
+		 * @param engine
+		 * 		The {@link ScriptEngine} leased.
+		 * @param site
+		 * 		The recorded lease site, or null if not tracked.
+		 */
+		private Lease(EnginePool pool, ScriptEngine engine, EngineLeakException site) {
+			this.engine = engine;
+			this.state = new LeaseState(pool, site);
+			this.cleanable = CLEANER.register(this, state);
+		}
+
+		/**
+		 * Gets the leased {@link ScriptEngine}.
+		 *
+		 * @return The leased {@link ScriptEngine}.
+		 */
+		public ScriptEngine getEngine() {
+			return engine;
+		}
+
+		/**
+		 * Checks if this lease was already released.
+		 *
+		 * @return True if released.
+		 */
+		public boolean isReleased() {
+			return state.released.get();
+		}
+
+		/**
+		 * Returns the {@link ScriptEngine} to its {@link EnginePool}. Releasing more than once has
+		 * no effect.
+		 */
+		public void release() {
+			if (state.released.compareAndSet(false, true)) {
+				cleanable.clean();
+				state.pool.giveBack(engine);
+			}
+		}
+
+		/**
+		 * Drops the {@link ScriptEngine} rather than returning it to its {@link EnginePool}, for
+		 * engines which may still be running or hold a broken state. Has no effect once released.
+		 */
+		public void discard() {
+			if (state.released.compareAndSet(false, true)) {
+				cleanable.clean();
+				state.pool.leasedCount.decrementAndGet();
+				state.pool.drop(engine);
+			}
+		}
+	}
+
+	/**
+	 * The cleaning action of a {@link Lease}, reporting a leak if it was never released.
+	 */
+	private static final class LeaseState implements Runnable {
+
+		/**
+		 * The {@link EnginePool} the lease belongs to.
+		 */
+		private final EnginePool pool;
+
+		/**
+		 * The recorded lease site, or null if not tracked.
+		 */
+		private final EngineLeakException site;
+
+		/**
+		 * Whether or not the lease was released.
+		 */
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		/**
+		 * Initializes a new {@link LeaseState}.
+		 *
+		 * @param pool
+		 * 		The {@link EnginePool} the lease belongs to.
+		 * @param site
+		 * 		The recorded lease site, or null if not tracked.
+		 */
+		private LeaseState(EnginePool pool, EngineLeakException site) {
+			this.pool = pool;
+			this.site = site;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			if (released.compareAndSet(false, true)) {
+				pool.leasedCount.decrementAndGet();
+				pool.totalCount.decrementAndGet();
+				pool.leakedCount.increment();
+				pool.leakHandler.handle(site == null ? new EngineLeakException(pool.factory.getEngineName()) : site);
+			}
+		}
+	}
+}
@@ -0,0 +1,186 @@
+package us.nullbytes.rcscript.engine;
+
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptEngineManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The {@link ScriptEngineFactory}s available to this JVM, discovered once and looked up by name,
+ * file extension or MIME type afterwards. Creating a {@link ScriptEngineManager} scans the
+ * classpath for every engine, so the result of a single scan is reused until {@link #refresh()}.
+ * Lookups are lock-free; the first factory found under a key wins, like {@link
+ * ScriptEngineManager#getEngineByName(String)}, unless one is {@link #register(ScriptEngineFactory)
+ * registered} over it.
+ *
+ * @author Corey Shupe
+ */
+public final class EngineRegistry {
+
+	/**
+	 * The current {@link Index}, or null until the first lookup.
+	 */
+	private static volatile Index index = null;
+
+	/**
+	 * Prevents initialization.
+	 */
+	private EngineRegistry() {
+	}
+
+	/**
+	 * Finds the {@link ScriptEngineFactory} of an engine name, such as {@code "js"}.
+	 *
+	 * @param name
+	 * 		The name of the engine.
+	 *
+	 * @return An {@link Optional} of the {@link ScriptEngineFactory}, empty if none is named so.
+	 */
+	public static Optional<ScriptEngineFactory> byName(String name) {
+		return Optional.ofNullable(index().byName.get(name));
+	}
+
+	/**
+	 * Finds the {@link ScriptEngineFactory} of a file extension, such as {@code "js"}.
+	 *
+	 * @param extension
+	 * 		The file extension without its leading dot.
+	 *
+	 * @return An {@link Optional} of the {@link ScriptEngineFactory}, empty if none handles the
+	 * extension.
+	 */
+	public static Optional<ScriptEngineFactory> byExtension(String extension) {
+		return Optional.ofNullable(index().byExtension.get(extension));
+	}
+
+	/**
+	 * Finds the {@link ScriptEngineFactory} of a MIME type, such as {@code
+	 * "application/javascript"}.
+	 *
+	 * @param mimeType
+	 * 		The MIME type.
+	 *
+	 * @return An {@link Optional} of the {@link ScriptEngineFactory}, empty if none handles the MIME
+	 * type.
+	 */
+	public static Optional<ScriptEngineFactory> byMimeType(String mimeType) {
+		return Optional.ofNullable(index().byMimeType.get(mimeType));
+	}
+
+	/**
+	 * Gets every discovered or registered {@link ScriptEngineFactory}.
+	 *
+	 * @return An unmodifiable {@link List} of the {@link ScriptEngineFactory}s.
+	 */
+	public static List<ScriptEngineFactory> getFactories() {
+		return index().factories;
+	}
+
+	/**
+	 * Registers a {@link ScriptEngineFactory} which isn't discoverable, for instance one of a
+	 * separate class loader. It takes precedence over every discovered factory under its names,
+	 * extensions and MIME types.
+	 *
+	 * @param factory
+	 * 		The {@link ScriptEngineFactory} to register.
+	 */
+	public static synchronized void register(ScriptEngineFactory factory) {
+		Index current = index();
+		List<ScriptEngineFactory> registered = new ArrayList<>(current.registered.size() + 1);
+		registered.add(factory);
+		registered.addAll(current.registered);
+		index = new Index(registered, current.discovered);
+	}
+
+	/**
+	 * Scans the classpath for {@link ScriptEngineFactory}s again, keeping every registered one.
+	 * Only needed when engines are added to the classpath at runtime.
+	 */
+	public static synchronized void refresh() {
+		Index current = index;
+		List<ScriptEngineFactory> registered = current == null ? Collections.emptyList() : current.registered;
+		index = new Index(registered, new ScriptEngineManager().getEngineFactories());
+	}
+
+	/**
+	 * Gets the current {@link Index}, scanning the classpath on first use.
+	 *
+	 * @return The {@link Index}.
+	 */
+	private static Index index() {
+		Index index = EngineRegistry.index;
+		if (index == null) {
+			synchronized (EngineRegistry.class) {
+				if (EngineRegistry.index == null) refresh();
+				index = EngineRegistry.index;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * An immutable index of {@link ScriptEngineFactory}s by name, extension and MIME type, replaced
+	 * as a whole whenever the registry changes.
+	 */
+	private static final class Index {
+
+		/**
+		 * Every {@link ScriptEngineFactory}, registered ones first.
+		 */
+		private final List<ScriptEngineFactory> factories;
+
+		/**
+		 * The {@link ScriptEngineFactory}s registered, newest first.
+		 */
+		private final List<ScriptEngineFactory> registered;
+
+		/**
+		 * The {@link ScriptEngineFactory}s discovered on the classpath.
+		 */
+		private final List<ScriptEngineFactory> discovered;
+
+		/**
+		 * The {@link ScriptEngineFactory}s by {@link ScriptEngineFactory#getNames()}.
+		 */
+		private final Map<String, ScriptEngineFactory> byName = new HashMap<>();
+
+		/**
+		 * The {@link ScriptEngineFactory}s by {@link ScriptEngineFactory#getExtensions()}.
+		 */
+		private final Map<String, ScriptEngineFactory> byExtension = new HashMap<>();
+
+		/**
+		 * The {@link ScriptEngineFactory}s by {@link ScriptEngineFactory#getMimeTypes()}.
+		 */
+		private final Map<String, ScriptEngineFactory> byMimeType = new HashMap<>();
+
+		/**
+		 * Initializes a new {@link Index}.
+		 *
+		 * @param registered
+		 * 		The {@link ScriptEngineFactory}s registered, newest first.
+		 * @param discovered
+		 * 		The {@link ScriptEngineFactory}s discovered on the classpath.
+		 */
+		private Index(List<ScriptEngineFactory> registered, List<ScriptEngineFactory> discovered) {
+			this.registered = Collections.unmodifiableList(new ArrayList<>(registered));
+			this.discovered = Collections.unmodifiableList(new ArrayList<>(discovered));
+			List<ScriptEngineFactory> factories = new ArrayList<>(registered);
+			factories.addAll(discovered);
+			this.factories = Collections.unmodifiableList(factories);
+			for (ScriptEngineFactory factory : this.factories) {
+				try {
+					for (String name : factory.getNames()) byName.putIfAbsent(name, factory);
+					for (String extension : factory.getExtensions()) byExtension.putIfAbsent(extension, factory);
+					for (String mimeType : factory.getMimeTypes()) byMimeType.putIfAbsent(mimeType, factory);
+				} catch (RuntimeException ex) {
+					ex.printStackTrace();
+				}
+			}
+		}
+	}
+}
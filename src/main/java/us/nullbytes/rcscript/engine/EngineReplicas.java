@@ -0,0 +1,436 @@
+package us.nullbytes.rcscript.engine;
+
+import us.nullbytes.rcscript.ScriptBuilder.ReplicaMode;
+import us.nullbytes.rcscript.data.ScriptData;
+import us.nullbytes.rcscript.metrics.ResourceMeter;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A fixed set of {@link ScriptEngine}s each running their own copy of the same script. Every
+ * replica is guarded by its own lock so no {@link ScriptEngine} is ever entered by two threads at
+ * once, while calls spread across replicas to use every core.
+ *
+ * @author Corey Shupe
+ */
+public class EngineReplicas {
+
+	/**
+	 * The interval at which a thread waiting on a busy replica checks if it was replaced.
+	 */
+	private final static long REPLACEMENT_CHECK_MILLIS = 20;
+
+	/**
+	 * The {@link ScriptData} of every replica.
+	 */
+	private final AtomicReferenceArray<ScriptData> replicas;
+
+	/**
+	 * The lock guarding each replica, replaced along with a quarantined replica.
+	 */
+	private final AtomicReferenceArray<ReentrantLock> locks;
+
+	/**
+	 * The {@link Thread} running a call on each replica, or null if free.
+	 */
+	private final AtomicReferenceArray<Thread> owners;
+
+	/**
+	 * The amount of replicas.
+	 */
+	private final int count;
+
+	/**
+	 * The {@link ReplicaMode} choosing which replica a thread prefers.
+	 */
+	private final ReplicaMode mode;
+
+	/**
+	 * The replica preferred by each thread when using {@link ReplicaMode#THREAD_LOCAL}.
+	 */
+	private final ThreadLocal<Integer> affinity;
+
+	/**
+	 * The next replica handed out to a thread without an affinity.
+	 */
+	private final AtomicInteger nextAffinity = new AtomicInteger();
+
+	/**
+	 * The bytes allocated while preparing all replicas.
+	 */
+	private final long footprint;
+
+	/**
+	 * Initializes new {@link EngineReplicas}, preparing every replica in order. If a replica fails
+	 * to prepare, every replica but the first is released.
+	 *
+	 * @param replicas
+	 * 		The {@link ScriptData} of every replica.
+	 * @param mode
+	 * 		The {@link ReplicaMode} choosing which replica a thread prefers.
+	 * @param preparer
+	 * 		The {@link ReplicaCall} compiling and evaluating the script inside of each replica.
+	 *
+	 * @throws ScriptException
+	 * 		When the script fails to compile or evaluate inside of a replica.
+	 */
+	public EngineReplicas(List<ScriptData> replicas, ReplicaMode mode, ReplicaCall<?> preparer) throws ScriptException {
+		this.count = replicas.size();
+		this.replicas = new AtomicReferenceArray<>(replicas.toArray(new ScriptData[0]));
+		this.locks = new AtomicReferenceArray<>(count);
+		this.owners = new AtomicReferenceArray<>(count);
+		this.mode = mode;
+		this.affinity = ThreadLocal.withInitial(() -> Math.floorMod(nextAffinity.getAndIncrement(), count));
+		long allocated = 0;
+		boolean prepared = false;
+		try {
+			for (int i = 0; i < count; i++) {
+				locks.set(i, new ReentrantLock());
+				long before = ResourceMeter.allocatedBytes();
+				preparer.call(this.replicas.get(i));
+				allocated += ResourceMeter.allocatedBytes() - before;
+			}
+			prepared = true;
+		} catch (NoSuchMethodException ex) {
+			throw new ScriptException(ex);
+		} finally {
+			if (!prepared) {
+				for (int i = 1; i < count; i++) {
+					this.replicas.get(i).release();
+				}
+			}
+		}
+		this.footprint = ResourceMeter.isAllocationSupported() ? allocated : -1;
+	}
+
+	/**
+	 * Runs a call on the first free replica, starting at the one preferred by the current thread
+	 * and waiting on it if every replica is busy, or on its replacement once replaced.
+	 *
+	 * @param call
+	 * 		The {@link ReplicaCall} to run.
+	 * @param <T>
+	 * 		The return type of the call.
+	 *
+	 * @return The return value of the call.
+	 *
+	 * @throws ScriptException
+	 * 		When the script fails inside of the call.
+	 * @throws NoSuchMethodException
+	 * 		When the called function doesn't exist.
+	 */
+	public <T> T call(ReplicaCall<T> call) throws ScriptException, NoSuchMethodException {
+		return callIndexed((index, replica) -> call.call(replica));
+	}
+
+	/**
+	 * Runs a call on the first free replica like {@link #call(ReplicaCall)}, passing the index of
+	 * the replica along, so callers can keep state resolved once per replica.
+	 *
+	 * @param call
+	 * 		The {@link IndexedReplicaCall} to run.
+	 * @param <T>
+	 * 		The return type of the call.
+	 *
+	 * @return The return value of the call.
+	 *
+	 * @throws ScriptException
+	 * 		When the script fails inside of the call.
+	 * @throws NoSuchMethodException
+	 * 		When the called function doesn't exist.
+	 */
+	public <T> T callIndexed(IndexedReplicaCall<T> call) throws ScriptException, NoSuchMethodException {
+		int start = mode == ReplicaMode.THREAD_LOCAL ?
+				affinity.get() :
+				(int) Math.floorMod(Thread.currentThread().getId(), (long) count);
+		for (int i = 0; i < count; i++) {
+			int index = (start + i) % count;
+			ReentrantLock lock = locks.get(index);
+			if (!lock.tryLock()) continue;
+			ScriptData replica = held(index, lock);
+			if (replica != null) return callLocked(call, index, lock, replica);
+		}
+		return callOn(start, call);
+	}
+
+	/**
+	 * Runs a call on a given replica, waiting on it while busy, or on its replacement once
+	 * replaced.
+	 *
+	 * @param index
+	 * 		The index of the replica.
+	 * @param call
+	 * 		The {@link IndexedReplicaCall} to run.
+	 * @param <T>
+	 * 		The return type of the call.
+	 *
+	 * @return The return value of the call.
+	 *
+	 * @throws ScriptException
+	 * 		When the script fails inside of the call.
+	 * @throws NoSuchMethodException
+	 * 		When the called function doesn't exist.
+	 */
+	public <T> T callOn(int index, IndexedReplicaCall<T> call) throws ScriptException, NoSuchMethodException {
+		while (true) {
+			ReentrantLock lock = lock(index);
+			ScriptData replica = held(index, lock);
+			if (replica != null) return callLocked(call, index, lock, replica);
+		}
+	}
+
+	/**
+	 * Runs an action on every replica in turn, each while holding the lock of the replica, such as
+	 * changing the bindings of every replica. Released replicas are skipped.
+	 *
+	 * @param action
+	 * 		The {@link Consumer} of each replica.
+	 *
+	 * @throws ScriptException
+	 * 		When interrupted while waiting on a busy replica.
+	 */
+	public void forEach(Consumer<ScriptData> action) throws ScriptException {
+		for (int i = 0; i < count; i++) {
+			ReentrantLock lock;
+			ScriptData replica;
+			do {
+				lock = lock(i);
+				replica = held(i, lock);
+			} while (replica == null);
+			try {
+				if (!replica.isReleased()) action.accept(replica);
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Waits for the lock of a replica, or of its replacement once replaced.
+	 *
+	 * @param index
+	 * 		The index of the replica.
+	 *
+	 * @return The held lock.
+	 *
+	 * @throws ScriptException
+	 * 		When interrupted while waiting.
+	 */
+	private ReentrantLock lock(int index) throws ScriptException {
+		ReentrantLock lock = locks.get(index);
+		try {
+			while (!lock.tryLock(REPLACEMENT_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+				lock = locks.get(index);
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new ScriptException(ex);
+		}
+		return lock;
+	}
+
+	/**
+	 * Gets the replica guarded by a lock just acquired. A lock acquired after the replica was
+	 * replaced no longer guards it, as calls on the replacement hold the new lock; such a lock is
+	 * released again.
+	 *
+	 * @param index
+	 * 		The index of the replica.
+	 * @param lock
+	 * 		The acquired lock.
+	 *
+	 * @return The {@link ScriptData} of the replica, or null if replaced and the lock released.
+	 */
+	private ScriptData held(int index, ReentrantLock lock) {
+		// read before checking the lock, as a replacement installs its lock before its replica
+		ScriptData replica = replicas.get(index);
+		if (locks.get(index) == lock) return replica;
+		lock.unlock();
+		return null;
+	}
+
+	/**
+	 * Runs a call on a replica whose lock is held, releasing the lock afterwards. The call fails
+	 * once the replica was released.
+	 *
+	 * @param call
+	 * 		The {@link IndexedReplicaCall} to run.
+	 * @param index
+	 * 		The index of the replica.
+	 * @param lock
+	 * 		The held lock of the replica.
+	 * @param replica
+	 * 		The {@link ScriptData} of the replica, see {@link #held(int, ReentrantLock)}.
+	 * @param <T>
+	 * 		The return type of the call.
+	 *
+	 * @return The return value of the call.
+	 *
+	 * @throws ScriptException
+	 * 		When the script fails inside of the call, or the replica was released.
+	 * @throws NoSuchMethodException
+	 * 		When the called function doesn't exist.
+	 */
+	private <T> T callLocked(IndexedReplicaCall<T> call, int index, ReentrantLock lock, ScriptData replica) throws ScriptException, NoSuchMethodException {
+		Thread current = Thread.currentThread();
+		owners.set(index, current);
+		try {
+			replica.enter();
+			try {
+				return call.call(index, replica);
+			} finally {
+				replica.exit();
+			}
+		} finally {
+			owners.compareAndSet(index, current, null);
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Finds the replica a thread is running a call on.
+	 *
+	 * @param thread
+	 * 		The {@link Thread}.
+	 *
+	 * @return The index of the replica, or -1 if the thread runs no call.
+	 */
+	public int indexOwnedBy(Thread thread) {
+		for (int i = 0; i < count; i++) {
+			if (owners.get(i) == thread) return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Replaces a replica, for instance one quarantined after a call overran its deadline. The
+	 * replacement gets a new lock, so calls no longer wait on a call which may never return; the
+	 * replaced replica is neither released nor discarded. The new lock is installed, and held,
+	 * before the replacement, so a thread still acquiring the old lock never reaches it.
+	 *
+	 * @param index
+	 * 		The index of the replica.
+	 * @param replica
+	 * 		The prepared {@link ScriptData} of the replacement.
+	 *
+	 * @return The {@link ScriptData} of the replaced replica.
+	 */
+	public ScriptData replace(int index, ScriptData replica) {
+		ReentrantLock lock = new ReentrantLock();
+		lock.lock();
+		try {
+			locks.set(index, lock);
+			owners.set(index, null);
+			return replicas.getAndSet(index, replica);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the {@link ScriptData} of the first replica.
+	 *
+	 * @return The first replica.
+	 */
+	public ScriptData getPrimary() {
+		return replicas.get(0);
+	}
+
+	/**
+	 * Gets the {@link ScriptData} of a replica.
+	 *
+	 * @param index
+	 * 		The index of the replica.
+	 *
+	 * @return The replica.
+	 */
+	public ScriptData getReplica(int index) {
+		return replicas.get(index);
+	}
+
+	/**
+	 * Gets the amount of replicas.
+	 *
+	 * @return The amount of replicas.
+	 */
+	public int getReplicaCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the bytes allocated while compiling and evaluating every replica.
+	 *
+	 * @return The bytes allocated, or -1 if the JVM cannot measure allocation.
+	 */
+	public long getFootprint() {
+		return footprint;
+	}
+
+	/**
+	 * Releases the {@link ScriptEngine} of every replica.
+	 */
+	public void release() {
+		for (int i = 0; i < count; i++) {
+			replicas.get(i).release();
+		}
+	}
+
+	/**
+	 * A call made against a single replica.
+	 *
+	 * @param <T>
+	 * 		The return type of the call.
+	 */
+	@FunctionalInterface
+	public interface ReplicaCall<T> {
+
+		/**
+		 * Runs the call against a replica.
+		 *
+		 * @param replica
+		 * 		The {@link ScriptData} of the replica.
+		 *
+		 * @return The return value of the call.
+		 *
+		 * @throws ScriptException
+		 * 		When the script fails inside of the call.
+		 * @throws NoSuchMethodException
+		 * 		When the called function doesn't exist.
+		 */
+		T call(ScriptData replica) throws ScriptException, NoSuchMethodException;
+	}
+
+	/**
+	 * A call made against a single replica, knowing its index.
+	 *
+	 * @param <T>
+	 * 		The return type of the call.
+	 */
+	@FunctionalInterface
+	public interface IndexedReplicaCall<T> {
+
+		/**
+		 * Runs the call against a replica.
+		 *
+		 * @param index
+		 * 		The index of the replica.
+		 * @param replica
+		 * 		The {@link ScriptData} of the replica.
+		 *
+		 * @return The return value of the call.
+		 *
+		 * @throws ScriptException
+		 * 		When the script fails inside of the call.
+		 * @throws NoSuchMethodException
+		 * 		When the called function doesn't exist.
+		 */
+		T call(int index, ScriptData replica) throws ScriptException, NoSuchMethodException;
+	}
+}
@@ -0,0 +1,354 @@
+package us.nullbytes.rcscript.execution;
+
+import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptManager;
+import us.nullbytes.rcscript.ScriptManager.RejectionPolicy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the async {@link Script} calls waiting to run, of a {@link ScriptManager} or of a
+ * single {@link Script}. A call waits from its submission until it starts running, including
+ * time spent on a concurrency limit or in a {@link ScriptMailbox}. Once the capacity is reached,
+ * the {@link RejectionPolicy} decides what happens to a new call.
+ * <p>
+ * The {@link java.util.concurrent.Executor} itself may still queue without bounds; it never
+ * holds more calls than admitted.
+ *
+ * @author Corey Shupe
+ * @see ScriptManager#setQueueLimit(int, RejectionPolicy)
+ * @see Script#setQueueLimit(int, RejectionPolicy)
+ */
+public final class AdmissionQueue {
+
+	/**
+	 * The maximum amount of waiting calls.
+	 */
+	private final int capacity;
+
+	/**
+	 * The {@link RejectionPolicy} applied once full.
+	 */
+	private final RejectionPolicy policy;
+
+	/**
+	 * The amount of waiting calls.
+	 */
+	private final AtomicInteger depth = new AtomicInteger();
+
+	/**
+	 * The {@link Ticket}s of the waiting calls, oldest first. A call which stops waiting stays
+	 * until popped or purged, see {@link #stale}.
+	 */
+	private final ConcurrentLinkedQueue<Ticket> waiting = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * About the amount of {@link #waiting} tickets which no longer wait. Once above the capacity,
+	 * they are purged.
+	 */
+	private final AtomicInteger stale = new AtomicInteger();
+
+	/**
+	 * The amount of admitted calls.
+	 */
+	private final LongAdder admittedCount = new LongAdder();
+
+	/**
+	 * The amount of calls rejected on arrival.
+	 */
+	private final LongAdder rejectedCount = new LongAdder();
+
+	/**
+	 * The amount of waiting calls shed for newer ones.
+	 */
+	private final LongAdder shedCount = new LongAdder();
+
+	/**
+	 * The amount of calls run by the calling thread.
+	 */
+	private final LongAdder callerRunsCount = new LongAdder();
+
+	/**
+	 * Initializes a new {@link AdmissionQueue}.
+	 *
+	 * @param capacity
+	 * 		The maximum amount of waiting calls.
+	 * @param policy
+	 * 		The {@link RejectionPolicy} applied once full.
+	 */
+	public AdmissionQueue(int capacity, RejectionPolicy policy) {
+		if (capacity < 1) throw new IllegalArgumentException("The capacity must be positive.");
+		if (policy == null) throw new NullPointerException("The rejection policy cannot be null.");
+		this.capacity = capacity;
+		this.policy = policy;
+	}
+
+	/**
+	 * Admits a call into every given {@link AdmissionQueue}, in order. If any is full and cannot
+	 * shed, the call leaves the ones it entered and the {@link RejectionPolicy} of the full one
+	 * applies: the future completes with a {@link ScriptOverloadException}, or the caller is told
+	 * to run the call itself. A call the caller may not run is rejected under {@link
+	 * RejectionPolicy#CALLER_RUNS} as well.
+	 *
+	 * @param future
+	 * 		The {@link CompletableFuture} of the call.
+	 * @param callerMayRun
+	 * 		Whether or not the caller may run the call itself.
+	 * @param queues
+	 * 		The {@link AdmissionQueue}s, null ones being skipped.
+	 *
+	 * @return The {@link Ticket} of the call.
+	 */
+	public static Ticket admit(CompletableFuture<?> future, boolean callerMayRun, AdmissionQueue... queues) {
+		Ticket ticket = new Ticket(future, queues);
+		for (int i = 0; i < queues.length; i++) {
+			AdmissionQueue queue = queues[i];
+			if (queue == null || queue.enter(ticket, i)) continue;
+			boolean shed = !ticket.claimed.compareAndSet(false, true);
+			ticket.leave();
+			if (shed) {
+				ticket.rejected = true;
+			} else if (queue.policy == RejectionPolicy.CALLER_RUNS && callerMayRun) {
+				queue.callerRunsCount.increment();
+				ticket.callerRuns = true;
+			} else {
+				queue.rejectedCount.increment();
+				ticket.rejected = true;
+				future.completeExceptionally(new ScriptOverloadException(queue.capacity, false));
+			}
+			return ticket;
+		}
+		// shed by another call while entering the later queues
+		if (ticket.claimed.get()) ticket.leave();
+		return ticket;
+	}
+
+	/**
+	 * Enters a {@link Ticket}, shedding the oldest waiting call if full and allowed.
+	 *
+	 * @param ticket
+	 * 		The {@link Ticket} of the call.
+	 * @param index
+	 * 		The index of this {@link AdmissionQueue} among the queues of the {@link Ticket}.
+	 *
+	 * @return True if entered.
+	 */
+	private boolean enter(Ticket ticket, int index) {
+		while (true) {
+			int current = depth.get();
+			if (current < capacity) {
+				if (!depth.compareAndSet(current, current + 1)) continue;
+				ticket.entered = index + 1;
+				waiting.add(ticket);
+				admittedCount.increment();
+				return true;
+			}
+			if (policy != RejectionPolicy.SHED_OLDEST) return false;
+			// a call which started meanwhile may have left without being popped yet
+			if (!shedOldest() && depth.get() >= capacity) return false;
+		}
+	}
+
+	/**
+	 * Sheds the oldest waiting call, completing it with a {@link ScriptOverloadException}. Tickets
+	 * popped on the way which no longer wait are dropped.
+	 *
+	 * @return True if a call was shed.
+	 */
+	private boolean shedOldest() {
+		Ticket oldest;
+		while ((oldest = waiting.poll()) != null) {
+			if (!oldest.claimed.compareAndSet(false, true)) continue;
+			oldest.leave();
+			shedCount.increment();
+			oldest.future.completeExceptionally(new ScriptOverloadException(capacity, true));
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Counts out a {@link Ticket} which entered and no longer waits. The ticket itself is only
+	 * dropped once popped, or purged with every other stale ticket once they outnumber the
+	 * capacity, so leaving takes constant time.
+	 *
+	 * @param ticket
+	 * 		The {@link Ticket} leaving.
+	 */
+	private void leave(Ticket ticket) {
+		depth.decrementAndGet();
+		if (stale.incrementAndGet() > capacity && stale.getAndSet(0) > capacity) {
+			waiting.removeIf(stale -> stale.claimed.get());
+		}
+	}
+
+	/**
+	 * Gets the maximum amount of waiting calls.
+	 *
+	 * @return The capacity.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the {@link RejectionPolicy} applied once full.
+	 *
+	 * @return The {@link RejectionPolicy}.
+	 */
+	public RejectionPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Gets the amount of waiting calls.
+	 *
+	 * @return The depth of the queue.
+	 */
+	public int getDepth() {
+		return depth.get();
+	}
+
+	/**
+	 * Gets the amount of admitted calls.
+	 *
+	 * @return The amount of admissions.
+	 */
+	public long getAdmittedCount() {
+		return admittedCount.sum();
+	}
+
+	/**
+	 * Gets the amount of calls rejected on arrival.
+	 *
+	 * @return The amount of rejections.
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.sum();
+	}
+
+	/**
+	 * Gets the amount of waiting calls shed for newer ones.
+	 *
+	 * @return The amount of shed calls.
+	 */
+	public long getShedCount() {
+		return shedCount.sum();
+	}
+
+	/**
+	 * Gets the amount of calls run by the calling thread as the queue was full.
+	 *
+	 * @return The amount of calls run by callers.
+	 */
+	public long getCallerRunsCount() {
+		return callerRunsCount.sum();
+	}
+
+	/**
+	 * The admission of a single call into one or more {@link AdmissionQueue}s.
+	 */
+	public static final class Ticket {
+
+		/**
+		 * The {@link CompletableFuture} of the call.
+		 */
+		private final CompletableFuture<?> future;
+
+		/**
+		 * The {@link AdmissionQueue}s of the call, null ones being skipped.
+		 */
+		private final AdmissionQueue[] queues;
+
+		/**
+		 * Whether or not the call started, was shed or discarded, so it no longer waits.
+		 */
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		/**
+		 * The amount of {@link #queues} entered so far, in order.
+		 */
+		private volatile int entered = 0;
+
+		/**
+		 * The amount of {@link #queues} left so far, in order.
+		 */
+		private int left = 0;
+
+		/**
+		 * Whether or not the call was rejected.
+		 */
+		private boolean rejected = false;
+
+		/**
+		 * Whether or not the caller runs the call itself.
+		 */
+		private boolean callerRuns = false;
+
+		/**
+		 * Initializes a new {@link Ticket}.
+		 *
+		 * @param future
+		 * 		The {@link CompletableFuture} of the call.
+		 * @param queues
+		 * 		The {@link AdmissionQueue}s of the call.
+		 */
+		private Ticket(CompletableFuture<?> future, AdmissionQueue[] queues) {
+			this.future = future;
+			this.queues = queues;
+		}
+
+		/**
+		 * Checks if the call was rejected, its future completed with a {@link
+		 * ScriptOverloadException}.
+		 *
+		 * @return True if rejected.
+		 */
+		public boolean isRejected() {
+			return rejected;
+		}
+
+		/**
+		 * Checks if the caller must run the call itself, as a queue with the {@link
+		 * RejectionPolicy#CALLER_RUNS} was full.
+		 *
+		 * @return True if the caller runs the call.
+		 */
+		public boolean isCallerRuns() {
+			return callerRuns;
+		}
+
+		/**
+		 * Marks the call as started, leaving every queue.
+		 *
+		 * @return True if started, false if the call was shed or discarded before.
+		 */
+		public boolean start() {
+			if (!claimed.compareAndSet(false, true)) return false;
+			leave();
+			return true;
+		}
+
+		/**
+		 * Drops the call if still waiting, such as once its future was cancelled or timed out.
+		 */
+		public void discard() {
+			if (claimed.compareAndSet(false, true)) leave();
+		}
+
+		/**
+		 * Leaves every queue entered and not yet left, as a call shed while still entering later
+		 * queues leaves twice.
+		 */
+		private synchronized void leave() {
+			int entered = this.entered;
+			for (; left < entered; left++) {
+				if (queues[left] != null) queues[left].leave(this);
+			}
+		}
+	}
+}
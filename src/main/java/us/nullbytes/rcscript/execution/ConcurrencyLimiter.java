@@ -0,0 +1,139 @@
+package us.nullbytes.rcscript.execution;
+
+import us.nullbytes.rcscript.Script;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Limits how many async calls of a {@link Script} are handed to an {@link Executor} at once.
+ * Calls over the limit wait inside the limiter rather than on a pool thread, and the call
+ * finishing a permit hands the next waiting one to its {@link Executor}, so no thread ever
+ * blocks waiting for a permit.
+ *
+ * @author Corey Shupe
+ * @see Script#setConcurrencyLimit(int)
+ */
+public final class ConcurrencyLimiter {
+
+	/**
+	 * The maximum amount of calls handed to their {@link Executor} at once.
+	 */
+	private final int limit;
+
+	/**
+	 * The amount of calls handed to their {@link Executor} and not yet finished.
+	 */
+	private final AtomicInteger running = new AtomicInteger();
+
+	/**
+	 * The calls waiting for a permit, oldest first.
+	 */
+	private final Queue<Pending> waiting = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Initializes a new {@link ConcurrencyLimiter}.
+	 *
+	 * @param limit
+	 * 		The maximum amount of calls handed to their {@link Executor} at once.
+	 */
+	public ConcurrencyLimiter(int limit) {
+		if (limit < 1) throw new IllegalArgumentException("The concurrency limit must be positive.");
+		this.limit = limit;
+	}
+
+	/**
+	 * Hands a call to an {@link Executor} as soon as fewer than {@link #getLimit()} calls run.
+	 *
+	 * @param executor
+	 * 		The {@link Executor} running the call.
+	 * @param call
+	 * 		The call.
+	 * @param rejected
+	 * 		Notified instead of running the call if the {@link Executor} rejects it.
+	 */
+	public void execute(Executor executor, Runnable call, Consumer<RejectedExecutionException> rejected) {
+		waiting.add(new Pending(executor, call, rejected));
+		drain();
+	}
+
+	/**
+	 * Hands waiting calls to their {@link Executor} while permits are free.
+	 */
+	private void drain() {
+		while (!waiting.isEmpty()) {
+			int current = running.get();
+			if (current >= limit) return;
+			if (!running.compareAndSet(current, current + 1)) continue;
+			Pending next = waiting.poll();
+			if (next == null) {
+				// taken by another thread, so the emptiness is checked again
+				running.decrementAndGet();
+				continue;
+			}
+			try {
+				next.executor.execute(() -> {
+					try {
+						next.call.run();
+					} finally {
+						running.decrementAndGet();
+						drain();
+					}
+				});
+			} catch (RejectedExecutionException ex) {
+				running.decrementAndGet();
+				next.rejected.accept(ex);
+			}
+		}
+	}
+
+	/**
+	 * Gets the maximum amount of calls handed to their {@link Executor} at once.
+	 *
+	 * @return The limit.
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * A call waiting for a permit.
+	 */
+	private static final class Pending {
+
+		/**
+		 * The {@link Executor} running the call.
+		 */
+		private final Executor executor;
+
+		/**
+		 * The call.
+		 */
+		private final Runnable call;
+
+		/**
+		 * Notified if the {@link #executor} rejects the call.
+		 */
+		private final Consumer<RejectedExecutionException> rejected;
+
+		/**
+		 * Initializes a new {@link Pending} call.
+		 *
+		 * @param executor
+		 * 		The {@link Executor} running the call.
+		 * @param call
+		 * 		The call.
+		 * @param rejected
+		 * 		Notified if the {@link Executor} rejects the call.
+		 */
+		private Pending(Executor executor, Runnable call, Consumer<RejectedExecutionException> rejected) {
+			this.executor = executor;
+			this.call = call;
+			this.rejected = rejected;
+		}
+	}
+}
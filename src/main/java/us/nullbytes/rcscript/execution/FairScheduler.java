@@ -0,0 +1,525 @@
+package us.nullbytes.rcscript.execution;
+
+import us.nullbytes.rcscript.ScriptManager;
+import us.nullbytes.rcscript.metrics.LatencyHistogram;
+import us.nullbytes.rcscript.metrics.ResourceMeter;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Shares the worker threads of an {@link Executor} between tenants by weight. Every tenant key
+ * gets a {@link Lane}, an {@link Executor} of its own queue, which is handed to one or more
+ * {@link ScriptManager}s. Queued calls are dispatched by deficit round robin: each round a lane
+ * is granted a quantum of thread time times its weight, and the thread time its calls actually
+ * used is charged to it. A tenant flooding its lane with slow calls thus only delays its own
+ * calls, while the others keep their share and predictable tail latency.
+ * <p>
+ * Thread time is the CPU time of the calls, so a call blocked on I/O or a lock is not charged for
+ * waiting; where the JVM cannot measure thread CPU time, the wall time of the calls is charged.
+ * <pre>
+ *     {@code
+ *     FairScheduler scheduler = ScriptExecutors.newFairScheduler("rcscript-fair");
+ *     ScriptManager gold = manager.generateUniqueInstance();
+ *     gold.setExecutor(scheduler.lane("gold", 3));
+ *     ScriptManager bronze = manager.generateUniqueInstance();
+ *     bronze.setExecutor(scheduler.lane("bronze", 1));
+ *     }
+ * </pre>
+ * No more than the parallelism of calls are handed to the {@link Executor} at once, the rest
+ * wait in their lane.
+ *
+ * @author Corey Shupe
+ * @see ScriptManager#setExecutor(Executor)
+ */
+public final class FairScheduler implements FairSchedulerMXBean {
+
+	/**
+	 * The default thread time granted to a lane of weight 1 per round.
+	 */
+	public final static Duration DEFAULT_QUANTUM = Duration.ofMillis(1);
+
+	/**
+	 * The {@link Executor} running the calls.
+	 */
+	private final Executor executor;
+
+	/**
+	 * The maximum amount of calls handed to the {@link #executor} at once.
+	 */
+	private final int parallelism;
+
+	/**
+	 * The thread time in nanoseconds granted to a lane of weight 1 per round.
+	 */
+	private final long quantum;
+
+	/**
+	 * The {@link Lane}s by tenant key.
+	 */
+	private final Map<Object, Lane> lanes = new ConcurrentHashMap<>();
+
+	/**
+	 * The {@link Lane}s with queued calls, in round robin order. Guarded by this scheduler.
+	 */
+	private final Queue<Lane> active = new ArrayDeque<>();
+
+	/**
+	 * The amount of calls handed to the {@link #executor}. Guarded by this scheduler.
+	 */
+	private int running = 0;
+
+	/**
+	 * The {@link ObjectName} this is registered under, or null if not registered.
+	 */
+	private ObjectName objectName = null;
+
+	/**
+	 * Initializes a new {@link FairScheduler} granting the {@link #DEFAULT_QUANTUM}.
+	 *
+	 * @param executor
+	 * 		The {@link Executor} running the calls.
+	 * @param parallelism
+	 * 		The maximum amount of calls handed to the {@link Executor} at once, usually its amount
+	 * 		of threads.
+	 */
+	public FairScheduler(Executor executor, int parallelism) {
+		this(executor, parallelism, DEFAULT_QUANTUM);
+	}
+
+	/**
+	 * Initializes a new {@link FairScheduler}.
+	 *
+	 * @param executor
+	 * 		The {@link Executor} running the calls.
+	 * @param parallelism
+	 * 		The maximum amount of calls handed to the {@link Executor} at once, usually its amount
+	 * 		of threads.
+	 * @param quantum
+	 * 		The thread time granted to a lane of weight 1 per round.
+	 */
+	public FairScheduler(Executor executor, int parallelism, Duration quantum) {
+		if (executor == null) throw new NullPointerException("The executor cannot be null.");
+		if (parallelism < 1) throw new IllegalArgumentException("The parallelism must be positive.");
+		if (quantum.isNegative() || quantum.isZero()) throw new IllegalArgumentException("The quantum must be positive.");
+		this.executor = executor;
+		this.parallelism = parallelism;
+		this.quantum = quantum.toNanos();
+	}
+
+	/**
+	 * Gets the {@link Lane} of a tenant key, creating it with a weight of 1 on first use.
+	 *
+	 * @param key
+	 * 		The tenant key.
+	 *
+	 * @return The {@link Lane}.
+	 */
+	public Lane lane(Object key) {
+		return lanes.computeIfAbsent(key, Lane::new);
+	}
+
+	/**
+	 * Gets the {@link Lane} of a tenant key, creating it on first use, and sets its weight.
+	 *
+	 * @param key
+	 * 		The tenant key.
+	 * @param weight
+	 * 		The share of thread time relative to the other lanes.
+	 *
+	 * @return The {@link Lane}.
+	 */
+	public Lane lane(Object key, int weight) {
+		Lane lane = lane(key);
+		lane.setWeight(weight);
+		return lane;
+	}
+
+	/**
+	 * Removes the {@link Lane} of a tenant key, such as once the tenant is gone. Calls already
+	 * queued in it still run, yet the {@link ScriptManager}s using it should be given another
+	 * {@link Executor}: a later {@link #lane(Object)} for the key creates a new lane.
+	 *
+	 * @param key
+	 * 		The tenant key.
+	 *
+	 * @return The removed {@link Lane}, or null if there was none.
+	 */
+	public Lane removeLane(Object key) {
+		return lanes.remove(key);
+	}
+
+	/**
+	 * Gets every {@link Lane}.
+	 *
+	 * @return An unmodifiable {@link Collection} of the {@link Lane}s.
+	 */
+	public Collection<Lane> getLanes() {
+		return Collections.unmodifiableCollection(lanes.values());
+	}
+
+	/**
+	 * Gets the {@link Executor} running the calls.
+	 *
+	 * @return The {@link Executor}.
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized int getRunning() {
+		return running;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<LaneSummary> getLaneSummaries() {
+		List<LaneSummary> summaries = new ArrayList<>();
+		for (Lane lane : lanes.values()) summaries.add(new LaneSummary(lane));
+		return summaries;
+	}
+
+	/**
+	 * Registers this as an MXBean on the platform {@link MBeanServer}, replacing a previous
+	 * registration under the same name.
+	 *
+	 * @param name
+	 * 		The {@link ObjectName} to register under, such as {@code
+	 * 		us.nullbytes.rcscript:type=FairScheduler,name=default}.
+	 */
+	public synchronized void register(String name) {
+		unregister();
+		try {
+			ObjectName objectName = new ObjectName(name);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(objectName)) server.unregisterMBean(objectName);
+			server.registerMBean(this, objectName);
+			this.objectName = objectName;
+		} catch (JMException | SecurityException ex) {
+			ex.printStackTrace();
+		}
+	}
+
+	/**
+	 * Unregisters this from the platform {@link MBeanServer}, if registered.
+	 */
+	public synchronized void unregister() {
+		if (objectName == null) return;
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException | SecurityException ex) {
+			ex.printStackTrace();
+		}
+		objectName = null;
+	}
+
+	/**
+	 * Queues a call in its {@link Lane}, then dispatches calls while threads are free.
+	 *
+	 * @param call
+	 * 		The {@link Call} to queue.
+	 */
+	private void submit(Call call) {
+		Lane lane = call.lane;
+		synchronized (this) {
+			lane.calls.add(call);
+			if (!lane.active) {
+				lane.active = true;
+				active.add(lane);
+			}
+		}
+		dispatch();
+	}
+
+	/**
+	 * Hands queued calls to the {@link #executor} until the parallelism is reached or no call is
+	 * queued. A call rejected by the {@link #executor} runs in the current thread, so the calls
+	 * queued behind it are not stranded.
+	 */
+	private void dispatch() {
+		while (true) {
+			Call call;
+			synchronized (this) {
+				if (running >= parallelism) return;
+				call = next();
+				if (call == null) return;
+				running++;
+			}
+			try {
+				executor.execute(() -> {
+					try {
+						call.run();
+					} finally {
+						dispatch();
+					}
+				});
+			} catch (RejectedExecutionException ex) {
+				call.run();
+			}
+		}
+	}
+
+	/**
+	 * Takes the next call by deficit round robin, charging its estimated thread time to its lane.
+	 * Guarded by this scheduler.
+	 *
+	 * @return The next {@link Call}, or null if none is queued.
+	 */
+	private Call next() {
+		if (active.isEmpty()) return null;
+		Lane lane = null;
+		for (int i = active.size(); i > 0; i--) {
+			Lane head = active.peek();
+			if (head.deficit > 0) {
+				lane = head;
+				break;
+			}
+			active.add(active.poll());
+		}
+		if (lane == null) {
+			// every lane used up its grant, skip ahead the fewest rounds making one eligible
+			long rounds = Long.MAX_VALUE;
+			for (Lane candidate : active) rounds = Math.min(rounds, -candidate.deficit / (quantum * candidate.weight) + 1);
+			for (Lane candidate : active) candidate.deficit += rounds * quantum * candidate.weight;
+			return next();
+		}
+		Call call = lane.calls.poll();
+		call.charged = lane.estimate;
+		lane.deficit -= call.charged;
+		if (lane.calls.isEmpty()) {
+			// an idle lane forfeits its credit, yet keeps its debt
+			active.poll();
+			lane.active = false;
+			if (lane.deficit > 0) lane.deficit = 0;
+		}
+		return call;
+	}
+
+	/**
+	 * Settles a finished call, correcting the charge of its lane by the thread time it actually
+	 * used.
+	 *
+	 * @param call
+	 * 		The finished {@link Call}.
+	 * @param used
+	 * 		The thread time used in nanoseconds.
+	 */
+	private synchronized void finish(Call call, long used) {
+		running--;
+		Lane lane = call.lane;
+		lane.deficit += call.charged - used;
+		lane.estimate += (used - lane.estimate) / 8;
+		if (lane.estimate < 1) lane.estimate = 1;
+	}
+
+	/**
+	 * The queue of one tenant of a {@link FairScheduler}, an {@link Executor} for the {@link
+	 * ScriptManager}s of the tenant. The queue waits and latencies of its calls are recorded.
+	 */
+	public final class Lane implements Executor {
+
+		/**
+		 * The tenant key.
+		 */
+		private final Object key;
+
+		/**
+		 * The share of thread time relative to the other lanes.
+		 */
+		private volatile int weight = 1;
+
+		/**
+		 * The queued calls. Guarded by the scheduler.
+		 */
+		private final Queue<Call> calls = new ArrayDeque<>();
+
+		/**
+		 * Whether or not this lane takes part in the rounds. Guarded by the scheduler.
+		 */
+		private boolean active = false;
+
+		/**
+		 * The thread time in nanoseconds this lane may still use this round, negative when in
+		 * debt. Guarded by the scheduler.
+		 */
+		private long deficit = 0;
+
+		/**
+		 * The moving average thread time of a call in nanoseconds, charged when dispatching.
+		 * Guarded by the scheduler.
+		 */
+		private long estimate = quantum;
+
+		/**
+		 * The {@link LatencyHistogram} of waits from submission until running.
+		 */
+		private final LatencyHistogram queueWaits = new LatencyHistogram();
+
+		/**
+		 * The {@link LatencyHistogram} of latencies from submission until finished.
+		 */
+		private final LatencyHistogram latencies = new LatencyHistogram();
+
+		/**
+		 * Initializes a new {@link Lane}.
+		 *
+		 * @param key
+		 * 		The tenant key.
+		 */
+		private Lane(Object key) {
+			this.key = key;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * The call runs once dispatched by the {@link FairScheduler}.
+		 */
+		@Override
+		public void execute(Runnable command) {
+			submit(new Call(this, command));
+		}
+
+		/**
+		 * Gets the tenant key.
+		 *
+		 * @return The tenant key.
+		 */
+		public Object getKey() {
+			return key;
+		}
+
+		/**
+		 * Gets the share of thread time relative to the other lanes.
+		 *
+		 * @return The weight.
+		 */
+		public int getWeight() {
+			return weight;
+		}
+
+		/**
+		 * Sets the share of thread time relative to the other lanes, applying from the next
+		 * round.
+		 *
+		 * @param weight
+		 * 		The weight.
+		 */
+		public void setWeight(int weight) {
+			if (weight < 1) throw new IllegalArgumentException("The weight must be positive.");
+			this.weight = weight;
+		}
+
+		/**
+		 * Gets the amount of queued calls.
+		 *
+		 * @return The depth of this lane.
+		 */
+		public int getDepth() {
+			synchronized (FairScheduler.this) {
+				return calls.size();
+			}
+		}
+
+		/**
+		 * Gets the waits of the calls from submission until running.
+		 *
+		 * @return The {@link LatencyHistogram} of queue waits.
+		 */
+		public LatencyHistogram getQueueWaits() {
+			return queueWaits;
+		}
+
+		/**
+		 * Gets the latencies of the calls from submission until finished.
+		 *
+		 * @return The {@link LatencyHistogram} of latencies.
+		 */
+		public LatencyHistogram getLatencies() {
+			return latencies;
+		}
+	}
+
+	/**
+	 * A call queued in a {@link Lane}.
+	 */
+	private final class Call {
+
+		/**
+		 * The {@link Lane} of the call.
+		 */
+		private final Lane lane;
+
+		/**
+		 * The {@link Runnable} of the call.
+		 */
+		private final Runnable command;
+
+		/**
+		 * The {@link System#nanoTime()} of submission.
+		 */
+		private final long submitted = System.nanoTime();
+
+		/**
+		 * The thread time in nanoseconds charged to the {@link #lane} when dispatching.
+		 */
+		private long charged = 0;
+
+		/**
+		 * Initializes a new {@link Call}.
+		 *
+		 * @param lane
+		 * 		The {@link Lane} of the call.
+		 * @param command
+		 * 		The {@link Runnable} of the call.
+		 */
+		private Call(Lane lane, Runnable command) {
+			this.lane = lane;
+			this.command = command;
+		}
+
+		/**
+		 * Runs the call, recording its timings and settling its charge by the CPU time it used, or
+		 * by its wall time if the CPU time cannot be measured.
+		 */
+		private void run() {
+			long start = System.nanoTime();
+			long cpuStart = ResourceMeter.cpuTime();
+			lane.queueWaits.record(start - submitted);
+			try {
+				command.run();
+			} finally {
+				long end = System.nanoTime();
+				long cpuEnd = cpuStart < 0 ? -1 : ResourceMeter.cpuTime();
+				lane.latencies.record(end - submitted);
+				finish(this, cpuEnd < 0 ? end - start : cpuEnd - cpuStart);
+			}
+		}
+	}
+}
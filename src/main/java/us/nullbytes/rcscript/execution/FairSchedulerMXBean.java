@@ -0,0 +1,200 @@
+package us.nullbytes.rcscript.execution;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JMX view of a {@link FairScheduler}, registered through {@link
+ * FairScheduler#register(String)}. Durations are in milliseconds.
+ *
+ * @author Corey Shupe
+ * @see FairScheduler
+ */
+public interface FairSchedulerMXBean {
+
+	/**
+	 * Gets the maximum amount of calls handed to the executor at once.
+	 *
+	 * @return The parallelism.
+	 */
+	int getParallelism();
+
+	/**
+	 * Gets the amount of calls handed to the executor.
+	 *
+	 * @return The amount of running calls.
+	 */
+	int getRunning();
+
+	/**
+	 * Gets a summary of every lane.
+	 *
+	 * @return The {@link LaneSummary} of every lane.
+	 */
+	List<LaneSummary> getLaneSummaries();
+
+	/**
+	 * A snapshot of a {@link FairScheduler.Lane}.
+	 */
+	class LaneSummary {
+
+		/**
+		 * The tenant key as a {@link String}.
+		 */
+		private final String lane;
+
+		/**
+		 * The share of thread time relative to the other lanes.
+		 */
+		private final int weight;
+
+		/**
+		 * The amount of queued calls.
+		 */
+		private final int depth;
+
+		/**
+		 * The amount of finished calls.
+		 */
+		private final long completedCount;
+
+		/**
+		 * The median queue wait.
+		 */
+		private final double queueWaitP50;
+
+		/**
+		 * The 99th percentile queue wait.
+		 */
+		private final double queueWaitP99;
+
+		/**
+		 * The 99.9th percentile queue wait.
+		 */
+		private final double queueWaitP999;
+
+		/**
+		 * The median latency.
+		 */
+		private final double p50;
+
+		/**
+		 * The 99th percentile latency.
+		 */
+		private final double p99;
+
+		/**
+		 * The 99.9th percentile latency.
+		 */
+		private final double p999;
+
+		/**
+		 * Takes a snapshot of a {@link FairScheduler.Lane}.
+		 *
+		 * @param lane
+		 * 		The {@link FairScheduler.Lane}.
+		 */
+		LaneSummary(FairScheduler.Lane lane) {
+			this.lane = String.valueOf(lane.getKey());
+			this.weight = lane.getWeight();
+			this.depth = lane.getDepth();
+			this.completedCount = lane.getLatencies().getCount();
+			this.queueWaitP50 = lane.getQueueWaits().getPercentile(0.5, TimeUnit.MILLISECONDS);
+			this.queueWaitP99 = lane.getQueueWaits().getPercentile(0.99, TimeUnit.MILLISECONDS);
+			this.queueWaitP999 = lane.getQueueWaits().getPercentile(0.999, TimeUnit.MILLISECONDS);
+			this.p50 = lane.getLatencies().getPercentile(0.5, TimeUnit.MILLISECONDS);
+			this.p99 = lane.getLatencies().getPercentile(0.99, TimeUnit.MILLISECONDS);
+			this.p999 = lane.getLatencies().getPercentile(0.999, TimeUnit.MILLISECONDS);
+		}
+
+		/**
+		 * Gets the tenant key of the lane.
+		 *
+		 * @return The tenant key as a {@link String}.
+		 */
+		public String getLane() {
+			return lane;
+		}
+
+		/**
+		 * Gets the share of thread time relative to the other lanes.
+		 *
+		 * @return The weight.
+		 */
+		public int getWeight() {
+			return weight;
+		}
+
+		/**
+		 * Gets the amount of queued calls.
+		 *
+		 * @return The depth of the lane.
+		 */
+		public int getDepth() {
+			return depth;
+		}
+
+		/**
+		 * Gets the amount of finished calls.
+		 *
+		 * @return The amount of finished calls.
+		 */
+		public long getCompletedCount() {
+			return completedCount;
+		}
+
+		/**
+		 * Gets the median queue wait.
+		 *
+		 * @return The p50 in milliseconds.
+		 */
+		public double getQueueWaitP50() {
+			return queueWaitP50;
+		}
+
+		/**
+		 * Gets the 99th percentile queue wait.
+		 *
+		 * @return The p99 in milliseconds.
+		 */
+		public double getQueueWaitP99() {
+			return queueWaitP99;
+		}
+
+		/**
+		 * Gets the 99.9th percentile queue wait.
+		 *
+		 * @return The p999 in milliseconds.
+		 */
+		public double getQueueWaitP999() {
+			return queueWaitP999;
+		}
+
+		/**
+		 * Gets the median latency, from submission until finished.
+		 *
+		 * @return The p50 in milliseconds.
+		 */
+		public double getP50() {
+			return p50;
+		}
+
+		/**
+		 * Gets the 99th percentile latency, from submission until finished.
+		 *
+		 * @return The p99 in milliseconds.
+		 */
+		public double getP99() {
+			return p99;
+		}
+
+		/**
+		 * Gets the 99.9th percentile latency, from submission until finished.
+		 *
+		 * @return The p999 in milliseconds.
+		 */
+		public double getP999() {
+			return p999;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package us.nullbytes.rcscript.execution;
+
+import us.nullbytes.rcscript.ScriptManager;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Factories for the {@link java.util.concurrent.Executor}s running async script calls.
+ *
+ * @author Corey Shupe
+ */
+public final class ScriptExecutors {
+
+	/**
+	 * The {@link Function} creating a virtual {@link ThreadFactory} from a name, or null if virtual
+	 * threads are unsupported.
+	 */
+	private final static Function<String, ThreadFactory> VIRTUAL_THREAD_FACTORY = findVirtualThreadFactory();
+
+	/**
+	 * Prevents initialization.
+	 */
+	private ScriptExecutors() {
+	}
+
+	/**
+	 * Creates the default {@link ExecutorService} of a {@link ScriptManager}: one daemon thread per
+	 * core, with idle threads stopping after a minute.
+	 *
+	 * @param name
+	 * 		The name prefixed to every thread.
+	 *
+	 * @return The created {@link ExecutorService}.
+	 */
+	public static ExecutorService newDefaultExecutor(String name) {
+		int cores = Runtime.getRuntime().availableProcessors();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(cores, cores, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), daemonThreadFactory(name));
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Creates a {@link FairScheduler} sharing a new default {@link ExecutorService} by weight, see
+	 * {@link #newDefaultExecutor(String)}.
+	 *
+	 * @param name
+	 * 		The name prefixed to every thread.
+	 *
+	 * @return The created {@link FairScheduler}.
+	 */
+	public static FairScheduler newFairScheduler(String name) {
+		return new FairScheduler(newDefaultExecutor(name), Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates an {@link ExecutorService} starting one virtual thread per call, so calls blocking on
+	 * I/O never hold a platform thread. On a JVM without virtual threads a new daemon platform
+	 * thread is started per call instead, see {@link #supportsVirtualThreads()}.
+	 *
+	 * @param name
+	 * 		The name prefixed to every thread.
+	 *
+	 * @return The created {@link ExecutorService}.
+	 */
+	public static ExecutorService newVirtualThreadExecutor(String name) {
+		ThreadFactory factory = VIRTUAL_THREAD_FACTORY == null ? null : VIRTUAL_THREAD_FACTORY.apply(name);
+		if (factory == null) return Executors.newCachedThreadPool(daemonThreadFactory(name));
+		try {
+			return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+		} catch (ReflectiveOperationException ex) {
+			return Executors.newCachedThreadPool(factory);
+		}
+	}
+
+	/**
+	 * Checks if this JVM supports virtual threads.
+	 *
+	 * @return True if {@link #newVirtualThreadExecutor(String)} uses virtual threads.
+	 */
+	public static boolean supportsVirtualThreads() {
+		return VIRTUAL_THREAD_FACTORY != null;
+	}
+
+	/**
+	 * Finds a way to create factories of named virtual threads, through reflection as they need a
+	 * newer JVM than this library is compiled for.
+	 *
+	 * @return The {@link Function} creating a virtual {@link ThreadFactory} from a name, or null if
+	 * unsupported.
+	 */
+	private static Function<String, ThreadFactory> findVirtualThreadFactory() {
+		try {
+			Method ofVirtual = Thread.class.getMethod("ofVirtual");
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Method naming = builderClass.getMethod("name", String.class, long.class);
+			Method factory = builderClass.getMethod("factory");
+			return name -> {
+				try {
+					return (ThreadFactory) factory.invoke(naming.invoke(ofVirtual.invoke(null), name + '-', 1L));
+				} catch (ReflectiveOperationException ex) {
+					return null;
+				}
+			};
+		} catch (ReflectiveOperationException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a {@link ThreadFactory} of numbered daemon threads, so running scripts never keep
+	 * the JVM alive.
+	 *
+	 * @param name
+	 * 		The name prefixed to every thread.
+	 *
+	 * @return The created {@link ThreadFactory}.
+	 */
+	public static ThreadFactory daemonThreadFactory(String name) {
+		AtomicInteger count = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, name + '-' + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+}
@@ -0,0 +1,128 @@
+package us.nullbytes.rcscript.execution;
+
+import us.nullbytes.rcscript.Script;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A serial {@link Executor} layered on a shared one, like the mailbox of an actor: the calls of a
+ * single {@link Script} run one at a time and in order, while the calls of other {@link Script}s
+ * still run in parallel on the shared {@link Executor}. No thread ever blocks waiting for its
+ * turn; a queued call is only handed to the shared {@link Executor} once the previous one
+ * finished.
+ * <p>
+ * Each call is handed over separately, so calls of different mailboxes interleave fairly and a
+ * thread interrupted by the {@link ScriptWatchdog} never runs the next call.
+ *
+ * @author Corey Shupe
+ */
+public final class ScriptMailbox implements Executor {
+
+	/**
+	 * The shared {@link Executor} running the calls.
+	 */
+	private final Executor executor;
+
+	/**
+	 * The calls waiting to run.
+	 */
+	private final Queue<Runnable> calls = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * The amount of queued calls plus the running one. Whoever raises it from zero hands the next
+	 * call to the {@link #executor}.
+	 */
+	private final AtomicInteger depth = new AtomicInteger();
+
+	/**
+	 * Initializes a new {@link ScriptMailbox}.
+	 *
+	 * @param executor
+	 * 		The shared {@link Executor} running the calls.
+	 */
+	public ScriptMailbox(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The call runs once every call queued before it finished.
+	 *
+	 * @throws RejectedExecutionException
+	 * 		When the shared {@link Executor} rejects the call while the mailbox was idle.
+	 */
+	@Override
+	public void execute(Runnable call) {
+		calls.add(call);
+		if (depth.getAndIncrement() != 0) return;
+		try {
+			executor.execute(this::runNext);
+		} catch (RejectedExecutionException ex) {
+			// calls queued meanwhile by other threads still wait for this one
+			calls.remove(call);
+			if (depth.decrementAndGet() > 0 && !handOff()) drain();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Runs the head of the queue, then hands the next call to the {@link #executor}.
+	 */
+	private void runNext() {
+		try {
+			calls.poll().run();
+		} finally {
+			if (depth.decrementAndGet() > 0 && !handOff()) drain();
+		}
+	}
+
+	/**
+	 * Hands the next call to the {@link #executor}.
+	 *
+	 * @return True if handed over, false if rejected.
+	 */
+	private boolean handOff() {
+		try {
+			executor.execute(this::runNext);
+			return true;
+		} catch (RejectedExecutionException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Runs every queued call in the current thread, in order, once the {@link #executor} rejected
+	 * the next one, so that the calls queued behind it are not stranded.
+	 */
+	private void drain() {
+		do {
+			try {
+				calls.poll().run();
+			} catch (RuntimeException ex) {
+				ex.printStackTrace();
+			}
+		} while (depth.decrementAndGet() > 0);
+	}
+
+	/**
+	 * Gets the shared {@link Executor} running the calls.
+	 *
+	 * @return The shared {@link Executor}.
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Gets the amount of calls queued or running.
+	 *
+	 * @return The depth of the mailbox.
+	 */
+	public int getDepth() {
+		return depth.get();
+	}
+}
@@ -0,0 +1,66 @@
+package us.nullbytes.rcscript.execution;
+
+import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptManager.RejectionPolicy;
+
+import javax.script.ScriptException;
+
+/**
+ * Completes the future of an async {@link Script} call which was not admitted, or which was shed
+ * while waiting, as its {@link AdmissionQueue} was full.
+ *
+ * @author Corey Shupe
+ * @see AdmissionQueue
+ */
+public class ScriptOverloadException extends ScriptException {
+
+	/**
+	 * The serialization version.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The capacity of the full {@link AdmissionQueue}.
+	 */
+	private final int capacity;
+
+	/**
+	 * Whether or not the call was shed after being admitted.
+	 */
+	private final boolean shed;
+
+	/**
+	 * Initializes a new {@link ScriptOverloadException}.
+	 *
+	 * @param capacity
+	 * 		The capacity of the full {@link AdmissionQueue}.
+	 * @param shed
+	 * 		Whether or not the call was shed after being admitted, see {@link
+	 * 		RejectionPolicy#SHED_OLDEST}.
+	 */
+	public ScriptOverloadException(int capacity, boolean shed) {
+		super(shed ?
+				"The script call was shed for a newer call, as " + capacity + " calls were already waiting." :
+				"The script call was rejected, as " + capacity + " calls were already waiting.");
+		this.capacity = capacity;
+		this.shed = shed;
+	}
+
+	/**
+	 * Gets the capacity of the full {@link AdmissionQueue}.
+	 *
+	 * @return The maximum amount of waiting calls.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Checks if the call was shed after being admitted, rather than rejected on arrival.
+	 *
+	 * @return True if shed.
+	 */
+	public boolean isShed() {
+		return shed;
+	}
+}
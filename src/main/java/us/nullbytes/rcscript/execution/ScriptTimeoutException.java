@@ -0,0 +1,45 @@
+package us.nullbytes.rcscript.execution;
+
+import us.nullbytes.rcscript.Script;
+
+import javax.script.ScriptException;
+import java.time.Duration;
+
+/**
+ * Completes the future of an async {@link Script} call which overran its deadline.
+ *
+ * @author Corey Shupe
+ * @see Script#setDeadline(Duration)
+ */
+public class ScriptTimeoutException extends ScriptException {
+
+	/**
+	 * The serialization version.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The deadline which was overrun.
+	 */
+	private final Duration deadline;
+
+	/**
+	 * Initializes a new {@link ScriptTimeoutException}.
+	 *
+	 * @param deadline
+	 * 		The deadline which was overrun.
+	 */
+	public ScriptTimeoutException(Duration deadline) {
+		super("The script call did not complete within " + deadline.toMillis() + "ms.");
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Gets the deadline which was overrun.
+	 *
+	 * @return The deadline.
+	 */
+	public Duration getDeadline() {
+		return deadline;
+	}
+}
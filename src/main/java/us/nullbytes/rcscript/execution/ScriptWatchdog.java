@@ -0,0 +1,235 @@
+package us.nullbytes.rcscript.execution;
+
+import us.nullbytes.rcscript.ScriptManager.TerminationMode;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Enforces the deadlines of async script calls. A single daemon thread shared by every manager
+ * fires at each deadline: a call still queued is dropped, and a call still running has its future
+ * completed with a {@link ScriptTimeoutException} and its thread interrupted. A call still running
+ * after a grace period has its engine quarantined, and its thread stopped if the {@link
+ * TerminationMode} allows. Nothing slower than an interrupt runs on the watchdog thread.
+ *
+ * @author Corey Shupe
+ */
+public final class ScriptWatchdog {
+
+	/**
+	 * The time a running call gets to react to an interrupt before its engine is quarantined and
+	 * its thread stopped.
+	 */
+	private final static long GRACE_MILLIS = 100;
+
+	/**
+	 * The {@link ScheduledThreadPoolExecutor} firing every deadline.
+	 */
+	private final static ScheduledThreadPoolExecutor TIMER = newTimer();
+
+	/**
+	 * Prevents initialization.
+	 */
+	private ScriptWatchdog() {
+	}
+
+	/**
+	 * Watches a call, which should be run through {@link Watch#run(Supplier)}.
+	 *
+	 * @param future
+	 * 		The {@link CompletableFuture} of the call.
+	 * @param deadline
+	 * 		The deadline, counted from now.
+	 * @param mode
+	 * 		The {@link TerminationMode} of an overdue call.
+	 * @param quarantine
+	 * 		The {@link Consumer} notified on the watchdog thread with the thread of a call still
+	 * 		running after the grace period, to quarantine the engine it runs on. It must hand any
+	 * 		slow work to another thread.
+	 * @param <T>
+	 * 		The return type of the call.
+	 *
+	 * @return The {@link Watch} of the call.
+	 */
+	public static <T> Watch<T> watch(CompletableFuture<T> future, Duration deadline, TerminationMode mode, Consumer<Thread> quarantine) {
+		Watch<T> watch = new Watch<>(future, deadline, mode, quarantine);
+		watch.timer = TIMER.schedule(watch::expire, deadline.toNanos(), TimeUnit.NANOSECONDS);
+		future.whenComplete((result, ex) -> {
+			if (future.isCancelled()) watch.interrupt();
+		});
+		return watch;
+	}
+
+	/**
+	 * Creates the {@link ScheduledThreadPoolExecutor} firing every deadline.
+	 *
+	 * @return The created {@link ScheduledThreadPoolExecutor}.
+	 */
+	private static ScheduledThreadPoolExecutor newTimer() {
+		ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, ScriptExecutors.daemonThreadFactory("rcscript-watchdog"));
+		timer.setRemoveOnCancelPolicy(true);
+		return timer;
+	}
+
+	/**
+	 * Stops a thread, if this JVM still supports it.
+	 *
+	 * @param thread
+	 * 		The {@link Thread} to stop.
+	 */
+	@SuppressWarnings("deprecation")
+	private static void stop(Thread thread) {
+		try {
+			thread.stop();
+		} catch (UnsupportedOperationException | SecurityException ex) {
+			// Only the interrupt remains.
+		}
+	}
+
+	/**
+	 * The watched state of a single call.
+	 *
+	 * @param <T>
+	 * 		The return type of the call.
+	 */
+	public static final class Watch<T> {
+
+		/**
+		 * The {@link CompletableFuture} of the call.
+		 */
+		private final CompletableFuture<T> future;
+
+		/**
+		 * The deadline of the call.
+		 */
+		private final Duration deadline;
+
+		/**
+		 * The {@link TerminationMode} of an overdue call.
+		 */
+		private final TerminationMode mode;
+
+		/**
+		 * The {@link Consumer} notified with the thread of a call still running after the grace
+		 * period.
+		 */
+		private final Consumer<Thread> quarantine;
+
+		/**
+		 * The {@link ScheduledFuture} firing at the deadline.
+		 */
+		private volatile ScheduledFuture<?> timer;
+
+		/**
+		 * The {@link Thread} running the call, or null if not running.
+		 */
+		private Thread runner = null;
+
+		/**
+		 * Whether or not the call finished running, or was dropped before.
+		 */
+		private boolean finished = false;
+
+		/**
+		 * Whether or not the thread of the call was interrupted.
+		 */
+		private boolean interrupted = false;
+
+		/**
+		 * Initializes a new {@link Watch}.
+		 *
+		 * @param future
+		 * 		The {@link CompletableFuture} of the call.
+		 * @param deadline
+		 * 		The deadline of the call.
+		 * @param mode
+		 * 		The {@link TerminationMode} of an overdue call.
+		 * @param quarantine
+		 * 		The {@link Consumer} notified with the thread of a call still running after the grace
+		 * 		period.
+		 */
+		private Watch(CompletableFuture<T> future, Duration deadline, TerminationMode mode, Consumer<Thread> quarantine) {
+			this.future = future;
+			this.deadline = deadline;
+			this.mode = mode;
+			this.quarantine = quarantine;
+		}
+
+		/**
+		 * Runs the call on the current thread and completes its future, unless it already
+		 * completed while queued.
+		 *
+		 * @param call
+		 * 		The {@link Supplier} of the call.
+		 */
+		public void run(Supplier<T> call) {
+			synchronized (this) {
+				if (finished || future.isDone()) {
+					finished = true;
+					return;
+				}
+				runner = Thread.currentThread();
+			}
+			try {
+				future.complete(call.get());
+			} catch (Throwable ex) {
+				future.completeExceptionally(ex);
+			} finally {
+				boolean clear;
+				synchronized (this) {
+					finished = true;
+					runner = null;
+					clear = interrupted;
+				}
+				timer.cancel(false);
+				if (clear) Thread.interrupted();
+			}
+		}
+
+		/**
+		 * Completes the call with a {@link ScriptTimeoutException} at its deadline, interrupting
+		 * its thread if running. A call ignoring the interrupt is terminated after the grace
+		 * period.
+		 */
+		private void expire() {
+			if (!future.completeExceptionally(new ScriptTimeoutException(deadline))) return;
+			Thread runner = interrupt();
+			if (runner == null) return;
+			TIMER.schedule(() -> terminate(runner), GRACE_MILLIS, TimeUnit.MILLISECONDS);
+		}
+
+		/**
+		 * Quarantines the engine of a call still running after the grace period, then stops its
+		 * thread if the {@link TerminationMode} allows.
+		 *
+		 * @param runner
+		 * 		The {@link Thread} interrupted at the deadline.
+		 */
+		private synchronized void terminate(Thread runner) {
+			if (finished || this.runner != runner) return;
+			quarantine.accept(runner);
+			if (mode == TerminationMode.STOP) stop(runner);
+		}
+
+		/**
+		 * Interrupts the thread of the call if running, or drops the call if still queued.
+		 *
+		 * @return The interrupted {@link Thread}, or null if not running.
+		 */
+		private synchronized Thread interrupt() {
+			if (finished) return null;
+			if (runner == null) {
+				finished = true;
+				return null;
+			}
+			interrupted = true;
+			runner.interrupt();
+			return runner;
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package us.nullbytes.rcscript.expression;
+
+import javax.script.ScriptException;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The functions available to every expression unless a script defines its own of the same name:
+ * {@code eval}, {@code print}, {@code abs}, {@code min}, {@code max}, {@code pow}, {@code sqrt},
+ * {@code floor}, {@code ceil} and {@code round}.
+ *
+ * @author Corey Shupe
+ */
+final class BuiltIns {
+
+	/**
+	 * The {@link BuiltIn}s by name.
+	 */
+	private final static Map<String, BuiltIn> BUILT_INS = new HashMap<>();
+
+	static {
+		BUILT_INS.put("eval", BuiltIns::eval);
+		BUILT_INS.put("print", BuiltIns::print);
+		BUILT_INS.put("abs", (frame, args, line) -> {
+			Number value = Operations.number(argument(args, 0), "abs", line);
+			if (!Operations.isWhole(value)) return Math.abs(value.doubleValue());
+			return value.longValue() < 0 ? Operations.negate(value, line) : value;
+		});
+		BUILT_INS.put("min", (frame, args, line) -> extreme(args, line, "min", -1));
+		BUILT_INS.put("max", (frame, args, line) -> extreme(args, line, "max", 1));
+		BUILT_INS.put("pow", (frame, args, line) -> {
+			Number base = Operations.number(argument(args, 0), "pow", line);
+			Number exponent = Operations.number(argument(args, 1), "pow", line);
+			double result = Math.pow(base.doubleValue(), exponent.doubleValue());
+			if (Operations.isWhole(base) && Operations.isWhole(exponent) && exponent.longValue() >= 0 &&
+					Math.abs(result) < 0x1p53) {
+				return Operations.narrow((long) result);
+			}
+			return result;
+		});
+		BUILT_INS.put("sqrt", (frame, args, line) -> Math.sqrt(Operations.number(argument(args, 0), "sqrt", line).doubleValue()));
+		BUILT_INS.put("floor", (frame, args, line) -> whole(Math.floor(Operations.number(argument(args, 0), "floor", line).doubleValue())));
+		BUILT_INS.put("ceil", (frame, args, line) -> whole(Math.ceil(Operations.number(argument(args, 0), "ceil", line).doubleValue())));
+		BUILT_INS.put("round", (frame, args, line) -> whole(Math.floor(Operations.number(argument(args, 0), "round", line).doubleValue() + 0.5)));
+	}
+
+	/**
+	 * Prevents initialization.
+	 */
+	private BuiltIns() {
+	}
+
+	/**
+	 * Gets a built-in function.
+	 *
+	 * @param name
+	 * 		The name of the function.
+	 *
+	 * @return The {@link BuiltIn}, or null if none is named so.
+	 */
+	static BuiltIn get(String name) {
+		return BUILT_INS.get(name);
+	}
+
+	/**
+	 * Evaluates a {@link String} as a script in the same global scope, or returns any other value
+	 * as is, so {@code eval(1 + 4)} is simply 5.
+	 *
+	 * @param frame
+	 * 		The {@link Frame} of the call.
+	 * @param args
+	 * 		The arguments of the call.
+	 * @param line
+	 * 		The line of the call, for failures.
+	 *
+	 * @return The value of the script, or the argument.
+	 */
+	private static Object eval(Frame frame, Object[] args, int line) {
+		Object value = argument(args, 0);
+		if (!(value instanceof CharSequence)) return value;
+		try {
+			return ExpressionParser.parse(value.toString(), null).evaluate(new Frame(frame.context, Frame.NO_LOCALS));
+		} catch (ScriptException ex) {
+			throw new EvaluationException(ex);
+		}
+	}
+
+	/**
+	 * Writes every argument to the writer of the {@link javax.script.ScriptContext}, separated by
+	 * spaces and followed by a line break.
+	 *
+	 * @param frame
+	 * 		The {@link Frame} of the call.
+	 * @param args
+	 * 		The arguments of the call.
+	 * @param line
+	 * 		The line of the call, for failures.
+	 *
+	 * @return Null.
+	 */
+	private static Object print(Frame frame, Object[] args, int line) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < args.length; i++) {
+			if (i > 0) builder.append(' ');
+			builder.append(Operations.toString(args[i]));
+		}
+		Writer writer = frame.context.getWriter();
+		try {
+			writer.write(builder.append(System.lineSeparator()).toString());
+			writer.flush();
+		} catch (IOException ex) {
+			throw new EvaluationException("Failed to print: " + ex.getMessage(), line);
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the smallest or largest number of the arguments.
+	 *
+	 * @param args
+	 * 		The arguments of the call, at least one.
+	 * @param line
+	 * 		The line of the call, for failures.
+	 * @param name
+	 * 		The name of the function, for failures.
+	 * @param sign
+	 * 		-1 to find the smallest, 1 to find the largest.
+	 *
+	 * @return The smallest or largest number, or NaN if any is NaN.
+	 */
+	private static Object extreme(Object[] args, int line, String name, int sign) {
+		if (args.length == 0) throw new EvaluationException(name + " needs at least one argument.", line);
+		Number extreme = Operations.number(args[0], name, line);
+		for (int i = 1; i < args.length; i++) {
+			Number value = Operations.number(args[i], name, line);
+			Integer comparison = Operations.compare(value, extreme, name, line);
+			if (comparison == null) return Double.NaN;
+			if (Integer.signum(comparison) == sign) extreme = value;
+		}
+		return extreme;
+	}
+
+	/**
+	 * Converts a rounded {@code double} to a whole number if it fits into a {@code long}.
+	 *
+	 * @param value
+	 * 		The rounded value.
+	 *
+	 * @return The value as an {@link Integer} or {@link Long}, or as is if too large or NaN.
+	 */
+	private static Object whole(double value) {
+		if (Math.abs(value) < 0x1p63) return Operations.narrow((long) value);
+		return value;
+	}
+
+	/**
+	 * Gets an argument of a call.
+	 *
+	 * @param args
+	 * 		The arguments of the call.
+	 * @param index
+	 * 		The index of the argument.
+	 *
+	 * @return The argument, or null if not passed.
+	 */
+	private static Object argument(Object[] args, int index) {
+		return index < args.length ? args[index] : null;
+	}
+
+	/**
+	 * A built-in function.
+	 */
+	@FunctionalInterface
+	interface BuiltIn {
+
+		/**
+		 * Calls the function.
+		 *
+		 * @param frame
+		 * 		The {@link Frame} of the call.
+		 * @param args
+		 * 		The arguments of the call.
+		 * @param line
+		 * 		The line of the call, for failures.
+		 *
+		 * @return The return value of the function.
+		 *
+		 * @throws EvaluationException
+		 * 		When the function fails.
+		 */
+		Object call(Frame frame, Object[] args, int line);
+	}
+}
@@ -0,0 +1,62 @@
+package us.nullbytes.rcscript.expression;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+/**
+ * An expression script compiled into a tree of {@link Node}s. It holds no state of its own, so it
+ * may be evaluated in any {@link ScriptContext}, by any thread.
+ *
+ * @author Corey Shupe
+ */
+final class CompiledExpression extends CompiledScript {
+
+	/**
+	 * The {@link ExpressionEngine} which compiled the script.
+	 */
+	private final ExpressionEngine engine;
+
+	/**
+	 * The {@link Node} of the script.
+	 */
+	private final Node program;
+
+	/**
+	 * The name of the compiled file for failures, or null.
+	 */
+	private final String fileName;
+
+	/**
+	 * Initializes a new {@link CompiledExpression}.
+	 *
+	 * @param engine
+	 * 		The {@link ExpressionEngine} which compiled the script.
+	 * @param program
+	 * 		The {@link Node} of the script.
+	 * @param fileName
+	 * 		The name of the compiled file for failures, or null.
+	 */
+	CompiledExpression(ExpressionEngine engine, Node program, String fileName) {
+		this.engine = engine;
+		this.program = program;
+		this.fileName = fileName;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object eval(ScriptContext context) throws ScriptException {
+		return program.run(context, fileName);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptEngine getEngine() {
+		return engine;
+	}
+}
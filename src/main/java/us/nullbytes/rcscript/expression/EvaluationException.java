@@ -0,0 +1,67 @@
+package us.nullbytes.rcscript.expression;
+
+import javax.script.ScriptException;
+
+/**
+ * The failure of an expression while evaluating, converted to a {@link ScriptException} once it
+ * leaves the engine. Thrown often in scripts relying on it, so no stack trace is recorded.
+ *
+ * @author Corey Shupe
+ */
+final class EvaluationException extends RuntimeException {
+
+	/**
+	 * The serialization version.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The line of the failed expression, or -1 if unknown.
+	 */
+	private final int line;
+
+	/**
+	 * The {@link ScriptException} of a nested evaluation, or null.
+	 */
+	private final ScriptException nested;
+
+	/**
+	 * Initializes a new {@link EvaluationException}.
+	 *
+	 * @param message
+	 * 		The description of the failure.
+	 * @param line
+	 * 		The line of the failed expression, or -1 if unknown.
+	 */
+	EvaluationException(String message, int line) {
+		super(message, null, false, false);
+		this.line = line;
+		this.nested = null;
+	}
+
+	/**
+	 * Initializes a new {@link EvaluationException} carrying the failure of a nested evaluation,
+	 * such as a source passed to {@code eval}.
+	 *
+	 * @param nested
+	 * 		The {@link ScriptException} of the nested evaluation.
+	 */
+	EvaluationException(ScriptException nested) {
+		super(nested.getMessage(), nested, false, false);
+		this.line = nested.getLineNumber();
+		this.nested = nested;
+	}
+
+	/**
+	 * Converts this failure to a {@link ScriptException}.
+	 *
+	 * @param fileName
+	 * 		The name of the evaluated file, or null.
+	 *
+	 * @return The {@link ScriptException}.
+	 */
+	ScriptException toScriptException(String fileName) {
+		if (nested != null) return nested;
+		return new ScriptException(getMessage(), fileName, line);
+	}
+}
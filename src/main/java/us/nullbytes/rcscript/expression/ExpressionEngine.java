@@ -0,0 +1,213 @@
+package us.nullbytes.rcscript.expression;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.Invocable;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+
+/**
+ * A lightweight {@link ScriptEngine} for arithmetic, comparisons, boolean logic, variables of the
+ * {@link Bindings} and simple functions, in a subset of JavaScript described by {@link
+ * ExpressionParser}. Scripts compile into trees of closures, which are evaluated without any
+ * reflection and hold no state, so a compiled script is shared freely between engines and
+ * threads.
+ * <p>
+ * Functions are stored in the engine scope as {@link ExpressionFunction}s. Numbers stay {@link
+ * Integer}s while they fit, so {@code 1 + 4} is the {@link Integer} 5.
+ *
+ * @author Corey Shupe
+ * @see ExpressionEngineFactory
+ */
+public final class ExpressionEngine extends AbstractScriptEngine implements Compilable, Invocable {
+
+	/**
+	 * The {@link ExpressionEngineFactory} which created the engine.
+	 */
+	private final ExpressionEngineFactory factory;
+
+	/**
+	 * Initializes a new {@link ExpressionEngine}.
+	 *
+	 * @param factory
+	 * 		The {@link ExpressionEngineFactory} which created the engine.
+	 */
+	ExpressionEngine(ExpressionEngineFactory factory) {
+		this.factory = factory;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object eval(String script, ScriptContext context) throws ScriptException {
+		return compile(script, fileName(context)).eval(context);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+		return compile(read(reader), fileName(context)).eval(context);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Bindings createBindings() {
+		return new SimpleBindings();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptEngineFactory getFactory() {
+		return factory;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CompiledScript compile(String script) throws ScriptException {
+		return compile(script, fileName(getContext()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CompiledScript compile(Reader script) throws ScriptException {
+		return compile(read(script), fileName(getContext()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invokeMethod(Object thiz, String name, Object... args) {
+		throw new IllegalArgumentException("Expressions have no objects with methods.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invokeFunction(String name, Object... args) throws ScriptException, NoSuchMethodException {
+		Object function = getContext().getAttribute(name);
+		if (function instanceof ExpressionFunction) return ((ExpressionFunction) function).call(args);
+		if (function != null) throw new NoSuchMethodException(name + " is not a function.");
+		BuiltIns.BuiltIn builtIn = BuiltIns.get(name);
+		if (builtIn == null) throw new NoSuchMethodException(name);
+		try {
+			return builtIn.call(new Frame(getContext(), Frame.NO_LOCALS), args, -1);
+		} catch (EvaluationException ex) {
+			throw ex.toScriptException(null);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> T getInterface(Class<T> clasz) {
+		if (clasz == null || !clasz.isInterface()) throw new IllegalArgumentException("Expected an interface.");
+		ScriptContext context = getContext();
+		for (Method method : clasz.getMethods()) {
+			if (Modifier.isAbstract(method.getModifiers()) && !(context.getAttribute(method.getName()) instanceof ExpressionFunction)) {
+				return null;
+			}
+		}
+		return clasz.cast(Proxy.newProxyInstance(clasz.getClassLoader(), new Class<?>[]{clasz}, (proxy, method, args) -> {
+			if (method.getDeclaringClass() == Object.class) {
+				switch (method.getName()) {
+					case "equals":
+						return proxy == args[0];
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					default:
+						return clasz.getName() + "@rcexpr";
+				}
+			}
+			Object function = context.getAttribute(method.getName());
+			if (!(function instanceof ExpressionFunction)) throw new NoSuchMethodException(method.getName());
+			return ((ExpressionFunction) function).call(args == null ? new Object[0] : args);
+		}));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> T getInterface(Object thiz, Class<T> clasz) {
+		throw new IllegalArgumentException("Expressions have no objects with methods.");
+	}
+
+	/**
+	 * Compiles a script.
+	 *
+	 * @param script
+	 * 		The source of the script.
+	 * @param fileName
+	 * 		The name of the compiled file for failures, or null.
+	 *
+	 * @return The {@link CompiledExpression}.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private CompiledExpression compile(String script, String fileName) throws ScriptException {
+		return new CompiledExpression(this, ExpressionParser.parse(script, fileName), fileName);
+	}
+
+	/**
+	 * Gets the name of the evaluated file from a {@link ScriptContext}.
+	 *
+	 * @param context
+	 * 		The {@link ScriptContext}.
+	 *
+	 * @return The value of {@link ScriptEngine#FILENAME}, or null.
+	 */
+	private static String fileName(ScriptContext context) {
+		Object fileName = context.getAttribute(ScriptEngine.FILENAME);
+		return fileName == null ? null : fileName.toString();
+	}
+
+	/**
+	 * Reads a script completely.
+	 *
+	 * @param reader
+	 * 		The {@link Reader} of the script.
+	 *
+	 * @return The source of the script.
+	 *
+	 * @throws ScriptException
+	 * 		When the script couldn't be read.
+	 */
+	private static String read(Reader reader) throws ScriptException {
+		StringBuilder builder = new StringBuilder();
+		char[] buffer = new char[4096];
+		try {
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				builder.append(buffer, 0, read);
+			}
+		} catch (IOException ex) {
+			throw new ScriptException(ex);
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,146 @@
+package us.nullbytes.rcscript.expression;
+
+import us.nullbytes.rcscript.cache.CompiledScriptCache;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import java.util.List;
+
+/**
+ * The {@link ScriptEngineFactory} of the {@link ExpressionEngine}, discovered under the name
+ * {@code rcexpr}, so {@code DefaultScriptManager.processEngine("rcexpr")} works without any
+ * engine on the class path.
+ *
+ * @author Corey Shupe
+ */
+public final class ExpressionEngineFactory implements ScriptEngineFactory {
+
+	/**
+	 * The names of the engine.
+	 */
+	private final static List<String> NAMES = List.of("rcexpr", "RCExpr");
+
+	/**
+	 * The file extensions of the engine.
+	 */
+	private final static List<String> EXTENSIONS = List.of("rcexpr");
+
+	/**
+	 * The MIME types of the engine.
+	 */
+	private final static List<String> MIME_TYPES = List.of("application/x-rcexpr", "text/x-rcexpr");
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getEngineName() {
+		return "RCScript Expressions";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getEngineVersion() {
+		return "1.0";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<String> getExtensions() {
+		return EXTENSIONS;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<String> getMimeTypes() {
+		return MIME_TYPES;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<String> getNames() {
+		return NAMES;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getLanguageName() {
+		return "rcexpr";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getLanguageVersion() {
+		return "1.0";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Compiled scripts hold no state, so the factory also sets the {@link
+	 * CompiledScriptCache#PORTABLE_PARAMETER}.
+	 */
+	@Override
+	public Object getParameter(String key) {
+		switch (key) {
+			case ScriptEngine.ENGINE:
+				return getEngineName();
+			case ScriptEngine.ENGINE_VERSION:
+				return getEngineVersion();
+			case ScriptEngine.NAME:
+				return NAMES.get(0);
+			case ScriptEngine.LANGUAGE:
+				return getLanguageName();
+			case ScriptEngine.LANGUAGE_VERSION:
+				return getLanguageVersion();
+			case CompiledScriptCache.PORTABLE_PARAMETER:
+				return Boolean.TRUE;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getMethodCallSyntax(String obj, String m, String... args) {
+		return m + '(' + String.join(", ", args) + ')';
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getOutputStatement(String toDisplay) {
+		return "print(\"" + toDisplay.replace("\\", "\\\\").replace("\"", "\\\"") + "\")";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getProgram(String... statements) {
+		return String.join(";\n", statements) + ';';
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptEngine getScriptEngine() {
+		return new ExpressionEngine(this);
+	}
+}
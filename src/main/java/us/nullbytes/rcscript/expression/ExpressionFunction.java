@@ -0,0 +1,129 @@
+package us.nullbytes.rcscript.expression;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptException;
+import java.util.List;
+
+/**
+ * A function defined by an expression script, stored under its name in the engine scope of the
+ * {@link ScriptContext} it was defined in. Its global variables are always those of that {@link
+ * ScriptContext}, wherever it's called from.
+ *
+ * @author Corey Shupe
+ * @see ExpressionEngine
+ */
+public final class ExpressionFunction {
+
+	/**
+	 * The name of the function.
+	 */
+	private final String name;
+
+	/**
+	 * The names of the parameters.
+	 */
+	private final List<String> parameters;
+
+	/**
+	 * The amount of parameters and local variables.
+	 */
+	private final int localCount;
+
+	/**
+	 * The body of the function.
+	 */
+	private final Node body;
+
+	/**
+	 * The {@link ScriptContext} the function was defined in.
+	 */
+	private final ScriptContext context;
+
+	/**
+	 * Initializes a new {@link ExpressionFunction}.
+	 *
+	 * @param name
+	 * 		The name of the function.
+	 * @param parameters
+	 * 		The names of the parameters.
+	 * @param localCount
+	 * 		The amount of parameters and local variables.
+	 * @param body
+	 * 		The body of the function.
+	 * @param context
+	 * 		The {@link ScriptContext} the function was defined in.
+	 */
+	ExpressionFunction(String name, List<String> parameters, int localCount, Node body, ScriptContext context) {
+		this.name = name;
+		this.parameters = parameters;
+		this.localCount = localCount;
+		this.body = body;
+		this.context = context;
+	}
+
+	/**
+	 * Gets the name of the function.
+	 *
+	 * @return The name of the function.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the names of the parameters.
+	 *
+	 * @return An unmodifiable {@link List} of the names.
+	 */
+	public List<String> getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * Calls the function. Missing arguments are null, extra arguments are ignored.
+	 *
+	 * @param args
+	 * 		The arguments of the call.
+	 *
+	 * @return The returned value, or null if nothing was returned.
+	 *
+	 * @throws ScriptException
+	 * 		When the function fails.
+	 */
+	public Object call(Object... args) throws ScriptException {
+		try {
+			return invoke(args);
+		} catch (EvaluationException ex) {
+			throw ex.toScriptException(null);
+		} catch (StackOverflowError ex) {
+			throw new ScriptException("Too much recursion in " + name + '.');
+		}
+	}
+
+	/**
+	 * Calls the function from an evaluation, letting failures through.
+	 *
+	 * @param args
+	 * 		The arguments of the call.
+	 *
+	 * @return The returned value, or null if nothing was returned.
+	 *
+	 * @throws EvaluationException
+	 * 		When the function fails.
+	 */
+	Object invoke(Object[] args) {
+		Object[] locals = new Object[localCount];
+		System.arraycopy(args, 0, locals, 0, Math.min(args.length, parameters.size()));
+		Frame frame = new Frame(context, locals);
+		body.evaluate(frame);
+		return frame.result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "function " + name + '(' + String.join(", ", parameters) + ')';
+	}
+}
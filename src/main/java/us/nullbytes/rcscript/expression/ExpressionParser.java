@@ -0,0 +1,829 @@
+package us.nullbytes.rcscript.expression;
+
+import javax.script.ScriptException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles the source of an expression script into a tree of {@link Node}s. Parameters and local
+ * variables are resolved to slots here, and operations on constants are folded.
+ * <p>
+ * The language is a small subset of JavaScript: decimal and hexadecimal numbers, strings, {@code
+ * true}, {@code false} and {@code null}; the arithmetic, comparison and logical operators with
+ * their usual precedence, {@code ?:} and assignments; {@code var}, {@code if}, {@code else},
+ * {@code while} and {@code return}; and functions declared at the top level, which may be called
+ * before their declaration. Statements end with a {@code ;}, a line break, a {@code }} or the end
+ * of the script.
+ *
+ * @author Corey Shupe
+ */
+final class ExpressionParser {
+
+	/**
+	 * The end of the source.
+	 */
+	private final static int END = 0;
+
+	/**
+	 * A number literal.
+	 */
+	private final static int NUMBER = 1;
+
+	/**
+	 * A string literal.
+	 */
+	private final static int STRING = 2;
+
+	/**
+	 * A name or keyword.
+	 */
+	private final static int NAME = 3;
+
+	/**
+	 * An operator or punctuation.
+	 */
+	private final static int SYMBOL = 4;
+
+	/**
+	 * The operators and punctuation, longest first.
+	 */
+	private final static String[] SYMBOLS = {
+			"===", "!==", "==", "!=", "<=", ">=", "&&", "||", "+=", "-=", "*=", "/=", "%=",
+			"+", "-", "*", "/", "%", "<", ">", "!", "=", "(", ")", "{", "}", ",", ";", "?", ":"
+	};
+
+	/**
+	 * The source being compiled.
+	 */
+	private final String source;
+
+	/**
+	 * The name of the compiled file for failures, or null.
+	 */
+	private final String fileName;
+
+	/**
+	 * The position of the next character to read.
+	 */
+	private int position = 0;
+
+	/**
+	 * The line of the next character to read.
+	 */
+	private int line = 1;
+
+	/**
+	 * The position the line of the next character starts at.
+	 */
+	private int lineStart = 0;
+
+	/**
+	 * The type of the current token.
+	 */
+	private int type;
+
+	/**
+	 * The text of the current token, or its value if a literal.
+	 */
+	private Object token;
+
+	/**
+	 * The line of the current token.
+	 */
+	private int tokenLine;
+
+	/**
+	 * The column of the current token.
+	 */
+	private int tokenColumn;
+
+	/**
+	 * Whether or not a line break precedes the current token.
+	 */
+	private boolean lineBreak;
+
+	/**
+	 * The slots of the parameters and local variables of the function being compiled, or null at
+	 * the top level.
+	 */
+	private Map<String, Integer> locals = null;
+
+	/**
+	 * Initializes a new {@link ExpressionParser}.
+	 *
+	 * @param source
+	 * 		The source to compile.
+	 * @param fileName
+	 * 		The name of the compiled file for failures, or null.
+	 */
+	private ExpressionParser(String source, String fileName) {
+		this.source = source;
+		this.fileName = fileName;
+	}
+
+	/**
+	 * Compiles the source of an expression script.
+	 *
+	 * @param source
+	 * 		The source to compile.
+	 * @param fileName
+	 * 		The name of the compiled file for failures, or null.
+	 *
+	 * @return The {@link Node} of the script.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	static Node parse(String source, String fileName) throws ScriptException {
+		ExpressionParser parser = new ExpressionParser(source, fileName);
+		parser.next();
+		List<Node> functions = new ArrayList<>();
+		List<Node> statements = new ArrayList<>();
+		while (parser.type != END) {
+			if (parser.isName("function")) functions.add(parser.function());
+			else statements.add(parser.statement());
+		}
+		functions.addAll(statements);
+		return new Node.Block(functions.toArray(new Node[0]));
+	}
+
+	/**
+	 * Compiles a function declaration.
+	 *
+	 * @return The {@link Node.FunctionDeclaration}.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private Node function() throws ScriptException {
+		next();
+		String name = expectName();
+		expect("(");
+		locals = new HashMap<>();
+		List<String> parameters = new ArrayList<>();
+		if (!isSymbol(")")) {
+			do {
+				String parameter = expectName();
+				if (locals.containsKey(parameter)) throw error("Duplicate parameter " + parameter + '.');
+				locals.put(parameter, locals.size());
+				parameters.add(parameter);
+			} while (acceptSymbol(","));
+		}
+		expect(")");
+		if (!isSymbol("{")) throw error("Expected { but found " + describe() + '.');
+		Node body = statement();
+		int localCount = locals.size();
+		locals = null;
+		return new Node.FunctionDeclaration(name, Collections.unmodifiableList(parameters), localCount, body);
+	}
+
+	/**
+	 * Compiles a statement.
+	 *
+	 * @return The {@link Node} of the statement.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private Node statement() throws ScriptException {
+		if (acceptSymbol("{")) {
+			List<Node> statements = new ArrayList<>();
+			while (!acceptSymbol("}")) {
+				if (type == END) throw error("Expected } but found the end of the script.");
+				statements.add(statement());
+			}
+			return new Node.Block(statements.toArray(new Node[0]));
+		}
+		if (acceptSymbol(";")) return new Node.Declaration(null);
+		if (isName("function")) throw error("Functions can only be declared at the top level.");
+		if (isName("var") || isName("let") || isName("const")) return declaration();
+		if (isName("if")) {
+			next();
+			expect("(");
+			Node test = expression();
+			expect(")");
+			Node then = statement();
+			Node otherwise = null;
+			if (isName("else")) {
+				next();
+				otherwise = statement();
+			}
+			return new Node.Conditional(test, then, otherwise);
+		}
+		if (isName("while")) {
+			next();
+			expect("(");
+			Node test = expression();
+			expect(")");
+			return new Node.Loop(test, statement());
+		}
+		if (isName("return")) {
+			next();
+			Node value = isSymbol(";") || isSymbol("}") || type == END || lineBreak ? new Node.Literal(null) : expression();
+			endStatement();
+			return new Node.Return(value);
+		}
+		Node expression = expression();
+		endStatement();
+		return expression;
+	}
+
+	/**
+	 * Ends a statement at a {@code ;}, which is consumed, or before a line break, a {@code }} or the
+	 * end of the script.
+	 *
+	 * @throws ScriptException
+	 * 		When another token follows the statement on the same line.
+	 */
+	private void endStatement() throws ScriptException {
+		if (acceptSymbol(";") || isSymbol("}") || type == END || lineBreak) return;
+		throw error("Expected ; but found " + describe() + '.');
+	}
+
+	/**
+	 * Compiles a variable declaration. Inside of a function the variables are local from here on,
+	 * at the top level they are global.
+	 *
+	 * @return The {@link Node.Declaration}.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private Node declaration() throws ScriptException {
+		next();
+		List<Node> declarations = new ArrayList<>();
+		do {
+			String name = expectName();
+			Node value = acceptSymbol("=") ? assignment() : null;
+			if (locals != null) {
+				Integer slot = locals.get(name);
+				if (slot == null) {
+					slot = locals.size();
+					locals.put(name, slot);
+				}
+				if (value != null) declarations.add(new Node.LocalAssignment(slot, value));
+			} else {
+				declarations.add(value == null ? new Node.GlobalDeclaration(name) : new Node.GlobalAssignment(name, value));
+			}
+		} while (acceptSymbol(","));
+		endStatement();
+		if (declarations.isEmpty()) return new Node.Declaration(null);
+		return new Node.Declaration(declarations.size() == 1 ? declarations.get(0) : new Node.Block(declarations.toArray(new Node[0])));
+	}
+
+	/**
+	 * Compiles an expression.
+	 *
+	 * @return The {@link Node} of the expression.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private Node expression() throws ScriptException {
+		return assignment();
+	}
+
+	/**
+	 * Compiles an assignment, or a conditional if no assignment follows.
+	 *
+	 * @return The {@link Node} of the expression.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private Node assignment() throws ScriptException {
+		Node target = conditional();
+		if (type != SYMBOL) return target;
+		String symbol = (String) token;
+		Node.Operator compound;
+		switch (symbol) {
+			case "=":
+				compound = null;
+				break;
+			case "+=":
+				compound = Node.Operator.ADD;
+				break;
+			case "-=":
+				compound = Node.Operator.SUBTRACT;
+				break;
+			case "*=":
+				compound = Node.Operator.MULTIPLY;
+				break;
+			case "/=":
+				compound = Node.Operator.DIVIDE;
+				break;
+			case "%=":
+				compound = Node.Operator.REMAINDER;
+				break;
+			default:
+				return target;
+		}
+		if (!(target instanceof Node.Assignable)) throw error("Invalid assignment target.");
+		int line = tokenLine;
+		next();
+		Node value = assignment();
+		if (compound != null) value = Node.Binary.of(compound, target, value, line);
+		return ((Node.Assignable) target).assign(value);
+	}
+
+	/**
+	 * Compiles a {@code ?:} conditional, or a logical or if none follows.
+	 *
+	 * @return The {@link Node} of the expression.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private Node conditional() throws ScriptException {
+		Node test = or();
+		if (!acceptSymbol("?")) return test;
+		Node then = assignment();
+		expect(":");
+		return new Node.Conditional(test, then, assignment());
+	}
+
+	/**
+	 * Compiles a chain of logical ors.
+	 *
+	 * @return The {@link Node} of the expression.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private Node or() throws ScriptException {
+		Node left = and();
+		while (acceptSymbol("||")) {
+			left = new Node.Or(left, and());
+		}
+		return left;
+	}
+
+	/**
+	 * Compiles a chain of logical ands.
+	 *
+	 * @return The {@link Node} of the expression.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private Node and() throws ScriptException {
+		Node left = equality();
+		while (acceptSymbol("&&")) {
+			left = new Node.And(left, equality());
+		}
+		return left;
+	}
+
+	/**
+	 * Compiles a chain of equality operators. {@code ===} and {@code !==} behave as {@code ==} and
+	 * {@code !=}, as no operator converts between types.
+	 *
+	 * @return The {@link Node} of the expression.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private Node equality() throws ScriptException {
+		Node left = comparison();
+		while (true) {
+			Node.Operator operator;
+			if (isSymbol("==") || isSymbol("===")) operator = Node.Operator.EQUAL;
+			else if (isSymbol("!=") || isSymbol("!==")) operator = Node.Operator.NOT_EQUAL;
+			else return left;
+			int line = tokenLine;
+			next();
+			left = Node.Binary.of(operator, left, comparison(), line);
+		}
+	}
+
+	/**
+	 * Compiles a chain of comparison operators.
+	 *
+	 * @return The {@link Node} of the expression.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private Node comparison() throws ScriptException {
+		Node left = additive();
+		while (true) {
+			Node.Operator operator;
+			if (isSymbol("<")) operator = Node.Operator.LESS;
+			else if (isSymbol("<=")) operator = Node.Operator.LESS_OR_EQUAL;
+			else if (isSymbol(">")) operator = Node.Operator.GREATER;
+			else if (isSymbol(">=")) operator = Node.Operator.GREATER_OR_EQUAL;
+			else return left;
+			int line = tokenLine;
+			next();
+			left = Node.Binary.of(operator, left, additive(), line);
+		}
+	}
+
+	/**
+	 * Compiles a chain of additions and subtractions.
+	 *
+	 * @return The {@link Node} of the expression.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private Node additive() throws ScriptException {
+		Node left = multiplicative();
+		while (true) {
+			Node.Operator operator;
+			if (isSymbol("+")) operator = Node.Operator.ADD;
+			else if (isSymbol("-")) operator = Node.Operator.SUBTRACT;
+			else return left;
+			int line = tokenLine;
+			next();
+			left = Node.Binary.of(operator, left, multiplicative(), line);
+		}
+	}
+
+	/**
+	 * Compiles a chain of multiplications, divisions and remainders.
+	 *
+	 * @return The {@link Node} of the expression.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private Node multiplicative() throws ScriptException {
+		Node left = unary();
+		while (true) {
+			Node.Operator operator;
+			if (isSymbol("*")) operator = Node.Operator.MULTIPLY;
+			else if (isSymbol("/")) operator = Node.Operator.DIVIDE;
+			else if (isSymbol("%")) operator = Node.Operator.REMAINDER;
+			else return left;
+			int line = tokenLine;
+			next();
+			left = Node.Binary.of(operator, left, unary(), line);
+		}
+	}
+
+	/**
+	 * Compiles a unary operator, or a primary expression if none precedes it.
+	 *
+	 * @return The {@link Node} of the expression.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private Node unary() throws ScriptException {
+		int line = tokenLine;
+		if (acceptSymbol("!")) return new Node.Not(unary());
+		if (acceptSymbol("-")) {
+			Node operand = unary();
+			if (operand instanceof Node.Literal && ((Node.Literal) operand).value instanceof Number) {
+				return new Node.Literal(Operations.negate(((Node.Literal) operand).value, line));
+			}
+			return new Node.Negation(operand, line);
+		}
+		if (acceptSymbol("+")) return new Node.Numeric(unary(), line);
+		return primary();
+	}
+
+	/**
+	 * Compiles a literal, variable, call or parenthesized expression.
+	 *
+	 * @return The {@link Node} of the expression.
+	 *
+	 * @throws ScriptException
+	 * 		When the source is invalid.
+	 */
+	private Node primary() throws ScriptException {
+		int line = tokenLine;
+		if (type == NUMBER || type == STRING) {
+			Object value = token;
+			next();
+			return new Node.Literal(value);
+		}
+		if (acceptSymbol("(")) {
+			Node expression = expression();
+			expect(")");
+			return expression;
+		}
+		if (type != NAME) throw error("Expected an expression but found " + describe() + '.');
+		String name = (String) token;
+		switch (name) {
+			case "true":
+				next();
+				return new Node.Literal(Boolean.TRUE);
+			case "false":
+				next();
+				return new Node.Literal(Boolean.FALSE);
+			case "null":
+			case "undefined":
+				next();
+				return new Node.Literal(null);
+			default:
+				break;
+		}
+		next();
+		Integer slot = locals == null ? null : locals.get(name);
+		Node local = slot == null ? null : new Node.Local(slot);
+		if (!acceptSymbol("(")) return local != null ? local : new Node.Global(name, line);
+		List<Node> arguments = new ArrayList<>();
+		if (!isSymbol(")")) {
+			do {
+				arguments.add(assignment());
+			} while (acceptSymbol(","));
+		}
+		expect(")");
+		return new Node.Call(name, local, arguments.toArray(new Node[0]), line);
+	}
+
+	/**
+	 * Checks if the current token is a symbol.
+	 *
+	 * @param symbol
+	 * 		The symbol.
+	 *
+	 * @return True if the current token is the symbol.
+	 */
+	private boolean isSymbol(String symbol) {
+		return type == SYMBOL && token.equals(symbol);
+	}
+
+	/**
+	 * Checks if the current token is a name or keyword.
+	 *
+	 * @param name
+	 * 		The name.
+	 *
+	 * @return True if the current token is the name.
+	 */
+	private boolean isName(String name) {
+		return type == NAME && token.equals(name);
+	}
+
+	/**
+	 * Skips the current token if it's a symbol.
+	 *
+	 * @param symbol
+	 * 		The symbol.
+	 *
+	 * @return True if skipped.
+	 *
+	 * @throws ScriptException
+	 * 		When the next token is invalid.
+	 */
+	private boolean acceptSymbol(String symbol) throws ScriptException {
+		if (!isSymbol(symbol)) return false;
+		next();
+		return true;
+	}
+
+	/**
+	 * Skips the current token, which must be a symbol.
+	 *
+	 * @param symbol
+	 * 		The symbol.
+	 *
+	 * @throws ScriptException
+	 * 		When the current token is not the symbol, or the next token is invalid.
+	 */
+	private void expect(String symbol) throws ScriptException {
+		if (!acceptSymbol(symbol)) throw error("Expected " + symbol + " but found " + describe() + '.');
+	}
+
+	/**
+	 * Skips the current token, which must be a name.
+	 *
+	 * @return The name.
+	 *
+	 * @throws ScriptException
+	 * 		When the current token is not a name, or the next token is invalid.
+	 */
+	private String expectName() throws ScriptException {
+		if (type != NAME) throw error("Expected a name but found " + describe() + '.');
+		String name = (String) token;
+		next();
+		return name;
+	}
+
+	/**
+	 * Describes the current token for failures.
+	 *
+	 * @return The description.
+	 */
+	private String describe() {
+		switch (type) {
+			case END:
+				return "the end of the script";
+			case STRING:
+				return "a string";
+			default:
+				return String.valueOf(token);
+		}
+	}
+
+	/**
+	 * Creates the failure of an invalid source at the current token.
+	 *
+	 * @param message
+	 * 		The description of the failure.
+	 *
+	 * @return The {@link ScriptException} to throw.
+	 */
+	private ScriptException error(String message) {
+		return new ScriptException(message, fileName, tokenLine, tokenColumn);
+	}
+
+	/**
+	 * Reads the next token.
+	 *
+	 * @throws ScriptException
+	 * 		When the next token is invalid.
+	 */
+	private void next() throws ScriptException {
+		lineBreak = false;
+		skipSpace();
+		tokenLine = line;
+		tokenColumn = position - lineStart + 1;
+		if (position >= source.length()) {
+			type = END;
+			token = null;
+			return;
+		}
+		char c = source.charAt(position);
+		if (Character.isDigit(c) || (c == '.' && position + 1 < source.length() && Character.isDigit(source.charAt(position + 1)))) {
+			number();
+		} else if (c == '"' || c == '\'') {
+			string(c);
+		} else if (Character.isJavaIdentifierStart(c)) {
+			int start = position;
+			while (position < source.length() && Character.isJavaIdentifierPart(source.charAt(position))) position++;
+			type = NAME;
+			token = source.substring(start, position);
+		} else {
+			for (String symbol : SYMBOLS) {
+				if (source.startsWith(symbol, position)) {
+					position += symbol.length();
+					type = SYMBOL;
+					token = symbol;
+					return;
+				}
+			}
+			throw error("Unexpected character " + c + '.');
+		}
+	}
+
+	/**
+	 * Skips whitespace and comments.
+	 *
+	 * @throws ScriptException
+	 * 		When a comment is never closed.
+	 */
+	private void skipSpace() throws ScriptException {
+		while (position < source.length()) {
+			char c = source.charAt(position);
+			if (c == '\n') {
+				position++;
+				line++;
+				lineStart = position;
+				lineBreak = true;
+			} else if (Character.isWhitespace(c)) {
+				position++;
+			} else if (source.startsWith("//", position)) {
+				while (position < source.length() && source.charAt(position) != '\n') position++;
+			} else if (source.startsWith("/*", position)) {
+				int end = source.indexOf("*/", position + 2);
+				if (end < 0) throw new ScriptException("Unclosed comment.", fileName, line, position - lineStart + 1);
+				for (int i = position; i < end; i++) {
+					if (source.charAt(i) == '\n') {
+						line++;
+						lineStart = i + 1;
+						lineBreak = true;
+					}
+				}
+				position = end + 2;
+			} else {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Reads a number literal: an {@link Integer}, a {@link Long} if too large, or a {@link Double}
+	 * if it has a fraction or exponent. Hexadecimal literals start with {@code 0x}.
+	 *
+	 * @throws ScriptException
+	 * 		When the number is invalid.
+	 */
+	private void number() throws ScriptException {
+		int start = position;
+		if (source.startsWith("0x", position) || source.startsWith("0X", position)) {
+			hexNumber();
+			return;
+		}
+		boolean decimal = false;
+		while (position < source.length() && Character.isDigit(source.charAt(position))) position++;
+		if (position < source.length() && source.charAt(position) == '.') {
+			decimal = true;
+			position++;
+			while (position < source.length() && Character.isDigit(source.charAt(position))) position++;
+		}
+		if (position < source.length() && (source.charAt(position) == 'e' || source.charAt(position) == 'E')) {
+			decimal = true;
+			position++;
+			if (position < source.length() && (source.charAt(position) == '+' || source.charAt(position) == '-')) position++;
+			while (position < source.length() && Character.isDigit(source.charAt(position))) position++;
+		}
+		String text = source.substring(start, position);
+		if (position < source.length() && Character.isJavaIdentifierPart(source.charAt(position))) throw error("Invalid number " + text + source.charAt(position) + '.');
+		type = NUMBER;
+		try {
+			if (decimal) {
+				token = Double.parseDouble(text);
+			} else {
+				long value = Long.parseLong(text);
+				token = Operations.narrow(value);
+			}
+		} catch (NumberFormatException ex) {
+			try {
+				token = Double.parseDouble(text);
+			} catch (NumberFormatException invalid) {
+				throw error("Invalid number " + text + '.');
+			}
+		}
+	}
+
+	/**
+	 * Reads a hexadecimal number literal: an {@link Integer}, a {@link Long} if too large, or a
+	 * {@link Double} if too large for a {@link Long}.
+	 *
+	 * @throws ScriptException
+	 * 		When the number has no digits or runs into a name.
+	 */
+	private void hexNumber() throws ScriptException {
+		int start = position;
+		position += 2;
+		double value = 0;
+		while (position < source.length() && Character.digit(source.charAt(position), 16) >= 0) {
+			value = value * 16 + Character.digit(source.charAt(position), 16);
+			position++;
+		}
+		int digits = position - start - 2;
+		if (digits == 0 || (position < source.length() && Character.isJavaIdentifierPart(source.charAt(position)))) {
+			throw error("Invalid number " + source.substring(start, Math.min(position + 1, source.length())) + '.');
+		}
+		type = NUMBER;
+		// up to 15 digits fit a long exactly, longer ones become a double like in JavaScript
+		if (digits <= 15) token = Operations.narrow(Long.parseLong(source.substring(start + 2, position), 16));
+		else token = value;
+	}
+
+	/**
+	 * Reads a string literal.
+	 *
+	 * @param quote
+	 * 		The quote the literal starts and ends with.
+	 *
+	 * @throws ScriptException
+	 * 		When the literal is never closed or has an invalid escape.
+	 */
+	private void string(char quote) throws ScriptException {
+		StringBuilder builder = new StringBuilder();
+		position++;
+		while (true) {
+			if (position >= source.length() || source.charAt(position) == '\n') throw error("Unclosed string.");
+			char c = source.charAt(position++);
+			if (c == quote) break;
+			if (c != '\\') {
+				builder.append(c);
+				continue;
+			}
+			if (position >= source.length()) throw error("Unclosed string.");
+			char escaped = source.charAt(position++);
+			switch (escaped) {
+				case 'n':
+					builder.append('\n');
+					break;
+				case 't':
+					builder.append('\t');
+					break;
+				case 'r':
+					builder.append('\r');
+					break;
+				case 'u':
+					if (position + 4 > source.length()) throw error("Invalid escape.");
+					try {
+						builder.append((char) Integer.parseInt(source.substring(position, position + 4), 16));
+					} catch (NumberFormatException ex) {
+						throw error("Invalid escape.");
+					}
+					position += 4;
+					break;
+				default:
+					builder.append(escaped);
+			}
+		}
+		type = STRING;
+		token = builder.toString();
+	}
+}
@@ -0,0 +1,50 @@
+package us.nullbytes.rcscript.expression;
+
+import javax.script.ScriptContext;
+
+/**
+ * The state of a single evaluation: the {@link ScriptContext} holding the global variables, the
+ * local variables of the function being called, and its return value.
+ *
+ * @author Corey Shupe
+ */
+final class Frame {
+
+	/**
+	 * The local variables of evaluations outside of any function.
+	 */
+	final static Object[] NO_LOCALS = new Object[0];
+
+	/**
+	 * The {@link ScriptContext} holding the global variables.
+	 */
+	final ScriptContext context;
+
+	/**
+	 * The parameters and local variables of the function, by slot.
+	 */
+	final Object[] locals;
+
+	/**
+	 * Whether or not a {@code return} was evaluated.
+	 */
+	boolean returned = false;
+
+	/**
+	 * The returned value.
+	 */
+	Object result = null;
+
+	/**
+	 * Initializes a new {@link Frame}.
+	 *
+	 * @param context
+	 * 		The {@link ScriptContext} holding the global variables.
+	 * @param locals
+	 * 		The parameters and local variables of the function, by slot.
+	 */
+	Frame(ScriptContext context, Object[] locals) {
+		this.context = context;
+		this.locals = locals;
+	}
+}
@@ -0,0 +1,1020 @@
+package us.nullbytes.rcscript.expression;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptException;
+import java.util.List;
+
+/**
+ * A node of a compiled expression tree. Every node evaluates itself against a {@link Frame}, so a
+ * compiled script is a tree of closures which never looks up an operator or a local variable by
+ * name again.
+ *
+ * @author Corey Shupe
+ */
+abstract class Node {
+
+	/**
+	 * Evaluates this node.
+	 *
+	 * @param frame
+	 * 		The {@link Frame} of the evaluation.
+	 *
+	 * @return The value of this node.
+	 *
+	 * @throws EvaluationException
+	 * 		When the evaluation fails.
+	 */
+	abstract Object evaluate(Frame frame);
+
+	/**
+	 * Checks if the value of this node, as a statement, becomes the value of the script. False for
+	 * declarations.
+	 *
+	 * @return True if the value completes the script.
+	 */
+	boolean completes() {
+		return true;
+	}
+
+	/**
+	 * Evaluates this node outside of any function, converting a failure.
+	 *
+	 * @param context
+	 * 		The {@link ScriptContext} holding the global variables.
+	 * @param fileName
+	 * 		The name of the evaluated file for failures, or null.
+	 *
+	 * @return The value of this node.
+	 *
+	 * @throws ScriptException
+	 * 		When the evaluation fails.
+	 */
+	final Object run(ScriptContext context, String fileName) throws ScriptException {
+		try {
+			return evaluate(new Frame(context, Frame.NO_LOCALS));
+		} catch (EvaluationException ex) {
+			throw ex.toScriptException(fileName);
+		} catch (StackOverflowError ex) {
+			throw new ScriptException("Too much recursion.");
+		}
+	}
+
+	/**
+	 * A node which can be assigned to.
+	 */
+	interface Assignable {
+
+		/**
+		 * Creates the node assigning a value to this one.
+		 *
+		 * @param value
+		 * 		The {@link Node} of the value.
+		 *
+		 * @return The assigning {@link Node}.
+		 */
+		Node assign(Node value);
+	}
+
+	/**
+	 * A constant value.
+	 */
+	static final class Literal extends Node {
+
+		/**
+		 * The value.
+		 */
+		final Object value;
+
+		/**
+		 * Initializes a new {@link Literal}.
+		 *
+		 * @param value
+		 * 		The value.
+		 */
+		Literal(Object value) {
+			this.value = value;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			return value;
+		}
+	}
+
+	/**
+	 * A parameter or local variable of a function.
+	 */
+	static final class Local extends Node implements Assignable {
+
+		/**
+		 * The slot of the variable in {@link Frame#locals}.
+		 */
+		private final int slot;
+
+		/**
+		 * Initializes a new {@link Local}.
+		 *
+		 * @param slot
+		 * 		The slot of the variable in {@link Frame#locals}.
+		 */
+		Local(int slot) {
+			this.slot = slot;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			return frame.locals[slot];
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Node assign(Node value) {
+			return new LocalAssignment(slot, value);
+		}
+	}
+
+	/**
+	 * An assignment to a parameter or local variable of a function.
+	 */
+	static final class LocalAssignment extends Node {
+
+		/**
+		 * The slot of the variable in {@link Frame#locals}.
+		 */
+		private final int slot;
+
+		/**
+		 * The {@link Node} of the value.
+		 */
+		private final Node value;
+
+		/**
+		 * Initializes a new {@link LocalAssignment}.
+		 *
+		 * @param slot
+		 * 		The slot of the variable in {@link Frame#locals}.
+		 * @param value
+		 * 		The {@link Node} of the value.
+		 */
+		LocalAssignment(int slot, Node value) {
+			this.slot = slot;
+			this.value = value;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			Object result = value.evaluate(frame);
+			frame.locals[slot] = result;
+			return result;
+		}
+	}
+
+	/**
+	 * A global variable, read from the {@link ScriptContext}.
+	 */
+	static final class Global extends Node implements Assignable {
+
+		/**
+		 * The name of the variable.
+		 */
+		private final String name;
+
+		/**
+		 * The line of the reference, for failures.
+		 */
+		private final int line;
+
+		/**
+		 * Initializes a new {@link Global}.
+		 *
+		 * @param name
+		 * 		The name of the variable.
+		 * @param line
+		 * 		The line of the reference, for failures.
+		 */
+		Global(String name, int line) {
+			this.name = name;
+			this.line = line;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			Object value = frame.context.getAttribute(name);
+			if (value == null && frame.context.getAttributesScope(name) < 0) {
+				throw new EvaluationException(name + " is not defined.", line);
+			}
+			return value;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Node assign(Node value) {
+			return new GlobalAssignment(name, value);
+		}
+	}
+
+	/**
+	 * An assignment to a global variable, stored in the scope already defining it or else in the
+	 * engine scope.
+	 */
+	static final class GlobalAssignment extends Node {
+
+		/**
+		 * The name of the variable.
+		 */
+		private final String name;
+
+		/**
+		 * The {@link Node} of the value.
+		 */
+		private final Node value;
+
+		/**
+		 * Initializes a new {@link GlobalAssignment}.
+		 *
+		 * @param name
+		 * 		The name of the variable.
+		 * @param value
+		 * 		The {@link Node} of the value.
+		 */
+		GlobalAssignment(String name, Node value) {
+			this.name = name;
+			this.value = value;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			Object result = value.evaluate(frame);
+			int scope = frame.context.getAttributesScope(name);
+			frame.context.setAttribute(name, result, scope < 0 ? ScriptContext.ENGINE_SCOPE : scope);
+			return result;
+		}
+	}
+
+	/**
+	 * A declaration, whose value never completes the script.
+	 */
+	static final class Declaration extends Node {
+
+		/**
+		 * The {@link Node} declaring, or null if there is nothing to evaluate.
+		 */
+		private final Node declaring;
+
+		/**
+		 * Initializes a new {@link Declaration}.
+		 *
+		 * @param declaring
+		 * 		The {@link Node} declaring, or null if there is nothing to evaluate.
+		 */
+		Declaration(Node declaring) {
+			this.declaring = declaring;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			if (declaring != null) declaring.evaluate(frame);
+			return null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		boolean completes() {
+			return false;
+		}
+	}
+
+	/**
+	 * The declaration of a global variable without a value, defining it as null unless already
+	 * defined.
+	 */
+	static final class GlobalDeclaration extends Node {
+
+		/**
+		 * The name of the variable.
+		 */
+		private final String name;
+
+		/**
+		 * Initializes a new {@link GlobalDeclaration}.
+		 *
+		 * @param name
+		 * 		The name of the variable.
+		 */
+		GlobalDeclaration(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			if (frame.context.getAttributesScope(name) < 0) frame.context.setAttribute(name, null, ScriptContext.ENGINE_SCOPE);
+			return null;
+		}
+	}
+
+	/**
+	 * The declaration of a function, defining an {@link ExpressionFunction} in the engine scope.
+	 */
+	static final class FunctionDeclaration extends Node {
+
+		/**
+		 * The name of the function.
+		 */
+		private final String name;
+
+		/**
+		 * The names of the parameters.
+		 */
+		private final List<String> parameters;
+
+		/**
+		 * The amount of parameters and local variables.
+		 */
+		private final int localCount;
+
+		/**
+		 * The body of the function.
+		 */
+		private final Node body;
+
+		/**
+		 * Initializes a new {@link FunctionDeclaration}.
+		 *
+		 * @param name
+		 * 		The name of the function.
+		 * @param parameters
+		 * 		The names of the parameters.
+		 * @param localCount
+		 * 		The amount of parameters and local variables.
+		 * @param body
+		 * 		The body of the function.
+		 */
+		FunctionDeclaration(String name, List<String> parameters, int localCount, Node body) {
+			this.name = name;
+			this.parameters = parameters;
+			this.localCount = localCount;
+			this.body = body;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			ExpressionFunction function = new ExpressionFunction(name, parameters, localCount, body, frame.context);
+			frame.context.setAttribute(name, function, ScriptContext.ENGINE_SCOPE);
+			return null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		boolean completes() {
+			return false;
+		}
+	}
+
+	/**
+	 * A call of a function by name: a function defined by a script, or else a {@link BuiltIns
+	 * built-in} function.
+	 */
+	static final class Call extends Node {
+
+		/**
+		 * The name of the function.
+		 */
+		private final String name;
+
+		/**
+		 * The {@link Node} of the function if a parameter or local variable, or null if global.
+		 */
+		private final Node local;
+
+		/**
+		 * The built-in function of the name, or null.
+		 */
+		private final BuiltIns.BuiltIn builtIn;
+
+		/**
+		 * The {@link Node}s of the arguments.
+		 */
+		private final Node[] arguments;
+
+		/**
+		 * The line of the call, for failures.
+		 */
+		private final int line;
+
+		/**
+		 * Initializes a new {@link Call}.
+		 *
+		 * @param name
+		 * 		The name of the function.
+		 * @param local
+		 * 		The {@link Node} of the function if a parameter or local variable, or null if global.
+		 * @param arguments
+		 * 		The {@link Node}s of the arguments.
+		 * @param line
+		 * 		The line of the call, for failures.
+		 */
+		Call(String name, Node local, Node[] arguments, int line) {
+			this.name = name;
+			this.local = local;
+			this.builtIn = local == null ? BuiltIns.get(name) : null;
+			this.arguments = arguments;
+			this.line = line;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			Object function = local != null ? local.evaluate(frame) : frame.context.getAttribute(name);
+			Object[] values = new Object[arguments.length];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = arguments[i].evaluate(frame);
+			}
+			if (function instanceof ExpressionFunction) return ((ExpressionFunction) function).invoke(values);
+			if (function == null && builtIn != null) return builtIn.call(frame, values, line);
+			throw new EvaluationException(name + " is not a function.", line);
+		}
+	}
+
+	/**
+	 * A binary operator.
+	 */
+	static final class Binary extends Node {
+
+		/**
+		 * The {@link Operator}.
+		 */
+		private final Operator operator;
+
+		/**
+		 * The {@link Node} of the left operand.
+		 */
+		private final Node left;
+
+		/**
+		 * The {@link Node} of the right operand.
+		 */
+		private final Node right;
+
+		/**
+		 * The line of the expression, for failures.
+		 */
+		private final int line;
+
+		/**
+		 * Initializes a new {@link Binary}.
+		 *
+		 * @param operator
+		 * 		The {@link Operator}.
+		 * @param left
+		 * 		The {@link Node} of the left operand.
+		 * @param right
+		 * 		The {@link Node} of the right operand.
+		 * @param line
+		 * 		The line of the expression, for failures.
+		 */
+		private Binary(Operator operator, Node left, Node right, int line) {
+			this.operator = operator;
+			this.left = left;
+			this.right = right;
+			this.line = line;
+		}
+
+		/**
+		 * Creates the {@link Node} of a binary operator, folding constant operands.
+		 *
+		 * @param operator
+		 * 		The {@link Operator}.
+		 * @param left
+		 * 		The {@link Node} of the left operand.
+		 * @param right
+		 * 		The {@link Node} of the right operand.
+		 * @param line
+		 * 		The line of the expression, for failures.
+		 *
+		 * @return The created {@link Node}.
+		 */
+		static Node of(Operator operator, Node left, Node right, int line) {
+			if (left instanceof Literal && right instanceof Literal) {
+				try {
+					return new Literal(operator.apply(((Literal) left).value, ((Literal) right).value, line));
+				} catch (EvaluationException ex) {
+					// fails again once evaluated, where the failure can be handled
+				}
+			}
+			return new Binary(operator, left, right, line);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			return operator.apply(left.evaluate(frame), right.evaluate(frame), line);
+		}
+	}
+
+	/**
+	 * The negation of a number.
+	 */
+	static final class Negation extends Node {
+
+		/**
+		 * The {@link Node} of the operand.
+		 */
+		private final Node operand;
+
+		/**
+		 * The line of the expression, for failures.
+		 */
+		private final int line;
+
+		/**
+		 * Initializes a new {@link Negation}.
+		 *
+		 * @param operand
+		 * 		The {@link Node} of the operand.
+		 * @param line
+		 * 		The line of the expression, for failures.
+		 */
+		Negation(Node operand, int line) {
+			this.operand = operand;
+			this.line = line;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			return Operations.negate(operand.evaluate(frame), line);
+		}
+	}
+
+	/**
+	 * The conversion of a value to a number, by a unary {@code +}.
+	 */
+	static final class Numeric extends Node {
+
+		/**
+		 * The {@link Node} of the operand.
+		 */
+		private final Node operand;
+
+		/**
+		 * The line of the expression, for failures.
+		 */
+		private final int line;
+
+		/**
+		 * Initializes a new {@link Numeric}.
+		 *
+		 * @param operand
+		 * 		The {@link Node} of the operand.
+		 * @param line
+		 * 		The line of the expression, for failures.
+		 */
+		Numeric(Node operand, int line) {
+			this.operand = operand;
+			this.line = line;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			return Operations.number(operand.evaluate(frame), "+", line);
+		}
+	}
+
+	/**
+	 * A logical not.
+	 */
+	static final class Not extends Node {
+
+		/**
+		 * The {@link Node} of the operand.
+		 */
+		private final Node operand;
+
+		/**
+		 * Initializes a new {@link Not}.
+		 *
+		 * @param operand
+		 * 		The {@link Node} of the operand.
+		 */
+		Not(Node operand) {
+			this.operand = operand;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			return !Operations.truthy(operand.evaluate(frame));
+		}
+	}
+
+	/**
+	 * A logical and, evaluating to the first operand counting as false or else the last operand.
+	 */
+	static final class And extends Node {
+
+		/**
+		 * The {@link Node} of the left operand.
+		 */
+		private final Node left;
+
+		/**
+		 * The {@link Node} of the right operand.
+		 */
+		private final Node right;
+
+		/**
+		 * Initializes a new {@link And}.
+		 *
+		 * @param left
+		 * 		The {@link Node} of the left operand.
+		 * @param right
+		 * 		The {@link Node} of the right operand.
+		 */
+		And(Node left, Node right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			Object value = left.evaluate(frame);
+			return Operations.truthy(value) ? right.evaluate(frame) : value;
+		}
+	}
+
+	/**
+	 * A logical or, evaluating to the first operand counting as true or else the last operand.
+	 */
+	static final class Or extends Node {
+
+		/**
+		 * The {@link Node} of the left operand.
+		 */
+		private final Node left;
+
+		/**
+		 * The {@link Node} of the right operand.
+		 */
+		private final Node right;
+
+		/**
+		 * Initializes a new {@link Or}.
+		 *
+		 * @param left
+		 * 		The {@link Node} of the left operand.
+		 * @param right
+		 * 		The {@link Node} of the right operand.
+		 */
+		Or(Node left, Node right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			Object value = left.evaluate(frame);
+			return Operations.truthy(value) ? value : right.evaluate(frame);
+		}
+	}
+
+	/**
+	 * A conditional, either as the {@code ?:} operator or as an {@code if} statement.
+	 */
+	static final class Conditional extends Node {
+
+		/**
+		 * The {@link Node} of the condition.
+		 */
+		private final Node test;
+
+		/**
+		 * The {@link Node} evaluated if the condition counts as true.
+		 */
+		private final Node then;
+
+		/**
+		 * The {@link Node} evaluated otherwise, or null.
+		 */
+		private final Node otherwise;
+
+		/**
+		 * Initializes a new {@link Conditional}.
+		 *
+		 * @param test
+		 * 		The {@link Node} of the condition.
+		 * @param then
+		 * 		The {@link Node} evaluated if the condition counts as true.
+		 * @param otherwise
+		 * 		The {@link Node} evaluated otherwise, or null.
+		 */
+		Conditional(Node test, Node then, Node otherwise) {
+			this.test = test;
+			this.then = then;
+			this.otherwise = otherwise;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			if (Operations.truthy(test.evaluate(frame))) return then.evaluate(frame);
+			return otherwise == null ? null : otherwise.evaluate(frame);
+		}
+	}
+
+	/**
+	 * A {@code while} loop.
+	 */
+	static final class Loop extends Node {
+
+		/**
+		 * The {@link Node} of the condition.
+		 */
+		private final Node test;
+
+		/**
+		 * The {@link Node} of the body.
+		 */
+		private final Node body;
+
+		/**
+		 * Initializes a new {@link Loop}.
+		 *
+		 * @param test
+		 * 		The {@link Node} of the condition.
+		 * @param body
+		 * 		The {@link Node} of the body.
+		 */
+		Loop(Node test, Node body) {
+			this.test = test;
+			this.body = body;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			Object value = null;
+			while (Operations.truthy(test.evaluate(frame))) {
+				value = body.evaluate(frame);
+				if (frame.returned) return value;
+			}
+			return value;
+		}
+	}
+
+	/**
+	 * A {@code return} statement.
+	 */
+	static final class Return extends Node {
+
+		/**
+		 * The {@link Node} of the returned value.
+		 */
+		private final Node value;
+
+		/**
+		 * Initializes a new {@link Return}.
+		 *
+		 * @param value
+		 * 		The {@link Node} of the returned value.
+		 */
+		Return(Node value) {
+			this.value = value;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			frame.result = value.evaluate(frame);
+			frame.returned = true;
+			return frame.result;
+		}
+	}
+
+	/**
+	 * A sequence of statements, evaluating to the value of the last one completing, or to the
+	 * returned value.
+	 */
+	static final class Block extends Node {
+
+		/**
+		 * The {@link Node}s of the statements.
+		 */
+		private final Node[] statements;
+
+		/**
+		 * Initializes a new {@link Block}.
+		 *
+		 * @param statements
+		 * 		The {@link Node}s of the statements.
+		 */
+		Block(Node[] statements) {
+			this.statements = statements;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Object evaluate(Frame frame) {
+			Object completion = null;
+			for (Node statement : statements) {
+				Object value = statement.evaluate(frame);
+				if (frame.returned) return frame.result;
+				if (statement.completes()) completion = value;
+			}
+			return completion;
+		}
+	}
+
+	/**
+	 * The binary operators.
+	 */
+	enum Operator {
+
+		/**
+		 * Addition or concatenation.
+		 */
+		ADD {
+			@Override
+			Object apply(Object a, Object b, int line) {
+				return Operations.add(a, b, line);
+			}
+		},
+
+		/**
+		 * Subtraction.
+		 */
+		SUBTRACT {
+			@Override
+			Object apply(Object a, Object b, int line) {
+				return Operations.subtract(a, b, line);
+			}
+		},
+
+		/**
+		 * Multiplication.
+		 */
+		MULTIPLY {
+			@Override
+			Object apply(Object a, Object b, int line) {
+				return Operations.multiply(a, b, line);
+			}
+		},
+
+		/**
+		 * Division.
+		 */
+		DIVIDE {
+			@Override
+			Object apply(Object a, Object b, int line) {
+				return Operations.divide(a, b, line);
+			}
+		},
+
+		/**
+		 * Remainder.
+		 */
+		REMAINDER {
+			@Override
+			Object apply(Object a, Object b, int line) {
+				return Operations.remainder(a, b, line);
+			}
+		},
+
+		/**
+		 * Equality, numbers compared by value.
+		 */
+		EQUAL {
+			@Override
+			Object apply(Object a, Object b, int line) {
+				return Operations.equal(a, b);
+			}
+		},
+
+		/**
+		 * Inequality, numbers compared by value.
+		 */
+		NOT_EQUAL {
+			@Override
+			Object apply(Object a, Object b, int line) {
+				return !Operations.equal(a, b);
+			}
+		},
+
+		/**
+		 * Less than.
+		 */
+		LESS {
+			@Override
+			Object apply(Object a, Object b, int line) {
+				Integer comparison = Operations.compare(a, b, "<", line);
+				return comparison != null && comparison < 0;
+			}
+		},
+
+		/**
+		 * Less than or equal.
+		 */
+		LESS_OR_EQUAL {
+			@Override
+			Object apply(Object a, Object b, int line) {
+				Integer comparison = Operations.compare(a, b, "<=", line);
+				return comparison != null && comparison <= 0;
+			}
+		},
+
+		/**
+		 * Greater than.
+		 */
+		GREATER {
+			@Override
+			Object apply(Object a, Object b, int line) {
+				Integer comparison = Operations.compare(a, b, ">", line);
+				return comparison != null && comparison > 0;
+			}
+		},
+
+		/**
+		 * Greater than or equal.
+		 */
+		GREATER_OR_EQUAL {
+			@Override
+			Object apply(Object a, Object b, int line) {
+				Integer comparison = Operations.compare(a, b, ">=", line);
+				return comparison != null && comparison >= 0;
+			}
+		};
+
+		/**
+		 * Applies the operator.
+		 *
+		 * @param a
+		 * 		The left value.
+		 * @param b
+		 * 		The right value.
+		 * @param line
+		 * 		The line of the expression, for failures.
+		 *
+		 * @return The result.
+		 *
+		 * @throws EvaluationException
+		 * 		When the operator cannot be applied to the values.
+		 */
+		abstract Object apply(Object a, Object b, int line);
+	}
+}
@@ -0,0 +1,297 @@
+package us.nullbytes.rcscript.expression;
+
+/**
+ * The semantics of the operators of expressions. Whole numbers stay {@link Integer}s, widening
+ * to {@link Long} and then {@link Double} only when a result no longer fits; any other number
+ * makes the result a {@link Double}. A {@link String} on either side of {@code +} concatenates.
+ *
+ * @author Corey Shupe
+ */
+final class Operations {
+
+	/**
+	 * Prevents initialization.
+	 */
+	private Operations() {
+	}
+
+	/**
+	 * Checks if a value counts as true in a condition: anything but null, false, 0, NaN and the
+	 * empty {@link String}.
+	 *
+	 * @param value
+	 * 		The value.
+	 *
+	 * @return True if the value counts as true.
+	 */
+	static boolean truthy(Object value) {
+		if (value == null) return false;
+		if (value instanceof Boolean) return (Boolean) value;
+		if (value instanceof Integer) return (Integer) value != 0;
+		if (value instanceof Number) {
+			double number = ((Number) value).doubleValue();
+			return number != 0 && !Double.isNaN(number);
+		}
+		if (value instanceof CharSequence) return ((CharSequence) value).length() > 0;
+		return true;
+	}
+
+	/**
+	 * Adds two numbers, or concatenates if either value is a {@link String}.
+	 *
+	 * @param a
+	 * 		The left value.
+	 * @param b
+	 * 		The right value.
+	 * @param line
+	 * 		The line of the expression, for failures.
+	 *
+	 * @return The sum or concatenation.
+	 */
+	static Object add(Object a, Object b, int line) {
+		if (a instanceof Integer && b instanceof Integer) {
+			int x = (Integer) a;
+			int y = (Integer) b;
+			int sum = x + y;
+			if (((x ^ sum) & (y ^ sum)) < 0) return (long) x + y;
+			return sum;
+		}
+		if (a instanceof CharSequence || b instanceof CharSequence || a instanceof Character || b instanceof Character) {
+			return toString(a) + toString(b);
+		}
+		Number x = number(a, "+", line);
+		Number y = number(b, "+", line);
+		if (isWhole(x) && isWhole(y)) {
+			long l = x.longValue();
+			long m = y.longValue();
+			long sum = l + m;
+			if (((l ^ sum) & (m ^ sum)) >= 0) return narrow(sum);
+		}
+		return x.doubleValue() + y.doubleValue();
+	}
+
+	/**
+	 * Subtracts two numbers.
+	 *
+	 * @param a
+	 * 		The left value.
+	 * @param b
+	 * 		The right value.
+	 * @param line
+	 * 		The line of the expression, for failures.
+	 *
+	 * @return The difference.
+	 */
+	static Object subtract(Object a, Object b, int line) {
+		if (a instanceof Integer && b instanceof Integer) {
+			int x = (Integer) a;
+			int y = (Integer) b;
+			int difference = x - y;
+			if (((x ^ y) & (x ^ difference)) < 0) return (long) x - y;
+			return difference;
+		}
+		Number x = number(a, "-", line);
+		Number y = number(b, "-", line);
+		if (isWhole(x) && isWhole(y)) {
+			long l = x.longValue();
+			long m = y.longValue();
+			long difference = l - m;
+			if (((l ^ m) & (l ^ difference)) >= 0) return narrow(difference);
+		}
+		return x.doubleValue() - y.doubleValue();
+	}
+
+	/**
+	 * Multiplies two numbers.
+	 *
+	 * @param a
+	 * 		The left value.
+	 * @param b
+	 * 		The right value.
+	 * @param line
+	 * 		The line of the expression, for failures.
+	 *
+	 * @return The product.
+	 */
+	static Object multiply(Object a, Object b, int line) {
+		Number x = number(a, "*", line);
+		Number y = number(b, "*", line);
+		if (isWhole(x) && isWhole(y)) {
+			long l = x.longValue();
+			long m = y.longValue();
+			long high = Math.multiplyHigh(l, m);
+			long product = l * m;
+			if (high == product >> 63) return narrow(product);
+		}
+		return x.doubleValue() * y.doubleValue();
+	}
+
+	/**
+	 * Divides two numbers. Whole numbers dividing evenly stay whole, anything else is a {@link
+	 * Double}, including divisions by zero.
+	 *
+	 * @param a
+	 * 		The left value.
+	 * @param b
+	 * 		The right value.
+	 * @param line
+	 * 		The line of the expression, for failures.
+	 *
+	 * @return The quotient.
+	 */
+	static Object divide(Object a, Object b, int line) {
+		Number x = number(a, "/", line);
+		Number y = number(b, "/", line);
+		if (isWhole(x) && isWhole(y)) {
+			long l = x.longValue();
+			long m = y.longValue();
+			if (m != 0 && l % m == 0 && !(l == Long.MIN_VALUE && m == -1)) return narrow(l / m);
+		}
+		return x.doubleValue() / y.doubleValue();
+	}
+
+	/**
+	 * Takes the remainder of dividing two numbers.
+	 *
+	 * @param a
+	 * 		The left value.
+	 * @param b
+	 * 		The right value.
+	 * @param line
+	 * 		The line of the expression, for failures.
+	 *
+	 * @return The remainder.
+	 */
+	static Object remainder(Object a, Object b, int line) {
+		Number x = number(a, "%", line);
+		Number y = number(b, "%", line);
+		if (isWhole(x) && isWhole(y) && y.longValue() != 0) return narrow(x.longValue() % y.longValue());
+		return x.doubleValue() % y.doubleValue();
+	}
+
+	/**
+	 * Negates a number.
+	 *
+	 * @param a
+	 * 		The value.
+	 * @param line
+	 * 		The line of the expression, for failures.
+	 *
+	 * @return The negated number.
+	 */
+	static Object negate(Object a, int line) {
+		Number x = number(a, "-", line);
+		if (isWhole(x) && x.longValue() != Long.MIN_VALUE) return narrow(-x.longValue());
+		return -x.doubleValue();
+	}
+
+	/**
+	 * Compares two numbers or two {@link String}s.
+	 *
+	 * @param a
+	 * 		The left value.
+	 * @param b
+	 * 		The right value.
+	 * @param operator
+	 * 		The comparison operator, for failures.
+	 * @param line
+	 * 		The line of the expression, for failures.
+	 *
+	 * @return A negative number, zero or a positive number as the left value is less than, equal
+	 * to or greater than the right one, or null if either is NaN.
+	 */
+	static Integer compare(Object a, Object b, String operator, int line) {
+		if (a instanceof Integer && b instanceof Integer) return Integer.compare((Integer) a, (Integer) b);
+		if (a instanceof CharSequence && b instanceof CharSequence) return a.toString().compareTo(b.toString());
+		Number x = number(a, operator, line);
+		Number y = number(b, operator, line);
+		if (isWhole(x) && isWhole(y)) return Long.compare(x.longValue(), y.longValue());
+		double l = x.doubleValue();
+		double m = y.doubleValue();
+		if (Double.isNaN(l) || Double.isNaN(m)) return null;
+		return l < m ? -1 : l > m ? 1 : 0;
+	}
+
+	/**
+	 * Checks if two values are equal, numbers by value regardless of their type.
+	 *
+	 * @param a
+	 * 		The left value.
+	 * @param b
+	 * 		The right value.
+	 *
+	 * @return True if equal.
+	 */
+	static boolean equal(Object a, Object b) {
+		if (a instanceof Number && b instanceof Number) {
+			Number x = (Number) a;
+			Number y = (Number) b;
+			if (isWhole(x) && isWhole(y)) return x.longValue() == y.longValue();
+			return x.doubleValue() == y.doubleValue();
+		}
+		if (a instanceof CharSequence && b instanceof CharSequence) return a.toString().equals(b.toString());
+		return a == null ? b == null : a.equals(b);
+	}
+
+	/**
+	 * Converts a value to a {@link String}, writing whole {@link Double}s without a fraction.
+	 *
+	 * @param value
+	 * 		The value.
+	 *
+	 * @return The value as a {@link String}.
+	 */
+	static String toString(Object value) {
+		if (value instanceof Double || value instanceof Float) {
+			double number = ((Number) value).doubleValue();
+			if (number == Math.rint(number) && Math.abs(number) < 1e15) return Long.toString((long) number);
+		}
+		return String.valueOf(value);
+	}
+
+	/**
+	 * Converts a value to a number for an arithmetic operator.
+	 *
+	 * @param value
+	 * 		The value, a {@link Number} or {@link Boolean}.
+	 * @param operator
+	 * 		The operator, for failures.
+	 * @param line
+	 * 		The line of the expression, for failures.
+	 *
+	 * @return The value as a {@link Number}.
+	 *
+	 * @throws EvaluationException
+	 * 		When the value is not a number.
+	 */
+	static Number number(Object value, String operator, int line) {
+		if (value instanceof Number) return (Number) value;
+		if (value instanceof Boolean) return (Boolean) value ? 1 : 0;
+		throw new EvaluationException("Cannot apply " + operator + " to " + (value == null ? "null" : "a " + value.getClass().getSimpleName()) + '.', line);
+	}
+
+	/**
+	 * Checks if a number is of a whole number type.
+	 *
+	 * @param value
+	 * 		The number.
+	 *
+	 * @return True if an {@link Integer}, {@link Long}, {@link Short} or {@link Byte}.
+	 */
+	static boolean isWhole(Number value) {
+		return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+	}
+
+	/**
+	 * Narrows a whole number to an {@link Integer} if it fits.
+	 *
+	 * @param value
+	 * 		The whole number.
+	 *
+	 * @return The number as an {@link Integer} or {@link Long}.
+	 */
+	static Number narrow(long value) {
+		int narrowed = (int) value;
+		return narrowed == value ? (Number) narrowed : (Number) value;
+	}
+}
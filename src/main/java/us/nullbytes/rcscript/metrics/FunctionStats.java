@@ -0,0 +1,86 @@
+package us.nullbytes.rcscript.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The invocation statistics of a single function of a script.
+ *
+ * @author Corey Shupe
+ * @see ScriptStats#function(String)
+ */
+public class FunctionStats {
+
+	/**
+	 * The name of the function.
+	 */
+	private final String name;
+
+	/**
+	 * The {@link LatencyHistogram} of every invocation, failed or not.
+	 */
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	/**
+	 * The amount of failed invocations.
+	 */
+	private final LongAdder errors = new LongAdder();
+
+	/**
+	 * Initializes new {@link FunctionStats}.
+	 *
+	 * @param name
+	 * 		The name of the function.
+	 */
+	FunctionStats(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Records an invocation.
+	 *
+	 * @param nanos
+	 * 		The duration of the invocation in nanoseconds.
+	 * @param failed
+	 * 		Whether or not the invocation failed.
+	 */
+	public void record(long nanos, boolean failed) {
+		latencies.record(nanos);
+		if (failed) errors.increment();
+	}
+
+	/**
+	 * Gets the name of the function.
+	 *
+	 * @return The name of the function.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the amount of invocations.
+	 *
+	 * @return The amount of invocations.
+	 */
+	public long getInvocationCount() {
+		return latencies.getCount();
+	}
+
+	/**
+	 * Gets the amount of failed invocations.
+	 *
+	 * @return The amount of failed invocations.
+	 */
+	public long getErrorCount() {
+		return errors.sum();
+	}
+
+	/**
+	 * Gets the {@link LatencyHistogram} of every invocation.
+	 *
+	 * @return The {@link LatencyHistogram}.
+	 */
+	public LatencyHistogram getLatencies() {
+		return latencies;
+	}
+}
@@ -0,0 +1,177 @@
+package us.nullbytes.rcscript.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in nanoseconds. Every power of two is split into 16 buckets,
+ * so recorded values are kept within about 6% of their real value. Recording a value takes a few
+ * atomic increments and never blocks, cheap enough to leave on in production.
+ *
+ * @author Corey Shupe
+ */
+public class LatencyHistogram {
+
+	/**
+	 * The bits of a value kept exactly, splitting every power of two into {@code 2^SUB_BITS}
+	 * buckets.
+	 */
+	private final static int SUB_BITS = 4;
+
+	/**
+	 * The amount of buckets of every power of two.
+	 */
+	private final static int SUB_COUNT = 1 << SUB_BITS;
+
+	/**
+	 * The highest power of two tracked, about 4.9 hours; longer values share the last bucket.
+	 */
+	private final static int MAX_EXPONENT = 44;
+
+	/**
+	 * The counts of every bucket.
+	 */
+	private final AtomicLongArray buckets = new AtomicLongArray((MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT);
+
+	/**
+	 * The amount of recorded values.
+	 */
+	private final LongAdder count = new LongAdder();
+
+	/**
+	 * The sum of every recorded value.
+	 */
+	private final LongAdder total = new LongAdder();
+
+	/**
+	 * The highest recorded value.
+	 */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a duration.
+	 *
+	 * @param nanos
+	 * 		The duration in nanoseconds, negative durations are recorded as 0.
+	 */
+	public void record(long nanos) {
+		long value = Math.max(nanos, 0);
+		buckets.incrementAndGet(indexOf(value));
+		count.increment();
+		total.add(value);
+		long current;
+		while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+			Thread.onSpinWait();
+		}
+	}
+
+	/**
+	 * Gets the amount of recorded values.
+	 *
+	 * @return The amount of recorded values.
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Gets the mean of the recorded values.
+	 *
+	 * @return The mean in nanoseconds, or 0 if nothing was recorded.
+	 */
+	public long getMean() {
+		long count = this.count.sum();
+		return count == 0 ? 0 : total.sum() / count;
+	}
+
+	/**
+	 * Gets the highest recorded value.
+	 *
+	 * @return The highest value in nanoseconds, or 0 if nothing was recorded.
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Gets a percentile of the recorded values, such as 0.99 for the p99. Concurrent recording
+	 * may or may not be included.
+	 *
+	 * @param percentile
+	 * 		The percentile between 0 and 1.
+	 *
+	 * @return The percentile in nanoseconds, or 0 if nothing was recorded.
+	 */
+	public long getPercentile(double percentile) {
+		if (percentile < 0 || percentile > 1) throw new IllegalArgumentException("A percentile must be between 0 and 1.");
+		long[] counts = new long[buckets.length()];
+		long recorded = 0;
+		for (int i = 0; i < counts.length; i++) {
+			recorded += counts[i] = buckets.get(i);
+		}
+		if (recorded == 0) return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile * recorded));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) return Math.min(highestValueOf(i), getMax());
+		}
+		return getMax();
+	}
+
+	/**
+	 * Gets a percentile of the recorded values in another unit, see {@link #getPercentile(double)}.
+	 *
+	 * @param percentile
+	 * 		The percentile between 0 and 1.
+	 * @param unit
+	 * 		The {@link TimeUnit} of the result.
+	 *
+	 * @return The percentile in the unit, with a fraction.
+	 */
+	public double getPercentile(double percentile, TimeUnit unit) {
+		return (double) getPercentile(percentile) / unit.toNanos(1);
+	}
+
+	/**
+	 * Gets the bucket of a value.
+	 *
+	 * @param value
+	 * 		The non-negative value.
+	 *
+	 * @return The index of the bucket.
+	 */
+	private static int indexOf(long value) {
+		if (value < SUB_COUNT) return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if (exponent > MAX_EXPONENT) return (MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT - 1;
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+		return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+	}
+
+	/**
+	 * Gets the highest value of a bucket.
+	 *
+	 * @param index
+	 * 		The index of the bucket.
+	 *
+	 * @return The highest value counted by the bucket.
+	 */
+	private static long highestValueOf(int index) {
+		if (index < SUB_COUNT) return index;
+		int shift = index / SUB_COUNT - 1;
+		long lowest = (long) (SUB_COUNT + index % SUB_COUNT) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "LatencyHistogram{count=" + getCount() + ", p50=" + getPercentile(0.5) + "ns, p99=" + getPercentile(0.99) +
+				"ns, p999=" + getPercentile(0.999) + "ns, max=" + getMax() + "ns}";
+	}
+}
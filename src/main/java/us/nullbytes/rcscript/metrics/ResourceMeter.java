@@ -0,0 +1,93 @@
+package us.nullbytes.rcscript.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the CPU time and allocated bytes of the current thread from the platform {@link
+ * ThreadMXBean}. Either measurement may be unsupported by the JVM, or by the current thread such
+ * as virtual threads measuring no CPU time, in which case -1 is read.
+ *
+ * @author Corey Shupe
+ * @see ResourceUsage
+ */
+public final class ResourceMeter {
+
+	/**
+	 * The platform {@link ThreadMXBean} if it measures CPU time, or null.
+	 */
+	private final static ThreadMXBean CPU_BEAN = cpuBean();
+
+	/**
+	 * The platform {@link com.sun.management.ThreadMXBean} if it measures allocation, or null.
+	 */
+	private final static com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+	/**
+	 * Prevents initialization.
+	 */
+	private ResourceMeter() {
+	}
+
+	/**
+	 * Checks if the JVM measures the CPU time of threads.
+	 *
+	 * @return True if supported and enabled.
+	 */
+	public static boolean isCpuTimeSupported() {
+		return CPU_BEAN != null;
+	}
+
+	/**
+	 * Checks if the JVM measures the bytes allocated by threads.
+	 *
+	 * @return True if supported and enabled.
+	 */
+	public static boolean isAllocationSupported() {
+		return ALLOCATION_BEAN != null;
+	}
+
+	/**
+	 * Gets the CPU time used by the current thread so far.
+	 *
+	 * @return The CPU time in nanoseconds, or -1 if unsupported.
+	 */
+	public static long cpuTime() {
+		return CPU_BEAN == null ? -1 : CPU_BEAN.getCurrentThreadCpuTime();
+	}
+
+	/**
+	 * Gets the bytes allocated by the current thread so far.
+	 *
+	 * @return The bytes allocated, or -1 if unsupported.
+	 */
+	public static long allocatedBytes() {
+		return ALLOCATION_BEAN == null ? -1 : ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Finds the {@link ThreadMXBean} if CPU time measuring is supported.
+	 *
+	 * @return The {@link ThreadMXBean} or null if unsupported.
+	 */
+	private static ThreadMXBean cpuBean() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		return bean.isCurrentThreadCpuTimeSupported() && bean.isThreadCpuTimeEnabled() ? bean : null;
+	}
+
+	/**
+	 * Finds the {@link com.sun.management.ThreadMXBean} if allocation measuring is supported.
+	 *
+	 * @return The {@link com.sun.management.ThreadMXBean} or null if unsupported.
+	 */
+	private static com.sun.management.ThreadMXBean allocationBean() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+			if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+				return allocationBean;
+			}
+		}
+		return null;
+	}
+}
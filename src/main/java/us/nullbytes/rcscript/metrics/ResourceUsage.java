@@ -0,0 +1,79 @@
+package us.nullbytes.rcscript.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The CPU time and allocated bytes of metered invocations, accumulated without locking. An
+ * invocation whose thread cannot measure one of the figures still counts towards the other.
+ *
+ * @author Corey Shupe
+ * @see ScriptMetrics#setResourceAccountingEnabled(boolean)
+ */
+public class ResourceUsage {
+
+	/**
+	 * The amount of metered invocations.
+	 */
+	private final LongAdder count = new LongAdder();
+
+	/**
+	 * The CPU time of every metered invocation in nanoseconds.
+	 */
+	private final LongAdder cpuTime = new LongAdder();
+
+	/**
+	 * The bytes allocated by every metered invocation.
+	 */
+	private final LongAdder allocatedBytes = new LongAdder();
+
+	/**
+	 * Records a metered invocation.
+	 *
+	 * @param cpuTime
+	 * 		The CPU time of the invocation in nanoseconds, or a negative value if unmeasured.
+	 * @param allocatedBytes
+	 * 		The bytes allocated by the invocation, or a negative value if unmeasured.
+	 */
+	public void record(long cpuTime, long allocatedBytes) {
+		count.increment();
+		if (cpuTime > 0) this.cpuTime.add(cpuTime);
+		if (allocatedBytes > 0) this.allocatedBytes.add(allocatedBytes);
+	}
+
+	/**
+	 * Gets the amount of metered invocations.
+	 *
+	 * @return The amount of invocations.
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Gets the CPU time of every metered invocation.
+	 *
+	 * @return The CPU time in nanoseconds.
+	 */
+	public long getCpuTime() {
+		return cpuTime.sum();
+	}
+
+	/**
+	 * Gets the bytes allocated by every metered invocation.
+	 *
+	 * @return The bytes allocated.
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes.sum();
+	}
+
+	/**
+	 * Gets the mean bytes allocated per metered invocation.
+	 *
+	 * @return The mean bytes allocated, or 0 if nothing was metered.
+	 */
+	public double getMeanAllocatedBytes() {
+		long count = getCount();
+		return count == 0 ? 0 : (double) getAllocatedBytes() / count;
+	}
+}
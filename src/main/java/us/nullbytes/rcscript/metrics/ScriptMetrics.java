@@ -0,0 +1,354 @@
+package us.nullbytes.rcscript.metrics;
+
+import us.nullbytes.rcscript.Script;
+import us.nullbytes.rcscript.ScriptManager;
+import us.nullbytes.rcscript.execution.AdmissionQueue;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The execution metrics of every {@link Script} of a {@link ScriptManager}: compile times, queue
+ * waits of async calls, and invocation counts, error counts and latencies per script identifier
+ * and function name. Recording is lock-free and on by default. The CPU time and allocated bytes of
+ * invocations can be accounted for as well, see {@link #setResourceAccountingEnabled(boolean)}.
+ * <pre>
+ *     {@code
+ *     LatencyHistogram latencies = manager.getMetrics().forScript("tax").function("compute").getLatencies();
+ *     long p99 = latencies.getPercentile(0.99);
+ *     }
+ * </pre>
+ *
+ * @author Corey Shupe
+ * @see ScriptManager#getMetrics()
+ */
+public class ScriptMetrics implements ScriptMetricsMXBean {
+
+	/**
+	 * The identifier of the metrics of every {@link Script} which isn't packed.
+	 */
+	public final static String ANONYMOUS = "<anonymous>";
+
+	/**
+	 * The function name of plain evaluations of a {@link Script}.
+	 */
+	public final static String EVALUATION = "<eval>";
+
+	/**
+	 * Whether or not metrics are recorded.
+	 */
+	private volatile boolean enabled = true;
+
+	/**
+	 * Whether or not the CPU time and allocated bytes of invocations are recorded.
+	 */
+	private volatile boolean resourceAccounting = false;
+
+	/**
+	 * The {@link ResourceUsage} of every metered invocation of every script.
+	 */
+	private final ResourceUsage usage = new ResourceUsage();
+
+	/**
+	 * The {@link ScriptStats} by identifier.
+	 */
+	private final Map<Object, ScriptStats> scripts = new ConcurrentHashMap<>();
+
+	/**
+	 * The {@link ObjectName} this is registered under, or null if not registered.
+	 */
+	private ObjectName objectName = null;
+
+	/**
+	 * The {@link AdmissionQueue} of the manager, or null if unbounded.
+	 */
+	private volatile AdmissionQueue admissionQueue = null;
+
+	/**
+	 * Gets the {@link ScriptStats} of an identifier, creating them on first use.
+	 *
+	 * @param identifier
+	 * 		The identifier of the script, or null for {@link #ANONYMOUS}.
+	 *
+	 * @return The {@link ScriptStats}.
+	 */
+	public ScriptStats forScript(Object identifier) {
+		Object key = identifier == null ? ANONYMOUS : identifier;
+		ScriptStats stats = scripts.get(key);
+		return stats != null ? stats : scripts.computeIfAbsent(key, ScriptStats::new);
+	}
+
+	/**
+	 * Gets the {@link ScriptStats} of an identifier.
+	 *
+	 * @param identifier
+	 * 		The identifier of the script, or null for {@link #ANONYMOUS}.
+	 *
+	 * @return The {@link ScriptStats}, or null if nothing was recorded.
+	 */
+	public ScriptStats getStats(Object identifier) {
+		return scripts.get(identifier == null ? ANONYMOUS : identifier);
+	}
+
+	/**
+	 * Gets the {@link ScriptStats} of every identifier.
+	 *
+	 * @return An unmodifiable view of the {@link ScriptStats}.
+	 */
+	public Collection<ScriptStats> getAllStats() {
+		return Collections.unmodifiableCollection(scripts.values());
+	}
+
+	/**
+	 * Forgets the {@link ScriptStats} of an identifier.
+	 *
+	 * @param identifier
+	 * 		The identifier of the script.
+	 */
+	public void remove(Object identifier) {
+		scripts.remove(identifier == null ? ANONYMOUS : identifier);
+	}
+
+	/**
+	 * Checks if the resources of invocations are to be metered, which requires metrics to be
+	 * enabled as well.
+	 *
+	 * @return True if metering.
+	 */
+	public boolean isMetering() {
+		return enabled && resourceAccounting;
+	}
+
+	/**
+	 * Records the resources of a metered invocation, both for its script and for the manager.
+	 *
+	 * @param stats
+	 * 		The {@link ScriptStats} of the invoked script.
+	 * @param cpuTime
+	 * 		The CPU time of the invocation in nanoseconds, or a negative value if unmeasured.
+	 * @param allocatedBytes
+	 * 		The bytes allocated by the invocation, or a negative value if unmeasured.
+	 */
+	public void recordUsage(ScriptStats stats, long cpuTime, long allocatedBytes) {
+		stats.getUsage().record(cpuTime, allocatedBytes);
+		usage.record(cpuTime, allocatedBytes);
+	}
+
+	/**
+	 * Gets the {@link ResourceUsage} of every metered invocation of every script, including the
+	 * scripts forgotten since.
+	 *
+	 * @return The {@link ResourceUsage}.
+	 */
+	public ResourceUsage getUsage() {
+		return usage;
+	}
+
+	/**
+	 * Sets the {@link AdmissionQueue} of the manager, whose depth and rejections are exported.
+	 *
+	 * @param admissionQueue
+	 * 		The {@link AdmissionQueue}, or null if unbounded.
+	 */
+	public void setAdmissionQueue(AdmissionQueue admissionQueue) {
+		this.admissionQueue = admissionQueue;
+	}
+
+	/**
+	 * Forgets every {@link ScriptStats}.
+	 */
+	public void clear() {
+		scripts.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isResourceAccountingEnabled() {
+		return resourceAccounting;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Off by default, as reading the thread's counters costs every invocation a little.
+	 */
+	@Override
+	public void setResourceAccountingEnabled(boolean enabled) {
+		this.resourceAccounting = enabled;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getCpuTimeMillis() {
+		return usage.getCpuTime() / 1e6;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getAllocatedBytes() {
+		return usage.getAllocatedBytes();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getInvocationCount() {
+		long count = 0;
+		for (ScriptStats script : scripts.values()) {
+			for (FunctionStats function : script.getFunctions()) count += function.getInvocationCount();
+		}
+		return count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getErrorCount() {
+		long count = 0;
+		for (ScriptStats script : scripts.values()) {
+			for (FunctionStats function : script.getFunctions()) count += function.getErrorCount();
+		}
+		return count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getQueueDepth() {
+		AdmissionQueue queue = this.admissionQueue;
+		return queue == null ? -1 : queue.getDepth();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getQueueCapacity() {
+		AdmissionQueue queue = this.admissionQueue;
+		return queue == null ? -1 : queue.getCapacity();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getRejectedCount() {
+		AdmissionQueue queue = this.admissionQueue;
+		return queue == null ? 0 : queue.getRejectedCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getShedCount() {
+		AdmissionQueue queue = this.admissionQueue;
+		return queue == null ? 0 : queue.getShedCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getCallerRunsCount() {
+		AdmissionQueue queue = this.admissionQueue;
+		return queue == null ? 0 : queue.getCallerRunsCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<ScriptSummary> getScripts() {
+		List<ScriptSummary> summaries = new ArrayList<>();
+		for (ScriptStats script : scripts.values()) summaries.add(new ScriptSummary(script));
+		return summaries;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<FunctionSummary> getFunctions() {
+		List<FunctionSummary> summaries = new ArrayList<>();
+		for (ScriptStats script : scripts.values()) {
+			for (FunctionStats function : script.getFunctions()) summaries.add(new FunctionSummary(script, function));
+		}
+		return summaries;
+	}
+
+	/**
+	 * Registers this as an MXBean of the platform {@link MBeanServer}, replacing any previous
+	 * registration. A failure is printed rather than thrown, as metrics never stop scripts from
+	 * running.
+	 *
+	 * @param name
+	 * 		The {@link ObjectName} to register under.
+	 */
+	public synchronized void register(String name) {
+		unregister();
+		try {
+			ObjectName objectName = new ObjectName(name);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(objectName)) server.unregisterMBean(objectName);
+			server.registerMBean(this, objectName);
+			this.objectName = objectName;
+		} catch (JMException | SecurityException ex) {
+			ex.printStackTrace();
+		}
+	}
+
+	/**
+	 * Unregisters this from the platform {@link MBeanServer}, if registered.
+	 */
+	public synchronized void unregister() {
+		if (objectName == null) return;
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException | SecurityException ex) {
+			ex.printStackTrace();
+		}
+		objectName = null;
+	}
+
+	/**
+	 * Gets the {@link ObjectName} this is registered under.
+	 *
+	 * @return The {@link ObjectName}, or null if not registered.
+	 */
+	public synchronized ObjectName getObjectName() {
+		return objectName;
+	}
+}
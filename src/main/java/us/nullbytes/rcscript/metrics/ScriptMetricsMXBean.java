@@ -0,0 +1,456 @@
+package us.nullbytes.rcscript.metrics;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JMX view of the {@link ScriptMetrics} of a {@link us.nullbytes.rcscript.ScriptManager},
+ * registered under {@code us.nullbytes.rcscript:type=ScriptManager}. Durations are in
+ * milliseconds.
+ *
+ * @author Corey Shupe
+ * @see ScriptMetrics
+ */
+public interface ScriptMetricsMXBean {
+
+	/**
+	 * Checks if metrics are recorded.
+	 *
+	 * @return True if enabled.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Enables or disables recording.
+	 *
+	 * @param enabled
+	 * 		Whether or not to record.
+	 */
+	void setEnabled(boolean enabled);
+
+	/**
+	 * Checks if the CPU time and allocated bytes of invocations are recorded.
+	 *
+	 * @return True if enabled.
+	 */
+	boolean isResourceAccountingEnabled();
+
+	/**
+	 * Enables or disables recording the CPU time and allocated bytes of invocations.
+	 *
+	 * @param enabled
+	 * 		Whether or not to record.
+	 */
+	void setResourceAccountingEnabled(boolean enabled);
+
+	/**
+	 * Gets the CPU time of every metered invocation of every script.
+	 *
+	 * @return The CPU time.
+	 */
+	double getCpuTimeMillis();
+
+	/**
+	 * Gets the bytes allocated by every metered invocation of every script.
+	 *
+	 * @return The bytes allocated.
+	 */
+	long getAllocatedBytes();
+
+	/**
+	 * Gets the amount of invocations of every script.
+	 *
+	 * @return The amount of invocations.
+	 */
+	long getInvocationCount();
+
+	/**
+	 * Gets the amount of failed invocations of every script.
+	 *
+	 * @return The amount of failed invocations.
+	 */
+	long getErrorCount();
+
+	/**
+	 * Gets a summary of every script.
+	 *
+	 * @return The {@link ScriptSummary} of every script.
+	 */
+	List<ScriptSummary> getScripts();
+
+	/**
+	 * Gets a summary of every function of every script.
+	 *
+	 * @return The {@link FunctionSummary} of every function.
+	 */
+	List<FunctionSummary> getFunctions();
+
+	/**
+	 * Gets the amount of async calls waiting in the admission queue of the manager.
+	 *
+	 * @return The depth of the queue, or -1 if unbounded.
+	 */
+	int getQueueDepth();
+
+	/**
+	 * Gets the maximum amount of async calls waiting in the admission queue of the manager.
+	 *
+	 * @return The capacity of the queue, or -1 if unbounded.
+	 */
+	int getQueueCapacity();
+
+	/**
+	 * Gets the amount of async calls rejected on arrival by the admission queue of the manager.
+	 *
+	 * @return The amount of rejections.
+	 */
+	long getRejectedCount();
+
+	/**
+	 * Gets the amount of waiting async calls shed for newer ones by the admission queue of the
+	 * manager.
+	 *
+	 * @return The amount of shed calls.
+	 */
+	long getShedCount();
+
+	/**
+	 * Gets the amount of async calls run by the calling thread as the admission queue of the
+	 * manager was full.
+	 *
+	 * @return The amount of calls run by callers.
+	 */
+	long getCallerRunsCount();
+
+	/**
+	 * A snapshot of the {@link ScriptStats} of a script.
+	 */
+	class ScriptSummary {
+
+		/**
+		 * The identifier of the script as a {@link String}.
+		 */
+		private final String script;
+
+		/**
+		 * The amount of compilations.
+		 */
+		private final long compileCount;
+
+		/**
+		 * The median compile time.
+		 */
+		private final double compileP50;
+
+		/**
+		 * The 99th percentile compile time.
+		 */
+		private final double compileP99;
+
+		/**
+		 * The amount of async calls which overran their deadline.
+		 */
+		private final long timeoutCount;
+
+		/**
+		 * The amount of async calls which joined an equal call in flight.
+		 */
+		private final long coalescedCount;
+
+		/**
+		 * The amount of async calls rejected or shed by a full admission queue.
+		 */
+		private final long rejectedCount;
+
+		/**
+		 * The CPU time of every metered invocation.
+		 */
+		private final double cpuTime;
+
+		/**
+		 * The bytes allocated by every metered invocation.
+		 */
+		private final long allocatedBytes;
+
+		/**
+		 * The median queue wait.
+		 */
+		private final double queueWaitP50;
+
+		/**
+		 * The 99th percentile queue wait.
+		 */
+		private final double queueWaitP99;
+
+		/**
+		 * The 99.9th percentile queue wait.
+		 */
+		private final double queueWaitP999;
+
+		/**
+		 * Takes a snapshot of {@link ScriptStats}.
+		 *
+		 * @param stats
+		 * 		The {@link ScriptStats}.
+		 */
+		ScriptSummary(ScriptStats stats) {
+			this.script = String.valueOf(stats.getIdentifier());
+			this.compileCount = stats.getCompileTimes().getCount();
+			this.compileP50 = stats.getCompileTimes().getPercentile(0.5, TimeUnit.MILLISECONDS);
+			this.compileP99 = stats.getCompileTimes().getPercentile(0.99, TimeUnit.MILLISECONDS);
+			this.timeoutCount = stats.getTimeoutCount();
+			this.coalescedCount = stats.getCoalescedCount();
+			this.rejectedCount = stats.getRejectedCount();
+			this.cpuTime = stats.getUsage().getCpuTime() / 1e6;
+			this.allocatedBytes = stats.getUsage().getAllocatedBytes();
+			this.queueWaitP50 = stats.getQueueWaits().getPercentile(0.5, TimeUnit.MILLISECONDS);
+			this.queueWaitP99 = stats.getQueueWaits().getPercentile(0.99, TimeUnit.MILLISECONDS);
+			this.queueWaitP999 = stats.getQueueWaits().getPercentile(0.999, TimeUnit.MILLISECONDS);
+		}
+
+		/**
+		 * Gets the identifier of the script.
+		 *
+		 * @return The identifier as a {@link String}.
+		 */
+		public String getScript() {
+			return script;
+		}
+
+		/**
+		 * Gets the amount of compilations.
+		 *
+		 * @return The amount of compilations.
+		 */
+		public long getCompileCount() {
+			return compileCount;
+		}
+
+		/**
+		 * Gets the median compile time.
+		 *
+		 * @return The p50 in milliseconds.
+		 */
+		public double getCompileP50() {
+			return compileP50;
+		}
+
+		/**
+		 * Gets the 99th percentile compile time.
+		 *
+		 * @return The p99 in milliseconds.
+		 */
+		public double getCompileP99() {
+			return compileP99;
+		}
+
+		/**
+		 * Gets the amount of async calls which overran their deadline.
+		 *
+		 * @return The amount of timeouts.
+		 */
+		public long getTimeoutCount() {
+			return timeoutCount;
+		}
+
+		/**
+		 * Gets the amount of async calls which joined an equal call in flight.
+		 *
+		 * @return The amount of coalesced calls.
+		 */
+		public long getCoalescedCount() {
+			return coalescedCount;
+		}
+
+		/**
+		 * Gets the amount of async calls rejected or shed by a full admission queue.
+		 *
+		 * @return The amount of rejections.
+		 */
+		public long getRejectedCount() {
+			return rejectedCount;
+		}
+
+		/**
+		 * Gets the CPU time of every metered invocation.
+		 *
+		 * @return The CPU time.
+		 */
+		public double getCpuTime() {
+			return cpuTime;
+		}
+
+		/**
+		 * Gets the bytes allocated by every metered invocation.
+		 *
+		 * @return The bytes allocated.
+		 */
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		/**
+		 * Gets the median queue wait.
+		 *
+		 * @return The p50 in milliseconds.
+		 */
+		public double getQueueWaitP50() {
+			return queueWaitP50;
+		}
+
+		/**
+		 * Gets the 99th percentile queue wait.
+		 *
+		 * @return The p99 in milliseconds.
+		 */
+		public double getQueueWaitP99() {
+			return queueWaitP99;
+		}
+
+		/**
+		 * Gets the 99.9th percentile queue wait.
+		 *
+		 * @return The p999 in milliseconds.
+		 */
+		public double getQueueWaitP999() {
+			return queueWaitP999;
+		}
+	}
+
+	/**
+	 * A snapshot of the {@link FunctionStats} of a function.
+	 */
+	class FunctionSummary {
+
+		/**
+		 * The identifier of the script as a {@link String}.
+		 */
+		private final String script;
+
+		/**
+		 * The name of the function.
+		 */
+		private final String function;
+
+		/**
+		 * The amount of invocations.
+		 */
+		private final long invocationCount;
+
+		/**
+		 * The amount of failed invocations.
+		 */
+		private final long errorCount;
+
+		/**
+		 * The median latency.
+		 */
+		private final double p50;
+
+		/**
+		 * The 99th percentile latency.
+		 */
+		private final double p99;
+
+		/**
+		 * The 99.9th percentile latency.
+		 */
+		private final double p999;
+
+		/**
+		 * The highest latency.
+		 */
+		private final double max;
+
+		/**
+		 * Takes a snapshot of {@link FunctionStats}.
+		 *
+		 * @param script
+		 * 		The {@link ScriptStats} of the script defining the function.
+		 * @param stats
+		 * 		The {@link FunctionStats}.
+		 */
+		FunctionSummary(ScriptStats script, FunctionStats stats) {
+			this.script = String.valueOf(script.getIdentifier());
+			this.function = stats.getName();
+			this.invocationCount = stats.getInvocationCount();
+			this.errorCount = stats.getErrorCount();
+			this.p50 = stats.getLatencies().getPercentile(0.5, TimeUnit.MILLISECONDS);
+			this.p99 = stats.getLatencies().getPercentile(0.99, TimeUnit.MILLISECONDS);
+			this.p999 = stats.getLatencies().getPercentile(0.999, TimeUnit.MILLISECONDS);
+			this.max = (double) stats.getLatencies().getMax() / TimeUnit.MILLISECONDS.toNanos(1);
+		}
+
+		/**
+		 * Gets the identifier of the script.
+		 *
+		 * @return The identifier as a {@link String}.
+		 */
+		public String getScript() {
+			return script;
+		}
+
+		/**
+		 * Gets the name of the function.
+		 *
+		 * @return The name of the function.
+		 */
+		public String getFunction() {
+			return function;
+		}
+
+		/**
+		 * Gets the amount of invocations.
+		 *
+		 * @return The amount of invocations.
+		 */
+		public long getInvocationCount() {
+			return invocationCount;
+		}
+
+		/**
+		 * Gets the amount of failed invocations.
+		 *
+		 * @return The amount of failed invocations.
+		 */
+		public long getErrorCount() {
+			return errorCount;
+		}
+
+		/**
+		 * Gets the median latency.
+		 *
+		 * @return The p50 in milliseconds.
+		 */
+		public double getP50() {
+			return p50;
+		}
+
+		/**
+		 * Gets the 99th percentile latency.
+		 *
+		 * @return The p99 in milliseconds.
+		 */
+		public double getP99() {
+			return p99;
+		}
+
+		/**
+		 * Gets the 99.9th percentile latency.
+		 *
+		 * @return The p999 in milliseconds.
+		 */
+		public double getP999() {
+			return p999;
+		}
+
+		/**
+		 * Gets the highest latency.
+		 *
+		 * @return The maximum in milliseconds.
+		 */
+		public double getMax() {
+			return max;
+		}
+	}
+}
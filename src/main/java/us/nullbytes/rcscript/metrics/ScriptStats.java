@@ -0,0 +1,176 @@
+package us.nullbytes.rcscript.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics of every script packed under a single identifier.
+ *
+ * @author Corey Shupe
+ * @see ScriptMetrics#forScript(Object)
+ */
+public class ScriptStats {
+
+	/**
+	 * The identifier of the script.
+	 */
+	private final Object identifier;
+
+	/**
+	 * The {@link LatencyHistogram} of every compilation, including the first evaluation.
+	 */
+	private final LatencyHistogram compileTimes = new LatencyHistogram();
+
+	/**
+	 * The {@link LatencyHistogram} of the time async calls waited before running.
+	 */
+	private final LatencyHistogram queueWaits = new LatencyHistogram();
+
+	/**
+	 * The {@link FunctionStats} of every function invoked so far.
+	 */
+	private final Map<String, FunctionStats> functions = new ConcurrentHashMap<>();
+
+	/**
+	 * The amount of async calls which overran their deadline.
+	 */
+	private final LongAdder timeouts = new LongAdder();
+
+	/**
+	 * The amount of async calls which joined an equal call in flight.
+	 */
+	private final LongAdder coalesced = new LongAdder();
+
+	/**
+	 * The amount of async calls rejected or shed by a full admission queue.
+	 */
+	private final LongAdder rejections = new LongAdder();
+
+	/**
+	 * The {@link ResourceUsage} of every metered invocation.
+	 */
+	private final ResourceUsage usage = new ResourceUsage();
+
+	/**
+	 * Initializes new {@link ScriptStats}.
+	 *
+	 * @param identifier
+	 * 		The identifier of the script.
+	 */
+	ScriptStats(Object identifier) {
+		this.identifier = identifier;
+	}
+
+	/**
+	 * Gets the {@link FunctionStats} of a function, creating them on first use.
+	 *
+	 * @param name
+	 * 		The name of the function, or {@link ScriptMetrics#EVALUATION} for plain evaluations.
+	 *
+	 * @return The {@link FunctionStats}.
+	 */
+	public FunctionStats function(String name) {
+		FunctionStats stats = functions.get(name);
+		return stats != null ? stats : functions.computeIfAbsent(name, FunctionStats::new);
+	}
+
+	/**
+	 * Records an async call which overran its deadline.
+	 */
+	public void recordTimeout() {
+		timeouts.increment();
+	}
+
+	/**
+	 * Gets the amount of async calls which overran their deadline.
+	 *
+	 * @return The amount of timeouts.
+	 */
+	public long getTimeoutCount() {
+		return timeouts.sum();
+	}
+
+	/**
+	 * Records an async call which joined an equal call in flight rather than running, see {@link
+	 * us.nullbytes.rcscript.Script#setSingleFlight(boolean)}.
+	 */
+	public void recordCoalesced() {
+		coalesced.increment();
+	}
+
+	/**
+	 * Gets the amount of async calls which joined an equal call in flight.
+	 *
+	 * @return The amount of coalesced calls.
+	 */
+	public long getCoalescedCount() {
+		return coalesced.sum();
+	}
+
+	/**
+	 * Records an async call rejected or shed by a full admission queue, see {@link
+	 * us.nullbytes.rcscript.Script#setQueueLimit(int, us.nullbytes.rcscript.ScriptManager.RejectionPolicy)}.
+	 */
+	public void recordRejection() {
+		rejections.increment();
+	}
+
+	/**
+	 * Gets the amount of async calls rejected or shed by a full admission queue.
+	 *
+	 * @return The amount of rejections.
+	 */
+	public long getRejectedCount() {
+		return rejections.sum();
+	}
+
+	/**
+	 * Gets the {@link ResourceUsage} of every metered invocation, see {@link
+	 * ScriptMetrics#setResourceAccountingEnabled(boolean)}.
+	 *
+	 * @return The {@link ResourceUsage}.
+	 */
+	public ResourceUsage getUsage() {
+		return usage;
+	}
+
+	/**
+	 * Gets the identifier of the script.
+	 *
+	 * @return The identifier, or {@link ScriptMetrics#ANONYMOUS} for scripts which aren't packed.
+	 */
+	public Object getIdentifier() {
+		return identifier;
+	}
+
+	/**
+	 * Gets the {@link LatencyHistogram} of every compilation, including the first evaluation.
+	 *
+	 * @return The {@link LatencyHistogram} of compile times.
+	 */
+	public LatencyHistogram getCompileTimes() {
+		return compileTimes;
+	}
+
+	/**
+	 * Gets the {@link LatencyHistogram} of the time async calls waited before running, both in the
+	 * queue of the executor and on the concurrency limit.
+	 *
+	 * @return The {@link LatencyHistogram} of queue waits.
+	 */
+	public LatencyHistogram getQueueWaits() {
+		return queueWaits;
+	}
+
+	/**
+	 * Gets the {@link FunctionStats} of every function invoked so far.
+	 *
+	 * @return An unmodifiable view of the {@link FunctionStats}.
+	 */
+	public Collection<FunctionStats> getFunctions() {
+		return Collections.unmodifiableCollection(functions.values());
+	}
+}
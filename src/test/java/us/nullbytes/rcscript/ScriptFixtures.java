@@ -0,0 +1,90 @@
+package us.nullbytes.rcscript;
+
+import org.junit.Assert;
+import org.junit.Assume;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The managers and scripts shared by the feature tests. Tests run on the built-in rcexpr engine
+ * unless they need JavaScript, in which case they are skipped on a JVM without it.
+ */
+final class ScriptFixtures {
+
+	/**
+	 * A function counting its calls, spinning for {@code n} iterations and tracking the peak
+	 * amount of concurrent calls, for scripts which need slow work.
+	 */
+	final static String WORK = "var calls = 0, running = 0, peak = 0; " +
+			"function work(n) { calls += 1; running += 1; if (running > peak) peak = running; " +
+			"var i = 0; while (i < n) { i += 1; } running -= 1; return i; } " +
+			"function getCalls() { return calls; } function getPeak() { return peak; } ";
+
+	/**
+	 * Prevents initialization.
+	 */
+	private ScriptFixtures() {
+	}
+
+	/**
+	 * Gets the shared manager of the rcexpr engine.
+	 *
+	 * @return The {@link DefaultScriptManager}.
+	 */
+	static DefaultScriptManager expressions() {
+		return DefaultScriptManager.processEngine("rcexpr").orElseThrow();
+	}
+
+	/**
+	 * Gets the shared manager of the JavaScript engine, skipping the test if there is none.
+	 *
+	 * @return The {@link DefaultScriptManager}.
+	 */
+	static DefaultScriptManager javaScript() {
+		Optional<DefaultScriptManager> manager = DefaultScriptManager.processEngine("js");
+		Assume.assumeTrue(manager.isPresent());
+		return manager.get();
+	}
+
+	/**
+	 * Packs a script and unpacks it.
+	 *
+	 * @param manager
+	 * 		The {@link ScriptManager} to pack into.
+	 * @param identifier
+	 * 		The identifier to pack under.
+	 * @param source
+	 * 		The source of the script.
+	 *
+	 * @return The unpacked {@link Script}.
+	 */
+	static Script pack(ScriptManager manager, Object identifier, String source) {
+		manager.packScript(source, identifier).build();
+		return manager.unpack(identifier).orElseThrow();
+	}
+
+	/**
+	 * Gets the cause of a failed future, asserting its type.
+	 *
+	 * @param future
+	 * 		The {@link Future} expected to fail.
+	 * @param type
+	 * 		The expected type of the cause.
+	 * @param <T>
+	 * 		The expected type of the cause.
+	 *
+	 * @return The cause.
+	 */
+	static <T extends Throwable> T failure(Future<?> future, Class<T> type) throws Exception {
+		try {
+			future.get(10, TimeUnit.SECONDS);
+		} catch (ExecutionException ex) {
+			Assert.assertEquals(type, ex.getCause().getClass());
+			return type.cast(ex.getCause());
+		}
+		throw new AssertionError("The call did not fail.");
+	}
+}
@@ -0,0 +1,102 @@
+package us.nullbytes.rcscript;
+
+import org.junit.Assert;
+import org.junit.Test;
+import us.nullbytes.rcscript.cache.CompiledScriptCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class TestCaching {
+
+	private final static DefaultScriptManager manager = ScriptFixtures.expressions();
+
+	/**
+	 * Tests memoized functions and evaluations, invalidated when the bindings change.
+	 */
+	@Test
+	public void testMemoization() {
+		ScriptBuilder builder = manager.openScript("var calls = 0; function init() {} " +
+				"function square(n) { calls += 1; return n * n * factor; } function getCalls() { return calls; }")
+				.place("factor", 1).setMemoization(2, "square");
+		Script script = builder.build();
+		Assert.assertEquals(9, script.expectInt("square", 3));
+		Assert.assertEquals(9, script.expectInt("square", 3));
+		Assert.assertEquals(1, script.expectInt("getCalls"));
+		Assert.assertEquals(4, script.expectInt("square", 2));
+		Assert.assertEquals(1, script.expectInt("square", 1));
+		Assert.assertEquals(1, script.getResultCacheStats().getHitCount());
+		Assert.assertEquals(1, script.getResultCacheStats().getEvictionCount());
+		builder.place("factor", 2);
+		Assert.assertEquals(18, script.expectInt("square", 3));
+		Assert.assertEquals(4, script.expectInt("getCalls"));
+		Script evaluation = manager.openScript("1 + 4").setInitFunction(null).setMemoization(1).build();
+		Assert.assertEquals(Integer.valueOf(5), evaluation.expect(Integer.class));
+		Assert.assertEquals(Integer.valueOf(5), evaluation.expect(Integer.class));
+		Assert.assertEquals(0.5, evaluation.getResultCacheStats().getHitRate(), 0);
+		Assert.assertNull(manager.openScript("1 + 4").setInitFunction(null).build().getResultCacheStats());
+	}
+
+	/**
+	 * Tests equal concurrent async calls joining the call in flight.
+	 */
+	@Test
+	public void testSingleFlight() throws Exception {
+		UUID scriptID = UUID.randomUUID();
+		Script script = ScriptFixtures.pack(manager, scriptID, ScriptFixtures.WORK + "function init() {} " +
+				"function lookup(key) { work(5000000); return key * 2; }");
+		script.setSingleFlight(true);
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		for (int i = 0; i < 5; i++) futures.add(script.expectLater(Integer.class, "lookup", 21));
+		for (CompletableFuture<Integer> future : futures) {
+			Assert.assertEquals(Integer.valueOf(42), future.get(10, TimeUnit.SECONDS));
+		}
+		Assert.assertEquals(1, script.expectInt("getCalls"));
+		Assert.assertEquals(4, manager.getMetrics().getStats(scriptID).getCoalescedCount());
+		Assert.assertEquals(Integer.valueOf(42), script.expectLater(Integer.class, "lookup", 21).get(10, TimeUnit.SECONDS));
+		Assert.assertEquals(2, script.expectInt("getCalls"));
+	}
+
+	/**
+	 * Tests compiled scripts bound to an engine being reused on its next lease, and leaving the
+	 * cache once the pool drops the engine.
+	 */
+	@Test
+	public void testCompiledScriptPurge() {
+		DefaultScriptManager javaScript = ScriptFixtures.javaScript();
+		CompiledScriptCache cache = javaScript.getCompiledScriptCache();
+		String source = "function init() {} function purged() { return 1; }";
+		Script script = javaScript.openScript(source).build();
+		Assert.assertEquals(1, script.expectInt("purged"));
+		int size = cache.size();
+		long hits = cache.getHitCount();
+		script.release();
+		Assert.assertEquals(size, cache.size());
+		script = javaScript.openScript(source).build();
+		Assert.assertEquals(hits + 1, cache.getHitCount());
+		Assert.assertEquals(1, script.expectInt("purged"));
+		script.release();
+		javaScript.getEnginePool().clear();
+		Assert.assertEquals(size - 1, cache.size());
+	}
+
+	/**
+	 * Tests evaluations of an engine binding its compiled scripts never being shared with another
+	 * engine.
+	 */
+	@Test
+	public void testCompiledScriptEngines() {
+		DefaultScriptManager javaScript = ScriptFixtures.javaScript();
+		Script first = javaScript.openScript("var z = y + 1; z").setInitFunction(null).place("y", 10).build();
+		Script second = javaScript.openScript("var z = y + 1; z").setInitFunction(null).place("y", 10).build();
+		Assert.assertNotSame(first.getScriptEngine(), second.getScriptEngine());
+		Assert.assertEquals(11, ((Number) first.execute()).intValue());
+		Assert.assertEquals(11, ((Number) second.execute()).intValue());
+		Assert.assertEquals(11, ((Number) second.getScriptEngine().get("z")).intValue());
+		first.release();
+		second.release();
+	}
+}
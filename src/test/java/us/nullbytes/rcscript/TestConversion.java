@@ -0,0 +1,134 @@
+package us.nullbytes.rcscript;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class TestConversion {
+
+	/**
+	 * Tests primitive expectations coercing the numbers returned by the engine.
+	 */
+	@Test
+	public void testPrimitiveExpect() {
+		Script script = ScriptFixtures.expressions().openScript("function init() {} function add(a, b) { return a + b; } " +
+				"function half(a) { return a / 2; }").build();
+		Assert.assertEquals(5, script.expectInt("add", 2, 3));
+		Assert.assertEquals(5L, script.expectLong("add", 2L, 3L));
+		Assert.assertEquals(1.5, script.expectDouble("half", 3), 0);
+		Assert.assertEquals(Integer.valueOf(9), script.expect(Integer.class, "add", 4, 5));
+		try {
+			script.expectInt("half", 3);
+			Assert.fail();
+		} catch (Exception ex) {
+			Assert.assertEquals(ex.getClass(), ClassCastException.class);
+		}
+	}
+
+	/**
+	 * Tests converting script arrays and objects into Java collections.
+	 */
+	@Test
+	public void testResultConverters() {
+		DefaultScriptManager manager = ScriptFixtures.javaScript();
+		Script script = manager.openScript("function init() {} function list() { return [1, 'a']; } " +
+				"function object() { return {a: 1, b: [2]}; }").build();
+		Assert.assertEquals(Arrays.asList(1, "a"), script.expect(List.class, "list"));
+		Map<?, ?> object = script.expect(Map.class, "object");
+		Assert.assertNotNull(object);
+		Assert.assertEquals(Collections.singletonList(2), object.get("b"));
+		Assert.assertEquals("1", manager.getConverters().convert(1, String.class));
+	}
+
+	/**
+	 * Tests interfaces bound to a script calling its functions through the proxy, falling back to
+	 * default methods, and failing at bind time when a function is missing.
+	 */
+	@Test
+	public void testBind() throws Exception {
+		Script script = ScriptFixtures.expressions().openScript("var calls = 0; function init() {} " +
+				"function twice(a) { calls += 1; return a * 2; } function half(a) { return a / 2; } " +
+				"function getCalls() { return calls; }").build();
+		Calculator calculator = script.bind(Calculator.class);
+		Assert.assertSame(calculator, script.bind(Calculator.class));
+		Assert.assertEquals(8, calculator.twice(4));
+		Assert.assertEquals(8, calculator.twice(4));
+		Assert.assertEquals(1.5, calculator.half(3), 0);
+		Assert.assertEquals("calculator", calculator.name());
+		Assert.assertEquals(2, script.expectInt("getCalls"));
+		try {
+			script.bind(Incomplete.class);
+			Assert.fail();
+		} catch (NoSuchMethodException ex) {
+			Assert.assertTrue(ex.getMessage().contains("missing"));
+			Assert.assertFalse(ex.getMessage().contains("twice"));
+		}
+		try {
+			script.bind(TestConversion.class);
+			Assert.fail();
+		} catch (IllegalArgumentException ignored) {
+		}
+	}
+
+	/**
+	 * An interface implemented by the functions of a script.
+	 */
+	public interface Calculator {
+
+		/**
+		 * Doubles a number.
+		 *
+		 * @param a
+		 * 		The number.
+		 *
+		 * @return The doubled number.
+		 */
+		int twice(int a);
+
+		/**
+		 * Halves a number.
+		 *
+		 * @param a
+		 * 		The number.
+		 *
+		 * @return The halved number.
+		 */
+		double half(double a);
+
+		/**
+		 * Gets the name of the calculator, which the script does not define.
+		 *
+		 * @return The name.
+		 */
+		default String name() {
+			return "calculator";
+		}
+	}
+
+	/**
+	 * An interface with a method the script lacks.
+	 */
+	public interface Incomplete {
+
+		/**
+		 * Doubles a number.
+		 *
+		 * @param a
+		 * 		The number.
+		 *
+		 * @return The doubled number.
+		 */
+		int twice(int a);
+
+		/**
+		 * A function the script lacks.
+		 *
+		 * @return Nothing, as binding fails.
+		 */
+		int missing();
+	}
+}
@@ -0,0 +1,137 @@
+package us.nullbytes.rcscript;
+
+import org.junit.Assert;
+import org.junit.Test;
+import us.nullbytes.rcscript.cache.EvictionPolicy;
+
+import javax.script.ScriptException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestEviction {
+
+	/**
+	 * The source of every cached script.
+	 */
+	private final static String SOURCE = "function init() {} function one() { return 1; }";
+
+	/**
+	 * Tests the least recently unpacked script being evicted over the maximum size, notified and
+	 * released along with its engine.
+	 */
+	@Test
+	public void testMaximumSize() {
+		DefaultScriptManager manager = (DefaultScriptManager) ScriptFixtures.expressions().generateUniqueInstance();
+		try {
+			List<EvictionPolicy.Cause> causes = new ArrayList<>();
+			List<Object> evicted = new ArrayList<>();
+			manager.applyEvictionPolicy(new EvictionPolicy().setMaximumSize(2).setListener((identifier, script, cause) -> {
+				evicted.add(identifier);
+				causes.add(cause);
+			}));
+			Script first = ScriptFixtures.pack(manager, "first", SOURCE);
+			Script second = ScriptFixtures.pack(manager, "second", SOURCE);
+			List<ScriptException> failures = new ArrayList<>();
+			second.handleExceptions(failures::add);
+			Assert.assertSame(first, manager.unpack("first").orElseThrow());
+			ScriptFixtures.pack(manager, "third", SOURCE);
+
+			Assert.assertEquals(List.of("second"), evicted);
+			Assert.assertEquals(List.of(EvictionPolicy.Cause.SIZE), causes);
+			Assert.assertFalse(manager.exists("second"));
+			Assert.assertTrue(manager.exists("first"));
+			Assert.assertEquals(2, manager.getEnginePool().getLeasedCount());
+			Assert.assertNull(second.execute("one"));
+			Assert.assertEquals(1, failures.size());
+			Assert.assertEquals(1, manager.getScriptCacheStats().getEvictionCount());
+		} finally {
+			manager.shutdown();
+		}
+	}
+
+	/**
+	 * Tests scripts being evicted over the maximum weight.
+	 */
+	@Test
+	public void testMaximumWeight() {
+		DefaultScriptManager manager = (DefaultScriptManager) ScriptFixtures.expressions().generateUniqueInstance();
+		try {
+			List<EvictionPolicy.Cause> causes = new ArrayList<>();
+			manager.applyEvictionPolicy(new EvictionPolicy().setMaximumWeight(5).setWeigher(script -> 2)
+					.setListener((identifier, script, cause) -> causes.add(cause)));
+			for (int i = 0; i < 3; i++) ScriptFixtures.pack(manager, i, SOURCE);
+			Assert.assertFalse(manager.exists(0));
+			Assert.assertEquals(List.of(EvictionPolicy.Cause.WEIGHT), causes);
+			Assert.assertEquals(4, manager.getScriptCacheStats().getWeight());
+			Assert.assertEquals(2, manager.getScriptCacheStats().getEvictionWeight());
+		} finally {
+			manager.shutdown();
+		}
+	}
+
+	/**
+	 * Tests scripts expiring after their insertion and after their last unpack.
+	 */
+	@Test
+	public void testExpiry() throws InterruptedException {
+		DefaultScriptManager manager = (DefaultScriptManager) ScriptFixtures.expressions().generateUniqueInstance();
+		try {
+			List<EvictionPolicy.Cause> causes = new ArrayList<>();
+			manager.applyEvictionPolicy(new EvictionPolicy().setExpireAfterWrite(Duration.ofMillis(50))
+					.setListener((identifier, script, cause) -> causes.add(cause)));
+			ScriptFixtures.pack(manager, "written", SOURCE);
+			Thread.sleep(100);
+			Assert.assertFalse(manager.unpack("written").isPresent());
+			Assert.assertEquals(List.of(EvictionPolicy.Cause.EXPIRED), causes);
+			Assert.assertEquals(0, manager.getEnginePool().getLeasedCount());
+
+			manager.applyEvictionPolicy(new EvictionPolicy().setExpireAfterAccess(Duration.ofMillis(200)));
+			ScriptFixtures.pack(manager, "accessed", SOURCE);
+			for (int i = 0; i < 4; i++) {
+				Thread.sleep(75);
+				Assert.assertTrue(manager.unpack("accessed").isPresent());
+			}
+			Thread.sleep(300);
+			Assert.assertFalse(manager.unpack("accessed").isPresent());
+		} finally {
+			manager.shutdown();
+		}
+	}
+
+	/**
+	 * Tests TinyLFU admission keeping often unpacked scripts through a scan of new ones, bounded
+	 * by size and by weight alone.
+	 */
+	@Test
+	public void testTinyLfu() {
+		testScanResistance(new EvictionPolicy().setMaximumSize(10));
+		testScanResistance(new EvictionPolicy().setMaximumWeight(10_000).setWeigher(script -> 1000));
+	}
+
+	/**
+	 * Unpacks ten scripts often, then packs fifty new ones, expecting the first ones to stay cached.
+	 *
+	 * @param policy
+	 * 		The {@link EvictionPolicy} bounding the cache to ten scripts.
+	 */
+	private static void testScanResistance(EvictionPolicy policy) {
+		DefaultScriptManager manager = (DefaultScriptManager) ScriptFixtures.expressions().generateUniqueInstance();
+		try {
+			manager.applyEvictionPolicy(policy.setAdmission(EvictionPolicy.Admission.TINY_LFU));
+			for (int i = 0; i < 10; i++) ScriptFixtures.pack(manager, "hot" + i, SOURCE);
+			for (int round = 0; round < 5; round++) {
+				for (int i = 0; i < 10; i++) Assert.assertTrue(manager.unpack("hot" + i).isPresent());
+			}
+			for (int i = 0; i < 50; i++) manager.packScript(SOURCE, "cold" + i).build();
+			// the last hot script may still sit in the window, where it only ties the main ones
+			int kept = 0;
+			for (int i = 0; i < 10; i++) if (manager.exists("hot" + i)) kept++;
+			Assert.assertTrue(kept >= 9);
+			Assert.assertEquals(10, manager.getScriptCacheStats().getSize());
+			Assert.assertEquals(10, manager.getEnginePool().getLeasedCount());
+		} finally {
+			manager.shutdown();
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package us.nullbytes.rcscript;
+
+import org.junit.Assert;
+import org.junit.Test;
+import us.nullbytes.rcscript.execution.ScriptMailbox;
+import us.nullbytes.rcscript.execution.ScriptOverloadException;
+import us.nullbytes.rcscript.execution.ScriptTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestExecution {
+
+	private final static DefaultScriptManager manager = ScriptFixtures.expressions();
+
+	/**
+	 * Tests serialized async calls never running at once.
+	 */
+	@Test
+	public void testSerial() throws Exception {
+		Script script = manager.openScript(ScriptFixtures.WORK + "function init() {}").build();
+		script.setSerial(true);
+		List<Future<Object>> futures = new ArrayList<>();
+		for (int i = 0; i < 20; i++) futures.add(script.executeAsync("work", 50000));
+		Assert.assertTrue(script.getMailboxDepth() > 0);
+		for (Future<Object> future : futures) future.get(10, TimeUnit.SECONDS);
+		Assert.assertEquals(1, script.expectInt("getPeak"));
+	}
+
+	/**
+	 * Tests a mailbox running its queued calls in order once its executor shut down.
+	 */
+	@Test
+	public void testMailboxShutdown() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		ScriptMailbox mailbox = new ScriptMailbox(executor);
+		CountDownLatch blocked = new CountDownLatch(1);
+		AtomicInteger ran = new AtomicInteger();
+		mailbox.execute(() -> {
+			try {
+				blocked.await();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		for (int i = 0; i < 100000; i++) mailbox.execute(ran::incrementAndGet);
+		executor.shutdown();
+		blocked.countDown();
+		Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		Assert.assertEquals(100000, ran.get());
+		Assert.assertEquals(0, mailbox.getDepth());
+		try {
+			mailbox.execute(ran::incrementAndGet);
+			Assert.fail("The call was not rejected.");
+		} catch (RejectedExecutionException expected) {
+			// the executor shut down
+		}
+		Assert.assertEquals(0, mailbox.getDepth());
+		Assert.assertEquals(100000, ran.get());
+	}
+
+	/**
+	 * Tests limited async calls never running beyond the limit.
+	 */
+	@Test
+	public void testConcurrencyLimit() throws Exception {
+		Script script = manager.openScript(ScriptFixtures.WORK + "function init() {}").build();
+		script.setConcurrencyLimit(1);
+		List<Future<Object>> futures = new ArrayList<>();
+		for (int i = 0; i < 20; i++) futures.add(script.executeAsync("work", 50000));
+		for (Future<Object> future : futures) future.get(10, TimeUnit.SECONDS);
+		Assert.assertEquals(20, script.expectInt("getCalls"));
+		Assert.assertEquals(1, script.expectInt("getPeak"));
+	}
+
+	/**
+	 * Tests async calls beyond the queue limit being rejected, shed or run by the caller.
+	 */
+	@Test
+	public void testAdmission() throws Exception {
+		UUID scriptID = UUID.randomUUID();
+		Script script = ScriptFixtures.pack(manager, scriptID, ScriptFixtures.WORK + "function init() {}");
+		script.setSerial(true);
+		script.setQueueLimit(1, ScriptManager.RejectionPolicy.FAIL_FAST);
+		Future<Object> running = script.executeAsync("work", 2000000);
+		while (script.getQueueDepth() > 0) Thread.onSpinWait();
+		Future<Object> waiting = script.executeAsync("work", 10);
+		Assert.assertEquals(1, script.getQueueDepth());
+		Assert.assertFalse(ScriptFixtures.failure(script.executeAsync("work", 10), ScriptOverloadException.class).isShed());
+
+		script.setQueueLimit(1, ScriptManager.RejectionPolicy.SHED_OLDEST);
+		Future<Object> stale = script.executeAsync("work", 10);
+		Future<Object> fresh = script.executeAsync("work", 10);
+		Assert.assertTrue(ScriptFixtures.failure(stale, ScriptOverloadException.class).isShed());
+		running.get(10, TimeUnit.SECONDS);
+		waiting.get(10, TimeUnit.SECONDS);
+		fresh.get(10, TimeUnit.SECONDS);
+
+		// a serial script never runs a call on the caller
+		script.setQueueLimit(1, ScriptManager.RejectionPolicy.CALLER_RUNS);
+		running = script.executeAsync("work", 2000000);
+		while (script.getQueueDepth() > 0) Thread.onSpinWait();
+		waiting = script.executeAsync("work", 10);
+		Assert.assertFalse(ScriptFixtures.failure(script.expectLater(Integer.class, "work", 10), ScriptOverloadException.class).isShed());
+		running.get(10, TimeUnit.SECONDS);
+		waiting.get(10, TimeUnit.SECONDS);
+		Assert.assertEquals(1, script.expectInt("getPeak"));
+		Assert.assertEquals(3, manager.getMetrics().getStats(scriptID).getRejectedCount());
+	}
+
+	/**
+	 * Tests async calls beyond the queue limit being run by the caller.
+	 */
+	@Test
+	public void testCallerRuns() throws Exception {
+		ScriptManager manager = TestExecution.manager.generateUniqueInstance();
+		manager.setExecutor(Executors.newSingleThreadExecutor());
+		Script script = manager.openScript(ScriptFixtures.WORK + "function init() {}").build();
+		script.setQueueLimit(1, ScriptManager.RejectionPolicy.CALLER_RUNS);
+		Future<Object> running = script.executeAsync("work", 2000000);
+		while (script.getQueueDepth() > 0) Thread.onSpinWait();
+		Future<Object> waiting = script.executeAsync("work", 10);
+		CompletableFuture<Integer> inline = script.expectLater(Integer.class, "work", 10);
+		Assert.assertTrue(inline.isDone());
+		Assert.assertEquals(Integer.valueOf(10), inline.get());
+		running.get(10, TimeUnit.SECONDS);
+		waiting.get(10, TimeUnit.SECONDS);
+		Assert.assertEquals(3, script.expectInt("getCalls"));
+		((ExecutorService) manager.getExecutor()).shutdown();
+	}
+
+	/**
+	 * Tests async calls overrunning their deadline, the script keeping its state unless reset on
+	 * timeout.
+	 */
+	@Test
+	public void testDeadline() throws Exception {
+		// enough threads to replace the engine while overdue calls still run
+		ScriptManager manager = TestExecution.manager.generateUniqueInstance();
+		manager.setExecutor(Executors.newFixedThreadPool(4));
+		Script script = manager.openScript(ScriptFixtures.WORK + "function init() {} function twice(a) { return a * 2; }").build();
+		ScriptFixtures.failure(script.executeWithin(Duration.ofMillis(50), "work", 20000000), ScriptTimeoutException.class);
+		Assert.assertEquals(8, script.expectInt("twice", 4));
+		Thread.sleep(300);
+		Assert.assertEquals(1, script.expectInt("getCalls"));
+
+		script.setResetOnTimeout(true);
+		ScriptFixtures.failure(script.executeWithin(Duration.ofMillis(50), "work", 20000000), ScriptTimeoutException.class);
+		long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (script.expectInt("getCalls") != 0) {
+			Assert.assertTrue(System.nanoTime() < end);
+			Thread.sleep(10);
+		}
+		Assert.assertEquals(8, script.expectInt("twice", 4));
+		((ExecutorService) manager.getExecutor()).shutdownNow();
+	}
+
+	/**
+	 * Tests the execution mode replacing only an executor created by the manager.
+	 */
+	@Test
+	public void testExecutionMode() throws Exception {
+		ScriptManager manager = TestExecution.manager.generateUniqueInstance();
+		ExecutorService given = Executors.newSingleThreadExecutor();
+		try {
+			manager.setExecutor(given);
+			manager.setExecutionMode(ScriptManager.ExecutionMode.POOLED);
+			Assert.assertSame(given, manager.getExecutor());
+			Assert.assertFalse(given.isShutdown());
+
+			manager.setExecutor(null);
+			ExecutorService created = (ExecutorService) manager.getExecutor();
+			Assert.assertNotSame(given, created);
+			manager.setExecutionMode(ScriptManager.ExecutionMode.POOLED);
+			Assert.assertTrue(created.isShutdown());
+			Assert.assertNotSame(created, manager.getExecutor());
+			Script script = manager.openScript("function init() {} function twice(a) { return a * 2; }").build();
+			Assert.assertEquals(Integer.valueOf(8), script.executeAsync("twice", 4).get(10, TimeUnit.SECONDS));
+		} finally {
+			given.shutdown();
+			manager.shutdown();
+		}
+	}
+}
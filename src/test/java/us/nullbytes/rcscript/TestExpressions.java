@@ -0,0 +1,75 @@
+package us.nullbytes.rcscript;
+
+import org.junit.Assert;
+import org.junit.Test;
+import us.nullbytes.rcscript.expression.ExpressionEngineFactory;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class TestExpressions {
+
+	/**
+	 * Tests the built-in rcexpr engine running the same scripts as the JavaScript engine.
+	 */
+	@Test
+	public void testExpressionEngine() throws Exception {
+		DefaultScriptManager expressions = ScriptFixtures.expressions();
+		Assert.assertEquals(Integer.valueOf(5), expressions.openScript("eval(1 + 4)").setInitFunction(null).build().expect(Integer.class));
+		Script script = expressions.openScript("function init() {} " +
+				"function secondary(numb) { return eval(numb + typer); } " +
+				"function fib(n) { if (n < 2) return n; return fib(n - 1) + fib(n - 2); } " +
+				"function between(n, low, high) { return n >= low && n <= high ? \"yes\" : \"no\"; }").place("typer", 3).build();
+		Assert.assertEquals(10, script.expectInt("secondary", 7));
+		Assert.assertEquals(55, script.expectInt("fib", 10));
+		Assert.assertEquals("yes", script.expect(String.class, "between", 2, 1, 3));
+		Assert.assertEquals("no", script.expect(String.class, "between", 0.5, 1, 3));
+		try (ScriptTenant tenant = script.tenant()) {
+			Assert.assertEquals(Integer.valueOf(8), tenant.expect(Integer.class, "fib", 6));
+		}
+		Assert.assertEquals(2.5, expressions.openScript("var x = 5; x / 2").setInitFunction(null).build().expect(Double.class), 0);
+	}
+
+	/**
+	 * Tests statements needing a separator, and hexadecimal numbers.
+	 */
+	@Test
+	public void testSyntax() throws Exception {
+		ScriptEngine engine = new ExpressionEngineFactory().getScriptEngine();
+		Assert.assertEquals(2, engine.eval("1; 2"));
+		Assert.assertEquals(2, engine.eval("1\n2"));
+		Assert.assertEquals(3, engine.eval("var a = 1 /* one\n */ a + 2"));
+		Assert.assertNull(engine.eval("function f() { return\n5 } f()"));
+		Assert.assertEquals(16, engine.eval("0x10"));
+		Assert.assertEquals(255, engine.eval("0XfF"));
+		Assert.assertEquals(0x7fffffffffL, engine.eval("0x7fffffffff"));
+		Assert.assertEquals(Math.pow(16, 16), engine.eval("0x10000000000000000"));
+		for (String invalid : new String[]{"1 2", "var b = 1 b", "function g() { return 1 2 }", "0x", "0x1g", "10px"}) {
+			try {
+				engine.eval(invalid);
+				Assert.fail(invalid);
+			} catch (ScriptException ignored) {
+			}
+		}
+	}
+
+	/**
+	 * Tests placements made after building reaching every replica.
+	 */
+	@Test
+	public void testReplicaPlacements() throws Exception {
+		ScriptBuilder builder = ScriptFixtures.expressions().openScript("function init() {} function scale(n) { return n * factor; }")
+				.place("factor", 2).setReplicas(3, ScriptBuilder.ReplicaMode.STRIPED);
+		Script script = builder.build();
+		builder.place("factor", 5);
+		List<Integer> results = Collections.synchronizedList(new ArrayList<>());
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 6; i++) threads.add(new Thread(() -> results.add(script.expectInt("scale", 3))));
+		for (Thread thread : threads) thread.start();
+		for (Thread thread : threads) thread.join();
+		Assert.assertEquals(Collections.nCopies(6, 15), results);
+	}
+}
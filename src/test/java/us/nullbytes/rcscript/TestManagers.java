@@ -0,0 +1,179 @@
+package us.nullbytes.rcscript;
+
+import org.junit.Assert;
+import org.junit.Test;
+import us.nullbytes.rcscript.builder.script.LazyScript;
+import us.nullbytes.rcscript.data.PackReport;
+
+import javax.script.ScriptException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class TestManagers {
+
+	/**
+	 * Tests managers being shared by engine name, and unique instances reusing the engine.
+	 */
+	@Test
+	public void testUniqueInstances() {
+		DefaultScriptManager manager = ScriptFixtures.expressions();
+		Assert.assertSame(manager, DefaultScriptManager.processEngine("rcexpr").orElse(null));
+		Assert.assertFalse(DefaultScriptManager.processEngine("no-such-engine").isPresent());
+		ScriptManager unique = manager.generateUniqueInstance();
+		try {
+			Assert.assertNotSame(manager, unique);
+			Assert.assertEquals(Integer.valueOf(5), unique.openScript("eval(1 + 4)").setInitFunction(null).build().expect(Integer.class));
+		} finally {
+			unique.shutdown();
+		}
+	}
+
+	/**
+	 * Tests concurrent lookups of an engine name creating a single manager, and unique instances
+	 * reusing the factory it resolved.
+	 */
+	@Test
+	public void testConcurrentProcessEngine() throws Exception {
+		// an alias of rcexpr no other test looks up, so the manager is created here
+		String name = "RCExpr";
+		ExecutorService threads = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<DefaultScriptManager>> lookups = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				lookups.add(threads.submit(() -> {
+					start.await();
+					return DefaultScriptManager.processEngine(name).orElseThrow();
+				}));
+			}
+			start.countDown();
+			DefaultScriptManager manager = lookups.get(0).get(10, TimeUnit.SECONDS);
+			for (Future<DefaultScriptManager> lookup : lookups) Assert.assertSame(manager, lookup.get(10, TimeUnit.SECONDS));
+			Assert.assertSame(manager, DefaultScriptManager.processEngine(name).orElseThrow());
+
+			DefaultScriptManager unique = (DefaultScriptManager) manager.generateUniqueInstance();
+			try {
+				Assert.assertNotSame(manager.getEnginePool(), unique.getEnginePool());
+				Assert.assertSame(manager.getEnginePool().getFactory(), unique.getEnginePool().getFactory());
+				Assert.assertSame(ScriptFixtures.expressions().getEnginePool().getFactory(), unique.getEnginePool().getFactory());
+			} finally {
+				unique.shutdown();
+			}
+		} finally {
+			threads.shutdown();
+		}
+	}
+
+	/**
+	 * Tests lazily packed scripts compiling once on first unpack, and failures finding nothing.
+	 */
+	@Test
+	public void testLazyPack() {
+		DefaultScriptManager manager = ScriptFixtures.expressions();
+		UUID scriptID = UUID.randomUUID();
+		Script lazy = manager.packScript("function init() {} function twice(a) { return a * 2; }", scriptID).setLazy(true).build();
+		Assert.assertFalse(((LazyScript) lazy).isResolved());
+		Script script = manager.unpack(scriptID).orElseThrow();
+		Assert.assertSame(lazy, script);
+		Assert.assertSame(script, manager.unpack(scriptID).orElseThrow());
+		Assert.assertEquals(8, script.expectInt("twice", 4));
+		Assert.assertEquals(1, manager.getMetrics().getStats(scriptID).getCompileTimes().getCount());
+
+		UUID brokenID = UUID.randomUUID();
+		Script broken = manager.packScript("function init( {", brokenID).setLazy(true).build();
+		broken.handleExceptions(ex -> {
+		});
+		Assert.assertFalse(manager.unpack(brokenID).isPresent());
+		try {
+			broken.execute("init");
+			Assert.fail();
+		} catch (IllegalStateException ex) {
+			Assert.assertNotNull(ex.getCause());
+		}
+	}
+
+	/**
+	 * Tests released scripts failing rather than running on a pooled engine, and copied managers
+	 * holding their scripts until both managers released them.
+	 */
+	@Test
+	public void testRelease() {
+		DefaultScriptManager manager = ScriptFixtures.expressions();
+		ScriptBuilder builder = manager.openScript("function init() {} function twice(a) { return a * 2; }");
+		Script script = builder.build();
+		try {
+			builder.build();
+			Assert.fail();
+		} catch (IllegalStateException ignored) {
+		}
+		List<ScriptException> failures = new ArrayList<>();
+		script.handleExceptions(failures::add);
+		script.release();
+		Assert.assertNull(script.execute("twice", 2));
+		Assert.assertEquals(1, failures.size());
+
+		UUID scriptID = UUID.randomUUID();
+		ScriptManager original = manager.generateUniqueInstance();
+		ScriptManager copy = null;
+		try {
+			Script packed = ScriptFixtures.pack(original, scriptID, "function init() {} function twice(a) { return a * 2; }");
+			copy = original.copyIntoUniqueInstance();
+			Assert.assertTrue(original.remove(scriptID));
+			Assert.assertEquals(8, copy.unpack(scriptID).orElseThrow().expectInt("twice", 4));
+			packed.handleExceptions(failures::add);
+			Assert.assertTrue(copy.remove(scriptID));
+			Assert.assertNull(packed.execute("twice", 4));
+			Assert.assertEquals(2, failures.size());
+		} finally {
+			original.shutdown();
+			if (copy != null) copy.shutdown();
+		}
+	}
+
+	/**
+	 * Tests packing a directory: files without the engine's extension skipped, the last of files
+	 * sharing an identifier kept, and failures collected in the report.
+	 */
+	@Test
+	public void testPackDirectory() throws Exception {
+		DefaultScriptManager manager = (DefaultScriptManager) ScriptFixtures.expressions().generateUniqueInstance();
+		Path directory = Files.createTempDirectory("rcscript");
+		try {
+			Files.write(directory.resolve("a.rcexpr"), "function init() {} function id() { return 1; }".getBytes(StandardCharsets.UTF_8));
+			Files.createDirectory(directory.resolve("b"));
+			Files.write(directory.resolve("b/b.rcexpr"), "function init() {} function id() { return 2; }".getBytes(StandardCharsets.UTF_8));
+			Files.write(directory.resolve("notes.txt"), "not a script".getBytes(StandardCharsets.UTF_8));
+			Files.write(directory.resolve("broken.rcexpr"), "function init( {".getBytes(StandardCharsets.UTF_8));
+			PackReport report = manager.packDirectory(directory.toFile(), file -> {
+				String name = file.getFileName().toString();
+				return name.equals("broken.rcexpr") ? "broken" : "shared";
+			});
+
+			Assert.assertFalse(report.isSuccessful());
+			Assert.assertEquals(List.of(directory.resolve("a.rcexpr"), directory.resolve("b/b.rcexpr")), new ArrayList<>(report.getPacked().keySet()));
+			Assert.assertEquals(List.of(directory.resolve("broken.rcexpr")), new ArrayList<>(report.getFailures().keySet()));
+			Assert.assertTrue(report.getFailures().get(directory.resolve("broken.rcexpr")) instanceof ScriptException);
+			Assert.assertEquals(2, manager.unpack("shared").orElseThrow().expectInt("id"));
+			Assert.assertFalse(manager.exists("broken"));
+			Assert.assertEquals(1, manager.getEnginePool().getLeasedCount());
+
+			Assert.assertFalse(manager.packDirectory(directory.resolve("missing").toFile(), file -> file).isSuccessful());
+		} finally {
+			manager.shutdown();
+			try (Stream<Path> walk = Files.walk(directory)) {
+				walk.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+			}
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package us.nullbytes.rcscript;
+
+import org.junit.Assert;
+import org.junit.Test;
+import us.nullbytes.rcscript.metrics.ResourceMeter;
+import us.nullbytes.rcscript.metrics.ScriptStats;
+
+import java.util.UUID;
+
+public class TestMetrics {
+
+	/**
+	 * Tests invocations being recorded per script identifier and function.
+	 */
+	@Test
+	public void testMetrics() {
+		DefaultScriptManager manager = ScriptFixtures.expressions();
+		UUID scriptID = UUID.randomUUID();
+		Script script = ScriptFixtures.pack(manager, scriptID, "function init() {} function twice(a) { return a * 2; }");
+		manager.getMetrics().setResourceAccountingEnabled(true);
+		try {
+			for (int i = 0; i < 10; i++) script.execute("twice", i);
+		} finally {
+			manager.getMetrics().setResourceAccountingEnabled(false);
+		}
+		ScriptStats stats = manager.getMetrics().getStats(scriptID);
+		Assert.assertNotNull(stats);
+		Assert.assertEquals(1, stats.getCompileTimes().getCount());
+		Assert.assertEquals(10, stats.function("twice").getInvocationCount());
+		Assert.assertTrue(stats.function("twice").getLatencies().getPercentile(0.99) > 0);
+		Assert.assertEquals(10, stats.getUsage().getCount());
+		if (ResourceMeter.isAllocationSupported()) Assert.assertTrue(stats.getUsage().getAllocatedBytes() > 0);
+	}
+
+	/**
+	 * Tests only the managers of the process being registered as an MXBean.
+	 */
+	@Test
+	public void testRegistration() {
+		DefaultScriptManager manager = ScriptFixtures.expressions();
+		Assert.assertNotNull(manager.getMetrics().getObjectName());
+		ScriptManager unique = manager.generateUniqueInstance();
+		ScriptManager copy = manager.copyIntoUniqueInstance();
+		Assert.assertNull(unique.getMetrics().getObjectName());
+		Assert.assertNull(copy.getMetrics().getObjectName());
+		unique.shutdown();
+		copy.shutdown();
+	}
+}
@@ -0,0 +1,127 @@
+package us.nullbytes.rcscript;
+
+import org.junit.Assert;
+import org.junit.Test;
+import us.nullbytes.rcscript.engine.EngineLeakException;
+import us.nullbytes.rcscript.engine.EnginePool;
+import us.nullbytes.rcscript.expression.ExpressionEngineFactory;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.SimpleBindings;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestPooling {
+
+	/**
+	 * Tests returned engines being reused with a fresh context, and dropped ones being reported.
+	 */
+	@Test
+	public void testLeaseAndReturn() {
+		EnginePool pool = new EnginePool(new ExpressionEngineFactory());
+		List<ScriptEngine> dropped = new ArrayList<>();
+		pool.setDropListener(dropped::add);
+		pool.setMaxIdle(1);
+
+		EnginePool.Lease lease = pool.lease();
+		ScriptEngine engine = lease.getEngine();
+		engine.put("leaked", 1);
+		engine.getContext().setWriter(new StringWriter());
+		engine.getContext().setBindings(new SimpleBindings(), ScriptContext.GLOBAL_SCOPE);
+		Assert.assertEquals(1, pool.getLeasedCount());
+		lease.release();
+		lease.release();
+		Assert.assertEquals(0, pool.getLeasedCount());
+		Assert.assertEquals(1, pool.getIdleCount());
+
+		EnginePool.Lease reused = pool.lease();
+		Assert.assertSame(engine, reused.getEngine());
+		Assert.assertEquals(1, pool.getReusedCount());
+		Assert.assertNull(engine.get("leaked"));
+		Assert.assertFalse(engine.getContext().getWriter() instanceof StringWriter);
+		Assert.assertNull(engine.getContext().getBindings(ScriptContext.GLOBAL_SCOPE));
+
+		EnginePool.Lease other = pool.lease();
+		reused.release();
+		other.release();
+		Assert.assertEquals(1, pool.getIdleCount());
+		Assert.assertEquals(List.of(other.getEngine()), dropped);
+
+		EnginePool.Lease discarded = pool.lease();
+		discarded.discard();
+		discarded.release();
+		Assert.assertEquals(0, pool.getIdleCount());
+		Assert.assertEquals(0, pool.getTotalCount());
+		Assert.assertEquals(2, dropped.size());
+	}
+
+	/**
+	 * Tests the minimum idle engines being created again on lease, and the maximum total failing
+	 * leases until an engine is dropped.
+	 */
+	@Test
+	public void testBounds() {
+		EnginePool pool = new EnginePool(new ExpressionEngineFactory());
+		pool.setMaxTotal(3);
+		pool.setMinIdle(2);
+		Assert.assertEquals(2, pool.getIdleCount());
+		Assert.assertEquals(2, pool.getCreatedCount());
+
+		EnginePool.Lease first = pool.lease();
+		Assert.assertEquals(2, pool.getIdleCount());
+		Assert.assertEquals(3, pool.getTotalCount());
+		EnginePool.Lease second = pool.lease();
+		EnginePool.Lease third = pool.lease();
+		Assert.assertEquals(0, pool.getIdleCount());
+		Assert.assertEquals(3, pool.getCreatedCount());
+		try {
+			pool.lease();
+			Assert.fail();
+		} catch (IllegalStateException ignored) {
+		}
+
+		first.discard();
+		EnginePool.Lease fourth = pool.lease();
+		Assert.assertEquals(4, pool.getCreatedCount());
+		try {
+			pool.setMinIdle(4);
+			Assert.fail();
+		} catch (IllegalArgumentException ignored) {
+		}
+		second.release();
+		third.release();
+		fourth.release();
+		Assert.assertEquals(pool.getMaxIdle(), pool.getIdleCount());
+		Assert.assertEquals(pool.getIdleCount(), pool.getTotalCount());
+		Assert.assertEquals(0, pool.getLeasedCount());
+	}
+
+	/**
+	 * Tests leases collected without being released being reported with their lease site.
+	 */
+	@Test
+	public void testLeak() throws InterruptedException {
+		EnginePool pool = new EnginePool(new ExpressionEngineFactory());
+		List<EngineLeakException> leaks = new ArrayList<>();
+		pool.setTrackLeaseSites(true);
+		pool.setLeakHandler(ex -> {
+			synchronized (leaks) {
+				leaks.add(ex);
+			}
+		});
+		pool.lease();
+		for (int i = 0; i < 100 && pool.getLeakedCount() == 0; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+		Assert.assertEquals(1, pool.getLeakedCount());
+		Assert.assertEquals(0, pool.getLeasedCount());
+		Assert.assertEquals(0, pool.getTotalCount());
+		synchronized (leaks) {
+			Assert.assertEquals(1, leaks.size());
+			Assert.assertTrue(leaks.get(0).getStackTrace().length > 0);
+		}
+	}
+}
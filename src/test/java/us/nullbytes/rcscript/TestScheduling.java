@@ -0,0 +1,67 @@
+package us.nullbytes.rcscript;
+
+import org.junit.Assert;
+import org.junit.Test;
+import us.nullbytes.rcscript.execution.FairScheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class TestScheduling {
+
+	/**
+	 * Tests lanes of a fair scheduler sharing a thread by weight.
+	 */
+	@Test
+	public void testFairScheduler() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		FairScheduler scheduler = new FairScheduler(executor, 1);
+		ScriptManager gold = ScriptFixtures.expressions().generateUniqueInstance();
+		try {
+			CountDownLatch blocked = new CountDownLatch(1);
+			scheduler.lane("blocker").execute(() -> {
+				try {
+					blocked.await();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			List<String> order = Collections.synchronizedList(new ArrayList<>());
+			CountDownLatch done = new CountDownLatch(80);
+			for (int i = 0; i < 40; i++) {
+				for (String key : Arrays.asList("gold", "bronze")) {
+					scheduler.lane(key, key.equals("gold") ? 3 : 1).execute(() -> {
+						order.add(key);
+						// calls are charged by CPU time, so they spin rather than sleep
+						long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2);
+						while (System.nanoTime() < end) Thread.onSpinWait();
+						done.countDown();
+					});
+				}
+			}
+			Assert.assertEquals(40, scheduler.lane("gold").getDepth());
+			blocked.countDown();
+			Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+			long goldFirst = order.subList(0, 40).stream().filter("gold"::equals).count();
+			Assert.assertTrue("gold ran " + goldFirst + " of the first 40 calls", goldFirst >= 25 && goldFirst < 40);
+			Assert.assertEquals(40, scheduler.lane("gold").getQueueWaits().getCount());
+
+			gold.setExecutor(scheduler.lane("gold"));
+			Script script = gold.openScript("function init() {} function twice(n) { return n * 2; }").build();
+			Assert.assertEquals(Integer.valueOf(42), script.expectLater(Integer.class, "twice", 21).get(10, TimeUnit.SECONDS));
+			Assert.assertEquals(41, scheduler.lane("gold").getQueueWaits().getCount());
+			Assert.assertEquals(3, scheduler.getLaneSummaries().size());
+			Assert.assertNotNull(scheduler.removeLane("blocker"));
+			Assert.assertEquals(2, scheduler.getLaneSummaries().size());
+		} finally {
+			gold.shutdown();
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package us.nullbytes.rcscript;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class TestTenants {
+
+	/**
+	 * Tests tenants of one compiled script never seeing the state of one another.
+	 */
+	@Test
+	public void testTenants() throws Exception {
+		Script script = ScriptFixtures.expressions().openScript("var count = 0; function init() {} " +
+				"function add(n) { count += n; return count; }").build();
+		try (ScriptTenant first = script.tenant(); ScriptTenant second = script.tenant()) {
+			Assert.assertEquals(Integer.valueOf(3), first.expect(Integer.class, "add", 3));
+			Assert.assertEquals(Integer.valueOf(7), first.expect(Integer.class, "add", 4));
+			Assert.assertEquals(Integer.valueOf(1), second.expect(Integer.class, "add", 1));
+		}
+		Assert.assertEquals(5, script.expectInt("add", 5));
+		try (ScriptTenant reused = script.tenant()) {
+			Assert.assertEquals(Integer.valueOf(2), reused.expect(Integer.class, "add", 2));
+		}
+		Assert.assertEquals(Integer.valueOf(6), script.getScriptManager().getConverters().convert(script.executeIsolated("add", 6), Integer.class));
+	}
+
+	/**
+	 * Tests tenants of a replicated script running alongside calls of the script itself.
+	 */
+	@Test
+	public void testReplicatedTenants() throws Exception {
+		Script script = ScriptFixtures.expressions().openScript(ScriptFixtures.WORK + "function init() {}")
+				.setReplicas(2, ScriptBuilder.ReplicaMode.STRIPED).build();
+		List<Future<Object>> futures = new ArrayList<>();
+		for (int i = 0; i < 8; i++) futures.add(script.executeAsync("work", 20000));
+		try (ScriptTenant tenant = script.tenant()) {
+			for (int i = 0; i < 8; i++) Assert.assertEquals(Integer.valueOf(100), tenant.expect(Integer.class, "work", 100));
+			Assert.assertEquals(Integer.valueOf(8), tenant.expect(Integer.class, "getCalls"));
+		}
+		for (Future<Object> future : futures) future.get(10, TimeUnit.SECONDS);
+	}
+}